@@ -0,0 +1,20 @@
+package hello.servlet.route;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 프론트 컨트롤러에 등록할 컨트롤러와 그 경로
+ * 컴파일할 때 RouteProcessor 가 컨트롤러가 구현한 인터페이스별로 "인터페이스 이름 + Routes" 클래스를 만들어 준다.
+ * (예: ControllerV1 구현체들 -> ControllerV1Routes.register(...))
+ *
+ * 경로 문법은 Router 와 같다. (/front-controller/v1/members/{id})
+ */
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.TYPE)
+public @interface Route {
+
+  String value();
+}
@@ -0,0 +1,330 @@
+package hello.servlet.route;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedOptions;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * 컴파일할 때 경로 표를 만든다. 실행할 때는 만들어진 클래스의 register(...) 를 부르기만 하면 되므로
+ * 클래스패스 스캔도, 리플렉션도 없다.
+ *
+ * - @Route: 구현한 인터페이스(하나여야 함)마다 "인터페이스 이름 + Routes" 클래스를 같은 패키지에 만든다.
+ *   register(BiConsumer) 가 (경로, new 컨트롤러()) 를 경로 순서대로 넘긴다.
+ * - @WebServlet: -Aroute.servletTable=패키지.클래스 옵션이 있으면 그 클래스를 만든다.
+ *   register(ServletContext) 가 서블릿마다 addServlet / addMapping 을 한다. (@ServletComponentScan 대신)
+ *
+ * 같은 표에 같은 경로가 두 번 나오거나, 인자 없는 public 생성자가 없으면 컴파일 에러로 알린다.
+ */
+@SupportedAnnotationTypes({RouteProcessor.ROUTE, RouteProcessor.WEB_SERVLET})
+@SupportedOptions(RouteProcessor.SERVLET_TABLE_OPTION)
+public class RouteProcessor extends AbstractProcessor {
+
+  static final String ROUTE = "hello.servlet.route.Route";
+  static final String WEB_SERVLET = "jakarta.servlet.annotation.WebServlet";
+  static final String SERVLET_TABLE_OPTION = "route.servletTable";
+
+  private static final Set<String> WEB_SERVLET_ATTRIBUTES = Set.of("name", "value", "urlPatterns", "loadOnStartup",
+      "asyncSupported");
+
+  // 이미 만든 클래스 이름 (다음 라운드에서 같은 표에 항목이 더 나오면 에러)
+  private final Set<String> generated = new HashSet<>();
+
+  @Override
+  public SourceVersion getSupportedSourceVersion() {
+    return SourceVersion.latestSupported();
+  }
+
+  @Override
+  public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+    Map<String, List<Entry>> routes = new TreeMap<>();
+    for (Element element : roundEnv.getElementsAnnotatedWith(Route.class)) {
+      TypeElement type = instantiable(element, "@Route");
+      TypeElement controller = type == null ? null : controllerInterface(type);
+      if (controller == null) {
+        continue;
+      }
+      Entry entry = new Entry(type, type.getAnnotation(Route.class).value());
+      routes.computeIfAbsent(controller.getQualifiedName().toString(), k -> new ArrayList<>()).add(entry);
+    }
+    for (Map.Entry<String, List<Entry>> table : routes.entrySet()) {
+      writeRoutes(table.getKey(), table.getValue());
+    }
+
+    TypeElement webServlet = processingEnv.getElementUtils().getTypeElement(WEB_SERVLET);
+    if (webServlet != null) {
+      List<ServletEntry> servlets = new ArrayList<>();
+      for (Element element : roundEnv.getElementsAnnotatedWith(webServlet)) {
+        TypeElement type = instantiable(element, "@WebServlet");
+        ServletEntry entry = type == null ? null : servletEntry(type);
+        if (entry != null) {
+          servlets.add(entry);
+        }
+      }
+      String servletTable = processingEnv.getOptions().get(SERVLET_TABLE_OPTION);
+      if (!servlets.isEmpty() && servletTable != null) {
+        writeServlets(servletTable, servlets);
+      }
+    }
+    return false;
+  }
+
+  private void writeRoutes(String controller, List<Entry> entries) {
+    TypeElement controllerType = processingEnv.getElementUtils().getTypeElement(controller);
+    String packageName = processingEnv.getElementUtils().getPackageOf(controllerType).getQualifiedName().toString();
+    String simpleName = controllerType.getSimpleName().toString();
+    String className = packageName.isEmpty() ? simpleName + "Routes" : packageName + "." + simpleName + "Routes";
+    entries.sort((a, b) -> a.path.compareTo(b.path));
+    for (int i = 1; i < entries.size(); i++) {
+      if (entries.get(i).path.equals(entries.get(i - 1).path)) {
+        error(entries.get(i).type, "같은 경로가 이미 있습니다: " + entries.get(i).path + " (" + entries.get(i - 1).type + ")");
+        return;
+      }
+    }
+    if (!generated.add(className)) {
+      error(entries.get(0).type, className + " 는 이미 만들어졌습니다. @Route 는 생성된 소스에 붙일 수 없습니다");
+      return;
+    }
+
+    try (PrintWriter out = new PrintWriter(processingEnv.getFiler().createSourceFile(className, elements(entries)).openWriter())) {
+      if (!packageName.isEmpty()) {
+        out.println("package " + packageName + ";");
+        out.println();
+      }
+      out.println("import java.util.function.BiConsumer;");
+      out.println();
+      out.println("/**");
+      out.println(" * @Route 가 붙은 " + simpleName + " 구현체 " + entries.size() + "개 (RouteProcessor 가 만든 파일, 직접 고치지 말 것)");
+      out.println(" */");
+      out.println("@javax.annotation.processing.Generated(\"" + RouteProcessor.class.getName() + "\")");
+      out.println("public final class " + simpleName + "Routes {");
+      out.println();
+      out.println("  private " + simpleName + "Routes() {");
+      out.println("  }");
+      out.println();
+      out.println("  public static void register(BiConsumer<String, ? super " + controller + "> routes) {");
+      for (Entry entry : entries) {
+        out.println("    routes.accept(" + literal(entry.path) + ", new " + entry.type.getQualifiedName() + "());");
+      }
+      out.println("  }");
+      out.println("}");
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private void writeServlets(String className, List<ServletEntry> servlets) {
+    String packageName = packageOf(className);
+    String simpleName = className.substring(packageName.isEmpty() ? 0 : packageName.length() + 1);
+    servlets.sort((a, b) -> a.name.compareTo(b.name));
+    Set<String> names = new HashSet<>();
+    Set<String> patterns = new HashSet<>();
+    for (ServletEntry servlet : servlets) {
+      if (!names.add(servlet.name)) {
+        error(servlet.type, "같은 서블릿 이름이 이미 있습니다: " + servlet.name);
+        return;
+      }
+      for (String pattern : servlet.urlPatterns) {
+        if (!patterns.add(pattern)) {
+          error(servlet.type, "같은 urlPattern 이 이미 있습니다: " + pattern);
+          return;
+        }
+      }
+    }
+    if (!generated.add(className)) {
+      error(servlets.get(0).type, className + " 는 이미 만들어졌습니다. @WebServlet 은 생성된 소스에 붙일 수 없습니다");
+      return;
+    }
+
+    Element[] origins = servlets.stream().map(servlet -> servlet.type).toArray(Element[]::new);
+    try (PrintWriter out = new PrintWriter(processingEnv.getFiler().createSourceFile(className, origins).openWriter())) {
+      if (!packageName.isEmpty()) {
+        out.println("package " + packageName + ";");
+        out.println();
+      }
+      out.println("import jakarta.servlet.ServletContext;");
+      out.println("import jakarta.servlet.ServletRegistration;");
+      out.println();
+      out.println("/**");
+      out.println(" * @WebServlet 이 붙은 서블릿 " + servlets.size() + "개 (RouteProcessor 가 만든 파일, 직접 고치지 말 것)");
+      out.println(" * 같은 이름이 이미 등록돼 있으면(외부 톰캣이 @WebServlet 을 직접 읽은 경우) 그 서블릿은 건너뛴다.");
+      out.println(" */");
+      out.println("@javax.annotation.processing.Generated(\"" + RouteProcessor.class.getName() + "\")");
+      out.println("public final class " + simpleName + " {");
+      out.println();
+      out.println("  private " + simpleName + "() {");
+      out.println("  }");
+      out.println();
+      out.println("  public static void register(ServletContext context) {");
+      out.println("    ServletRegistration.Dynamic registration;");
+      for (ServletEntry servlet : servlets) {
+        out.println();
+        out.println("    registration = context.addServlet(" + literal(servlet.name) + ", new " + servlet.type.getQualifiedName() + "());");
+        out.println("    if (registration != null) {");
+        StringBuilder mapping = new StringBuilder();
+        for (String pattern : servlet.urlPatterns) {
+          mapping.append(mapping.length() == 0 ? "" : ", ").append(literal(pattern));
+        }
+        out.println("      registration.addMapping(" + mapping + ");");
+        if (servlet.loadOnStartup >= 0) {
+          out.println("      registration.setLoadOnStartup(" + servlet.loadOnStartup + ");");
+        }
+        if (servlet.asyncSupported) {
+          out.println("      registration.setAsyncSupported(true);");
+        }
+        out.println("    }");
+      }
+      out.println("  }");
+      out.println("}");
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  // new 로 만들 수 있는 클래스인지 (public, 추상 아님, 바깥 인스턴스 필요 없음, 인자 없는 public 생성자)
+  private TypeElement instantiable(Element element, String annotation) {
+    if (element.getKind() != ElementKind.CLASS) {
+      error(element, annotation + " 는 클래스에만 붙일 수 있습니다");
+      return null;
+    }
+    TypeElement type = (TypeElement) element;
+    Set<Modifier> modifiers = type.getModifiers();
+    if (!modifiers.contains(Modifier.PUBLIC) || modifiers.contains(Modifier.ABSTRACT)
+        || type.getNestingKind() == NestingKind.MEMBER && !modifiers.contains(Modifier.STATIC)
+        || type.getNestingKind() == NestingKind.LOCAL || type.getNestingKind() == NestingKind.ANONYMOUS) {
+      error(element, annotation + " 클래스는 public 이고 추상 클래스나 내부(inner) 클래스가 아니어야 합니다");
+      return null;
+    }
+    for (ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+      if (constructor.getParameters().isEmpty() && constructor.getModifiers().contains(Modifier.PUBLIC)) {
+        return type;
+      }
+    }
+    error(element, annotation + " 클래스에는 인자 없는 public 생성자가 있어야 합니다");
+    return null;
+  }
+
+  private TypeElement controllerInterface(TypeElement type) {
+    List<? extends TypeMirror> interfaces = type.getInterfaces();
+    if (interfaces.size() != 1) {
+      error(type, "@Route 클래스는 컨트롤러 인터페이스 하나만 직접 구현해야 합니다: " + interfaces);
+      return null;
+    }
+    return (TypeElement) processingEnv.getTypeUtils().asElement(interfaces.get(0));
+  }
+
+  private ServletEntry servletEntry(TypeElement type) {
+    String name = type.getQualifiedName().toString(); // 스펙의 기본 이름
+    List<String> urlPatterns = new ArrayList<>();
+    int loadOnStartup = -1;
+    boolean asyncSupported = false;
+    for (AnnotationMirror mirror : type.getAnnotationMirrors()) {
+      if (!((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().contentEquals(WEB_SERVLET)) {
+        continue;
+      }
+      for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> value : mirror.getElementValues().entrySet()) {
+        String attribute = value.getKey().getSimpleName().toString();
+        if (!WEB_SERVLET_ATTRIBUTES.contains(attribute)) {
+          error(type, "@WebServlet 의 " + attribute + " 속성은 지원하지 않습니다");
+          return null;
+        }
+        Object raw = value.getValue().getValue();
+        switch (attribute) {
+          case "name":
+            if (!((String) raw).isEmpty()) {
+              name = (String) raw;
+            }
+            break;
+          case "value":
+          case "urlPatterns":
+            for (Object pattern : (List<?>) raw) {
+              urlPatterns.add((String) ((AnnotationValue) pattern).getValue());
+            }
+            break;
+          case "loadOnStartup":
+            loadOnStartup = (Integer) raw;
+            break;
+          default:
+            asyncSupported = (Boolean) raw;
+        }
+      }
+    }
+    if (urlPatterns.isEmpty()) {
+      error(type, "@WebServlet 에 urlPatterns 가 없습니다");
+      return null;
+    }
+    return new ServletEntry(type, name, urlPatterns, loadOnStartup, asyncSupported);
+  }
+
+  private void error(Element element, String message) {
+    processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+  }
+
+  private static Element[] elements(List<Entry> entries) {
+    return entries.stream().map(entry -> entry.type).toArray(Element[]::new);
+  }
+
+  private static String packageOf(String className) {
+    int dot = className.lastIndexOf('.');
+    return dot < 0 ? "" : className.substring(0, dot);
+  }
+
+  private static String literal(String value) {
+    StringBuilder literal = new StringBuilder("\"");
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c == '"' || c == '\\') {
+        literal.append('\\');
+      }
+      literal.append(c);
+    }
+    return literal.append('"').toString();
+  }
+
+  private static final class Entry {
+    final TypeElement type;
+    final String path;
+
+    Entry(TypeElement type, String path) {
+      this.type = type;
+      this.path = path;
+    }
+  }
+
+  private static final class ServletEntry {
+    final TypeElement type;
+    final String name;
+    final List<String> urlPatterns;
+    final int loadOnStartup;
+    final boolean asyncSupported;
+
+    ServletEntry(TypeElement type, String name, List<String> urlPatterns, int loadOnStartup, boolean asyncSupported) {
+      this.type = type;
+      this.name = name;
+      this.urlPatterns = urlPatterns;
+      this.loadOnStartup = loadOnStartup;
+      this.asyncSupported = asyncSupported;
+    }
+  }
+}
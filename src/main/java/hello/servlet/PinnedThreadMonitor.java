@@ -0,0 +1,66 @@
+package hello.servlet;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 가상 스레드가 carrier 스레드에 고정(pinning)되는 것을 JFR 이벤트(jdk.VirtualThreadPinned)로 지켜본다.
+ * synchronized 안에서 기다리면 가상 스레드가 carrier 를 놓지 못해서, 그동안은 플랫폼 스레드와 다를 게 없어진다.
+ * threshold 이상 고정되면 스택에서 우리 코드(hello.servlet) 중 가장 안쪽 프레임을 찍는다. (저장소의 synchronized 를 찾는 용도)
+ *
+ * JDK 21 미만에는 이 이벤트가 없으므로 켜 두어도 아무것도 잡히지 않는다.
+ */
+public final class PinnedThreadMonitor implements AutoCloseable {
+
+  private static final String EVENT = "jdk.VirtualThreadPinned";
+
+  private final RecordingStream stream;
+  private final LongAdder pinned = new LongAdder();
+
+  private PinnedThreadMonitor(Duration threshold) {
+    stream = new RecordingStream();
+    stream.enable(EVENT).withThreshold(threshold).withStackTrace();
+    stream.onEvent(EVENT, this::onPinned);
+    stream.startAsync();
+  }
+
+  public static PinnedThreadMonitor start(Duration threshold) {
+    return new PinnedThreadMonitor(threshold);
+  }
+
+  /**
+   * 지금까지 잡힌 pinning 수 (JFR 은 이벤트를 1초쯤 모아서 넘겨주므로 조금 늦게 반영된다)
+   */
+  public long getPinnedCount() {
+    return pinned.sum();
+  }
+
+  private void onPinned(RecordedEvent event) {
+    pinned.increment();
+    System.out.println("가상 스레드 pinning " + event.getDuration().toMillis() + "ms: " + ownFrame(event));
+  }
+
+  private static String ownFrame(RecordedEvent event) {
+    if (event.getStackTrace() == null) {
+      return "(스택 없음)";
+    }
+    List<RecordedFrame> frames = event.getStackTrace().getFrames();
+    for (RecordedFrame frame : frames) {
+      String type = frame.getMethod().getType().getName();
+      if (type.startsWith("hello.servlet.")) {
+        return type + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+      }
+    }
+    return frames.isEmpty() ? "(스택 없음)" : frames.get(0).getMethod().getType().getName() + "." + frames.get(0).getMethod().getName();
+  }
+
+  @Override
+  public void close() {
+    stream.close();
+  }
+}
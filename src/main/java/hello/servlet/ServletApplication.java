@@ -2,9 +2,12 @@ package hello.servlet;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
-import org.springframework.boot.web.servlet.ServletComponentScan;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.ServletContextInitializer;
+import org.springframework.context.annotation.Bean;
+
+import java.time.Duration;
 
-@ServletComponentScan // spring이 자동으로 내 패키지 포함 하위패키지 다 뒤져서 Sevlet을 찾아 가지고 자동으로 등록해서 실행 할 수 있게 도와줌
 @SpringBootApplication
 public class ServletApplication {
 
@@ -12,6 +15,19 @@ public class ServletApplication {
 		SpringApplication.run(ServletApplication.class, args);
 	}
 
+	// @ServletComponentScan 으로 패키지를 뒤지는 대신, 컴파일 때 RouteProcessor 가 만든 @WebServlet 목록으로 등록한다
+	@Bean
+	public ServletContextInitializer webServlets() {
+		return WebServletTable::register;
+	}
+
+	// 가상 스레드 모드 (./gradlew bootRun -PvirtualThreads) 에서는 synchronized 때문에 carrier 에 고정되는 곳을 로그로 남긴다
+	@Bean
+	@ConditionalOnProperty("spring.threads.virtual.enabled")
+	public PinnedThreadMonitor pinnedThreadMonitor() {
+		return PinnedThreadMonitor.start(Duration.ofMillis(Long.getLong("member.pinning.threshold", 20L)));
+	}
+
 }
 
 /*
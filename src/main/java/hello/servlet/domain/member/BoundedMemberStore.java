@@ -0,0 +1,231 @@
+package hello.servlet.domain.member;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * 회원 수에 상한을 둔 저장소 (-Dmember.capacity, 정책 -Dmember.eviction=lru|lfu|tinylfu|ttl, ttl 은 -Dmember.ttl ms)
+ * 넘치면 EvictionPolicy 가 고른 회원을 delegate 에서 지우고 onEvict 로 알린다. (MemoryMemberRepository 가 인덱스 / 통계에서 뺀다)
+ *
+ * 정책은 eviction lock 안에서만 건드린다. 다만 get 은 이 락을 잡지 않는다.
+ * - get: delegate 에서 읽고, 조회 사실만 스레드별로 나뉜 읽기 버퍼(stripe)에 CAS 로 적는다.
+ *   버퍼가 차면 tryLock 으로 한 스레드만 모아서 정책에 넘기고, 그동안 들어온 조회는 버린다. (빈도/순서는 근사치면 충분)
+ * - put / putAll: 락을 잡고 넣은 뒤 읽기 버퍼를 비우고 정책에 알리고, 넘친 만큼 내보낸다. (이미 있는 id 는 값만 바뀐다)
+ * - ttl: 가장 먼저 만료될 시각을 volatile 로 들고 있다가 그 시각이 지난 뒤의 get / put 에서 만료된 회원을 지운다.
+ */
+class BoundedMemberStore implements MemberStore {
+
+  private static final int BUFFER_SIZE = 32;
+  private static final int BUFFER_MASK = BUFFER_SIZE - 1;
+
+  private final MemberStore delegate;
+  private final int capacity;
+  private final EvictionPolicy policy;
+  private final Consumer<Member> onEvict;
+  private final ReentrantLock evictionLock = new ReentrantLock();
+  private final ReadBuffer[] readBuffers;
+  private final int stripeMask;
+
+  // 정책이 들고 있는 회원 수 (evictionLock 안에서만)
+  private int entries;
+  private volatile long nextExpiry = Long.MAX_VALUE;
+
+  BoundedMemberStore(MemberStore delegate, int capacity, EvictionPolicy policy, Consumer<Member> onEvict) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("용량은 1 이상이어야 합니다: " + capacity);
+    }
+    this.delegate = delegate;
+    this.capacity = capacity;
+    this.policy = policy;
+    this.onEvict = onEvict;
+    int stripes = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() * 4 - 1)) << 1;
+    readBuffers = new ReadBuffer[stripes];
+    for (int i = 0; i < stripes; i++) {
+      readBuffers[i] = new ReadBuffer();
+    }
+    stripeMask = stripes - 1;
+  }
+
+  int capacity() {
+    return capacity;
+  }
+
+  @Override
+  public void put(Member member) {
+    evictionLock.lock();
+    try {
+      // 이미 있는 id 면 값만 바꾼다 (캐시로 쓸 때 같은 회원을 동시에 채우는 경우)
+      boolean added = delegate.get(member.getId()) == null;
+      delegate.put(member);
+      drainReadBuffers();
+      if (added) {
+        policy.onInsert(member.getId());
+        entries++;
+      }
+      evictOverflow();
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  @Override
+  public void putAll(List<Member> members) {
+    evictionLock.lock();
+    try {
+      List<Member> added = new ArrayList<>(members.size());
+      for (Member member : members) {
+        if (delegate.get(member.getId()) == null) {
+          added.add(member);
+        }
+      }
+      delegate.putAll(members);
+      drainReadBuffers();
+      for (Member member : added) {
+        policy.onInsert(member.getId());
+        entries++;
+      }
+      evictOverflow();
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  @Override
+  public Member get(long id) {
+    if (nextExpiry != Long.MAX_VALUE && System.nanoTime() - nextExpiry >= 0) {
+      tryMaintenance();
+    }
+    Member member = delegate.get(id);
+    if (member != null && !readBuffers[stripe()].offer(id)) {
+      tryMaintenance();
+    }
+    return member;
+  }
+
+  @Override
+  public Member remove(long id) {
+    throw new UnsupportedOperationException("BoundedMemberStore 는 정책이 고른 회원만 지운다");
+  }
+
+  @Override
+  public List<Member> values() {
+    return delegate.values();
+  }
+
+  @Override
+  public List<Member> findPage(long afterId, int limit) {
+    return delegate.findPage(afterId, limit);
+  }
+
+  @Override
+  public int size() {
+    return delegate.size();
+  }
+
+  @Override
+  public long countByAgeBetween(int minAge, int maxAge) {
+    return delegate.countByAgeBetween(minAge, maxAge);
+  }
+
+  @Override
+  public void clear() {
+    evictionLock.lock();
+    try {
+      delegate.clear();
+      policy.clear();
+      for (ReadBuffer buffer : readBuffers) {
+        buffer.clear();
+      }
+      entries = 0;
+      nextExpiry = Long.MAX_VALUE;
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  private int stripe() {
+    return (int) LongMemberMap.hash(Thread.currentThread().getId()) & stripeMask;
+  }
+
+  // 다른 스레드가 이미 정리 중이면 기다리지 않고 넘어간다
+  private void tryMaintenance() {
+    if (evictionLock.tryLock()) {
+      try {
+        drainReadBuffers();
+        evictOverflow();
+      } finally {
+        evictionLock.unlock();
+      }
+    }
+  }
+
+  private void drainReadBuffers() {
+    for (ReadBuffer buffer : readBuffers) {
+      buffer.drainTo(policy);
+    }
+  }
+
+  private void evictOverflow() {
+    while (entries > capacity) {
+      evict(policy.evict());
+    }
+    long now = System.nanoTime();
+    for (long id = policy.expire(now); id != 0L; id = policy.expire(now)) {
+      evict(id);
+    }
+    nextExpiry = policy.nextExpiry();
+  }
+
+  private void evict(long id) {
+    entries--;
+    Member removed = delegate.remove(id);
+    if (removed != null) {
+      onEvict.accept(removed);
+    }
+  }
+
+  /**
+   * 조회된 id 를 적어 두는 고정 크기 원형 버퍼. 쓰기는 CAS 로 자리를 잡고, 읽기(비우기)는 evictionLock 안에서만
+   * 꽉 찼거나 다른 스레드와 자리 다툼에서 지면 그 조회는 기록하지 않는다.
+   */
+  static final class ReadBuffer {
+    private final AtomicLongArray ids = new AtomicLongArray(BUFFER_SIZE);
+    private final AtomicLong writes = new AtomicLong();
+    private volatile long reads;
+
+    // 꽉 차서 비워야 하면 false
+    boolean offer(long id) {
+      long position = writes.get();
+      if (position - reads >= BUFFER_SIZE) {
+        return false;
+      }
+      if (writes.compareAndSet(position, position + 1)) {
+        ids.lazySet((int) position & BUFFER_MASK, id);
+      }
+      return true;
+    }
+
+    void drainTo(EvictionPolicy policy) {
+      long end = writes.get();
+      for (long position = reads; position < end; position++) {
+        // 자리만 잡고 아직 값을 못 쓴 칸은 0 (그 조회는 버린다)
+        long id = ids.getAndSet((int) position & BUFFER_MASK, 0L);
+        if (id != 0L) {
+          policy.onAccess(id);
+        }
+      }
+      reads = end;
+    }
+
+    void clear() {
+      for (int i = 0; i < BUFFER_SIZE; i++) {
+        ids.set(i, 0L);
+      }
+      reads = writes.get();
+    }
+  }
+}
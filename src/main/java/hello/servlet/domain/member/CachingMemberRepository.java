@@ -0,0 +1,174 @@
+package hello.servlet.domain.member;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 느린 저장소(디스크 / 내장 DB 등) 앞에 두는 read-through 캐시 (-Dmember.cache.size, 정책 -Dmember.cache.eviction / member.cache.ttl)
+ * - findById: 용량 제한 캐시(BoundedMemberStore)에 없으면 뒤 저장소에서 읽어서 채운다.
+ * - findAll: 마지막으로 읽은 목록을 복사해서 들고 있다가 그대로 돌려준다. 회원 수가 캐시 용량보다 많으면 캐시하지 않는다.
+ * - save / saveAll / clearStore: 뒤 저장소에 바로 쓰고(write-through) findAll 캐시를 무효화한다. clearStore 는 id 캐시도 비운다.
+ * 페이지 / 검색 / 통계 조회는 조건이 매번 달라서 캐시하지 않고 그대로 넘긴다.
+ * 적중 / 실패 횟수는 id 조회와 목록 조회를 따로 센다. (목록 하나가 id 조회 수천 번의 적중률에 묻히지 않도록)
+ *
+ * 무효화는 세대 번호로 한다. 목록을 읽기 전의 세대를 같이 저장해 두고, 그 사이 쓰기가 있었으면 다음 조회에서 버린다.
+ * (읽는 도중에 save 가 끝나도 옛 목록이 다음 쓰기 때까지 남지 않는다)
+ * id 캐시는 save 로는 틀려지지 않고 clearStore 로만 틀려지므로 clearStore 횟수(clears)만 본다.
+ * clearStore 는 뒤 저장소를 비우기 전후로 clears 를 올리고(홀수 = 비우는 중), findById 는 채운 뒤에 다시 확인해서
+ * 그 사이 clearStore 가 지나갔으면 id 캐시를 한 번 더 비운다. (확인과 put 사이에 끼어든 clearStore 도 놓치지 않는다)
+ */
+public class CachingMemberRepository implements MemberRepository {
+
+  private final MemberRepository backing;
+  private final BoundedMemberStore byId;
+  private final AtomicLong generation = new AtomicLong();
+  private final AtomicLong clears = new AtomicLong();
+  private volatile CachedList all;
+
+  private final LongAdder idHits = new LongAdder();
+  private final LongAdder idMisses = new LongAdder();
+  private final LongAdder listHits = new LongAdder();
+  private final LongAdder listMisses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  /**
+   * eviction: lru / lfu / tinylfu / ttl (member.eviction 과 같은 이름), ttlMillis 는 ttl 정책일 때만 쓴다.
+   */
+  public CachingMemberRepository(MemberRepository backing, int capacity, String eviction, long ttlMillis) {
+    this.backing = backing;
+    this.byId = new BoundedMemberStore(new ConcurrentLongMemberMap(), capacity,
+        EvictionPolicy.create(eviction, capacity, ttlMillis), member -> evictions.increment());
+  }
+
+  public long getIdHitCount() {
+    return idHits.sum();
+  }
+
+  public long getIdMissCount() {
+    return idMisses.sum();
+  }
+
+  // 캐시하기엔 너무 큰 목록을 그대로 넘긴 것도 실패로 센다
+  public long getListHitCount() {
+    return listHits.sum();
+  }
+
+  public long getListMissCount() {
+    return listMisses.sum();
+  }
+
+  public long getEvictionCount() {
+    return evictions.sum();
+  }
+
+  @Override
+  public Member save(Member member) {
+    Member saved = backing.save(member);
+    generation.incrementAndGet();
+    return saved;
+  }
+
+  @Override
+  public List<Member> saveAll(Collection<Member> members) {
+    List<Member> saved = backing.saveAll(members);
+    generation.incrementAndGet();
+    return saved;
+  }
+
+  @Override
+  public Member findById(long id) {
+    Member member = byId.get(id);
+    if (member != null) {
+      idHits.increment();
+      return member;
+    }
+    idMisses.increment();
+    long current = clears.get();
+    member = backing.findById(id);
+    // 비우는 중이었거나 읽는 사이에 clearStore 됐으면 채우지 않는다
+    if (member != null && (current & 1) == 0 && clears.get() == current) {
+      byId.put(member);
+      if (clears.get() != current) {
+        byId.clear();
+      }
+    }
+    return member;
+  }
+
+  @Override
+  public List<Member> findAll() {
+    long current = generation.get();
+    CachedList cached = all;
+    if (cached != null && cached.generation == current) {
+      listHits.increment();
+      return cached.members;
+    }
+    listMisses.increment();
+    List<Member> members = backing.findAll();
+    // 뒤 저장소의 목록은 순회할 때마다 다시 읽는 뷰일 수 있으므로(JDBC) 복사해서 들고 있는다
+    if (members.size() > byId.capacity()) {
+      return Collections.unmodifiableList(members);
+    }
+    List<Member> copy = List.copyOf(members);
+    all = new CachedList(current, copy);
+    return copy;
+  }
+
+  @Override
+  public List<Member> findPage(long afterId, int limit) {
+    return backing.findPage(afterId, limit);
+  }
+
+  @Override
+  public List<Member> findByUsername(String username, long afterId, int limit) {
+    return backing.findByUsername(username, afterId, limit);
+  }
+
+  @Override
+  public List<Member> searchByUsername(String query, int limit) {
+    return backing.searchByUsername(query, limit);
+  }
+
+  @Override
+  public List<Member> findByAgeBetween(int minAge, int maxAge, int afterAge, long afterId, int limit) {
+    return backing.findByAgeBetween(minAge, maxAge, afterAge, afterId, limit);
+  }
+
+  @Override
+  public MemberStats getStats() {
+    return backing.getStats();
+  }
+
+  @Override
+  public int count() {
+    return backing.count();
+  }
+
+  @Override
+  public long countByAgeBetween(int minAge, int maxAge) {
+    return backing.countByAgeBetween(minAge, maxAge);
+  }
+
+  @Override
+  public void clearStore() {
+    clears.incrementAndGet();
+    backing.clearStore();
+    clears.incrementAndGet();
+    generation.incrementAndGet();
+    byId.clear();
+    all = null;
+  }
+
+  private static final class CachedList {
+    final long generation;
+    final List<Member> members;
+
+    CachedList(long generation, List<Member> members) {
+      this.generation = generation;
+      this.members = members;
+    }
+  }
+}
@@ -0,0 +1,327 @@
+package hello.servlet.domain.member;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 컬럼 지향(struct-of-arrays) 저장 모드
+ * id 는 long[], age 는 int[], username 은 사전(dictionary) 인코딩한 int[] 코드로 보관한다.
+ * 전체 스캔/카운트/나이 필터는 Member 객체를 만들지 않고 기본형 배열만 훑는다.
+ * findAll() 은 배열 위의 가벼운 List 뷰를 돌려주고, Member 는 화면이 행을 꺼낼 때(get) 비로소 만들어진다.
+ *
+ * 쓰기는 lock 으로 한 번에 하나씩 append, 읽기는 락 없이 volatile size 로 공개된 행까지만 본다.
+ * 이미 있는 id 를 다시 넣으면 행을 새로 붙이지 않고 그 행을 고친다. 이미 넘겨준 뷰가 바뀌지 않도록
+ * 컬럼 배열을 복사한 새 Columns 에서 고쳐서 바꿔 끼운다. (O(n) 이지만 id 는 새로 발급되므로 드문 경우)
+ */
+class ColumnarMemberStore implements MemberStore {
+
+  private static final int INITIAL_CAPACITY = 1024;
+
+  // id -> 행 번호 직접 주소 테이블의 페이지 크기 (id 가 시퀀스로 촘촘하게 발급된다는 점을 이용)
+  private static final int PAGE_BITS = 12;
+  private static final int PAGE_SIZE = 1 << PAGE_BITS;
+  private static final int PAGE_MASK = PAGE_SIZE - 1;
+
+  private final Object lock = new Object();
+  private volatile Columns columns = new Columns(INITIAL_CAPACITY, new UsernameDictionary(), new int[0][]);
+
+  /**
+   * 한 세대의 컬럼 배열 묶음. 용량이 부족하면 복사해서 새 Columns 를 만든다.
+   * size 까지의 행은 이후 절대 바뀌지 않으므로 (Columns, size) 만 잡으면 그 시점의 뷰가 된다.
+   */
+  static final class Columns {
+    final long[] ids;
+    final int[] ages;
+    final int[] usernameCodes;
+    final UsernameDictionary dictionary;
+    // rowPages[id >>> PAGE_BITS][id & PAGE_MASK] = 행 번호 + 1 (0 은 없음), 같은 세대의 Columns 끼리 공유
+    volatile int[][] rowPages;
+    // size 보다 먼저 기록되므로 size 를 읽은 뒤에 읽으면 그 시점까지의 최대 id 이상이 보인다
+    long maxId;
+    volatile int size;
+
+    Columns(int capacity, UsernameDictionary dictionary, int[][] rowPages) {
+      this.ids = new long[capacity];
+      this.ages = new int[capacity];
+      this.usernameCodes = new int[capacity];
+      this.dictionary = dictionary;
+      this.rowPages = rowPages;
+    }
+
+    private Columns(Columns source, int capacity) {
+      this.ids = Arrays.copyOf(source.ids, capacity);
+      this.ages = Arrays.copyOf(source.ages, capacity);
+      this.usernameCodes = Arrays.copyOf(source.usernameCodes, capacity);
+      this.dictionary = source.dictionary;
+      this.rowPages = source.rowPages;
+      this.maxId = source.maxId;
+      this.size = source.size;
+    }
+
+    Member materialize(int row) {
+      Member member = new Member(dictionary.decode(usernameCodes[row]), ages[row]);
+      member.setId(ids[row]);
+      return member;
+    }
+
+    int rowOf(long id, int size) {
+      int[][] rowPages = this.rowPages;
+      long page = id >>> PAGE_BITS;
+      if (id <= 0 || page >= rowPages.length || rowPages[(int) page] == null) {
+        return -1;
+      }
+      int row = rowPages[(int) page][(int) (id & PAGE_MASK)] - 1;
+      // 디렉터리는 최신 것을 보므로 이 뷰의 size 이후에 들어온 행은 걸러낸다
+      return row < size ? row : -1;
+    }
+  }
+
+  /**
+   * username 사전: 같은 이름은 코드 하나만 저장한다. 쓰기는 store 의 lock 안에서만 일어남
+   */
+  static final class UsernameDictionary {
+    private final Map<String, Integer> codes = new HashMap<>();
+    private volatile String[] values = new String[64];
+    private int size;
+
+    int encode(String username) {
+      Integer code = codes.get(username);
+      if (code != null) {
+        return code;
+      }
+      String[] values = this.values;
+      if (size == values.length) {
+        values = Arrays.copyOf(values, size * 2);
+      }
+      values[size] = username;
+      this.values = values;
+      codes.put(username, size);
+      return size++;
+    }
+
+    String decode(int code) {
+      return values[code];
+    }
+  }
+
+  @Override
+  public void put(Member member) {
+    long id = member.getId();
+    synchronized (lock) {
+      Columns c = columns;
+      int existing = c.rowOf(id, c.size);
+      if (existing >= 0) {
+        replace(c, existing, member);
+        return;
+      }
+      int row = c.size;
+      if (row == c.ids.length) {
+        c = new Columns(c, row * 2);
+        columns = c;
+      }
+      c.ids[row] = id;
+      c.ages[row] = member.getAge();
+      c.usernameCodes[row] = c.dictionary.encode(member.getUsername());
+      int[][] rowPages = ensurePage(c.rowPages, id);
+      rowPages[(int) (id >>> PAGE_BITS)][(int) (id & PAGE_MASK)] = row + 1;
+      c.rowPages = rowPages;
+      c.maxId = Math.max(c.maxId, id);
+      c.size = row + 1; // volatile write: 여기서 행이 읽기 쪽에 공개됨
+    }
+  }
+
+  // lock 안에서만 호출
+  private void replace(Columns c, int row, Member member) {
+    Columns copy = new Columns(c, c.ids.length);
+    copy.ages[row] = member.getAge();
+    copy.usernameCodes[row] = copy.dictionary.encode(member.getUsername());
+    columns = copy;
+  }
+
+  /**
+   * 배열을 한 번에 필요한 만큼 키우고, 마지막에 size 를 한 번만 기록해서 묶음 전체를 공개한다.
+   * 이미 있는 id 가 섞여 있으면 한 명씩 put 한다.
+   */
+  @Override
+  public void putAll(List<Member> members) {
+    synchronized (lock) {
+      Columns c = columns;
+      int size = c.size;
+      for (Member member : members) {
+        if (c.rowOf(member.getId(), size) >= 0) {
+          for (Member each : members) {
+            put(each);
+          }
+          return;
+        }
+      }
+      if (size + members.size() > c.ids.length) {
+        int capacity = c.ids.length;
+        while (capacity < size + members.size()) {
+          capacity *= 2;
+        }
+        c = new Columns(c, capacity);
+        columns = c;
+      }
+      int[][] rowPages = c.rowPages;
+      long maxId = c.maxId;
+      int row = size;
+      for (Member member : members) {
+        long id = member.getId();
+        c.ids[row] = id;
+        c.ages[row] = member.getAge();
+        c.usernameCodes[row] = c.dictionary.encode(member.getUsername());
+        rowPages = ensurePage(rowPages, id);
+        rowPages[(int) (id >>> PAGE_BITS)][(int) (id & PAGE_MASK)] = row + 1;
+        maxId = Math.max(maxId, id);
+        row++;
+      }
+      c.rowPages = rowPages;
+      c.maxId = maxId;
+      c.size = row; // volatile write: 묶음 전체가 여기서 한 번에 공개됨
+    }
+  }
+
+  private static int[][] ensurePage(int[][] rowPages, long id) {
+    int page = (int) (id >>> PAGE_BITS);
+    if (page >= rowPages.length) {
+      rowPages = Arrays.copyOf(rowPages, Math.max(page + 1, rowPages.length * 2));
+    }
+    if (rowPages[page] == null) {
+      rowPages[page] = new int[PAGE_SIZE];
+    }
+    return rowPages;
+  }
+
+  @Override
+  public Member get(long id) {
+    Columns c = columns;
+    int size = c.size;
+    int row = c.rowOf(id, size);
+    return row < 0 ? null : c.materialize(row);
+  }
+
+  @Override
+  public List<Member> values() {
+    Columns c = columns;
+    return new MemberView(c, c.size);
+  }
+
+  /**
+   * id 가 시퀀스로 촘촘하게 발급되므로 afterId + 1 부터 id 를 하나씩 직접 주소 테이블에서 찾는다.
+   * 비어 있는 페이지(clearStore 이전 구간 등)는 PAGE_SIZE 단위로 건너뛰어서 O(limit + 빈 구간/PAGE_SIZE)
+   */
+  @Override
+  public List<Member> findPage(long afterId, int limit) {
+    Columns c = columns;
+    int size = c.size;
+    long maxId = c.maxId;
+    int[][] rowPages = c.rowPages;
+
+    List<Member> result = new ArrayList<>(Math.min(limit, size));
+    if (afterId >= maxId) {
+      return result; // afterId + 1 이 넘치지 않도록 (afterId=Long.MAX_VALUE)
+    }
+    long id = Math.max(afterId, 0L) + 1;
+    while (result.size() < limit && id <= maxId) {
+      int[] page = rowPages[(int) (id >>> PAGE_BITS)];
+      if (page == null) {
+        id = ((id >>> PAGE_BITS) + 1) << PAGE_BITS;
+        continue;
+      }
+      int row = page[(int) (id & PAGE_MASK)] - 1;
+      if (0 <= row && row < size) {
+        result.add(c.materialize(row));
+      }
+      id++;
+    }
+    return result;
+  }
+
+  @Override
+  public int size() {
+    return columns.size;
+  }
+
+  @Override
+  public long countByAgeBetween(int minAge, int maxAge) {
+    Columns c = columns;
+    int size = c.size;
+    int[] ages = c.ages;
+    long count = 0;
+    for (int row = 0; row < size; row++) {
+      int age = ages[row];
+      if (minAge <= age && age <= maxAge) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  @Override
+  public void scanAges(int minAge, int maxAge, MemberTopK top) {
+    Columns c = columns;
+    int size = c.size;
+    int[] ages = c.ages;
+    long[] ids = c.ids;
+    for (int row = 0; row < size; row++) {
+      int age = ages[row];
+      if (minAge <= age && age <= maxAge) {
+        top.offer(age, ids[row]);
+      }
+    }
+  }
+
+  // 사전 코드를 decode 하면 같은 String 인스턴스가 나오므로 (해시 캐시됨) 행마다 새 문자열을 만들지 않는다
+  @Override
+  public void scanUsernames(Map<String, MemberTopK> byUsername) {
+    Columns c = columns;
+    int size = c.size;
+    int[] codes = c.usernameCodes;
+    long[] ids = c.ids;
+    for (int row = 0; row < size; row++) {
+      MemberTopK top = byUsername.get(c.dictionary.decode(codes[row]));
+      if (top != null) {
+        top.offer(0, ids[row]);
+      }
+    }
+  }
+
+  @Override
+  public void clear() {
+    synchronized (lock) {
+      // 기존 Columns 는 건드리지 않고 새로 만든다 (이미 넘겨준 뷰가 깨지지 않도록)
+      columns = new Columns(INITIAL_CAPACITY, new UsernameDictionary(), new int[0][]);
+    }
+  }
+
+  /**
+   * 특정 시점의 (Columns, size) 위에 올린 읽기 전용 List. 행을 꺼낼 때마다 Member 를 새로 만든다.
+   */
+  static final class MemberView extends AbstractList<Member> {
+    private final Columns columns;
+    private final int size;
+
+    MemberView(Columns columns, int size) {
+      this.columns = columns;
+      this.size = size;
+    }
+
+    @Override
+    public Member get(int index) {
+      if (index < 0 || index >= size) {
+        throw new IndexOutOfBoundsException("index: " + index + ", size: " + size);
+      }
+      return columns.materialize(index);
+    }
+
+    @Override
+    public int size() {
+      return size;
+    }
+  }
+}
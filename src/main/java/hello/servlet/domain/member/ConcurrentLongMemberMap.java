@@ -0,0 +1,209 @@
+package hello.servlet.domain.member;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.ToLongFunction;
+
+/**
+ * LongMemberMap 을 여러 세그먼트로 나누고(lock striping) 세그먼트마다 StampedLock 을 둔 동시성 맵
+ * 쓰기는 해당 세그먼트만 잠그고, findById 는 낙관적 읽기로 락 없이 읽은 뒤 검증만 한다.
+ *
+ * 목록 조회용으로 불변 트라이(MemberTrie) 스냅샷을 함께 유지한다.
+ * 쓰기마다 경로 복사한 새 트라이를 CAS 로 바꿔 끼우므로, values() 는 복사 없이 현재 트라이를 그대로 돌려주면 된다.
+ * 트라이는 세그먼트 쓰기 락을 잡은 채로 바꾼다. clear 는 모든 세그먼트 락을 번호 순으로 잡고 둘을 함께 비우므로
+ * 동시에 들어온 쓰기가 한쪽(세그먼트 / 트라이)에만 남지 않는다. 여러 세그먼트 락을 잡을 때는 항상 번호 순서 (putAll 도 같음)
+ */
+class ConcurrentLongMemberMap implements MemberStore {
+
+  private final LongMemberMap[] segments;
+  private final StampedLock[] locks;
+  private final int segmentMask;
+  private final AtomicReference<MemberTrie> snapshot = new AtomicReference<>(MemberTrie.EMPTY);
+
+  ConcurrentLongMemberMap() {
+    this(Runtime.getRuntime().availableProcessors() * 4);
+  }
+
+  ConcurrentLongMemberMap(int concurrencyLevel) {
+    int count = 1;
+    while (count < concurrencyLevel) {
+      count <<= 1;
+    }
+    segments = new LongMemberMap[count];
+    locks = new StampedLock[count];
+    for (int i = 0; i < count; i++) {
+      segments[i] = new LongMemberMap();
+      locks[i] = new StampedLock();
+    }
+    segmentMask = count - 1;
+  }
+
+  // 세그먼트 선택은 해시 상위 비트, 세그먼트 안의 슬롯은 하위 비트를 쓰도록 나눈다
+  private int segmentFor(long key) {
+    return (int) (LongMemberMap.hash(key) >>> 40) & segmentMask;
+  }
+
+  @Override
+  public void put(Member member) {
+    put(member.getId(), member);
+  }
+
+  /**
+   * 세그먼트별로 묶어서 세그먼트마다 락을 한 번만 잡고 크기도 미리 키운다.
+   * 트라이도 한 번에 만들어 바꿔 끼우므로 목록 조회에는 묶음 전체가 한 번에 보인다.
+   */
+  @Override
+  public void putAll(List<Member> members) {
+    putAll(members, Member::getId);
+  }
+
+  // keyOf: 회원 -> 이 맵의 키 (ShardedMemberStore 는 샤드 안에서 촘촘한 키를 쓴다). 키 순서 = members 순서여야 함
+  void putAll(List<Member> members, ToLongFunction<Member> keyOf) {
+    int n = members.size();
+    int[] segmentOf = new int[n];
+    int[] starts = new int[segments.length + 1];
+    for (int i = 0; i < n; i++) {
+      segmentOf[i] = segmentFor(keyOf.applyAsLong(members.get(i)));
+      starts[segmentOf[i] + 1]++;
+    }
+    for (int s = 0; s < segments.length; s++) {
+      starts[s + 1] += starts[s];
+    }
+    // 세그먼트 순서로 정렬한 인덱스 (counting sort)
+    int[] order = new int[n];
+    int[] next = starts.clone();
+    for (int i = 0; i < n; i++) {
+      order[next[segmentOf[i]]++] = i;
+    }
+
+    // 묶음이 들어가는 세그먼트를 번호 순으로 모두 잠근 채 넣고 트라이까지 바꾼다 (clear 와 섞이지 않도록)
+    long[] stamps = new long[segments.length];
+    try {
+      for (int s = 0; s < segments.length; s++) {
+        if (starts[s] != starts[s + 1]) {
+          stamps[s] = locks[s].writeLock();
+        }
+      }
+      for (int s = 0; s < segments.length; s++) {
+        int from = starts[s];
+        int to = starts[s + 1];
+        if (from == to) {
+          continue;
+        }
+        segments[s].ensureCapacity(segments[s].size() + (to - from));
+        for (int k = from; k < to; k++) {
+          Member member = members.get(order[k]);
+          segments[s].put(keyOf.applyAsLong(member), member);
+        }
+      }
+      snapshot.updateAndGet(trie -> trie.withAll(members, keyOf));
+    } finally {
+      for (int s = segments.length - 1; s >= 0; s--) {
+        if (stamps[s] != 0L) {
+          locks[s].unlockWrite(stamps[s]);
+        }
+      }
+    }
+  }
+
+  @Override
+  public Member get(long key) {
+    int s = segmentFor(key);
+    StampedLock lock = locks[s];
+    long stamp = lock.tryOptimisticRead();
+    if (stamp != 0L) {
+      Member member = segments[s].get(key);
+      if (lock.validate(stamp)) {
+        return member;
+      }
+    }
+    stamp = lock.readLock();
+    try {
+      return segments[s].get(key);
+    } finally {
+      lock.unlockRead(stamp);
+    }
+  }
+
+  Member put(long key, Member value) {
+    int s = segmentFor(key);
+    long stamp = locks[s].writeLock();
+    try {
+      Member old = segments[s].put(key, value);
+      snapshot.updateAndGet(trie -> trie.with(key, value));
+      return old;
+    } finally {
+      locks[s].unlockWrite(stamp);
+    }
+  }
+
+  @Override
+  public Member remove(long key) {
+    int s = segmentFor(key);
+    long stamp = locks[s].writeLock();
+    try {
+      Member old = segments[s].remove(key);
+      snapshot.updateAndGet(trie -> trie.without(key));
+      return old;
+    } finally {
+      locks[s].unlockWrite(stamp);
+    }
+  }
+
+  @Override
+  public int size() {
+    int size = 0;
+    for (int s = 0; s < segments.length; s++) {
+      long stamp = locks[s].readLock();
+      try {
+        size += segments[s].size();
+      } finally {
+        locks[s].unlockRead(stamp);
+      }
+    }
+    return size;
+  }
+
+  @Override
+  public List<Member> values() {
+    return snapshot.get();
+  }
+
+  @Override
+  public List<Member> findPage(long afterId, int limit) {
+    return snapshot.get().page(afterId, limit);
+  }
+
+  @Override
+  public long countByAgeBetween(int minAge, int maxAge) {
+    long count = 0;
+    for (int s = 0; s < segments.length; s++) {
+      long stamp = locks[s].readLock();
+      try {
+        count += segments[s].countByAgeBetween(minAge, maxAge);
+      } finally {
+        locks[s].unlockRead(stamp);
+      }
+    }
+    return count;
+  }
+
+  @Override
+  public void clear() {
+    long[] stamps = new long[segments.length];
+    for (int s = 0; s < segments.length; s++) {
+      stamps[s] = locks[s].writeLock();
+    }
+    try {
+      for (LongMemberMap segment : segments) {
+        segment.clear();
+      }
+      snapshot.set(MemberTrie.EMPTY);
+    } finally {
+      for (int s = segments.length - 1; s >= 0; s--) {
+        locks[s].unlockWrite(stamps[s]);
+      }
+    }
+  }
+}
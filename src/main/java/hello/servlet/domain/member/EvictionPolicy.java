@@ -0,0 +1,55 @@
+package hello.servlet.domain.member;
+
+import java.util.Locale;
+
+/**
+ * BoundedMemberStore 가 어떤 회원을 내보낼지 고르는 정책
+ * 모든 메서드는 BoundedMemberStore 의 eviction lock 안에서 한 스레드씩만 호출되므로 정책 안에서는 동기화가 필요 없다.
+ * 조회(onAccess)는 읽기 버퍼에 모아 뒀다가 한꺼번에 전달되고, 버퍼가 넘치면 일부는 버려진다. (통계적으로만 맞으면 됨)
+ */
+interface EvictionPolicy {
+
+  void onInsert(long id);
+
+  // 이미 내보낸 id 가 뒤늦게 들어올 수 있으므로 모르는 id 는 무시해야 한다
+  void onAccess(long id);
+
+  /**
+   * 정책이 들고 있는 회원 수가 용량을 넘었을 때 호출. 내보낼 id 를 골라서 정책에서도 지우고 돌려준다.
+   */
+  long evict();
+
+  /**
+   * 만료된 회원이 있으면 그중 하나의 id 를 정책에서 지우고 돌려준다. 없으면 0 (TTL 이 아닌 정책은 항상 0)
+   */
+  default long expire(long nowNanos) {
+    return 0L;
+  }
+
+  /**
+   * 다음에 만료될 시각(System.nanoTime 기준). 만료가 없으면 Long.MAX_VALUE
+   */
+  default long nextExpiry() {
+    return Long.MAX_VALUE;
+  }
+
+  void clear();
+
+  /**
+   * -Dmember.eviction 값으로 정책을 만든다. (lru / lfu / tinylfu / ttl)
+   */
+  static EvictionPolicy create(String name, int capacity, long ttlMillis) {
+    switch (name.toLowerCase(Locale.ROOT)) {
+      case "lru":
+        return new LruEvictionPolicy();
+      case "lfu":
+        return new LfuEvictionPolicy();
+      case "tinylfu":
+        return new TinyLfuEvictionPolicy(capacity);
+      case "ttl":
+        return new TtlEvictionPolicy(ttlMillis);
+      default:
+        throw new IllegalArgumentException("알 수 없는 member.eviction 값: " + name);
+    }
+  }
+}
@@ -0,0 +1,139 @@
+package hello.servlet.domain.member;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JdbcMemberRepository 가 쓰는 고정 크기 커넥션 풀
+ * 커넥션마다 PreparedStatement 를 SQL 문자열로 캐시해 두므로, 같은 쿼리는 처음 한 번만 파싱된다.
+ * (SQL 은 JdbcMemberRepository 의 상수 몇 개뿐이라 캐시 크기를 제한하지 않는다)
+ *
+ * 빌린 커넥션은 try-with-resources 로 닫으면 풀에 돌아간다. 쓰다가 SQLException 이 난 커넥션은 broken() 으로 표시하면
+ * 돌려받을 때 닫고 새 커넥션으로 바꾼다. 새로 못 열면 그 자리는 빈 채로 풀에 돌아가고, 다음에 빌리는 쪽이 다시 연결해 본다.
+ * (DB 가 잠깐 내려갔다 올라와도 풀 크기가 줄어든 채로 남지 않음)
+ */
+final class JdbcConnectionPool implements AutoCloseable {
+
+  private static final long BORROW_TIMEOUT_MILLIS = 30_000;
+
+  private final String url;
+  private final String user;
+  private final String password;
+  private final BlockingQueue<PooledConnection> idle;
+
+  JdbcConnectionPool(String url, String user, String password, int size) throws SQLException {
+    if (size < 1) {
+      throw new IllegalArgumentException("member.jdbc.pool-size 는 1 이상이어야 합니다: " + size);
+    }
+    this.url = url;
+    this.user = user;
+    this.password = password;
+    this.idle = new ArrayBlockingQueue<>(size);
+    for (int i = 0; i < size; i++) {
+      idle.add(new PooledConnection(this, DriverManager.getConnection(url, user, password)));
+    }
+  }
+
+  PooledConnection borrow() throws SQLException {
+    PooledConnection connection;
+    try {
+      connection = idle.poll(BORROW_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new SQLException("커넥션을 기다리다 인터럽트됨", e);
+    }
+    if (connection == null) {
+      throw new SQLException("커넥션 풀이 " + BORROW_TIMEOUT_MILLIS + "ms 동안 비어 있음: " + url);
+    }
+    if (connection.connection == null) {
+      try {
+        connection.reopen();
+      } catch (SQLException e) {
+        idle.add(connection); // 빈 자리는 그대로 돌려놓고 바로 실패 (다음 요청이 다시 시도)
+        throw e;
+      }
+    }
+    return connection;
+  }
+
+  private void release(PooledConnection connection) {
+    if (connection.broken) {
+      try {
+        connection.reopen();
+      } catch (SQLException e) {
+        System.out.println("회원 DB 커넥션 재연결 실패 (다음에 빌릴 때 다시 시도): " + e);
+      }
+    }
+    idle.add(connection);
+  }
+
+  @Override
+  public void close() {
+    PooledConnection connection;
+    while ((connection = idle.poll()) != null) {
+      connection.closeQuietly();
+    }
+  }
+
+  static final class PooledConnection implements AutoCloseable {
+    private final JdbcConnectionPool pool;
+    private final Map<String, PreparedStatement> statements = new HashMap<>();
+    // null 이면 재연결에 실패한 빈 자리 (풀 안에 있을 때만 그렇다)
+    private Connection connection;
+    private boolean broken;
+
+    private PooledConnection(JdbcConnectionPool pool, Connection connection) {
+      this.pool = pool;
+      this.connection = connection;
+    }
+
+    // 지금 커넥션을 닫고 새로 연다. 실패하면 빈 자리로 남는다
+    private void reopen() throws SQLException {
+      closeQuietly();
+      statements.clear();
+      broken = false;
+      connection = null;
+      connection = DriverManager.getConnection(pool.url, pool.user, pool.password);
+    }
+
+    Connection connection() {
+      return connection;
+    }
+
+    PreparedStatement prepare(String sql) throws SQLException {
+      PreparedStatement statement = statements.get(sql);
+      if (statement == null) {
+        statement = connection.prepareStatement(sql);
+        statements.put(sql, statement);
+      }
+      return statement;
+    }
+
+    void broken() {
+      broken = true;
+    }
+
+    private void closeQuietly() {
+      if (connection == null) {
+        return;
+      }
+      try {
+        connection.close();
+      } catch (SQLException ignored) {
+        // 이미 끊긴 커넥션
+      }
+    }
+
+    @Override
+    public void close() {
+      pool.release(this);
+    }
+  }
+}
@@ -0,0 +1,453 @@
+package hello.servlet.domain.member;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 내장 DB(H2 파일 모드)에 회원을 저장하는 MemberRepository (-Dmember.repository=jdbc)
+ * - member.jdbc.url: 기본 jdbc:h2:./data/members (실행 디렉터리 아래 파일)
+ * - member.jdbc.user / member.jdbc.password: 기본 sa / 빈 값
+ * - member.jdbc.pool-size: 커넥션 수 (기본 CPU 수 * 2)
+ *
+ * save: 동시에 들어온 save 를 모아서 batch insert 한 번 + 커밋 한 번으로 쓴다. (MemberWriteAheadLog 의 group commit 과 같은 방식)
+ *   쓰는 스레드가 없으면 도착한 스레드가 그때까지 쌓인 회원을 통째로 가져가서 쓰고, 그동안 온 save 는 다음 묶음에 쌓인다.
+ * id 는 DB 가 아니라 MemberIdAllocator 가 붙인다. (시작할 때 테이블의 최대 id 까지 올려 둠) 그래서 insert 후 생성 키를 읽지 않는다.
+ * findAll: 전체를 한 번에 읽지 않고, 순회할 때 id 순 keyset 페이지 단위로 ResultSet 을 읽는 뷰를 돌려준다.
+ */
+class JdbcMemberRepository implements MemberRepository {
+
+  private static final int PAGE_SIZE = 1000;
+
+  private static final String[] SCHEMA = {
+      "CREATE TABLE IF NOT EXISTS members ("
+          + "id BIGINT PRIMARY KEY, username VARCHAR, age INT NOT NULL, "
+          + "username_lower VARCHAR GENERATED ALWAYS AS (LOWER(username)))",
+      "CREATE INDEX IF NOT EXISTS members_username ON members(username, id)",
+      "CREATE INDEX IF NOT EXISTS members_username_lower ON members(username_lower)",
+      "CREATE INDEX IF NOT EXISTS members_age ON members(age, id)",
+  };
+
+  private static final String COLUMNS = "SELECT id, username, age FROM members ";
+  private static final String INSERT = "INSERT INTO members (id, username, age) VALUES (?, ?, ?)";
+  private static final String FIND_BY_ID = COLUMNS + "WHERE id = ?";
+  private static final String FIND_PAGE = COLUMNS + "WHERE id > ? AND id <= ? ORDER BY id LIMIT ?";
+  private static final String FIND_AT = COLUMNS + "WHERE id <= ? ORDER BY id LIMIT 1 OFFSET ?";
+  private static final String FIND_BY_USERNAME = COLUMNS + "WHERE username = ? AND id > ? ORDER BY id LIMIT ?";
+  // 접두사 일치(0) > 중간에 포함(1), 같은 순위는 짧은 이름 -> 이름 -> id 순 (UsernameSearchIndex 와 같은 순서)
+  private static final String SEARCH = COLUMNS + "WHERE username_lower LIKE ? ESCAPE '\\' "
+      + "ORDER BY CASE WHEN username_lower LIKE ? ESCAPE '\\' THEN 0 ELSE 1 END, "
+      + "CHAR_LENGTH(username_lower), username_lower, id LIMIT ?";
+  private static final String FIND_BY_AGE = COLUMNS + "WHERE age BETWEEN ? AND ? AND (age, id) > (?, ?) "
+      + "ORDER BY age, id LIMIT ?";
+  private static final String COUNT = "SELECT COUNT(*), COALESCE(MAX(id), 0) FROM members";
+  private static final String COUNT_UP_TO = "SELECT COUNT(*) FROM members WHERE id <= ?";
+  private static final String COUNT_BY_AGE = "SELECT COUNT(*) FROM members WHERE age BETWEEN ? AND ?";
+  private static final String STATS = "SELECT COUNT(*), COALESCE(SUM(age), 0), MIN(age), MAX(age), COUNT(DISTINCT username) FROM members";
+  private static final String HISTOGRAM = "SELECT LEAST(GREATEST(age / " + MemberStatistics.BUCKET_WIDTH + ", 0), "
+      + (MemberStatistics.BUCKETS - 1) + ") AS bucket, COUNT(*) FROM members GROUP BY bucket";
+  private static final String CLEAR = "DELETE FROM members";
+
+  private final JdbcConnectionPool pool;
+  private final MemberIdAllocator ids;
+
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition written = lock.newCondition();
+  private PendingBatch pending = new PendingBatch();
+  private boolean writing;
+  private long batches;
+
+  private JdbcMemberRepository(JdbcConnectionPool pool, MemberIdAllocator ids) {
+    this.pool = pool;
+    this.ids = ids;
+  }
+
+  static JdbcMemberRepository open(String url, String user, String password, int poolSize, MemberIdAllocator ids)
+      throws SQLException {
+    JdbcConnectionPool pool = new JdbcConnectionPool(url, user, password, poolSize);
+    try (JdbcConnectionPool.PooledConnection c = pool.borrow(); Statement statement = c.connection().createStatement()) {
+      for (String ddl : SCHEMA) {
+        statement.execute(ddl);
+      }
+      try (ResultSet rs = statement.executeQuery(COUNT)) {
+        rs.next();
+        ids.advanceTo(rs.getLong(2));
+      }
+    } catch (SQLException e) {
+      pool.close();
+      throw e;
+    }
+    return new JdbcMemberRepository(pool, ids);
+  }
+
+  // 지금까지 실행한 batch insert 수 (벤치마크용)
+  long batchCount() {
+    lock.lock();
+    try {
+      return batches;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public Member save(Member member) {
+    member.setId(ids.next());
+    PendingBatch batch;
+    lock.lock();
+    try {
+      batch = pending;
+      batch.members.add(member);
+      while (!batch.done) {
+        if (writing) {
+          written.awaitUninterruptibly();
+          continue;
+        }
+        // 쓰는 스레드가 없으면 내가 쌓인 묶음을 통째로 가져가서 쓴다
+        writing = true;
+        PendingBatch current = pending;
+        pending = new PendingBatch();
+        lock.unlock();
+        try {
+          insert(current.members);
+        } catch (SQLException | RuntimeException e) {
+          current.failure = e;
+        } finally {
+          lock.lock();
+          batches++;
+          current.done = true;
+          writing = false;
+          written.signalAll();
+        }
+      }
+    } finally {
+      lock.unlock();
+    }
+    if (batch.failure != null) {
+      throw new IllegalStateException("회원 저장 실패: id=" + member.getId(), batch.failure);
+    }
+    return member;
+  }
+
+  /**
+   * 묶음을 batch insert 한 번으로 바로 쓴다. (save 의 묶음과는 따로) id 는 연속된 구간을 한 번에 예약
+   */
+  @Override
+  public List<Member> saveAll(Collection<Member> members) {
+    List<Member> batch = new ArrayList<>(members);
+    if (batch.isEmpty()) {
+      return batch;
+    }
+    long firstId = ids.reserve(batch.size());
+    for (int i = 0; i < batch.size(); i++) {
+      batch.get(i).setId(firstId + i);
+    }
+    try {
+      insert(batch);
+    } catch (SQLException e) {
+      throw new IllegalStateException("회원 저장 실패: id=" + firstId + "~" + (firstId + batch.size() - 1), e);
+    }
+    return batch;
+  }
+
+  private void insert(List<Member> members) throws SQLException {
+    try (JdbcConnectionPool.PooledConnection c = pool.borrow()) {
+      Connection connection = c.connection();
+      try {
+        connection.setAutoCommit(false);
+        PreparedStatement insert = c.prepare(INSERT);
+        for (Member member : members) {
+          insert.setLong(1, member.getId());
+          insert.setString(2, member.getUsername());
+          insert.setInt(3, member.getAge());
+          insert.addBatch();
+        }
+        insert.executeBatch();
+        connection.commit();
+        connection.setAutoCommit(true);
+      } catch (SQLException e) {
+        c.broken(); // 롤백 상태를 따지지 않고 커넥션을 새로 연다
+        throw e;
+      }
+    }
+  }
+
+  @Override
+  public Member findById(long id) {
+    List<Member> found = query(FIND_BY_ID, 1, statement -> statement.setLong(1, id));
+    return found.isEmpty() ? null : found.get(0);
+  }
+
+  @Override
+  public List<Member> findAll() {
+    return new StreamingView(counts()[1]);
+  }
+
+  @Override
+  public List<Member> findPage(long afterId, int limit) {
+    if (limit <= 0) {
+      throw new IllegalArgumentException("limit 은 1 이상이어야 합니다: " + limit);
+    }
+    return query(FIND_PAGE, limit, statement -> {
+      statement.setLong(1, afterId);
+      statement.setLong(2, Long.MAX_VALUE);
+      statement.setInt(3, limit);
+    });
+  }
+
+  @Override
+  public List<Member> findByUsername(String username, long afterId, int limit) {
+    if (username == null) {
+      return new ArrayList<>();
+    }
+    return query(FIND_BY_USERNAME, limit, statement -> {
+      statement.setString(1, username);
+      statement.setLong(2, afterId);
+      statement.setInt(3, limit);
+    });
+  }
+
+  @Override
+  public List<Member> searchByUsername(String query, int limit) {
+    if (query == null || query.isEmpty() || limit <= 0) {
+      return new ArrayList<>();
+    }
+    String lower = query.toLowerCase(Locale.ROOT);
+    String q = escapeLike(lower);
+    // 3글자 미만은 접두사 검색만 (UsernameSearchIndex 와 같은 기준, 이스케이프로 늘어나기 전 길이로 판단)
+    String pattern = lower.length() >= 3 ? "%" + q + "%" : q + "%";
+    return query(SEARCH, limit, statement -> {
+      statement.setString(1, pattern);
+      statement.setString(2, q + "%");
+      statement.setInt(3, limit);
+    });
+  }
+
+  private static String escapeLike(String value) {
+    return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+  }
+
+  @Override
+  public List<Member> findByAgeBetween(int minAge, int maxAge, int afterAge, long afterId, int limit) {
+    return query(FIND_BY_AGE, limit, statement -> {
+      statement.setInt(1, minAge);
+      statement.setInt(2, maxAge);
+      statement.setInt(3, afterAge);
+      statement.setLong(4, afterId);
+      statement.setInt(5, limit);
+    });
+  }
+
+  @Override
+  public MemberStats getStats() {
+    try (JdbcConnectionPool.PooledConnection c = pool.borrow()) {
+      try {
+        long count;
+        long ageSum;
+        Integer minAge;
+        Integer maxAge;
+        long distinct;
+        try (ResultSet rs = c.prepare(STATS).executeQuery()) {
+          rs.next();
+          count = rs.getLong(1);
+          ageSum = rs.getLong(2);
+          minAge = rs.getObject(3, Integer.class);
+          maxAge = rs.getObject(4, Integer.class);
+          distinct = rs.getLong(5);
+        }
+        long[] buckets = new long[MemberStatistics.BUCKETS];
+        try (ResultSet rs = c.prepare(HISTOGRAM).executeQuery()) {
+          while (rs.next()) {
+            buckets[rs.getInt(1)] = rs.getLong(2);
+          }
+        }
+        return new MemberStats(count, ageSum, minAge, maxAge, MemberStatistics.ageHistogram(buckets), distinct);
+      } catch (SQLException e) {
+        c.broken();
+        throw e;
+      }
+    } catch (SQLException e) {
+      throw new IllegalStateException("회원 통계 조회 실패", e);
+    }
+  }
+
+  @Override
+  public int count() {
+    return (int) counts()[0];
+  }
+
+  // {회원 수, 최대 id}
+  private long[] counts() {
+    try (JdbcConnectionPool.PooledConnection c = pool.borrow()) {
+      try (ResultSet rs = c.prepare(COUNT).executeQuery()) {
+        rs.next();
+        return new long[]{rs.getLong(1), rs.getLong(2)};
+      } catch (SQLException e) {
+        c.broken();
+        throw e;
+      }
+    } catch (SQLException e) {
+      throw new IllegalStateException("회원 수 조회 실패", e);
+    }
+  }
+
+  @Override
+  public long countByAgeBetween(int minAge, int maxAge) {
+    try (JdbcConnectionPool.PooledConnection c = pool.borrow()) {
+      PreparedStatement statement = c.prepare(COUNT_BY_AGE);
+      statement.setInt(1, minAge);
+      statement.setInt(2, maxAge);
+      try (ResultSet rs = statement.executeQuery()) {
+        rs.next();
+        return rs.getLong(1);
+      } catch (SQLException e) {
+        c.broken();
+        throw e;
+      }
+    } catch (SQLException e) {
+      throw new IllegalStateException("회원 수 조회 실패", e);
+    }
+  }
+
+  @Override
+  public void clearStore() {
+    try (JdbcConnectionPool.PooledConnection c = pool.borrow()) {
+      try {
+        c.prepare(CLEAR).executeUpdate();
+      } catch (SQLException e) {
+        c.broken();
+        throw e;
+      }
+    } catch (SQLException e) {
+      throw new IllegalStateException("회원 삭제 실패", e);
+    }
+  }
+
+  private List<Member> query(String sql, int limit, Binder binder) {
+    try (JdbcConnectionPool.PooledConnection c = pool.borrow()) {
+      try {
+        PreparedStatement statement = c.prepare(sql);
+        binder.bind(statement);
+        statement.setFetchSize(Math.min(limit, PAGE_SIZE));
+        List<Member> result = new ArrayList<>(Math.min(limit, PAGE_SIZE));
+        try (ResultSet rs = statement.executeQuery()) {
+          while (rs.next()) {
+            Member member = new Member(rs.getString(2), rs.getInt(3));
+            member.setId(rs.getLong(1));
+            result.add(member);
+          }
+        }
+        return result;
+      } catch (SQLException e) {
+        c.broken();
+        throw e;
+      }
+    } catch (SQLException e) {
+      throw new IllegalStateException("회원 조회 실패: " + sql, e);
+    }
+  }
+
+  @FunctionalInterface
+  private interface Binder {
+    void bind(PreparedStatement statement) throws SQLException;
+  }
+
+  private static final class PendingBatch {
+    final List<Member> members = new ArrayList<>();
+    boolean done;
+    Exception failure;
+  }
+
+  /**
+   * findAll 이 돌려주는 읽기 전용 뷰. 만들 때의 최대 id 까지만 보인다.
+   * 순회는 PAGE_SIZE 건씩 keyset 쿼리로 읽으므로 메모리에는 한 페이지만 올라가고, 커넥션도 페이지를 읽는 동안만 빌린다.
+   * 복사본이 아니라 살아 있는 뷰라서 순회할 때마다, size() 를 부를 때마다 DB 를 읽는다.
+   * (그 사이 clearStore 되거나, 블록으로 받아 둔 더 작은 id 가 늦게 저장되면 결과가 바뀐다)
+   * get(index) 는 OFFSET 쿼리라 느리다. (화면 / JSON 은 순회만 한다)
+   */
+  final class StreamingView extends AbstractList<Member> {
+    private final long maxId;
+
+    StreamingView(long maxId) {
+      this.maxId = maxId;
+    }
+
+    @Override
+    public Member get(int index) {
+      if (index < 0) {
+        throw new IndexOutOfBoundsException("index: " + index);
+      }
+      List<Member> found = query(FIND_AT, 1, statement -> {
+        statement.setLong(1, maxId);
+        statement.setInt(2, index);
+      });
+      if (found.isEmpty()) {
+        throw new IndexOutOfBoundsException("index: " + index + ", size: " + size());
+      }
+      return found.get(0);
+    }
+
+    @Override
+    public int size() {
+      try (JdbcConnectionPool.PooledConnection c = pool.borrow()) {
+        PreparedStatement statement = c.prepare(COUNT_UP_TO);
+        statement.setLong(1, maxId);
+        try (ResultSet rs = statement.executeQuery()) {
+          rs.next();
+          return (int) rs.getLong(1);
+        } catch (SQLException e) {
+          c.broken();
+          throw e;
+        }
+      } catch (SQLException e) {
+        throw new IllegalStateException("회원 수 조회 실패", e);
+      }
+    }
+
+    @Override
+    public Iterator<Member> iterator() {
+      return new Iterator<>() {
+        private List<Member> page = new ArrayList<>();
+        private int position;
+        private long lastId;
+        private boolean exhausted = maxId == 0;
+
+        @Override
+        public boolean hasNext() {
+          if (position == page.size() && !exhausted) {
+            long after = lastId;
+            page = query(FIND_PAGE, PAGE_SIZE, statement -> {
+              statement.setLong(1, after);
+              statement.setLong(2, maxId);
+              statement.setInt(3, PAGE_SIZE);
+            });
+            position = 0;
+            exhausted = page.size() < PAGE_SIZE;
+          }
+          return position < page.size();
+        }
+
+        @Override
+        public Member next() {
+          if (!hasNext()) {
+            throw new NoSuchElementException();
+          }
+          Member member = page.get(position++);
+          lastId = member.getId();
+          return member;
+        }
+      };
+    }
+  }
+}
@@ -0,0 +1,95 @@
+package hello.servlet.domain.member;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+
+/**
+ * 조회 횟수가 가장 적은 회원부터 내보낸다. 횟수가 같으면 그 횟수에 가장 먼저 도달한 회원부터
+ *
+ * 횟수별 노드를 횟수 오름차순 연결 리스트로 잇고, 노드마다 그 횟수인 id 들을 순서 있는 집합으로 든다.
+ * 조회는 다음 노드(횟수 + 1)로 옮기기만 하고, 내보낼 때는 맨 앞 노드의 첫 id 를 꺼내면 되므로 모든 연산이 O(1)
+ */
+class LfuEvictionPolicy implements EvictionPolicy {
+
+  private static final class FrequencyNode {
+    final long frequency;
+    final LinkedHashSet<Long> ids = new LinkedHashSet<>();
+    FrequencyNode prev;
+    FrequencyNode next;
+
+    FrequencyNode(long frequency) {
+      this.frequency = frequency;
+    }
+  }
+
+  // head.next 가 가장 적은 횟수
+  private final FrequencyNode head = new FrequencyNode(0);
+  private final Map<Long, FrequencyNode> nodes = new HashMap<>();
+
+  @Override
+  public void onInsert(long id) {
+    FrequencyNode first = head.next;
+    if (first == null || first.frequency != 1) {
+      first = linkAfter(head, 1);
+    }
+    first.ids.add(id);
+    nodes.put(id, first);
+  }
+
+  @Override
+  public void onAccess(long id) {
+    FrequencyNode node = nodes.get(id);
+    if (node == null) {
+      return;
+    }
+    FrequencyNode next = node.next;
+    if (next == null || next.frequency != node.frequency + 1) {
+      next = linkAfter(node, node.frequency + 1);
+    }
+    next.ids.add(id);
+    nodes.put(id, next);
+    node.ids.remove(id);
+    if (node.ids.isEmpty()) {
+      unlink(node);
+    }
+  }
+
+  @Override
+  public long evict() {
+    FrequencyNode first = head.next;
+    Iterator<Long> eldest = first.ids.iterator();
+    long id = eldest.next();
+    eldest.remove();
+    if (first.ids.isEmpty()) {
+      unlink(first);
+    }
+    nodes.remove(id);
+    return id;
+  }
+
+  private static FrequencyNode linkAfter(FrequencyNode node, long frequency) {
+    FrequencyNode created = new FrequencyNode(frequency);
+    created.prev = node;
+    created.next = node.next;
+    if (node.next != null) {
+      node.next.prev = created;
+    }
+    node.next = created;
+    return created;
+  }
+
+  private static void unlink(FrequencyNode node) {
+    node.prev.next = node.next;
+    if (node.next != null) {
+      node.next.prev = node.prev;
+    }
+  }
+
+  @Override
+  public void clear() {
+    head.next = null;
+    nodes.clear();
+  }
+}
@@ -0,0 +1,196 @@
+package hello.servlet.domain.member;
+
+/**
+ * long id -> Member 전용 오픈 어드레싱(선형 탐사) 해시 테이블
+ * Map<Long, Member> 와 달리 id 를 박싱하지 않고 엔트리마다 Node 객체도 만들지 않는다. (배열 2개가 전부)
+ * 삭제는 tombstone 없이 backward shift 로 처리해서 삭제가 많아도 탐사 길이가 늘어나지 않음
+ *
+ * 스레드 안전하지 않음 -> ConcurrentLongMemberMap 이 세그먼트마다 락을 걸고 사용
+ */
+class LongMemberMap {
+
+  // id 는 1부터 발급되므로 0을 빈 슬롯 표시로 사용
+  private static final long EMPTY = 0L;
+  private static final int MIN_CAPACITY = 16;
+
+  private long[] keys;
+  private Member[] values;
+  private int size;
+  private int resizeThreshold;
+
+  LongMemberMap() {
+    this(MIN_CAPACITY);
+  }
+
+  LongMemberMap(int expectedSize) {
+    allocate(tableSizeFor(expectedSize));
+  }
+
+  static long hash(long key) {
+    // murmur3 fmix64: 연속된 id 가 테이블 전체에 고르게 흩어지도록 섞는다
+    key ^= key >>> 33;
+    key *= 0xff51afd7ed558ccdL;
+    key ^= key >>> 33;
+    key *= 0xc4ceb9fe1a85ec53L;
+    key ^= key >>> 33;
+    return key;
+  }
+
+  Member get(long key) {
+    // StampedLock 낙관적 읽기 중에 resize/삭제가 겹쳐도 예외나 무한 루프 없이 끝나도록
+    // 배열을 지역 변수로 잡고, 탐사 횟수를 테이블 크기로 제한한다. (결과 검증은 호출하는 쪽에서)
+    long[] keys = this.keys;
+    Member[] values = this.values;
+    if (keys.length != values.length) {
+      return null;
+    }
+    int mask = keys.length - 1;
+    int index = (int) hash(key) & mask;
+    for (int probe = 0; probe < keys.length; probe++) {
+      long k = keys[index];
+      if (k == key) {
+        return values[index];
+      }
+      if (k == EMPTY) {
+        return null;
+      }
+      index = (index + 1) & mask;
+    }
+    return null;
+  }
+
+  Member put(long key, Member value) {
+    if (key == EMPTY) {
+      throw new IllegalArgumentException("id must not be 0");
+    }
+    int mask = keys.length - 1;
+    int index = (int) hash(key) & mask;
+    while (keys[index] != EMPTY) {
+      if (keys[index] == key) {
+        Member old = values[index];
+        values[index] = value;
+        return old;
+      }
+      index = (index + 1) & mask;
+    }
+    keys[index] = key;
+    values[index] = value;
+    if (++size > resizeThreshold) {
+      resize(keys.length << 1);
+    }
+    return null;
+  }
+
+  Member remove(long key) {
+    int mask = keys.length - 1;
+    int index = (int) hash(key) & mask;
+    while (keys[index] != key) {
+      if (keys[index] == EMPTY) {
+        return null;
+      }
+      index = (index + 1) & mask;
+    }
+    Member old = values[index];
+    shiftBack(index);
+    size--;
+    return old;
+  }
+
+  /**
+   * 삭제한 슬롯 뒤쪽 클러스터를 한 칸씩 당겨서 빈칸을 메운다.
+   * 당겨올 엔트리의 원래 자리(home)가 빈칸보다 뒤에 있으면 당기면 안 됨 (그 엔트리는 빈칸을 지나서 찾지 않으므로)
+   */
+  private void shiftBack(int hole) {
+    int mask = keys.length - 1;
+    int index = hole;
+    while (true) {
+      index = (index + 1) & mask;
+      long k = keys[index];
+      if (k == EMPTY) {
+        break;
+      }
+      int home = (int) hash(k) & mask;
+      // hole < home <= index (원형 배열 기준) 이면 제자리에 있어야 하는 엔트리
+      boolean stays = hole <= index
+          ? hole < home && home <= index
+          : hole < home || home <= index;
+      if (!stays) {
+        keys[hole] = k;
+        values[hole] = values[index];
+        hole = index;
+      }
+    }
+    keys[hole] = EMPTY;
+    values[hole] = null;
+  }
+
+  int size() {
+    return size;
+  }
+
+  long countByAgeBetween(int minAge, int maxAge) {
+    long count = 0;
+    for (int i = 0; i < keys.length; i++) {
+      if (keys[i] != EMPTY) {
+        int age = values[i].getAge();
+        if (minAge <= age && age <= maxAge) {
+          count++;
+        }
+      }
+    }
+    return count;
+  }
+
+  void clear() {
+    allocate(MIN_CAPACITY);
+  }
+
+  /**
+   * 미리 크기를 키워 둬서 대량 저장 중에 resize 가 여러 번 일어나지 않게 한다.
+   */
+  void ensureCapacity(int expectedSize) {
+    int capacity = tableSizeFor(expectedSize);
+    if (capacity > keys.length) {
+      resize(capacity);
+    }
+  }
+
+  private void resize(int newCapacity) {
+    long[] oldKeys = keys;
+    Member[] oldValues = values;
+    long[] newKeys = new long[newCapacity];
+    Member[] newValues = new Member[newCapacity];
+    int mask = newCapacity - 1;
+    for (int i = 0; i < oldKeys.length; i++) {
+      long k = oldKeys[i];
+      if (k != EMPTY) {
+        int index = (int) hash(k) & mask;
+        while (newKeys[index] != EMPTY) {
+          index = (index + 1) & mask;
+        }
+        newKeys[index] = k;
+        newValues[index] = oldValues[i];
+      }
+    }
+    // 읽는 쪽이 keys/values 를 서로 다른 세대로 읽을 수 있으므로 get() 에서 길이 비교로 걸러낸다
+    keys = newKeys;
+    values = newValues;
+    resizeThreshold = (int) (newCapacity * 0.75);
+  }
+
+  private void allocate(int capacity) {
+    keys = new long[capacity];
+    values = new Member[capacity];
+    size = 0;
+    resizeThreshold = (int) (capacity * 0.75);
+  }
+
+  private static int tableSizeFor(int expectedSize) {
+    long needed = (long) Math.ceil(expectedSize / 0.75);
+    int capacity = MIN_CAPACITY;
+    while (capacity < needed) {
+      capacity <<= 1;
+    }
+    return capacity;
+  }
+}
@@ -0,0 +1,35 @@
+package hello.servlet.domain.member;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * 가장 오래 조회되지 않은 회원부터 내보낸다. (접근 순서 LinkedHashMap, 모든 연산 O(1))
+ */
+class LruEvictionPolicy implements EvictionPolicy {
+
+  private final LinkedHashMap<Long, Boolean> order = new LinkedHashMap<>(16, 0.75f, true);
+
+  @Override
+  public void onInsert(long id) {
+    order.put(id, Boolean.TRUE);
+  }
+
+  @Override
+  public void onAccess(long id) {
+    order.get(id); // 접근 순서 맵이라 get 만으로 맨 뒤로 옮겨진다
+  }
+
+  @Override
+  public long evict() {
+    Iterator<Long> eldest = order.keySet().iterator();
+    long id = eldest.next();
+    eldest.remove();
+    return id;
+  }
+
+  @Override
+  public void clear() {
+    order.clear();
+  }
+}
@@ -0,0 +1,87 @@
+package hello.servlet.domain.member;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 회원 id 발급기 (HiLo)
+ * 공유 카운터(hi)에서 blockSize 개씩 구간을 통째로 받아 두고, 그 구간의 id 는 stripe 마다 로컬 카운터(lo)로 나눠 준다.
+ * 공유 카운터를 건드리는 건 blockSize 번에 한 번뿐이라, 요청 스레드가 많아도 한 캐시 라인을 두고 다투지 않는다.
+ *
+ * 블록은 스레드가 아니라 고정된 수(CPU 수 * 4 정도)의 stripe 에 있고, 스레드 id 해시로 stripe 를 고른다.
+ * (ThreadLocal 이면 요청마다 새 스레드인 가상 스레드 모드에서 save 마다 블록을 새로 받고 나머지를 버리게 된다)
+ * 다 못 쓴 구간은 stripe 수 * blockSize 개를 넘지 않는다. stripe 의 lock 은 id 하나 꺼내는 동안만 잡는다.
+ *
+ * - blockSize 1 이면 블록 없이 공유 카운터만 쓴다. (id 가 빈틈 없이 저장 순서대로)
+ * - 블록을 쓰면 id 는 유일하지만 stripe 마다 다른 구간에서 나오므로 저장 순서와 어긋나고, 다 못 쓴 구간은 빈 id 로 남는다.
+ * - monotonicWindowMillis 를 주면 받은 지 그 시간이 지난 블록은 남은 id 를 버리고 새로 받는다.
+ *   그래서 그 시간보다 더 떨어져서 저장된 두 회원은 항상 나중 회원의 id 가 더 크다. (대략적인 시간 순서 유지)
+ */
+final class MemberIdAllocator {
+
+  private final AtomicLong sequence = new AtomicLong();
+  private final int blockSize;
+  private final long windowNanos;
+  private final Block[] blocks;
+  private final int stripeMask;
+
+  MemberIdAllocator(int blockSize, long monotonicWindowMillis) {
+    if (blockSize < 1) {
+      throw new IllegalArgumentException("member.id.block-size 는 1 이상이어야 합니다: " + blockSize);
+    }
+    if (monotonicWindowMillis < 0) {
+      throw new IllegalArgumentException("member.id.monotonic-window 는 0 이상이어야 합니다: " + monotonicWindowMillis);
+    }
+    this.blockSize = blockSize;
+    this.windowNanos = monotonicWindowMillis * 1_000_000L;
+    int stripes = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() * 4 - 1)) << 1;
+    blocks = new Block[stripes];
+    for (int i = 0; i < stripes; i++) {
+      blocks[i] = new Block();
+    }
+    stripeMask = stripes - 1;
+  }
+
+  long next() {
+    if (blockSize == 1) {
+      return sequence.incrementAndGet();
+    }
+    Block block = blocks[(int) LongMemberMap.hash(Thread.currentThread().getId()) & stripeMask];
+    block.lock.lock();
+    try {
+      if (block.next > block.last || windowNanos > 0 && System.nanoTime() - block.claimedAt > windowNanos) {
+        block.next = sequence.getAndAdd(blockSize) + 1;
+        block.last = block.next + blockSize - 1;
+        if (windowNanos > 0) {
+          block.claimedAt = System.nanoTime();
+        }
+      }
+      return block.next++;
+    } finally {
+      block.lock.unlock();
+    }
+  }
+
+  /**
+   * count 개의 연속된 id 를 공유 카운터에서 바로 예약하고 첫 id 를 돌려준다. (saveAll 용, stripe 블록과 상관없음)
+   */
+  long reserve(int count) {
+    return sequence.getAndAdd(count) + 1;
+  }
+
+  /**
+   * 복구(스냅샷 / WAL replay)한 id 이하로는 다시 발급하지 않도록 공유 카운터를 올린다.
+   * 이미 받아 둔 블록에는 영향이 없으므로 요청을 받기 전에 호출해야 한다.
+   */
+  void advanceTo(long id) {
+    sequence.accumulateAndGet(id, Math::max);
+  }
+
+  // lock 안에서만 읽고 쓴다 (가상 스레드가 carrier 에 고정되지 않도록 synchronized 대신 ReentrantLock)
+  private static final class Block {
+    final ReentrantLock lock = new ReentrantLock();
+    long next = 1;
+    long last;
+    long claimedAt;
+  }
+}
@@ -0,0 +1,63 @@
+package hello.servlet.domain.member;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * 회원 보조 인덱스 (save / clearStore 때 MemoryMemberRepository 가 함께 갱신)
+ * 저장 모드(-Dmember.store)에 따라 구현을 고른다.
+ * - hash / sharded: SortedSetMemberIndex, 힙에 정렬 집합을 들고 있다가 결과 수에 비례하는 비용으로 찾는다.
+ * - columnar / offheap: ScanningMemberIndex, 아무것도 들고 있지 않고 조회 때 저장소를 훑는다.
+ *   (회원 데이터를 기본형 배열 / 힙 밖에 두는 모드에서 회원마다 힙 객체를 붙이면 그 모드를 쓰는 의미가 없어진다)
+ */
+interface MemberIndex {
+
+  static MemberIndex create(String storeType, Supplier<MemberStore> store) {
+    if (storeType.equals("columnar") || storeType.equals("offheap")) {
+      return new ScanningMemberIndex(store);
+    }
+    return new SortedSetMemberIndex();
+  }
+
+  void add(Member member);
+
+  default void addAll(List<Member> members) {
+    for (Member member : members) {
+      add(member);
+    }
+  }
+
+  void remove(Member member);
+
+  void clear();
+
+  /**
+   * username 이 같은 회원의 id 를 afterId 다음부터 오름차순으로 최대 limit 개
+   */
+  List<Long> idsByUsername(String username, long afterId, int limit);
+
+  /**
+   * 여러 username 을 한꺼번에: 이름마다 id 오름차순 최대 limit 개 (부분 검색이 후보 이름들을 펼칠 때)
+   */
+  default Map<String, List<Long>> idsByUsernames(List<String> usernames, int limit) {
+    Map<String, List<Long>> result = new LinkedHashMap<>();
+    for (String username : usernames) {
+      result.put(username, idsByUsername(username, 0L, limit));
+    }
+    return result;
+  }
+
+  /**
+   * minAge <= age <= maxAge 인 회원의 id 를 (age, id) 순서로 최대 limit 개
+   */
+  default List<Long> idsByAgeBetween(int minAge, int maxAge, int limit) {
+    return idsByAgeBetween(minAge, maxAge, Integer.MIN_VALUE, 0L, limit);
+  }
+
+  /**
+   * 위와 같지만 (age, id) 가 (afterAge, afterId) 보다 큰 것부터 (keyset 페이지네이션)
+   */
+  List<Long> idsByAgeBetween(int minAge, int maxAge, int afterAge, long afterId, int limit);
+}
@@ -0,0 +1,45 @@
+package hello.servlet.domain.member;
+
+import java.sql.SQLException;
+
+/**
+ * MemberRepository.getInstance() 가 돌려줄 저장소를 처음 쓰일 때 한 번만 만든다. (클래스 초기화 = 지연 + 스레드 안전)
+ */
+final class MemberRepositories {
+
+  static final MemberRepository INSTANCE = create();
+
+  private MemberRepositories() {
+  }
+
+  private static MemberRepository create() {
+    MemberRepository repository = backing(System.getProperty("member.repository", "memory"));
+    Integer cacheSize = Integer.getInteger("member.cache.size");
+    if (cacheSize == null) {
+      return repository;
+    }
+    return new CachingMemberRepository(repository, cacheSize, System.getProperty("member.cache.eviction", "lru"),
+        Long.getLong("member.cache.ttl", 0L));
+  }
+
+  private static MemberRepository backing(String type) {
+    switch (type) {
+      case "memory":
+        return MemoryMemberRepository.getInstance();
+      case "jdbc":
+        String url = System.getProperty("member.jdbc.url", "jdbc:h2:./data/members");
+        try {
+          return JdbcMemberRepository.open(url,
+              System.getProperty("member.jdbc.user", "sa"),
+              System.getProperty("member.jdbc.password", ""),
+              Integer.getInteger("member.jdbc.pool-size", Runtime.getRuntime().availableProcessors() * 2),
+              new MemberIdAllocator(Integer.getInteger("member.id.block-size", 1),
+                  Long.getLong("member.id.monotonic-window", 0L)));
+        } catch (SQLException e) {
+          throw new IllegalStateException("회원 DB 를 열 수 없습니다: " + url, e);
+        }
+      default:
+        throw new IllegalArgumentException("알 수 없는 member.repository 값: " + type);
+    }
+  }
+}
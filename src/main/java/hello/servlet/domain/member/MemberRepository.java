@@ -1,90 +1,87 @@
 package hello.servlet.domain.member;
 
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collection;
 import java.util.List;
-import java.util.Map;
 
 /**
- * 동시성 문제가 고려되어 있지 않음, 실무에서는 ConcurrentHashMap, AtomicLong 사용 고려
+ * 회원 저장소. 서블릿 / 컨트롤러 / JSP 는 이 인터페이스만 보고, 구현은 getInstance() 가 시스템 프로퍼티로 고른다.
+ * - member.repository=memory (기본): MemoryMemberRepository
+ * - member.repository=jdbc: JdbcMemberRepository (내장 H2 파일 DB, 접속 정보는 member.jdbc.*)
+ * - member.cache.size 를 주면 그 앞에 CachingMemberRepository 를 씌운다. (정책 member.cache.eviction, 기본 lru / ttl 은 member.cache.ttl ms)
  */
+public interface MemberRepository {
 
-public class MemberRepository {
-
-  private static Map<Long, Member> store = new HashMap<>();
-  private static long sequence = 0L;
-
-  private static final MemberRepository instance = new MemberRepository();
-
-  public static MemberRepository getInstance() {
-    return instance;
-  }
-
-  //싱글톤 패턴
-  private MemberRepository() {
-
+  static MemberRepository getInstance() {
+    return MemberRepositories.INSTANCE;
   }
 
-  public Member save(Member member) {
-    member.setId(++sequence);
-    store.put(member.getId(), member);
-    return member;
-  }
+  Member save(Member member);
 
-  public Member findById(Long id) {
-    return store.get(id);
-  }
+  /**
+   * 여러 회원을 한 번에 저장한다. (대량 가져오기용) id 는 연속된 구간으로 붙고, 돌아온 뒤에는 묶음 전체가 보인다.
+   * 저장하는 도중의 목록 조회에 묶음이 한 번에 보이는지는 구현마다 다르다.
+   * (jdbc 는 한 트랜잭션, memory 의 hash / columnar / offheap 은 한 번에 공개. sharded 는 샤드별로 공개되어 일부만 보일 수 있음)
+   */
+  List<Member> saveAll(Collection<Member> members);
 
-  public List<Member> findAll() {
-    return new ArrayList<>(store.values());
+  default Member findById(Long id) {
+    if (id == null) {
+      return null;
+    }
+    return findById(id.longValue());
   }
 
-  public void clearStore() {
-    store.clear();
-  }
+  // 박싱 없이 조회하는 오버로드
+  Member findById(long id);
 
-}
+  /**
+   * 현재 회원 전체 (읽기 전용). 순회 중에 다른 요청이 save 해도 목록이 바뀌지 않는다.
+   */
+  List<Member> findAll();
 
-/*
-package hello.servlet.domain.member;
-
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-
-public class MemberRepository {
-
-  private static Map<Long, Member> store = new HashMap<>(); // static 사용
-  private static long sequence = 0L; // static 사용
-
-  private static final MemberRepository instance = new MemberRepository();
-
-  private MemberRepository() {
+  /**
+   * keyset 페이지네이션: id 가 afterId 보다 큰 회원을 id 순서로 최대 limit 명
+   * 다음 페이지는 마지막 회원의 id 를 afterId 로 넘기면 된다. 저장소 크기와 상관없이 limit 에 비례하는 비용
+   */
+  List<Member> findPage(long afterId, int limit);
 
+  default List<Member> findByUsername(String username) {
+    return findByUsername(username, 0L, Integer.MAX_VALUE);
   }
 
-  public Member save(Member member) {
-    member.setId(++sequence);
-    store.put(member.getId(), member);
-    return member;
-  }
+  /**
+   * username 이 정확히 같은 회원을 id 순서로. afterId/limit 은 findPage 와 같은 keyset 페이지네이션
+   */
+  List<Member> findByUsername(String username, long afterId, int limit);
 
-  public Member findById(Long id) {
-    return store.get(id);
-  }
+  /**
+   * username 부분 검색. 정확히 일치 > 접두사 일치 > 중간에 포함 순으로, 같은 이름의 회원은 id 순으로 최대 limit 명
+   */
+  List<Member> searchByUsername(String query, int limit);
 
-  public List<Member> findAll() {
-    return new ArrayList<>(store.values());
+  default List<Member> findByAgeBetween(int minAge, int maxAge) {
+    return findByAgeBetween(minAge, maxAge, Integer.MAX_VALUE);
   }
 
-  public void clearStore() {
-    store.clear();
+  /**
+   * minAge <= age <= maxAge 인 회원을 나이 순(같은 나이는 id 순)으로 최대 limit 명
+   */
+  default List<Member> findByAgeBetween(int minAge, int maxAge, int limit) {
+    return findByAgeBetween(minAge, maxAge, Integer.MIN_VALUE, 0L, limit);
   }
-}
 
+  /**
+   * (age, id) keyset 페이지네이션: 나이 범위 안에서 (age, id) 가 (afterAge, afterId) 보다 큰 회원을 최대 limit 명
+   * 다음 페이지는 마지막 회원의 age, id 를 넘기면 된다. 첫 페이지는 (Integer.MIN_VALUE, 0)
+   */
+  List<Member> findByAgeBetween(int minAge, int maxAge, int afterAge, long afterId, int limit);
 
+  MemberStats getStats();
 
+  int count();
 
+  long countByAgeBetween(int minAge, int maxAge);
 
- */
+  void clearStore();
+
+}
@@ -0,0 +1,40 @@
+package hello.servlet.domain.member;
+
+import java.util.AbstractList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * 특정 시점의 회원 목록 (읽기 전용)
+ * 저장소가 넘겨준 불변 뷰를 감싸기만 하므로 만드는 비용이 O(1)이고, 이후 save 가 일어나도 내용이 바뀌지 않는다.
+ * version 은 save/clearStore 때마다 올라가는 값이라 캐시 키로 쓸 수 있다.
+ */
+public final class MemberSnapshot extends AbstractList<Member> {
+
+  private final long version;
+  private final List<Member> members;
+
+  MemberSnapshot(long version, List<Member> members) {
+    this.version = version;
+    this.members = members;
+  }
+
+  public long getVersion() {
+    return version;
+  }
+
+  @Override
+  public Member get(int index) {
+    return members.get(index);
+  }
+
+  @Override
+  public int size() {
+    return members.size();
+  }
+
+  @Override
+  public Iterator<Member> iterator() {
+    return members.iterator();
+  }
+}
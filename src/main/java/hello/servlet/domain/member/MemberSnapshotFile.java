@@ -0,0 +1,412 @@
+package hello.servlet.domain.member;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * 회원 저장소의 바이너리 스냅샷 파일 (읽기 전용, MappedByteBuffer)
+ * 시작할 때 파일을 매핑만 하고 끝낸다. 회원은 조회될 때 그 자리에서 디코딩하고, 페이지는 OS 가 필요할 때 읽어 온다.
+ *
+ * 파일 구조 (회원은 id 오름차순)
+ * - 헤더: magic(4) | 포맷 버전(4)
+ * - 레코드: id 차이(varint) | age(zigzag varint) | username 길이 + 1 (varint, 0 이면 null) | username UTF-8
+ *   BLOCK_SIZE 개마다 블록을 나누고, 블록 첫 레코드의 id 차이는 0 기준(= id 그대로)
+ * - 블록 인덱스: 블록마다 첫 id(8) | 파일 오프셋(8)
+ * - 푸터: 블록 인덱스 오프셋(8) | 블록 수(4) | 회원 수(4) | 최대 id(8) | WAL 위치(8) | magic(4) | 예약(4)
+ *   WAL 위치는 스냅샷에 다 들어 있는 로그의 끝 (MemberWriteAheadLog.position). 버전 1 파일에는 없어서 0 으로 읽는다.
+ *
+ * id 조회는 블록 인덱스 이진 탐색 + 블록 안에서 최대 BLOCK_SIZE 개 스캔
+ */
+final class MemberSnapshotFile extends AbstractList<Member> {
+
+  static final int BLOCK_SIZE = 64;
+  private static final int MAGIC = 0x4D534E31; // "MSN1"
+  private static final int FORMAT_VERSION = 2;
+  private static final int HEADER_SIZE = 8;
+  private static final int FOOTER_SIZE = 40;
+  private static final int V1_FOOTER_SIZE = 32;
+  private static final int INDEX_ENTRY_SIZE = 16;
+
+  private final ByteBuffer data;
+  private final int indexOffset;
+  private final int blockCount;
+  private final int count;
+  private final long maxId;
+  private final long walPosition;
+
+  private MemberSnapshotFile(ByteBuffer data, int indexOffset, int blockCount, int count, long maxId, long walPosition) {
+    this.data = data;
+    this.indexOffset = indexOffset;
+    this.blockCount = blockCount;
+    this.count = count;
+    this.maxId = maxId;
+    this.walPosition = walPosition;
+  }
+
+  /**
+   * id 오름차순으로 회원을 받아서 스냅샷 파일을 쓴다.
+   * 임시 파일에 다 쓰고 force 한 뒤 이름을 바꾸므로, 도중에 죽어도 기존 스냅샷은 그대로 남는다.
+   */
+  static void write(Path path, Iterable<Member> members) throws IOException {
+    write(path, members, 0L);
+  }
+
+  /**
+   * walPosition: 이 위치 앞의 WAL 레코드는 모두 members 에 들어 있다. (재시작할 때 그 뒤만 replay)
+   */
+  static void write(Path path, Iterable<Member> members, long walPosition) throws IOException {
+    Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+    try (FileChannel channel = FileChannel.open(tmp,
+        StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+      Encoder out = new Encoder(new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16));
+      out.writeInt(MAGIC);
+      out.writeInt(FORMAT_VERSION);
+
+      long[] blockIds = new long[1024];
+      long[] blockOffsets = new long[1024];
+      int blocks = 0;
+      int count = 0;
+      long lastId = 0;
+      for (Member member : members) {
+        long id = member.getId();
+        if (count > 0 && id <= lastId) {
+          throw new IllegalArgumentException("스냅샷은 id 오름차순이어야 합니다: " + lastId + " -> " + id);
+        }
+        if (count % BLOCK_SIZE == 0) {
+          if (blocks == blockIds.length) {
+            blockIds = Arrays.copyOf(blockIds, blocks * 2);
+            blockOffsets = Arrays.copyOf(blockOffsets, blocks * 2);
+          }
+          blockIds[blocks] = id;
+          blockOffsets[blocks] = out.position;
+          blocks++;
+        }
+        out.writeVarLong(count % BLOCK_SIZE == 0 ? id : id - lastId);
+        out.writeVarLong(zigzag(member.getAge()));
+        String username = member.getUsername();
+        if (username == null) {
+          out.writeVarLong(0);
+        } else {
+          byte[] name = username.getBytes(StandardCharsets.UTF_8);
+          out.writeVarLong(name.length + 1L);
+          out.write(name);
+        }
+        lastId = id;
+        count++;
+      }
+
+      long indexOffset = out.position;
+      for (int b = 0; b < blocks; b++) {
+        out.writeLong(blockIds[b]);
+        out.writeLong(blockOffsets[b]);
+      }
+      out.writeLong(indexOffset);
+      out.writeInt(blocks);
+      out.writeInt(count);
+      out.writeLong(lastId);
+      out.writeLong(walPosition);
+      out.writeInt(MAGIC);
+      out.writeInt(0);
+      if (out.position > Integer.MAX_VALUE) {
+        throw new IOException("스냅샷이 2GB 를 넘어서 매핑할 수 없습니다: " + out.position + " bytes");
+      }
+      out.flush();
+      channel.force(true);
+    }
+    Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  /**
+   * 파일을 매핑하고 헤더/푸터만 확인한다. 레코드는 읽지 않는다.
+   * 매핑은 채널을 닫아도 유지되고, 파일이 새 스냅샷으로 바뀌어도 (이름만 바뀌므로) 기존 매핑은 그대로 읽힌다.
+   */
+  static MemberSnapshotFile open(Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      long size = channel.size();
+      if (size < HEADER_SIZE + V1_FOOTER_SIZE || size > Integer.MAX_VALUE) {
+        throw new IOException("스냅샷 파일 크기가 올바르지 않습니다: " + path + " (" + size + " bytes)");
+      }
+      MappedByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+      int version = data.getInt(4);
+      int footerSize = version == 1 ? V1_FOOTER_SIZE : FOOTER_SIZE;
+      int footer = (int) size - footerSize;
+      if (data.getInt(0) != MAGIC || (version != 1 && version != FORMAT_VERSION) || footer < HEADER_SIZE
+          || data.getInt(footer + footerSize - 8) != MAGIC) {
+        throw new IOException("회원 스냅샷 파일이 아닙니다: " + path);
+      }
+      long indexOffset = data.getLong(footer);
+      int blockCount = data.getInt(footer + 8);
+      int count = data.getInt(footer + 12);
+      if (indexOffset < HEADER_SIZE || blockCount < 0 || count < 0
+          || indexOffset + (long) blockCount * INDEX_ENTRY_SIZE != footer
+          || blockCount != (count + (long) BLOCK_SIZE - 1) / BLOCK_SIZE) {
+        throw new IOException("스냅샷 블록 인덱스가 깨졌습니다: " + path);
+      }
+      long walPosition = version == 1 ? 0L : data.getLong(footer + 24);
+      return new MemberSnapshotFile(data, (int) indexOffset, blockCount, count, data.getLong(footer + 16), walPosition);
+    }
+  }
+
+  long maxId() {
+    return maxId;
+  }
+
+  long walPosition() {
+    return walPosition;
+  }
+
+  @Override
+  public int size() {
+    return count;
+  }
+
+  Member find(long id) {
+    if (count == 0 || id < blockFirstId(0) || id > maxId) {
+      return null;
+    }
+    Cursor cursor = new Cursor(blockContaining(id));
+    while (cursor.next()) {
+      if (cursor.id == id) {
+        return cursor.member();
+      }
+      if (cursor.id > id) {
+        return null;
+      }
+    }
+    return null;
+  }
+
+  @Override
+  public Member get(int index) {
+    if (index < 0 || index >= count) {
+      throw new IndexOutOfBoundsException("index: " + index + ", size: " + count);
+    }
+    Cursor cursor = new Cursor(index / BLOCK_SIZE);
+    for (int i = index % BLOCK_SIZE; i >= 0; i--) {
+      cursor.next();
+    }
+    return cursor.member();
+  }
+
+  @Override
+  public Iterator<Member> iterator() {
+    return new Iterator<>() {
+      private final Cursor cursor = new Cursor(0);
+      private boolean ready;
+
+      @Override
+      public boolean hasNext() {
+        if (!ready) {
+          ready = cursor.next();
+        }
+        return ready;
+      }
+
+      @Override
+      public Member next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        ready = false;
+        return cursor.member();
+      }
+    };
+  }
+
+  /**
+   * id 가 afterId 보다 큰 회원을 id 순서로 최대 limit 명. afterId 가 들어 있는 블록부터 읽는다.
+   */
+  List<Member> page(long afterId, int limit) {
+    List<Member> result = new ArrayList<>(Math.min(limit, 1024));
+    if (count == 0 || afterId >= maxId) {
+      return result;
+    }
+    Cursor cursor = new Cursor(afterId < blockFirstId(0) ? 0 : blockContaining(afterId));
+    while (result.size() < limit && cursor.next()) {
+      if (cursor.id > afterId) {
+        result.add(cursor.member());
+      }
+    }
+    return result;
+  }
+
+  long countByAgeBetween(int minAge, int maxAge) {
+    long result = 0;
+    Cursor cursor = new Cursor(0);
+    while (cursor.next()) {
+      if (minAge <= cursor.age && cursor.age <= maxAge) {
+        result++;
+      }
+    }
+    return result;
+  }
+
+  private long blockFirstId(int block) {
+    return data.getLong(indexOffset + block * INDEX_ENTRY_SIZE);
+  }
+
+  private int blockOffset(int block) {
+    return (int) data.getLong(indexOffset + block * INDEX_ENTRY_SIZE + 8);
+  }
+
+  // 첫 id 가 id 이하인 마지막 블록
+  private int blockContaining(long id) {
+    int low = 0;
+    int high = blockCount - 1;
+    while (low < high) {
+      int mid = (low + high + 1) >>> 1;
+      if (blockFirstId(mid) <= id) {
+        low = mid;
+      } else {
+        high = mid - 1;
+      }
+    }
+    return low;
+  }
+
+  private static long zigzag(int value) {
+    return ((value << 1) ^ (value >> 31)) & 0xFFFFFFFFL;
+  }
+
+  private static int unzigzag(long value) {
+    return (int) (value >>> 1) ^ -(int) (value & 1);
+  }
+
+  /**
+   * 블록 시작부터 레코드를 순서대로 디코딩하는 커서 (블록 경계를 넘어 계속 읽을 수 있음)
+   * username 은 member() 를 부를 때만 문자열로 만든다.
+   */
+  private final class Cursor {
+    private int position;
+    private int index;
+    private long id;
+    private int age;
+    private int nameOffset;
+    private int nameLength;
+
+    Cursor(int block) {
+      this.position = blockCount == 0 ? 0 : blockOffset(block);
+      this.index = block * BLOCK_SIZE;
+    }
+
+    boolean next() {
+      if (index >= count) {
+        return false;
+      }
+      long prevId = index % BLOCK_SIZE == 0 ? 0 : id;
+      id = prevId + readVarLong();
+      age = unzigzag(readVarLong());
+      nameLength = (int) readVarLong() - 1;
+      nameOffset = position;
+      if (nameLength > 0) {
+        position += nameLength;
+      }
+      index++;
+      return true;
+    }
+
+    Member member() {
+      String username = null;
+      if (nameLength >= 0) {
+        byte[] bytes = new byte[nameLength];
+        data.get(nameOffset, bytes);
+        username = new String(bytes, StandardCharsets.UTF_8);
+      }
+      return new SnapshotMember(id, username, age);
+    }
+
+    private long readVarLong() {
+      long value = 0;
+      int shift = 0;
+      byte b;
+      do {
+        b = data.get(position++);
+        value |= (long) (b & 0x7F) << shift;
+        shift += 7;
+      } while (b < 0);
+      return value;
+    }
+  }
+
+  /**
+   * 스냅샷에서 읽은 읽기 전용 Member. 수정해도 파일에 반영되지 않으므로 setter 를 막는다.
+   */
+  static final class SnapshotMember extends Member {
+
+    SnapshotMember(long id, String username, int age) {
+      super(username, age);
+      super.setId(id);
+    }
+
+    @Override
+    public void setId(Long id) {
+      throw new UnsupportedOperationException("스냅샷 회원은 수정할 수 없습니다.");
+    }
+
+    @Override
+    public void setUsername(String username) {
+      throw new UnsupportedOperationException("스냅샷 회원은 수정할 수 없습니다.");
+    }
+
+    @Override
+    public void setAge(int age) {
+      throw new UnsupportedOperationException("스냅샷 회원은 수정할 수 없습니다.");
+    }
+  }
+
+  private static final class Encoder {
+    private final OutputStream out;
+    private long position;
+
+    Encoder(OutputStream out) {
+      this.out = out;
+    }
+
+    void write(byte[] bytes) throws IOException {
+      out.write(bytes);
+      position += bytes.length;
+    }
+
+    void writeVarLong(long value) throws IOException {
+      while ((value & ~0x7FL) != 0) {
+        out.write((int) ((value & 0x7F) | 0x80));
+        value >>>= 7;
+        position++;
+      }
+      out.write((int) value);
+      position++;
+    }
+
+    void writeInt(int value) throws IOException {
+      for (int shift = 24; shift >= 0; shift -= 8) {
+        out.write(value >>> shift);
+      }
+      position += 4;
+    }
+
+    void writeLong(long value) throws IOException {
+      writeInt((int) (value >>> 32));
+      writeInt((int) value);
+    }
+
+    void flush() throws IOException {
+      out.flush();
+    }
+  }
+}
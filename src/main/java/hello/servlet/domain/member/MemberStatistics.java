@@ -0,0 +1,159 @@
+package hello.servlet.domain.member;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * save / clearStore 때마다 MemoryMemberRepository 가 함께 갱신하는 회원 통계 (조회는 O(1))
+ * 카운터는 모두 LongAdder / LongAccumulator(스레드별로 나뉜 셀에 더하고 읽을 때 합침)라서 동시에 save 해도 한 변수를 두고 다투지 않는다.
+ *
+ * - 회원 수, 나이 합 / 최소 / 최대
+ * - 나이 히스토그램: 10살 단위 구간 (0~9, 10~19, ..., 90~99, 100 이상), 0 미만은 첫 구간
+ * - 서로 다른 username 수: HyperLogLog 근사치 (레지스터 2^14 개, 표준 오차 약 0.8%)
+ */
+class MemberStatistics {
+
+  static final int BUCKET_WIDTH = 10;
+  static final int BUCKETS = 11;
+
+  private static final int HLL_BITS = 14;
+  private static final int HLL_REGISTERS = 1 << HLL_BITS;
+  // 2^-rank 미리 계산 (추정할 때 레지스터마다 나눗셈을 하지 않도록)
+  private static final double[] INVERSE_POWERS = new double[65];
+
+  static {
+    for (int rank = 0; rank < INVERSE_POWERS.length; rank++) {
+      INVERSE_POWERS[rank] = Math.scalb(1.0, -rank);
+    }
+  }
+
+  private final LongAdder count = new LongAdder();
+  private final LongAdder ageSum = new LongAdder();
+  private final LongAccumulator minAge = new LongAccumulator(Math::min, Long.MAX_VALUE);
+  private final LongAccumulator maxAge = new LongAccumulator(Math::max, Long.MIN_VALUE);
+  private final LongAdder[] histogram = new LongAdder[BUCKETS];
+  private final AtomicIntegerArray registers = new AtomicIntegerArray(HLL_REGISTERS);
+
+  MemberStatistics() {
+    for (int i = 0; i < BUCKETS; i++) {
+      histogram[i] = new LongAdder();
+    }
+  }
+
+  void add(Member member) {
+    int age = member.getAge();
+    count.increment();
+    ageSum.add(age);
+    minAge.accumulate(age);
+    maxAge.accumulate(age);
+    histogram[bucketOf(age)].increment();
+    if (member.getUsername() != null) {
+      addUsername(member.getUsername());
+    }
+  }
+
+  /**
+   * 용량 제한으로 내보낸 회원을 뺀다. 회원 수 / 나이 합 / 히스토그램만 줄고,
+   * 최소 / 최대 나이와 username 종류 수는 되돌릴 수 없어서 clearStore 이후 저장된 적 있는 회원 기준으로 남는다.
+   */
+  void remove(Member member) {
+    int age = member.getAge();
+    count.decrement();
+    ageSum.add(-age);
+    histogram[bucketOf(age)].decrement();
+  }
+
+  /**
+   * clearStore 와 동시에 들어온 save 는 초기화 전후 어느 쪽에 들어갈지 보장하지 않는다. (LongAdder.reset 과 같은 조건)
+   */
+  void clear() {
+    count.reset();
+    ageSum.reset();
+    minAge.reset();
+    maxAge.reset();
+    for (LongAdder bucket : histogram) {
+      bucket.reset();
+    }
+    for (int i = 0; i < HLL_REGISTERS; i++) {
+      registers.set(i, 0);
+    }
+  }
+
+  MemberStats snapshot() {
+    long count = this.count.sum();
+    long[] buckets = new long[BUCKETS];
+    for (int i = 0; i < BUCKETS; i++) {
+      buckets[i] = histogram[i].sum();
+    }
+    Map<String, Long> ageHistogram = ageHistogram(buckets);
+    if (count == 0) {
+      return new MemberStats(0, 0, null, null, ageHistogram, 0);
+    }
+    return new MemberStats(count, ageSum.sum(), (int) minAge.get(), (int) maxAge.get(), ageHistogram, distinctUsernames());
+  }
+
+  static int bucketOf(int age) {
+    return Math.max(0, Math.min(BUCKETS - 1, age / BUCKET_WIDTH));
+  }
+
+  /**
+   * 구간별 회원 수(BUCKETS 개) -> "0-9", "10-19", ..., "100+" 라벨 순서의 읽기 전용 맵 (JdbcMemberRepository 도 같은 모양으로 만든다)
+   */
+  static Map<String, Long> ageHistogram(long[] buckets) {
+    Map<String, Long> ageHistogram = new LinkedHashMap<>();
+    for (int i = 0; i < BUCKETS; i++) {
+      String label = i == BUCKETS - 1
+          ? (i * BUCKET_WIDTH) + "+"
+          : (i * BUCKET_WIDTH) + "-" + (i * BUCKET_WIDTH + BUCKET_WIDTH - 1);
+      ageHistogram.put(label, buckets[i]);
+    }
+    return Collections.unmodifiableMap(ageHistogram);
+  }
+
+  /**
+   * HyperLogLog: 해시 상위 HLL_BITS 비트로 레지스터를 고르고, 나머지 비트의 앞쪽 0 개수 + 1 중 최댓값만 기록한다.
+   * 이미 더 큰 값이 있으면 읽기만 하고 끝나므로 대부분의 save 에서는 쓰기가 일어나지 않는다.
+   */
+  private void addUsername(String username) {
+    long hash = hash64(username);
+    int index = (int) (hash >>> (64 - HLL_BITS));
+    int rank = Long.numberOfLeadingZeros((hash << HLL_BITS) | (1L << (HLL_BITS - 1))) + 1;
+    int current = registers.get(index);
+    while (rank > current && !registers.compareAndSet(index, current, rank)) {
+      current = registers.get(index);
+    }
+  }
+
+  long distinctUsernames() {
+    double sum = 0;
+    int zeros = 0;
+    for (int i = 0; i < HLL_REGISTERS; i++) {
+      int register = registers.get(i);
+      sum += INVERSE_POWERS[register];
+      if (register == 0) {
+        zeros++;
+      }
+    }
+    double alpha = 0.7213 / (1 + 1.079 / HLL_REGISTERS);
+    double estimate = alpha * HLL_REGISTERS * HLL_REGISTERS / sum;
+    // 작은 범위 보정: 빈 레지스터가 남아 있을 정도로 적으면 linear counting 이 더 정확하다
+    if (estimate <= 2.5 * HLL_REGISTERS && zeros > 0) {
+      estimate = HLL_REGISTERS * Math.log((double) HLL_REGISTERS / zeros);
+    }
+    return Math.round(estimate);
+  }
+
+  // String.hashCode 는 32비트라 수천만 개부터 충돌이 많아서, FNV-1a 64비트 + fmix64 로 섞는다
+  private static long hash64(String value) {
+    long hash = 0xcbf29ce484222325L;
+    for (int i = 0; i < value.length(); i++) {
+      hash ^= value.charAt(i);
+      hash *= 0x100000001b3L;
+    }
+    return LongMemberMap.hash(hash);
+  }
+}
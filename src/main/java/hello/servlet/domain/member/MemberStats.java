@@ -0,0 +1,33 @@
+package hello.servlet.domain.member;
+
+import lombok.Getter;
+
+import java.util.Map;
+
+/**
+ * MemberRepository.getStats() 가 돌려주는 회원 통계 (읽은 시점의 값, 불변)
+ * 회원이 없으면 minAge / maxAge 는 null
+ */
+@Getter
+public class MemberStats {
+
+  private final long count;
+  private final long ageSum;
+  private final Integer minAge;
+  private final Integer maxAge;
+  private final Map<String, Long> ageHistogram;
+  private final long distinctUsernames;
+
+  MemberStats(long count, long ageSum, Integer minAge, Integer maxAge, Map<String, Long> ageHistogram, long distinctUsernames) {
+    this.count = count;
+    this.ageSum = ageSum;
+    this.minAge = minAge;
+    this.maxAge = maxAge;
+    this.ageHistogram = ageHistogram;
+    this.distinctUsernames = distinctUsernames;
+  }
+
+  public double getAverageAge() {
+    return count == 0 ? 0.0 : (double) ageSum / count;
+  }
+}
@@ -0,0 +1,73 @@
+package hello.servlet.domain.member;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * MemoryMemberRepository 내부 저장 방식(저장 모드)을 갈아끼우기 위한 인터페이스
+ * id 발급은 MemoryMemberRepository 가 하고, 저장소는 이미 id 가 붙은 Member 만 받는다.
+ */
+interface MemberStore {
+
+  void put(Member member);
+
+  /**
+   * 여러 회원을 한 번에 넣는다. members 는 id 오름차순 (MemoryMemberRepository.saveAll 이 연속된 id 를 붙여서 넘긴다)
+   * 저장소마다 미리 크기를 키운다. 단일 저장소는 목록 조회(values / findPage)에 묶음이 한 번에 보이도록 구현하고,
+   * ShardedMemberStore 는 샤드마다 따로 공개한다. (샤드 락을 한꺼번에 잡지 않으므로 넣는 도중에는 일부 샤드 몫만 보일 수 있음)
+   */
+  default void putAll(List<Member> members) {
+    for (Member member : members) {
+      put(member);
+    }
+  }
+
+  Member get(long id);
+
+  /**
+   * 회원 하나를 지운다. (BoundedMemberStore 의 eviction 용) 지운 회원, 없으면 null
+   * 추가만 하는 구조(columnar / offheap)는 지원하지 않는다.
+   */
+  default Member remove(long id) {
+    throw new UnsupportedOperationException("이 저장 모드는 삭제를 지원하지 않습니다: " + getClass().getSimpleName());
+  }
+
+  List<Member> values();
+
+  /**
+   * id 가 afterId 보다 큰 회원을 id 오름차순으로 최대 limit 명 (keyset 페이지네이션)
+   */
+  List<Member> findPage(long afterId, int limit);
+
+  int size();
+
+  long countByAgeBetween(int minAge, int maxAge);
+
+  /**
+   * minAge <= age <= maxAge 인 회원을 top 에 (age, id) 로 넣는다. 보조 인덱스 없이 훑는 모드(ScanningMemberIndex)용
+   * 기본 구현은 values() 를 훑는다. columnar / offheap 은 Member 를 만들지 않고 나이 컬럼 / 슬롯 버퍼를 바로 읽는다.
+   */
+  default void scanAges(int minAge, int maxAge, MemberTopK top) {
+    for (Member member : values()) {
+      int age = member.getAge();
+      if (minAge <= age && age <= maxAge) {
+        top.offer(age, member.getId());
+      }
+    }
+  }
+
+  /**
+   * username 이 byUsername 의 키 중 하나인 회원을 그 이름의 top 에 (0, id) 로 넣는다. (한 번만 훑는다)
+   */
+  default void scanUsernames(Map<String, MemberTopK> byUsername) {
+    for (Member member : values()) {
+      MemberTopK top = byUsername.get(member.getUsername());
+      if (top != null) {
+        top.offer(0, member.getId());
+      }
+    }
+  }
+
+  void clear();
+
+}
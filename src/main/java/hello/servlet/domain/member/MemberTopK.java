@@ -0,0 +1,119 @@
+package hello.servlet.domain.member;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * (age, id) 가 가장 작은 limit 개만 남기는 고정 크기 max-heap. 기본형 배열만 쓴다.
+ * 보조 인덱스 없이 저장소를 훑는 조회(columnar / offheap)가 Member 를 만들지 않고 후보를 모을 때 쓴다.
+ * id 순서만 필요하면(username 조회) age 는 모두 0 으로 넣는다.
+ * keyset 페이지네이션용으로 하한 (afterAge, afterId) 를 주면 그 이하인 키는 받지 않는다.
+ */
+final class MemberTopK {
+
+  private final int limit;
+  private final int afterAge;
+  private final long afterId;
+  private int[] ages;
+  private long[] ids;
+  private int size;
+
+  MemberTopK(int limit) {
+    this(limit, Integer.MIN_VALUE, Long.MIN_VALUE);
+  }
+
+  MemberTopK(int limit, int afterAge, long afterId) {
+    this.limit = limit;
+    this.afterAge = afterAge;
+    this.afterId = afterId;
+    int capacity = Math.max(0, Math.min(limit, 64));
+    ages = new int[capacity];
+    ids = new long[capacity];
+  }
+
+  void offer(int age, long id) {
+    if (compare(age, id, afterAge, afterId) <= 0) {
+      return;
+    }
+    if (size < limit) {
+      if (size == ids.length) {
+        int capacity = (int) Math.min(limit, Math.max(16L, ids.length * 2L));
+        ages = Arrays.copyOf(ages, capacity);
+        ids = Arrays.copyOf(ids, capacity);
+      }
+      int i = size++;
+      // 위로 올린다
+      while (i > 0) {
+        int parent = (i - 1) >>> 1;
+        if (compare(ages[parent], ids[parent], age, id) >= 0) {
+          break;
+        }
+        ages[i] = ages[parent];
+        ids[i] = ids[parent];
+        i = parent;
+      }
+      ages[i] = age;
+      ids[i] = id;
+      return;
+    }
+    if (size == 0 || compare(age, id, ages[0], ids[0]) >= 0) {
+      return; // 지금 남긴 것 중 가장 큰 것보다 크면 들어갈 자리가 없다
+    }
+    ages[0] = age;
+    ids[0] = id;
+    siftDown(0, size);
+  }
+
+  int size() {
+    return size;
+  }
+
+  /**
+   * 남은 id 를 (age, id) 오름차순으로 꺼낸다. 힙은 여기서 정렬되므로 한 번만 부른다.
+   */
+  List<Long> sortedIds() {
+    for (int end = size - 1; end > 0; end--) {
+      swap(0, end);
+      siftDown(0, end);
+    }
+    List<Long> result = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      result.add(ids[i]);
+    }
+    return result;
+  }
+
+  private void siftDown(int i, int end) {
+    while (true) {
+      int largest = i;
+      int left = 2 * i + 1;
+      int right = left + 1;
+      if (left < end && compare(ages[left], ids[left], ages[largest], ids[largest]) > 0) {
+        largest = left;
+      }
+      if (right < end && compare(ages[right], ids[right], ages[largest], ids[largest]) > 0) {
+        largest = right;
+      }
+      if (largest == i) {
+        return;
+      }
+      swap(i, largest);
+      i = largest;
+    }
+  }
+
+  private void swap(int a, int b) {
+    int age = ages[a];
+    ages[a] = ages[b];
+    ages[b] = age;
+    long id = ids[a];
+    ids[a] = ids[b];
+    ids[b] = id;
+  }
+
+  private static int compare(int ageA, long idA, int ageB, long idB) {
+    int byAge = Integer.compare(ageA, ageB);
+    return byAge != 0 ? byAge : Long.compare(idA, idB);
+  }
+}
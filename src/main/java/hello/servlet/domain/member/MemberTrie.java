@@ -0,0 +1,280 @@
+package hello.servlet.domain.member;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.ToLongFunction;
+
+/**
+ * id 를 키로 하는 불변(persistent) 32갈래 트라이
+ * 수정할 때는 루트에서 해당 id 까지의 경로 노드만 복사하고 나머지 노드는 이전 버전과 그대로 공유한다. (structural sharing)
+ * 그래서 한 번 잡은 MemberTrie 는 이후 save 가 계속 일어나도 절대 바뀌지 않는 시점 스냅샷이 된다.
+ *
+ * 노드마다 하위 원소 개수를 들고 있어서 get(index) 도 O(log32 n), 순회는 id 오름차순
+ */
+final class MemberTrie extends AbstractList<Member> {
+
+  private static final int BITS = 5;
+  private static final int WIDTH = 1 << BITS;
+  private static final int MASK = WIDTH - 1;
+
+  static final MemberTrie EMPTY = new MemberTrie(null, 0);
+
+  private final Node root;
+  // 루트 노드가 담당하는 비트 위치. 루트는 id < 2^(shift + BITS) 범위를 담는다
+  private final int shift;
+
+  private static final class Node {
+    final Object[] slots;
+    final int count;
+
+    Node(Object[] slots, int count) {
+      this.slots = slots;
+      this.count = count;
+    }
+  }
+
+  private MemberTrie(Node root, int shift) {
+    this.root = root;
+    this.shift = shift;
+  }
+
+  @Override
+  public int size() {
+    return root == null ? 0 : root.count;
+  }
+
+  Member find(long id) {
+    if (root == null || id < 0 || !fits(id, shift)) {
+      return null;
+    }
+    Node node = root;
+    for (int level = shift; level > 0; level -= BITS) {
+      node = (Node) node.slots[(int) (id >>> level) & MASK];
+      if (node == null) {
+        return null;
+      }
+    }
+    return (Member) node.slots[(int) id & MASK];
+  }
+
+  MemberTrie with(long id, Member member) {
+    Node root = this.root;
+    int shift = this.shift;
+    if (root == null) {
+      root = new Node(new Object[WIDTH], 0);
+      shift = 0;
+    }
+    // id 가 현재 트라이 범위를 넘으면 루트 위에 층을 하나씩 올린다
+    while (!fits(id, shift)) {
+      Object[] slots = new Object[WIDTH];
+      slots[0] = root;
+      root = new Node(slots, root.count);
+      shift += BITS;
+    }
+    return new MemberTrie(set(root, shift, id, member), shift);
+  }
+
+  /**
+   * 여러 회원을 한 번에 넣은 새 트라이. members 는 키(keyOf) 오름차순이어야 한다.
+   * 같은 노드를 지나는 id 들을 묶어서 내려가므로 노드마다 한 번만 복사한다. (with 를 반복하면 id 마다 경로 전체를 복사)
+   */
+  MemberTrie withAll(List<Member> members, ToLongFunction<Member> keyOf) {
+    if (members.isEmpty()) {
+      return this;
+    }
+    Node root = this.root;
+    int shift = this.shift;
+    if (root == null) {
+      root = new Node(new Object[WIDTH], 0);
+      shift = 0;
+    }
+    long maxId = keyOf.applyAsLong(members.get(members.size() - 1));
+    while (!fits(maxId, shift)) {
+      Object[] slots = new Object[WIDTH];
+      slots[0] = root;
+      root = new Node(slots, root.count);
+      shift += BITS;
+    }
+    return new MemberTrie(setAll(root, shift, members, keyOf, 0, members.size()), shift);
+  }
+
+  MemberTrie without(long id) {
+    if (find(id) == null) {
+      return this;
+    }
+    return new MemberTrie(set(root, shift, id, null), shift);
+  }
+
+  private static boolean fits(long id, int shift) {
+    return shift + BITS >= 63 || (id >>> (shift + BITS)) == 0;
+  }
+
+  private static Node set(Node node, int level, long id, Member member) {
+    int index = (int) (id >>> level) & MASK;
+    Object[] slots = node == null ? new Object[WIDTH] : node.slots.clone();
+    int count = node == null ? 0 : node.count;
+    if (level == 0) {
+      count += (member != null ? 1 : 0) - (slots[index] != null ? 1 : 0);
+      slots[index] = member;
+    } else {
+      Node child = (Node) slots[index];
+      int before = child == null ? 0 : child.count;
+      Node updated = set(child, level - BITS, id, member);
+      count += updated.count - before;
+      slots[index] = updated.count == 0 ? null : updated;
+    }
+    return new Node(slots, count);
+  }
+
+  private static Node setAll(Node node, int level, List<Member> members, ToLongFunction<Member> keyOf, int from, int to) {
+    Object[] slots = node == null ? new Object[WIDTH] : node.slots.clone();
+    int count = node == null ? 0 : node.count;
+    int i = from;
+    while (i < to) {
+      int index = (int) (keyOf.applyAsLong(members.get(i)) >>> level) & MASK;
+      if (level == 0) {
+        count += slots[index] == null ? 1 : 0;
+        slots[index] = members.get(i++);
+        continue;
+      }
+      // 같은 자식으로 내려가는 구간 [i, end)
+      int end = i + 1;
+      while (end < to && ((int) (keyOf.applyAsLong(members.get(end)) >>> level) & MASK) == index) {
+        end++;
+      }
+      Node child = (Node) slots[index];
+      int before = child == null ? 0 : child.count;
+      Node updated = setAll(child, level - BITS, members, keyOf, i, end);
+      count += updated.count - before;
+      slots[index] = updated;
+      i = end;
+    }
+    return new Node(slots, count);
+  }
+
+  @Override
+  public Member get(int index) {
+    if (index < 0 || index >= size()) {
+      throw new IndexOutOfBoundsException("index: " + index + ", size: " + size());
+    }
+    Node node = root;
+    for (int level = shift; level > 0; level -= BITS) {
+      for (Object slot : node.slots) {
+        Node child = (Node) slot;
+        if (child == null) {
+          continue;
+        }
+        if (index < child.count) {
+          node = child;
+          break;
+        }
+        index -= child.count;
+      }
+    }
+    for (Object slot : node.slots) {
+      if (slot != null && index-- == 0) {
+        return (Member) slot;
+      }
+    }
+    throw new IllegalStateException("트라이 개수 정보가 맞지 않습니다.");
+  }
+
+  @Override
+  public Iterator<Member> iterator() {
+    return new TrieIterator(0L);
+  }
+
+  /**
+   * afterId 보다 큰 id 를 오름차순으로 최대 limit 개. afterId 위치까지 바로 내려가므로 O(log32 n + limit)
+   */
+  List<Member> page(long afterId, int limit) {
+    List<Member> result = new ArrayList<>(Math.min(limit, size()));
+    if (afterId == Long.MAX_VALUE) {
+      return result;
+    }
+    TrieIterator iterator = new TrieIterator(Math.max(afterId + 1, 0L));
+    while (result.size() < limit && iterator.hasNext()) {
+      result.add(iterator.next());
+    }
+    return result;
+  }
+
+  /**
+   * 깊이 우선으로 id 오름차순 순회. 비어 있는 하위 트리는 통째로 건너뛴다
+   */
+  private final class TrieIterator implements Iterator<Member> {
+    private final Node[] nodes = new Node[64 / BITS + 2];
+    private final int[] positions = new int[nodes.length];
+    private int depth = -1;
+    private Member next;
+
+    TrieIterator(long fromId) {
+      if (root != null && fits(fromId, shift)) {
+        seek(fromId);
+      }
+      advance();
+    }
+
+    // fromId 로 가는 경로를 스택에 쌓아 둔다. 경로 중간이 비어 있으면 그 다음 형제부터 보면 된다
+    private void seek(long fromId) {
+      depth = 0;
+      nodes[0] = root;
+      for (int level = shift; ; level -= BITS) {
+        int index = (int) (fromId >>> level) & MASK;
+        if (level == 0) {
+          positions[depth] = index;
+          return;
+        }
+        Node child = (Node) nodes[depth].slots[index];
+        positions[depth] = index + 1;
+        if (child == null) {
+          return;
+        }
+        depth++;
+        nodes[depth] = child;
+      }
+    }
+
+    private void advance() {
+      next = null;
+      while (depth >= 0) {
+        Node node = nodes[depth];
+        int position = positions[depth];
+        if (position == WIDTH) {
+          depth--;
+          continue;
+        }
+        positions[depth] = position + 1;
+        Object slot = node.slots[position];
+        if (slot == null) {
+          continue;
+        }
+        if (shift - depth * BITS == 0) {
+          next = (Member) slot;
+          return;
+        }
+        depth++;
+        nodes[depth] = (Node) slot;
+        positions[depth] = 0;
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      return next != null;
+    }
+
+    @Override
+    public Member next() {
+      if (next == null) {
+        throw new NoSuchElementException();
+      }
+      Member result = next;
+      advance();
+      return result;
+    }
+  }
+}
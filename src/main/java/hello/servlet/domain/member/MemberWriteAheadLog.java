@@ -0,0 +1,452 @@
+package hello.servlet.domain.member;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+/**
+ * 회원 저장용 append-only 선행 기록 로그(WAL)
+ * save 는 저장소에 넣기 전에 여기에 먼저 기록하고, 재시작하면 replay 로 저장소를 다시 채운다.
+ *
+ * 파일 헤더: magic(4) | 포맷 버전(4) | 시작 위치(8)
+ * 레코드: [payload 길이(4) | CRC32C(4) | id(8) | age(4) | username 길이(4, null 이면 -1) | username UTF-8]
+ * payload 는 MAX_PAYLOAD 를 넘을 수 없다. 그보다 긴 username 은 기록할 때 IllegalArgumentException 으로 거절한다.
+ * 파일 끝의 레코드가 쓰다 만 상태(길이 부족, CRC 불일치, 0 으로 채워진 꼬리)면 replay 가 거기서 멈추고 파일을 잘라낸다.
+ * 그 밖의 손상(범위를 벗어난 길이, 뒤에 레코드가 더 있는데 CRC 불일치)은 잘라내지 않고 IOException 으로 열기를 실패시킨다.
+ * (뒤의 멀쩡한 레코드까지 지우지 않도록)
+ *
+ * 위치(position): 로그를 처음 만든 뒤로 기록된 레코드 바이트 수. 헤더의 시작 위치는 파일 첫 레코드의 위치다.
+ * 스냅샷이 position() 을 함께 기록해 두면, 스냅샷을 다 쓴 뒤 checkpoint 로 그 앞부분을 떼어 내고
+ * 재시작할 때는 open 에 그 위치를 넘겨서 뒤쪽(tail)만 replay 한다.
+ *
+ * SyncPolicy
+ * - ALWAYS: 디스크에 force 된 뒤에 save 가 끝난다. 동시에 들어온 save 들은 한 번의 write + force 를 나눠 쓴다. (group commit)
+ * - INTERVAL: 바로 write 하고, 백그라운드 스레드가 intervalMillis 마다 force. 장애 시 최대 그 시간만큼 유실 가능
+ * - OS: write 만 하고 force 는 OS 에 맡긴다. 프로세스가 죽어도 남지만 전원 장애에는 유실 가능
+ */
+class MemberWriteAheadLog implements AutoCloseable {
+
+  enum SyncPolicy {
+    ALWAYS, INTERVAL, OS
+  }
+
+  private static final int MAGIC = 0x4D574C31; // "MWL1"
+  private static final int FORMAT_VERSION = 1;
+  static final int FILE_HEADER_SIZE = 16;
+  private static final int HEADER_SIZE = 8;
+  private static final int MIN_PAYLOAD = 16;
+  static final int MAX_PAYLOAD = 1 << 20;
+
+  private final Path path;
+  // checkpoint 가 새 파일로 바꾼다. (lock 으로 보호, forceQuietly 만 락 없이 읽음)
+  private volatile FileChannel channel;
+  private long startPosition;
+  private final SyncPolicy policy;
+  private final ScheduledExecutorService syncer;
+
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition flushed = lock.newCondition();
+
+  // lock 으로 보호되는 group commit 상태
+  private ByteBuffer pending = ByteBuffer.allocate(64 * 1024);
+  private ByteBuffer spare = ByteBuffer.allocate(64 * 1024);
+  private long appendedSeq;
+  private long durableSeq;
+  private boolean flushing;
+  private IOException failure;
+
+  private MemberWriteAheadLog(Path path, FileChannel channel, long startPosition, SyncPolicy policy, long intervalMillis) {
+    this.path = path;
+    this.channel = channel;
+    this.startPosition = startPosition;
+    this.policy = policy;
+    if (policy == SyncPolicy.INTERVAL) {
+      syncer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "member-wal-sync");
+        thread.setDaemon(true);
+        return thread;
+      });
+      syncer.scheduleWithFixedDelay(this::forceQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    } else {
+      syncer = null;
+    }
+  }
+
+  /**
+   * 로그 파일을 열고 기존 레코드를 순서대로 replayer 에 넘긴 뒤, 끝에 이어 쓸 수 있는 상태로 돌려준다.
+   */
+  static MemberWriteAheadLog open(Path path, SyncPolicy policy, long intervalMillis, Consumer<Member> replayer) throws IOException {
+    return open(path, policy, intervalMillis, 0L, replayer);
+  }
+
+  /**
+   * checkpoint 위치 앞의 레코드는 (스냅샷에 이미 들어 있으므로) 건너뛰고 그 뒤만 replay 한다.
+   * 로그가 checkpoint 보다 짧으면 (스냅샷만 남고 로그가 사라졌으면) 비우고 checkpoint 부터 이어 쓴다.
+   */
+  static MemberWriteAheadLog open(Path path, SyncPolicy policy, long intervalMillis, long checkpoint,
+      Consumer<Member> replayer) throws IOException {
+    FileChannel channel = FileChannel.open(path,
+        StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    try {
+      long start;
+      if (channel.size() < FILE_HEADER_SIZE) {
+        start = reset(channel, checkpoint); // 새 파일 (또는 헤더를 쓰다 죽음)
+      } else {
+        start = readHeader(channel, path);
+      }
+      long from = FILE_HEADER_SIZE;
+      if (checkpoint > start) {
+        from += checkpoint - start;
+        if (from >= channel.size()) {
+          start = reset(channel, checkpoint);
+          from = FILE_HEADER_SIZE;
+        }
+      }
+      long validLength = replay(channel, from, replayer);
+      if (validLength < channel.size()) {
+        channel.truncate(validLength);
+      }
+      channel.position(validLength);
+      return new MemberWriteAheadLog(path, channel, start, policy, intervalMillis);
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  private static long readHeader(FileChannel channel, Path path) throws IOException {
+    ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_SIZE);
+    while (header.hasRemaining()) {
+      if (channel.read(header, header.position()) < 0) {
+        break;
+      }
+    }
+    if (header.getInt(0) != MAGIC || header.getInt(4) != FORMAT_VERSION) {
+      throw new IOException("회원 WAL 파일이 아닙니다: " + path);
+    }
+    return header.getLong(8);
+  }
+
+  // 레코드를 모두 버리고 헤더만 남긴다. 다음 레코드의 위치는 start
+  private static long reset(FileChannel channel, long start) throws IOException {
+    channel.truncate(0);
+    writeHeader(channel, start);
+    channel.force(true);
+    return start;
+  }
+
+  private static void writeHeader(FileChannel channel, long start) throws IOException {
+    ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_SIZE).putInt(MAGIC).putInt(FORMAT_VERSION).putLong(start).flip();
+    while (header.hasRemaining()) {
+      channel.write(header, header.position());
+    }
+  }
+
+  private static long replay(FileChannel channel, long from, Consumer<Member> replayer) throws IOException {
+    channel.position(from);
+    long fileSize = channel.size();
+    InputStream in = new BufferedInputStream(Channels.newInputStream(channel), 1 << 16);
+    DataInputStream data = new DataInputStream(in);
+    CRC32C crc = new CRC32C();
+    long validLength = from;
+    while (fileSize - validLength >= HEADER_SIZE) {
+      int length = data.readInt();
+      int checksum = data.readInt();
+      if (length == 0 && checksum == 0) {
+        break; // 파일 시스템이 늘려 둔 0 꼬리 (헤더도 못 쓰고 죽음)
+      }
+      if (length < MIN_PAYLOAD || length > MAX_PAYLOAD) {
+        throw new IOException("WAL 이 손상되었습니다: offset " + validLength + " 의 레코드 길이 " + length);
+      }
+      long end = validLength + HEADER_SIZE + length;
+      if (end > fileSize) {
+        break; // 마지막 레코드를 쓰다 말았음
+      }
+      byte[] payload = new byte[length];
+      data.readFully(payload);
+      crc.reset();
+      crc.update(payload);
+      if ((int) crc.getValue() != checksum) {
+        if (end == fileSize) {
+          break; // 마지막 레코드가 찢어졌음
+        }
+        throw new IOException("WAL 이 손상되었습니다: offset " + validLength + " 의 CRC 불일치");
+      }
+      replayer.accept(decode(ByteBuffer.wrap(payload)));
+      validLength = end;
+    }
+    return validLength;
+  }
+
+  private static Member decode(ByteBuffer payload) {
+    long id = payload.getLong();
+    int age = payload.getInt();
+    int nameLength = payload.getInt();
+    String username = null;
+    if (nameLength >= 0) {
+      username = new String(payload.array(), payload.position(), nameLength, StandardCharsets.UTF_8);
+    }
+    Member member = new Member(username, age);
+    member.setId(id);
+    return member;
+  }
+
+  /**
+   * 레코드를 로그에 붙인다. ALWAYS 정책이면 디스크에 force 될 때까지 기다린다.
+   */
+  void append(Member member) throws IOException {
+    appendAll(List.of(member));
+  }
+
+  /**
+   * 여러 레코드를 한 번의 write 로 붙인다. (ALWAYS 정책이면 force 도 한 번 기다림)
+   */
+  void appendAll(List<Member> members) throws IOException {
+    ByteBuffer records = encode(members);
+
+    lock.lock();
+    try {
+      checkFailure();
+      if (policy != SyncPolicy.ALWAYS) {
+        writeFully(records);
+        return;
+      }
+      pending = ensureCapacity(pending, records.remaining());
+      pending.put(records);
+      long seq = ++appendedSeq;
+      awaitDurable(seq);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private static ByteBuffer encode(List<Member> members) {
+    byte[][] names = new byte[members.size()][];
+    int total = 0;
+    for (int i = 0; i < names.length; i++) {
+      String username = members.get(i).getUsername();
+      names[i] = username == null ? null : username.getBytes(StandardCharsets.UTF_8);
+      if (names[i] != null && names[i].length > MAX_PAYLOAD - MIN_PAYLOAD) {
+        throw new IllegalArgumentException("username 이 너무 깁니다: " + names[i].length + " bytes (최대 "
+            + (MAX_PAYLOAD - MIN_PAYLOAD) + ")");
+      }
+      total += HEADER_SIZE + MIN_PAYLOAD + (names[i] == null ? 0 : names[i].length);
+    }
+
+    ByteBuffer records = ByteBuffer.allocate(total);
+    CRC32C crc = new CRC32C();
+    for (int i = 0; i < names.length; i++) {
+      Member member = members.get(i);
+      byte[] name = names[i];
+      int start = records.position();
+      int length = MIN_PAYLOAD + (name == null ? 0 : name.length);
+      records.position(start + HEADER_SIZE);
+      records.putLong(member.getId());
+      records.putInt(member.getAge());
+      records.putInt(name == null ? -1 : name.length);
+      if (name != null) {
+        records.put(name);
+      }
+      crc.reset();
+      crc.update(records.array(), start + HEADER_SIZE, length);
+      records.putInt(start, length);
+      records.putInt(start + 4, (int) crc.getValue());
+    }
+    records.flip();
+    return records;
+  }
+
+  /**
+   * group commit: 먼저 온 스레드가 리더가 되어 그때까지 쌓인 레코드를 한 번에 write + force 하고,
+   * 그동안 들어온 스레드들은 다음 묶음에 쌓인 채 기다리다가 다음 리더가 처리한다.
+   */
+  private void awaitDurable(long seq) throws IOException {
+    while (durableSeq < seq) {
+      checkFailure();
+      if (flushing) {
+        flushed.awaitUninterruptibly();
+        continue;
+      }
+      flushing = true;
+      ByteBuffer batch = pending;
+      pending = spare;
+      long target = appendedSeq;
+
+      lock.unlock();
+      IOException error = null;
+      try {
+        batch.flip();
+        writeFully(batch);
+        channel.force(false);
+      } catch (IOException e) {
+        error = e;
+      } finally {
+        lock.lock();
+      }
+
+      batch.clear();
+      spare = batch;
+      flushing = false;
+      if (error != null) {
+        failure = error;
+      } else {
+        durableSeq = target;
+      }
+      flushed.signalAll();
+    }
+  }
+
+  private void writeFully(ByteBuffer buffer) throws IOException {
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+  }
+
+  private static ByteBuffer ensureCapacity(ByteBuffer buffer, int extra) {
+    if (buffer.remaining() >= extra) {
+      return buffer;
+    }
+    ByteBuffer grown = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + extra));
+    buffer.flip();
+    grown.put(buffer);
+    return grown;
+  }
+
+  private void checkFailure() throws IOException {
+    if (failure != null) {
+      throw new IOException("WAL 쓰기에 실패해서 더 이상 기록할 수 없습니다.", failure);
+    }
+  }
+
+  /**
+   * clearStore: 로그를 비운다. 진행 중인 group commit 이 끝날 때까지 기다린 뒤 자른다.
+   * 아직 쓰지 않고 쌓여 있던 레코드도 버린다. (자른 뒤 같은 자리에 다시 써져서 재시작 때 살아나지 않도록)
+   * 그 레코드를 기다리던 append 는 기록된 것으로 보고 돌아간다.
+   * 위치는 되돌리지 않는다. (헤더의 시작 위치를 지금 끝으로 옮김)
+   */
+  void truncate() throws IOException {
+    lock.lock();
+    try {
+      while (flushing) {
+        flushed.awaitUninterruptibly();
+      }
+      checkFailure();
+      pending.clear();
+      durableSeq = appendedSeq;
+      flushed.signalAll();
+      long end = startPosition + channel.position() - FILE_HEADER_SIZE;
+      startPosition = reset(channel, end);
+      channel.position(FILE_HEADER_SIZE);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * 지금까지 파일에 쓴 레코드의 끝 위치. 스냅샷 푸터에 기록해 두고 checkpoint / open 에 넘긴다.
+   * 진행 중인 append 가 없을 때 불러야 한다. (group commit 에 쌓여 있는 레코드는 세지 않으므로)
+   */
+  long position() throws IOException {
+    lock.lock();
+    try {
+      return startPosition + channel.position() - FILE_HEADER_SIZE;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * position 앞의 레코드를 떼어 낸다. (그 앞은 스냅샷에 들어 있다)
+   * 뒤쪽 레코드만 임시 파일에 복사하고 force 한 뒤 이름을 바꾸므로, 도중에 죽어도 기존 로그가 그대로 남는다.
+   * 복사하는 동안은 append 가 기다린다. (스냅샷을 쓰는 동안 쌓인 만큼만 복사함)
+   */
+  void checkpoint(long position) throws IOException {
+    lock.lock();
+    try {
+      while (flushing) {
+        flushed.awaitUninterruptibly();
+      }
+      checkFailure();
+      if (position <= startPosition) {
+        return;
+      }
+      long from = FILE_HEADER_SIZE + position - startPosition;
+      long end = channel.position();
+      if (from > end) {
+        throw new IllegalArgumentException("로그 끝을 넘는 checkpoint 입니다: " + position);
+      }
+      Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+      FileChannel rotated = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.READ,
+          StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+      try {
+        writeHeader(rotated, position);
+        rotated.position(FILE_HEADER_SIZE);
+        while (from < end) {
+          from += channel.transferTo(from, end - from, rotated);
+        }
+        rotated.force(true);
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      } catch (IOException | RuntimeException e) {
+        rotated.close();
+        Files.deleteIfExists(tmp);
+        throw e;
+      }
+      FileChannel old = channel;
+      channel = rotated;
+      startPosition = position;
+      old.close();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void forceQuietly() {
+    FileChannel current = channel;
+    try {
+      current.force(false);
+    } catch (IOException e) {
+      lock.lock();
+      try {
+        if (current == channel) { // checkpoint 가 닫은 이전 파일이면 무시
+          failure = e;
+        }
+      } finally {
+        lock.unlock();
+      }
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (syncer != null) {
+      syncer.shutdown();
+    }
+    lock.lock();
+    try {
+      while (flushing) {
+        flushed.awaitUninterruptibly();
+      }
+      channel.force(false);
+      channel.close();
+    } finally {
+      lock.unlock();
+    }
+  }
+}
@@ -0,0 +1,520 @@
+package hello.servlet.domain.member;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * MemberRepository 의 메모리 구현 (MemberRepository.getInstance() 가 기본으로 쓰는 저장소)
+ *
+ * 동시성 문제 해결: 저장소는 세그먼트별 StampedLock 을 둔 ConcurrentLongMemberMap, id 발급은 MemberIdAllocator(AtomicLong CAS)로 락 없이 처리
+ * 여러 서블릿/프론트 컨트롤러가 동시에 save 해도 id가 유실되거나 맵이 깨지지 않음
+ * 저장소는 long 전용 오픈 어드레싱 테이블이라 id 박싱, HashMap Node 할당이 없다.
+ *
+ * 저장 모드는 시스템 프로퍼티 member.store 로 고른다. (예: -Dmember.store=columnar)
+ * - hash (기본): ConcurrentLongMemberMap
+ * - columnar: ColumnarMemberStore, 스캔 위주 조회용. findAll 은 Member 를 미리 만들지 않는 뷰를 돌려준다.
+ * - offheap: OffHeapMemberStore, 회원 데이터를 힙 밖(direct ByteBuffer)에 두고 읽기 전용 flyweight 만 돌려준다.
+ * - sharded: ShardedMemberStore, id 해시로 N 개 샤드에 나눠 담고 스캔/카운트는 fork/join 으로 샤드별 병렬 실행
+ *   (샤드 수 -Dmember.shards, 2의 거듭제곱만 받는다. 안 주면 CPU 수를 2의 거듭제곱으로 올린 값을 쓰고 시작할 때 찍는다)
+ *
+ * findAll() 은 복사본이 아니라 MemberSnapshot(시점 스냅샷)을 돌려준다. 어떤 저장 모드든 O(1)로 만들어지고
+ * 순회 중에 다른 요청이 save 해도 찢어진(반쯤 갱신된) 목록을 보지 않는다.
+ *
+ * username / age 조회는 MemberIndex(보조 인덱스)를 탄다. hash / sharded 는 힙의 정렬 집합으로 전체 목록을 훑지 않고,
+ * columnar / offheap 은 회원마다 힙 객체를 두지 않도록 조회 때 저장소를 훑는다.
+ * username 부분 검색은 UsernameSearchIndex(trigram + 접두사 인덱스)를 탄다.
+ * 회원 수 / 나이 분포 / username 종류 수 통계는 MemberStatistics 가 save 때마다 갱신해 두고 getStats() 로 바로 읽는다.
+ *
+ * 시스템 프로퍼티 member.wal.path 를 주면 save 를 MemberWriteAheadLog 에 먼저 기록하고, 시작할 때 그 로그를 replay 해서 복구한다.
+ * - member.wal.sync: always (기본, group commit) / interval / os
+ * - member.wal.sync-interval: interval 정책의 force 주기 (ms, 기본 10)
+ *
+ * 시스템 프로퍼티 member.snapshot.path 를 주면 그 파일(MemberSnapshotFile)을 시작할 때 매핑해서 바로 쓰고,
+ * member.snapshot.interval 초(기본 300, 0 이면 끔)마다 새 스냅샷을 백그라운드에서 쓴다.
+ * 스냅샷 회원의 username / age 인덱스는 시작 후 백그라운드 스레드가 채운다. (다 채우기 전까지는 그 조회에서 빠질 수 있음)
+ * WAL 도 함께 쓰면 스냅샷 푸터에 그 스냅샷이 담고 있는 WAL 위치를 기록하고, 스냅샷을 다 쓰면 WAL 에서 그 앞부분을 떼어 낸다.
+ * 재시작할 때는 그 위치 뒤만 replay 하고, 그중에도 스냅샷에 이미 있는 id 는 건너뛴다. clearStore 는 스냅샷 파일도 지운다.
+ *
+ * id 발급 (MemberIdAllocator)
+ * - member.id.block-size: 1 (기본) 이면 공유 카운터 하나. 그보다 크면 stripe(스레드 id 해시로 고름)마다 그만큼씩 구간을 받아서 나눠 준다 (HiLo)
+ * - member.id.monotonic-window: 블록을 받은 뒤 이 시간(ms)이 지나면 남은 id 를 버리고 새로 받는다. (0 은 끔)
+ *
+ * 시스템 프로퍼티 member.capacity 를 주면 저장소를 BoundedMemberStore 로 감싸서 회원 수를 그 이하로 유지한다. (hash / sharded 만)
+ * - member.eviction: lru (기본) / lfu / tinylfu / ttl
+ * - member.ttl: ttl 정책에서 저장 후 만료까지 (ms)
+ * 내보낸 회원은 인덱스와 통계에서도 빠진다. 스냅샷 파일에서 불러온 회원은 상한에 들어가지 않는다.
+ */
+
+public class MemoryMemberRepository implements MemberRepository {
+
+  private static final MemberIdAllocator ids = new MemberIdAllocator(Integer.getInteger("member.id.block-size", 1),
+      Long.getLong("member.id.monotonic-window", 0L));
+  private static final AtomicLong version = new AtomicLong();
+  private static final String storeType = System.getProperty("member.store", "hash");
+  private static final MemberIndex index = MemberIndex.create(storeType, () -> MemoryMemberRepository.store);
+  private static final UsernameSearchIndex searchIndex = new UsernameSearchIndex();
+  private static final MemberStatistics statistics = new MemberStatistics();
+  private static final String snapshotPath = System.getProperty("member.snapshot.path");
+  // WAL 을 쓰면 save(로그 기록 ~ 저장소 반영)와 clearStore 가 섞이지 않게 한다.
+  // (섞이면 clearStore 직전에 기록된 회원이 저장소에서는 지워지고 로그에는 남아서 재시작 때 되살아남)
+  // 스냅샷 인덱싱도 이 락으로 clearStore 와 섞이지 않게 한다. (openStore 에서 쓰므로 store 보다 먼저 만든다)
+  private static final ReentrantReadWriteLock clearLock = new ReentrantReadWriteLock();
+  private static final MemberStore store = openStore(storeType, snapshotPath);
+  // store / index 가 먼저 만들어져 있어야 replay 할 수 있으므로 그 뒤에 연다
+  private static final MemberWriteAheadLog wal = openWal(System.getProperty("member.wal.path"));
+
+  private static final MemoryMemberRepository instance = new MemoryMemberRepository();
+  private static final ScheduledExecutorService snapshotter = scheduleSnapshots(snapshotPath,
+      Long.getLong("member.snapshot.interval", 300L));
+
+  private final ReentrantLock snapshotLock = new ReentrantLock();
+
+  public static MemoryMemberRepository getInstance() {
+    return instance;
+  }
+
+  //싱글톤 패턴
+  private MemoryMemberRepository() {
+
+  }
+
+  static MemberStore createStore(String type) {
+    switch (type) {
+      case "hash":
+        return new ConcurrentLongMemberMap();
+      case "columnar":
+        return new ColumnarMemberStore();
+      case "offheap":
+        return new OffHeapMemberStore();
+      case "sharded":
+        return createShardedStore(Integer.getInteger("member.shards"));
+      default:
+        throw new IllegalArgumentException("알 수 없는 member.store 값: " + type);
+    }
+  }
+
+  static ShardedMemberStore createShardedStore(Integer shards) {
+    // 샤드는 id 하위 비트로 고르므로 3 을 주면 조용히 4 가 된다. 직접 준 값은 그대로 쓸 수 있을 때만 받는다
+    if (shards != null && (shards < 1 || Integer.bitCount(shards) != 1)) {
+      throw new IllegalArgumentException("member.shards 는 2의 거듭제곱이어야 합니다: " + shards);
+    }
+    ShardedMemberStore store = new ShardedMemberStore(shards != null ? shards : Runtime.getRuntime().availableProcessors());
+    if (shards == null) {
+      System.out.println("회원 저장소 샤드 수: " + store.shardCount() + " (CPU " + Runtime.getRuntime().availableProcessors() + "개 기준)");
+    }
+    return store;
+  }
+
+  private static MemberStore openStore(String type, String snapshotPath) {
+    MemberStore store = bound(createStore(type), type, Integer.getInteger("member.capacity"));
+    if (snapshotPath == null || snapshotPath.isBlank() || !Files.exists(Path.of(snapshotPath))) {
+      return store;
+    }
+    MemberSnapshotFile base;
+    try {
+      base = MemberSnapshotFile.open(Path.of(snapshotPath));
+    } catch (IOException e) {
+      throw new UncheckedIOException("스냅샷을 열 수 없습니다: " + snapshotPath, e);
+    }
+    ids.advanceTo(base.maxId());
+    SnapshotBackedMemberStore layered = new SnapshotBackedMemberStore(base, store);
+    startIndexing(layered, base);
+    return layered;
+  }
+
+  private static MemberStore bound(MemberStore store, String type, Integer capacity) {
+    if (capacity == null) {
+      return store;
+    }
+    if (!type.equals("hash") && !type.equals("sharded")) {
+      throw new IllegalArgumentException("member.capacity 는 hash / sharded 저장 모드에서만 쓸 수 있습니다: " + type);
+    }
+    EvictionPolicy policy = EvictionPolicy.create(System.getProperty("member.eviction", "lru"), capacity,
+        Long.getLong("member.ttl", 0L));
+    return new BoundedMemberStore(store, capacity, policy, member -> {
+      index.remove(member);
+      searchIndex.remove(member.getUsername());
+      statistics.remove(member);
+      version.incrementAndGet();
+    });
+  }
+
+  /**
+   * 스냅샷 회원을 순서대로 읽어서 보조 인덱스를 채운다. 도중에 clearStore 되면 멈춘다.
+   * 4096 명씩 clearLock 읽기 락을 잡고 채우므로, clearStore 가 끝난 뒤에 지운 회원이 인덱스/통계에 다시 들어가지 않는다.
+   */
+  private static void startIndexing(SnapshotBackedMemberStore layered, MemberSnapshotFile base) {
+    Thread indexer = new Thread(() -> {
+      Iterator<Member> members = base.iterator();
+      while (members.hasNext()) {
+        clearLock.readLock().lock();
+        try {
+          if (layered.base() != base) {
+            return;
+          }
+          for (int n = 0; n < 4096 && members.hasNext(); n++) {
+            Member member = members.next();
+            index.add(member);
+            searchIndex.add(member.getUsername());
+            statistics.add(member);
+          }
+        } finally {
+          clearLock.readLock().unlock();
+        }
+      }
+    }, "member-snapshot-indexer");
+    indexer.setDaemon(true);
+    indexer.start();
+  }
+
+  private static ScheduledExecutorService scheduleSnapshots(String path, long intervalSeconds) {
+    if (path == null || path.isBlank() || intervalSeconds <= 0) {
+      return null;
+    }
+    ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+      Thread thread = new Thread(r, "member-snapshot");
+      thread.setDaemon(true);
+      return thread;
+    });
+    executor.scheduleWithFixedDelay(() -> {
+      try {
+        instance.writeSnapshot(Path.of(path));
+      } catch (IOException | RuntimeException e) {
+        System.out.println("회원 스냅샷 저장 실패: " + e);
+      }
+    }, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    return executor;
+  }
+
+  private static MemberWriteAheadLog openWal(String path) {
+    if (path == null || path.isBlank()) {
+      return null;
+    }
+    MemberWriteAheadLog.SyncPolicy policy = MemberWriteAheadLog.SyncPolicy.valueOf(
+        System.getProperty("member.wal.sync", "always").toUpperCase(Locale.ROOT));
+    long intervalMillis = Long.getLong("member.wal.sync-interval", 10L);
+    long checkpoint = store instanceof SnapshotBackedMemberStore layered ? layered.base().walPosition() : 0L;
+    try {
+      return MemberWriteAheadLog.open(Path.of(path), policy, intervalMillis, checkpoint, member -> {
+        if (store.get(member.getId()) != null) {
+          return; // 스냅샷을 쓰는 도중에 저장되어 스냅샷에도 들어간 회원
+        }
+        ids.advanceTo(member.getId());
+        add(member);
+      });
+    } catch (IOException e) {
+      throw new UncheckedIOException("WAL 을 열 수 없습니다: " + path, e);
+    }
+  }
+
+  @Override
+  public Member save(Member member) {
+    member.setId(ids.next());
+    if (wal == null) {
+      add(member);
+      return member;
+    }
+    clearLock.readLock().lock();
+    try {
+      // 로그에 먼저 남기고 나서 저장소에 반영 (기록에 실패하면 저장소에도 넣지 않는다)
+      try {
+        wal.append(member);
+      } catch (IOException e) {
+        throw new UncheckedIOException("회원 저장 로그 기록 실패: id=" + member.getId(), e);
+      }
+      add(member);
+    } finally {
+      clearLock.readLock().unlock();
+    }
+    return member;
+  }
+
+  // 인덱스와 통계를 먼저 채우고 저장소에 넣는다.
+  // 상한이 있는 저장소는 put 안에서 방금 넣은 회원을 바로 내보낼 수 있는데(ttl 만료, 용량 1), 그때 onEvict 가 뺄 것이 있어야 한다.
+  private static void add(Member member) {
+    index.add(member);
+    searchIndex.add(member.getUsername());
+    statistics.add(member);
+    store.put(member);
+    version.incrementAndGet();
+  }
+
+  /**
+   * 여러 회원을 한 번에 저장한다. (대량 가져오기용)
+   * id 는 공유 카운터에서 getAndAdd 한 번으로 연속된 구간을 통째로 예약하고, 저장소에도 한 번에 넣는다.
+   * 목록 조회에는 묶음 전체가 한 번에 보인다. (sharded 는 샤드 단위로) WAL 을 쓰면 기록(과 force)도 묶음당 한 번이다.
+   */
+  @Override
+  public List<Member> saveAll(Collection<Member> members) {
+    List<Member> batch = new ArrayList<>(members);
+    if (batch.isEmpty()) {
+      return batch;
+    }
+    long firstId = ids.reserve(batch.size());
+    for (int i = 0; i < batch.size(); i++) {
+      batch.get(i).setId(firstId + i);
+    }
+    if (wal == null) {
+      addAll(batch);
+      return batch;
+    }
+    clearLock.readLock().lock();
+    try {
+      try {
+        wal.appendAll(batch);
+      } catch (IOException e) {
+        throw new UncheckedIOException("회원 저장 로그 기록 실패: id=" + firstId + "~" + (firstId + batch.size() - 1), e);
+      }
+      addAll(batch);
+    } finally {
+      clearLock.readLock().unlock();
+    }
+    return batch;
+  }
+
+  private static void addAll(List<Member> batch) {
+    index.addAll(batch);
+    for (Member member : batch) {
+      searchIndex.add(member.getUsername());
+      statistics.add(member);
+    }
+    store.putAll(batch);
+    version.incrementAndGet();
+  }
+
+  @Override
+  public Member findById(long id) {
+    return store.get(id);
+  }
+
+  @Override
+  public List<Member> findAll() {
+    return snapshot();
+  }
+
+  public MemberSnapshot snapshot() {
+    // version 을 먼저 읽어야 스냅샷이 항상 그 version 시점 이상의 내용을 담는다 (캐시가 옛날 목록을 붙잡지 않도록)
+    long current = version.get();
+    return new MemberSnapshot(current, store.values());
+  }
+
+  public long getVersion() {
+    return version.get();
+  }
+
+  @Override
+  public List<Member> findPage(long afterId, int limit) {
+    if (limit <= 0) {
+      throw new IllegalArgumentException("limit 은 1 이상이어야 합니다: " + limit);
+    }
+    return store.findPage(afterId, limit);
+  }
+
+  @Override
+  public List<Member> findByUsername(String username, long afterId, int limit) {
+    List<Member> result = new ArrayList<>();
+    for (Long id : index.idsByUsername(username, afterId, limit)) {
+      Member member = store.get(id);
+      if (member != null) {
+        result.add(member);
+      }
+    }
+    return result;
+  }
+
+  @Override
+  public List<Member> searchByUsername(String query, int limit) {
+    List<Member> result = new ArrayList<>();
+    // 후보 이름들을 한 번에 펼친다 (columnar / offheap 은 이름마다 저장소를 훑지 않도록)
+    Map<String, List<Long>> idsByUsername = index.idsByUsernames(searchIndex.search(query, limit), limit);
+    for (List<Long> ids : idsByUsername.values()) {
+      for (Long id : ids) {
+        if (result.size() >= limit) {
+          return result;
+        }
+        Member member = store.get(id);
+        if (member != null) {
+          result.add(member);
+        }
+      }
+    }
+    return result;
+  }
+
+  @Override
+  public List<Member> findByAgeBetween(int minAge, int maxAge, int afterAge, long afterId, int limit) {
+    List<Member> result = new ArrayList<>();
+    for (Long id : index.idsByAgeBetween(minAge, maxAge, afterAge, afterId, limit)) {
+      Member member = store.get(id);
+      if (member != null && minAge <= member.getAge() && member.getAge() <= maxAge) {
+        result.add(member);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * 현재 회원 전체를 스냅샷 파일로 쓴다. (id 순서로 keyset 페이지를 넘기며 읽으므로 save 를 막지 않는다)
+   * 쓰는 도중에 저장된 회원은 들어갈 수도, 빠질 수도 있다. 빠진 회원은 WAL 로 복구된다.
+   * WAL 을 쓰면 시작 전의 WAL 위치를 푸터에 남기고, 파일을 바꾼 뒤 WAL 에서 그 앞부분을 떼어 낸다.
+   * 파일 I/O 를 하는 동안 잡고 있는 락이라 synchronized 대신 ReentrantLock (가상 스레드가 carrier 에 고정되지 않도록)
+   */
+  public void writeSnapshot(Path path) throws IOException {
+    snapshotLock.lock();
+    try {
+      writeSnapshotLocked(path);
+    } finally {
+      snapshotLock.unlock();
+    }
+  }
+
+  private void writeSnapshotLocked(Path path) throws IOException {
+    long walPosition = 0L;
+    if (wal != null) {
+      // save 는 읽기 락을 잡은 채 로그 기록 ~ 저장소 반영을 하므로, 쓰기 락 아래에서 읽은 위치 앞의 회원은 모두 저장소에 있다
+      clearLock.writeLock().lock();
+      try {
+        walPosition = wal.position();
+      } finally {
+        clearLock.writeLock().unlock();
+      }
+    }
+    MemberSnapshotFile.write(path, () -> new Iterator<>() {
+      private List<Member> page = store.findPage(0L, 4096);
+      private int position;
+
+      @Override
+      public boolean hasNext() {
+        if (position == page.size() && page.size() == 4096) {
+          page = store.findPage(page.get(page.size() - 1).getId(), 4096);
+          position = 0;
+        }
+        return position < page.size();
+      }
+
+      @Override
+      public Member next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        return page.get(position++);
+      }
+    }, walPosition);
+    if (wal != null) {
+      wal.checkpoint(walPosition);
+    }
+  }
+
+  /**
+   * 회원 통계. save 때마다 갱신해 둔 값을 읽기만 하므로 회원 수와 상관없이 O(1)
+   * (스냅샷으로 시작했으면 스냅샷 회원은 백그라운드 인덱싱이 끝나면서 반영된다)
+   */
+  @Override
+  public MemberStats getStats() {
+    return statistics.snapshot();
+  }
+
+  @Override
+  public int count() {
+    return store.size();
+  }
+
+  @Override
+  public long countByAgeBetween(int minAge, int maxAge) {
+    return store.countByAgeBetween(minAge, maxAge);
+  }
+
+  /**
+   * 저장소, 인덱스, WAL 을 비우고 스냅샷 파일도 지운다. (재시작했을 때 지운 회원이 스냅샷에서 되살아나지 않도록)
+   * 백그라운드 스냅샷이 지운 뒤에 옛 내용으로 파일을 다시 쓰지 않게 snapshotLock 을 잡고 한다.
+   */
+  @Override
+  public void clearStore() {
+    snapshotLock.lock();
+    clearLock.writeLock().lock();
+    try {
+      if (wal != null) {
+        try {
+          wal.truncate();
+        } catch (IOException e) {
+          throw new UncheckedIOException("회원 저장 로그 비우기 실패", e);
+        }
+      }
+      if (snapshotPath != null && !snapshotPath.isBlank()) {
+        try {
+          Files.deleteIfExists(Path.of(snapshotPath));
+        } catch (IOException e) {
+          throw new UncheckedIOException("스냅샷 파일 삭제 실패: " + snapshotPath, e);
+        }
+      }
+      store.clear();
+      index.clear();
+      searchIndex.clear();
+      statistics.clear();
+      version.incrementAndGet();
+    } finally {
+      clearLock.writeLock().unlock();
+      snapshotLock.unlock();
+    }
+  }
+
+}
+
+/*
+package hello.servlet.domain.member;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class MemberRepository {
+
+  private static Map<Long, Member> store = new HashMap<>(); // static 사용
+  private static long sequence = 0L; // static 사용
+
+  private static final MemberRepository instance = new MemberRepository();
+
+  private MemberRepository() {
+
+  }
+
+  public Member save(Member member) {
+    member.setId(++sequence);
+    store.put(member.getId(), member);
+    return member;
+  }
+
+  public Member findById(Long id) {
+    return store.get(id);
+  }
+
+  public List<Member> findAll() {
+    return new ArrayList<>(store.values());
+  }
+
+  public void clearStore() {
+    store.clear();
+  }
+}
+
+
+
+
+
+ */
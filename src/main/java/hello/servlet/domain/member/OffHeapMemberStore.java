@@ -0,0 +1,423 @@
+package hello.servlet.domain.member;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * 힙 밖(direct ByteBuffer)에 회원을 저장하는 저장 모드
+ * GC 가 훑어야 할 객체가 회원 수에 비례해서 늘지 않으므로 old 영역이 커지지 않고 full GC 멈춤이 짧아진다.
+ *
+ * - slots: 회원 1명당 고정 길이 슬롯 [id(8) | age(4) | username 오프셋(4) | username 길이(4)]
+ * - names: username 의 UTF-8 바이트를 이어 붙인 가변 길이 영역
+ * - index: id -> 슬롯 번호 오픈 어드레싱 테이블 [id(8) | slot(4)], 역시 힙 밖
+ *
+ * 밖으로는 슬롯 위치만 들고 있는 OffHeapMember(flyweight) 만 내보낸다.
+ * 이미 있는 id 를 다시 넣으면 그 슬롯을 고친다. flyweight 는 락 없이 읽으므로 슬롯 버퍼를 복사한 뒤에 고쳐서 바꿔 끼운다.
+ */
+class OffHeapMemberStore implements MemberStore {
+
+  static final int SLOT_SIZE = 20;
+  private static final int ID = 0;
+  private static final int AGE = 8;
+  private static final int NAME_OFFSET = 12;
+  private static final int NAME_LENGTH = 16;
+
+  private static final int INDEX_ENTRY_SIZE = 12;
+  private static final int INITIAL_SLOTS = 1024;
+
+  private final StampedLock lock = new StampedLock();
+
+  private ByteBuffer slots;
+  private ByteBuffer names;
+  private ByteBuffer index;
+  private int indexCapacity;
+  private int count;
+  private long minId;
+  private long maxId;
+
+  OffHeapMemberStore() {
+    allocate();
+  }
+
+  private void allocate() {
+    slots = ByteBuffer.allocateDirect(INITIAL_SLOTS * SLOT_SIZE);
+    names = ByteBuffer.allocateDirect(INITIAL_SLOTS * 16);
+    indexCapacity = INITIAL_SLOTS * 2;
+    index = ByteBuffer.allocateDirect(indexCapacity * INDEX_ENTRY_SIZE);
+    count = 0;
+    minId = Long.MAX_VALUE;
+    maxId = 0L;
+  }
+
+  @Override
+  public void put(Member member) {
+    byte[] name = encodeName(member);
+    long stamp = lock.writeLock();
+    try {
+      insert(member, name);
+    } finally {
+      lock.unlockWrite(stamp);
+    }
+  }
+
+  /**
+   * 쓰기 락을 한 번만 잡고, 슬롯/이름/인덱스 버퍼를 묶음 크기만큼 미리 키운 뒤 넣는다.
+   */
+  @Override
+  public void putAll(List<Member> members) {
+    byte[][] names = new byte[members.size()][];
+    int nameBytes = 0;
+    for (int i = 0; i < names.length; i++) {
+      names[i] = encodeName(members.get(i));
+      nameBytes += names[i] == null ? 0 : names[i].length;
+    }
+
+    long stamp = lock.writeLock();
+    try {
+      int slots = count + names.length;
+      this.slots = ensureRemaining(this.slots, slots * SLOT_SIZE, names.length * SLOT_SIZE);
+      this.names = ensureRemaining(this.names, this.names.position() + nameBytes, nameBytes);
+      int capacity = indexCapacity;
+      while (slots * 10L > capacity * 6L) {
+        capacity *= 2;
+      }
+      if (capacity != indexCapacity) {
+        rebuildIndex(capacity, count);
+      }
+      for (int i = 0; i < names.length; i++) {
+        insert(members.get(i), names[i]);
+      }
+    } finally {
+      lock.unlockWrite(stamp);
+    }
+  }
+
+  private static byte[] encodeName(Member member) {
+    String username = member.getUsername();
+    return username == null ? null : username.getBytes(StandardCharsets.UTF_8);
+  }
+
+  // 쓰기 락 안에서만 호출
+  private void insert(Member member, byte[] name) {
+    long id = member.getId();
+    int existing = indexGet(id);
+    int slot = existing >= 0 ? existing : count;
+    int nameOffset = names.position();
+    if (existing >= 0) {
+      slots = copy(slots);
+    } else {
+      slots = ensureRemaining(slots, slots.position() + SLOT_SIZE, SLOT_SIZE);
+    }
+    if (name != null) {
+      names = ensureRemaining(names, nameOffset + name.length, name.length);
+      names.put(nameOffset, name);
+      names.position(nameOffset + name.length);
+    }
+
+    int base = slot * SLOT_SIZE;
+    if (existing >= 0) {
+      // id 와 인덱스는 그대로, 나이와 이름 위치만 바꾼다 (옛 이름 바이트는 names 에 남는다)
+      slots.putInt(base + AGE, member.getAge());
+      slots.putInt(base + NAME_OFFSET, nameOffset);
+      slots.putInt(base + NAME_LENGTH, name == null ? -1 : name.length);
+      return;
+    }
+    slots.putLong(base + ID, id);
+    slots.putInt(base + AGE, member.getAge());
+    slots.putInt(base + NAME_OFFSET, nameOffset);
+    slots.putInt(base + NAME_LENGTH, name == null ? -1 : name.length);
+    slots.position(base + SLOT_SIZE);
+
+    if ((slot + 1) * 10L > indexCapacity * 6L) {
+      rebuildIndex(indexCapacity * 2, slot);
+    }
+    indexPut(index, indexCapacity, id, slot);
+    count = slot + 1;
+    minId = Math.min(minId, id);
+    maxId = Math.max(maxId, id);
+  }
+
+  /**
+   * 공간이 모자라면 두 배 크기의 direct 버퍼를 새로 잡고 복사한다.
+   * 기존 버퍼는 이미 넘겨준 뷰가 계속 읽을 수 있게 그대로 두고, 참조가 없어지면 Cleaner 가 해제함
+   */
+  private static ByteBuffer ensureRemaining(ByteBuffer buffer, int required, int extra) {
+    if (required <= buffer.capacity()) {
+      return buffer;
+    }
+    int capacity = buffer.capacity();
+    while (capacity < required) {
+      capacity = Math.max(capacity * 2, capacity + extra);
+    }
+    ByteBuffer grown = ByteBuffer.allocateDirect(capacity);
+    int position = buffer.position();
+    grown.put(0, buffer, 0, position);
+    grown.position(position);
+    return grown;
+  }
+
+  // 이미 넘겨준 flyweight / 뷰는 옛 버퍼를 계속 읽는다
+  private static ByteBuffer copy(ByteBuffer buffer) {
+    ByteBuffer copy = ByteBuffer.allocateDirect(buffer.capacity());
+    int position = buffer.position();
+    copy.put(0, buffer, 0, position);
+    copy.position(position);
+    return copy;
+  }
+
+  private void rebuildIndex(int newCapacity, int slotCount) {
+    ByteBuffer rebuilt = ByteBuffer.allocateDirect(newCapacity * INDEX_ENTRY_SIZE);
+    for (int slot = 0; slot < slotCount; slot++) {
+      indexPut(rebuilt, newCapacity, slots.getLong(slot * SLOT_SIZE + ID), slot);
+    }
+    index = rebuilt;
+    indexCapacity = newCapacity;
+  }
+
+  private static void indexPut(ByteBuffer index, int capacity, long id, int slot) {
+    int mask = capacity - 1;
+    int i = (int) LongMemberMap.hash(id) & mask;
+    while (true) {
+      long key = index.getLong(i * INDEX_ENTRY_SIZE);
+      if (key == 0L || key == id) {
+        index.putLong(i * INDEX_ENTRY_SIZE, id);
+        index.putInt(i * INDEX_ENTRY_SIZE + 8, slot);
+        return;
+      }
+      i = (i + 1) & mask;
+    }
+  }
+
+  private int indexGet(long id) {
+    int mask = indexCapacity - 1;
+    int i = (int) LongMemberMap.hash(id) & mask;
+    while (true) {
+      long key = index.getLong(i * INDEX_ENTRY_SIZE);
+      if (key == id) {
+        return index.getInt(i * INDEX_ENTRY_SIZE + 8);
+      }
+      if (key == 0L) {
+        return -1;
+      }
+      i = (i + 1) & mask;
+    }
+  }
+
+  @Override
+  public Member get(long id) {
+    if (id <= 0) {
+      return null;
+    }
+    long stamp = lock.readLock();
+    try {
+      int slot = indexGet(id);
+      return slot < 0 ? null : new OffHeapMember(slots, names, slot);
+    } finally {
+      lock.unlockRead(stamp);
+    }
+  }
+
+  @Override
+  public List<Member> values() {
+    long stamp = lock.readLock();
+    try {
+      return new FlyweightView(slots, names, count);
+    } finally {
+      lock.unlockRead(stamp);
+    }
+  }
+
+  /**
+   * id 는 시퀀스로 촘촘하게 발급되므로 [afterId + 1, maxId] 구간의 id 를 off-heap 인덱스에서 하나씩 찾는다. O(limit + 빈 id 수)
+   */
+  @Override
+  public List<Member> findPage(long afterId, int limit) {
+    long stamp = lock.readLock();
+    try {
+      List<Member> result = new ArrayList<>(Math.min(limit, count));
+      if (afterId >= maxId) {
+        return result; // afterId + 1 이 넘치지 않도록 (afterId=Long.MAX_VALUE)
+      }
+      for (long id = Math.max(afterId + 1, minId); result.size() < limit && id <= maxId; id++) {
+        int slot = indexGet(id);
+        if (slot >= 0) {
+          result.add(new OffHeapMember(slots, names, slot));
+        }
+      }
+      return result;
+    } finally {
+      lock.unlockRead(stamp);
+    }
+  }
+
+  @Override
+  public int size() {
+    long stamp = lock.readLock();
+    try {
+      return count;
+    } finally {
+      lock.unlockRead(stamp);
+    }
+  }
+
+  @Override
+  public long countByAgeBetween(int minAge, int maxAge) {
+    long stamp = lock.readLock();
+    try {
+      long result = 0;
+      for (int slot = 0; slot < count; slot++) {
+        int age = slots.getInt(slot * SLOT_SIZE + AGE);
+        if (minAge <= age && age <= maxAge) {
+          result++;
+        }
+      }
+      return result;
+    } finally {
+      lock.unlockRead(stamp);
+    }
+  }
+
+  @Override
+  public void scanAges(int minAge, int maxAge, MemberTopK top) {
+    long stamp = lock.readLock();
+    try {
+      for (int slot = 0; slot < count; slot++) {
+        int age = slots.getInt(slot * SLOT_SIZE + AGE);
+        if (minAge <= age && age <= maxAge) {
+          top.offer(age, slots.getLong(slot * SLOT_SIZE + ID));
+        }
+      }
+    } finally {
+      lock.unlockRead(stamp);
+    }
+  }
+
+  // 찾는 이름을 미리 UTF-8 로 바꿔 두고 슬롯의 이름 바이트와 바로 비교한다 (길이부터 보므로 대부분 바로 넘어간다)
+  @Override
+  public void scanUsernames(Map<String, MemberTopK> byUsername) {
+    List<byte[]> wanted = new ArrayList<>(byUsername.size());
+    List<MemberTopK> tops = new ArrayList<>(byUsername.size());
+    for (Map.Entry<String, MemberTopK> entry : byUsername.entrySet()) {
+      if (entry.getKey() != null) {
+        wanted.add(entry.getKey().getBytes(StandardCharsets.UTF_8));
+        tops.add(entry.getValue());
+      }
+    }
+    long stamp = lock.readLock();
+    try {
+      for (int slot = 0; slot < count; slot++) {
+        int base = slot * SLOT_SIZE;
+        int length = slots.getInt(base + NAME_LENGTH);
+        for (int i = 0; i < wanted.size(); i++) {
+          if (length == wanted.get(i).length && nameEquals(slots.getInt(base + NAME_OFFSET), wanted.get(i))) {
+            tops.get(i).offer(0, slots.getLong(base + ID));
+            break;
+          }
+        }
+      }
+    } finally {
+      lock.unlockRead(stamp);
+    }
+  }
+
+  private boolean nameEquals(int offset, byte[] name) {
+    for (int i = 0; i < name.length; i++) {
+      if (names.get(offset + i) != name[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public void clear() {
+    long stamp = lock.writeLock();
+    try {
+      allocate();
+    } finally {
+      lock.unlockWrite(stamp);
+    }
+  }
+
+  /**
+   * 슬롯 위치만 들고 있는 읽기 전용 Member. getter 를 부를 때마다 버퍼에서 바로 읽는다.
+   * 슬롯은 한 번 쓰이면 바뀌지 않으므로 락 없이 읽어도 안전하다.
+   */
+  static final class OffHeapMember extends Member {
+    private final ByteBuffer slots;
+    private final ByteBuffer names;
+    private final int base;
+
+    OffHeapMember(ByteBuffer slots, ByteBuffer names, int slot) {
+      this.slots = slots;
+      this.names = names;
+      this.base = slot * SLOT_SIZE;
+    }
+
+    @Override
+    public Long getId() {
+      return slots.getLong(base + ID);
+    }
+
+    @Override
+    public int getAge() {
+      return slots.getInt(base + AGE);
+    }
+
+    @Override
+    public String getUsername() {
+      int length = slots.getInt(base + NAME_LENGTH);
+      if (length < 0) {
+        return null;
+      }
+      byte[] bytes = new byte[length];
+      names.get(slots.getInt(base + NAME_OFFSET), bytes);
+      return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void setId(Long id) {
+      throw new UnsupportedOperationException("off-heap 회원은 수정할 수 없습니다.");
+    }
+
+    @Override
+    public void setUsername(String username) {
+      throw new UnsupportedOperationException("off-heap 회원은 수정할 수 없습니다.");
+    }
+
+    @Override
+    public void setAge(int age) {
+      throw new UnsupportedOperationException("off-heap 회원은 수정할 수 없습니다.");
+    }
+  }
+
+  static final class FlyweightView extends AbstractList<Member> {
+    private final ByteBuffer slots;
+    private final ByteBuffer names;
+    private final int size;
+
+    FlyweightView(ByteBuffer slots, ByteBuffer names, int size) {
+      this.slots = slots;
+      this.names = names;
+      this.size = size;
+    }
+
+    @Override
+    public Member get(int index) {
+      if (index < 0 || index >= size) {
+        throw new IndexOutOfBoundsException("index: " + index + ", size: " + size);
+      }
+      return new OffHeapMember(slots, names, index);
+    }
+
+    @Override
+    public int size() {
+      return size;
+    }
+  }
+}
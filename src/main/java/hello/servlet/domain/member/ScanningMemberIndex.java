@@ -0,0 +1,97 @@
+package hello.servlet.domain.member;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * 따로 들고 있는 것 없이 조회할 때마다 저장소를 훑는 보조 인덱스 (columnar / offheap 저장 모드)
+ * - username 정확히 일치(idsByUsername): findPage 로 afterId 다음부터 id 순서로 훑다가 limit 개를 채우면 멈춘다.
+ *   (같은 이름이 드물면 결국 끝까지 훑는다)
+ * - 여러 username(idsByUsernames, 부분 검색): 저장소를 한 번 끝까지 훑으며 후보 이름 전체와 맞춘다.
+ * - age: 저장소를 한 번 끝까지 훑으며 (age, id) 가 작은 limit 개만 MemberTopK 에 남긴다.
+ * 이름 / 나이 스캔은 MemberStore.scanUsernames / scanAges 로 하므로 columnar / offheap 에서는 행마다 Member 를 만들지 않는다.
+ * 조회는 O(n) 이지만 회원마다 힙에 남는 것이 없다. (add / remove / clear 는 할 일이 없음)
+ */
+class ScanningMemberIndex implements MemberIndex {
+
+  private static final int PAGE_SIZE = 4096;
+
+  // 인덱스가 저장소보다 먼저 만들어지므로 조회할 때 꺼낸다
+  private final Supplier<MemberStore> store;
+
+  ScanningMemberIndex(Supplier<MemberStore> store) {
+    this.store = store;
+  }
+
+  @Override
+  public void add(Member member) {
+  }
+
+  @Override
+  public void remove(Member member) {
+  }
+
+  @Override
+  public void clear() {
+  }
+
+  @Override
+  public List<Long> idsByUsername(String username, long afterId, int limit) {
+    List<Long> result = new ArrayList<>();
+    if (username == null) {
+      return result;
+    }
+    MemberStore members = store.get();
+    List<Member> page = members.findPage(afterId, PAGE_SIZE);
+    while (!page.isEmpty()) {
+      for (Member member : page) {
+        if (result.size() == limit) {
+          return result;
+        }
+        if (Objects.equals(username, member.getUsername())) {
+          result.add(member.getId());
+        }
+      }
+      if (page.size() < PAGE_SIZE) {
+        break;
+      }
+      page = members.findPage(page.get(page.size() - 1).getId(), PAGE_SIZE);
+    }
+    return result;
+  }
+
+  // 이름마다 따로 훑지 않고 한 번 훑어서 후보 이름 전체와 맞춘다
+  @Override
+  public Map<String, List<Long>> idsByUsernames(List<String> usernames, int limit) {
+    Map<String, MemberTopK> tops = new HashMap<>();
+    for (String username : usernames) {
+      if (username != null) {
+        tops.put(username, new MemberTopK(limit));
+      }
+    }
+    if (!tops.isEmpty()) {
+      store.get().scanUsernames(tops);
+    }
+    Map<String, List<Long>> result = new LinkedHashMap<>();
+    for (String username : usernames) {
+      MemberTopK top = tops.get(username);
+      result.put(username, top == null ? List.of() : top.sortedIds());
+    }
+    return result;
+  }
+
+  @Override
+  public List<Long> idsByAgeBetween(int minAge, int maxAge, int afterAge, long afterId, int limit) {
+    if (minAge > maxAge || limit <= 0) {
+      return new ArrayList<>();
+    }
+    MemberTopK top = new MemberTopK(limit, afterAge, afterId);
+    store.get().scanAges(minAge, maxAge, top);
+    return top.sortedIds();
+  }
+}
@@ -0,0 +1,305 @@
+package hello.servlet.domain.member;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+
+/**
+ * 회원을 N 개의 독립된 저장소(샤드)에 나눠 담는 저장 모드 (-Dmember.store=sharded, 샤드 수 -Dmember.shards, 기본 CPU 수)
+ * 샤드 수는 2의 거듭제곱으로 올려서 쓴다. (-Dmember.shards 로 준 값은 MemoryMemberRepository 가 2의 거듭제곱만 받는다)
+ * 샤드마다 자기 세그먼트 락과 자기 트라이 스냅샷을 가지므로, 단일 저장소에서 모든 save 가 한 트라이 루트를 CAS 로 다투던 경합이 N 갈래로 나뉜다.
+ *
+ * 샤드는 id 하위 비트(id mod N)로 고른다. id 가 시퀀스로 발급되므로 이것만으로 샤드 크기가 고르게 나뉘고,
+ * 동시에 발급된 연속 id 들은 서로 다른 샤드로 흩어진다.
+ * 샤드 안에서는 id 대신 id >>> 샤드 비트 (+1) 를 키로 써서 샤드마다 트라이가 촘촘하게 유지된다. (id 를 그대로 쓰면 리프마다 1/N 만 차서 순회가 N 배 느려짐)
+ *
+ * - put / get: 샤드 하나만
+ * - putAll: 샤드별로 나눠서 샤드마다 한 번에 넣는다. 샤드 사이에서는 한 번에 보이지 않는다. (넣는 도중의 values / findPage 에 일부만 보일 수 있음)
+ * - countByAgeBetween, 큰 findPage: 샤드 구간을 반씩 나누는 fork/join 작업으로 병렬 실행 후 합친다 (findPage 는 id 순 k-way 병합)
+ * - values: 샤드별 시점 스냅샷(O(1))을 이어 붙인 뷰 (순서는 샤드 순 -> 샤드 안 id 순)
+ */
+class ShardedMemberStore implements MemberStore {
+
+  private static final int MAX_SHARDS = 1 << 8;
+
+  // 샤드별로 처음 받을 양의 합이 이보다 작은 findPage 는 fork 비용이 더 커서 호출한 스레드에서 바로 처리
+  private static final int PARALLEL_PAGE_THRESHOLD = 4096;
+
+  private final ConcurrentLongMemberMap[] shards;
+  private final int shardBits;
+  private final int shardMask;
+  private final ForkJoinPool pool;
+
+  ShardedMemberStore(int shardCount) {
+    this(shardCount, ForkJoinPool.commonPool());
+  }
+
+  ShardedMemberStore(int shardCount, ForkJoinPool pool) {
+    if (shardCount < 1 || shardCount > MAX_SHARDS) {
+      throw new IllegalArgumentException("샤드 수는 1 ~ " + MAX_SHARDS + " 이어야 합니다: " + shardCount);
+    }
+    int bits = 0;
+    while ((1 << bits) < shardCount) {
+      bits++;
+    }
+    shardBits = bits;
+    shardMask = (1 << bits) - 1;
+    shards = new ConcurrentLongMemberMap[1 << bits];
+    // 샤드끼리 이미 경합이 나뉘므로 샤드 안의 세그먼트는 적게
+    int concurrencyLevel = Math.max(1, Runtime.getRuntime().availableProcessors() * 4 / shards.length);
+    for (int i = 0; i < shards.length; i++) {
+      shards[i] = new ConcurrentLongMemberMap(concurrencyLevel);
+    }
+    this.pool = pool;
+  }
+
+  int shardCount() {
+    return shards.length;
+  }
+
+  private int shardIndex(long id) {
+    return (int) id & shardMask;
+  }
+
+  // 샤드 안의 키 (0 은 LongMemberMap 의 빈 슬롯 표시라서 +1)
+  private long keyOf(long id) {
+    return (id >>> shardBits) + 1;
+  }
+
+  // shard 에 들어 있는 id 중 afterId 이하인 마지막 id 의 키 (없으면 0)
+  private long afterKey(int shard, long afterId) {
+    // 샤드가 하나면 (Long.MAX_VALUE >>> 0) + 1 이 넘치므로 키 상한에서 멈춘다
+    return afterId < shard ? 0L : Math.min((afterId - shard) >>> shardBits, Long.MAX_VALUE - 1) + 1;
+  }
+
+  @Override
+  public void put(Member member) {
+    long id = member.getId();
+    shards[shardIndex(id)].put(keyOf(id), member);
+  }
+
+  @Override
+  public void putAll(List<Member> members) {
+    List<List<Member>> parts = new ArrayList<>(shards.length);
+    for (int i = 0; i < shards.length; i++) {
+      parts.add(new ArrayList<>(members.size() / shards.length + 1));
+    }
+    // 나눠도 각 샤드 안에서는 id(= 키) 오름차순이 그대로 유지된다
+    for (Member member : members) {
+      parts.get(shardIndex(member.getId())).add(member);
+    }
+    for (int i = 0; i < shards.length; i++) {
+      if (!parts.get(i).isEmpty()) {
+        shards[i].putAll(parts.get(i), member -> keyOf(member.getId()));
+      }
+    }
+  }
+
+  @Override
+  public Member remove(long id) {
+    if (id <= 0) {
+      return null;
+    }
+    return shards[shardIndex(id)].remove(keyOf(id));
+  }
+
+  @Override
+  public Member get(long id) {
+    if (id <= 0) {
+      return null;
+    }
+    return shards[shardIndex(id)].get(keyOf(id));
+  }
+
+  @Override
+  public List<Member> values() {
+    List<Member>[] parts = newListArray(shards.length);
+    for (int i = 0; i < shards.length; i++) {
+      parts[i] = shards[i].values();
+    }
+    return new ShardView(parts);
+  }
+
+  /**
+   * 샤드별 id 오름차순 페이지를 k-way 병합해서 앞에서 limit 개
+   * 연속된 id 는 샤드마다 번갈아 들어가므로 샤드마다 limit / 샤드 수 (+2) 개씩만 먼저 받고, 다 쓴 샤드만 이어서 더 받는다.
+   * (clearStore 로 비어 있는 id 구간이 있으면 이어 받는 일이 생길 뿐 결과는 같다)
+   * 처음 받는 양이 크면 샤드별 조회를 fork/join 으로 병렬 실행
+   */
+  @Override
+  public List<Member> findPage(long afterId, int limit) {
+    int chunk = (int) Math.min(limit, (long) limit / shards.length + 2);
+    List<Member>[] pages = newListArray(shards.length);
+    if ((long) chunk * shards.length < PARALLEL_PAGE_THRESHOLD) {
+      for (int i = 0; i < shards.length; i++) {
+        pages[i] = shards[i].findPage(afterKey(i, afterId), chunk);
+      }
+    } else {
+      invoke(shard -> {
+        pages[shard] = shards[shard].findPage(afterKey(shard, afterId), chunk);
+        return null;
+      }, (a, b) -> null);
+    }
+
+    int[] positions = new int[shards.length];
+    PriorityQueue<Integer> heads = new PriorityQueue<>(shards.length,
+        Comparator.comparingLong(shard -> pages[shard].get(positions[shard]).getId()));
+    for (int i = 0; i < shards.length; i++) {
+      if (!pages[i].isEmpty()) {
+        heads.add(i);
+      }
+    }
+
+    List<Member> result = new ArrayList<>(Math.min(limit, 1024));
+    while (result.size() < limit && !heads.isEmpty()) {
+      int shard = heads.poll();
+      Member member = pages[shard].get(positions[shard]++);
+      result.add(member);
+      if (positions[shard] == pages[shard].size()) {
+        // 꽉 찬 페이지였으면 그 샤드에 더 있을 수 있으므로 이어서 받는다
+        if (pages[shard].size() < chunk) {
+          continue;
+        }
+        pages[shard] = shards[shard].findPage(keyOf(member.getId()), chunk);
+        positions[shard] = 0;
+        if (pages[shard].isEmpty()) {
+          continue;
+        }
+      }
+      heads.add(shard);
+    }
+    return result;
+  }
+
+  @Override
+  public int size() {
+    int size = 0;
+    for (ConcurrentLongMemberMap shard : shards) {
+      size += shard.size();
+    }
+    return size;
+  }
+
+  @Override
+  public long countByAgeBetween(int minAge, int maxAge) {
+    return invoke(shard -> shards[shard].countByAgeBetween(minAge, maxAge), Long::sum);
+  }
+
+  @Override
+  public void clear() {
+    for (ConcurrentLongMemberMap shard : shards) {
+      shard.clear();
+    }
+  }
+
+  private <T> T invoke(Function<Integer, T> work, BinaryOperator<T> combine) {
+    return pool.invoke(new ShardTask<>(0, shards.length, work, combine));
+  }
+
+  @SuppressWarnings("unchecked")
+  private static List<Member>[] newListArray(int length) {
+    return (List<Member>[]) new List[length];
+  }
+
+  /**
+   * 샤드 구간 [from, to) 를 반씩 나눠서 fork 하고, 샤드 하나가 남으면 직접 처리한다.
+   */
+  static final class ShardTask<T> extends RecursiveTask<T> {
+    private final int from;
+    private final int to;
+    private final Function<Integer, T> work;
+    private final BinaryOperator<T> combine;
+
+    ShardTask(int from, int to, Function<Integer, T> work, BinaryOperator<T> combine) {
+      this.from = from;
+      this.to = to;
+      this.work = work;
+      this.combine = combine;
+    }
+
+    @Override
+    protected T compute() {
+      if (to - from == 1) {
+        return work.apply(from);
+      }
+      int mid = (from + to) >>> 1;
+      ShardTask<T> left = new ShardTask<>(from, mid, work, combine);
+      left.fork();
+      T right = new ShardTask<>(mid, to, work, combine).compute();
+      return combine.apply(left.join(), right);
+    }
+  }
+
+  /**
+   * 샤드별 스냅샷을 이어 붙인 읽기 전용 목록. get(index) 는 누적 크기 이진 탐색
+   */
+  static final class ShardView extends AbstractList<Member> {
+    private final List<Member>[] parts;
+    // starts[i] = parts[0..i) 의 크기 합
+    private final int[] starts;
+
+    ShardView(List<Member>[] parts) {
+      this.parts = parts;
+      this.starts = new int[parts.length + 1];
+      for (int i = 0; i < parts.length; i++) {
+        starts[i + 1] = starts[i] + parts[i].size();
+      }
+    }
+
+    @Override
+    public Member get(int index) {
+      if (index < 0 || index >= size()) {
+        throw new IndexOutOfBoundsException("index: " + index + ", size: " + size());
+      }
+      int part = Arrays.binarySearch(starts, index);
+      // 같은 값이 여러 개(빈 샤드)면 그중 마지막 = 실제로 원소가 있는 샤드
+      if (part < 0) {
+        part = -part - 2;
+      } else {
+        while (part + 1 < parts.length && starts[part + 1] == index) {
+          part++;
+        }
+      }
+      return parts[part].get(index - starts[part]);
+    }
+
+    @Override
+    public int size() {
+      return starts[parts.length];
+    }
+
+    @Override
+    public Iterator<Member> iterator() {
+      return new Iterator<>() {
+        private int part;
+        private Iterator<Member> current = parts.length == 0 ? null : parts[0].iterator();
+
+        @Override
+        public boolean hasNext() {
+          while (current != null && !current.hasNext()) {
+            part++;
+            current = part < parts.length ? parts[part].iterator() : null;
+          }
+          return current != null;
+        }
+
+        @Override
+        public Member next() {
+          if (!hasNext()) {
+            throw new NoSuchElementException();
+          }
+          return current.next();
+        }
+      };
+    }
+  }
+}
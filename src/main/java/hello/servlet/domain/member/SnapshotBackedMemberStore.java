@@ -0,0 +1,169 @@
+package hello.servlet.domain.member;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 시작할 때 불러온 스냅샷 파일(읽기 전용) 위에 새로 저장되는 회원(delta 저장소)을 얹은 저장소
+ * 스냅샷은 매핑만 해 두고 조회될 때 디코딩하므로, 회원이 아무리 많아도 시작 직후 바로 요청을 받을 수 있다.
+ *
+ * - put: delta 에만 넣는다. (새 id 는 스냅샷의 최대 id 보다 크다)
+ * - get: delta 먼저, 없으면 스냅샷
+ * - findPage: 양쪽 페이지를 id 순으로 병합
+ * - clear: 스냅샷을 버리고 delta 도 비운다
+ */
+class SnapshotBackedMemberStore implements MemberStore {
+
+  private final MemberStore delta;
+  private volatile MemberSnapshotFile base;
+
+  SnapshotBackedMemberStore(MemberSnapshotFile base, MemberStore delta) {
+    this.base = base;
+    this.delta = delta;
+  }
+
+  MemberSnapshotFile base() {
+    return base;
+  }
+
+  @Override
+  public void put(Member member) {
+    delta.put(member);
+  }
+
+  @Override
+  public void putAll(List<Member> members) {
+    delta.putAll(members);
+  }
+
+  @Override
+  public Member get(long id) {
+    Member member = delta.get(id);
+    if (member != null) {
+      return member;
+    }
+    MemberSnapshotFile base = this.base;
+    return base == null ? null : base.find(id);
+  }
+
+  @Override
+  public List<Member> values() {
+    MemberSnapshotFile base = this.base;
+    List<Member> added = delta.values();
+    return base == null ? added : new Concat(base, added);
+  }
+
+  @Override
+  public List<Member> findPage(long afterId, int limit) {
+    MemberSnapshotFile base = this.base;
+    List<Member> added = delta.findPage(afterId, limit);
+    if (base == null) {
+      return added;
+    }
+    List<Member> loaded = base.page(afterId, limit);
+    if (added.isEmpty()) {
+      return loaded;
+    }
+
+    List<Member> result = new ArrayList<>(Math.min(limit, loaded.size() + added.size()));
+    int i = 0;
+    int j = 0;
+    while (result.size() < limit && (i < loaded.size() || j < added.size())) {
+      if (j == added.size() || i < loaded.size() && loaded.get(i).getId() < added.get(j).getId()) {
+        result.add(loaded.get(i++));
+      } else {
+        result.add(added.get(j++));
+      }
+    }
+    return result;
+  }
+
+  @Override
+  public int size() {
+    MemberSnapshotFile base = this.base;
+    return (base == null ? 0 : base.size()) + delta.size();
+  }
+
+  @Override
+  public long countByAgeBetween(int minAge, int maxAge) {
+    MemberSnapshotFile base = this.base;
+    return (base == null ? 0 : base.countByAgeBetween(minAge, maxAge)) + delta.countByAgeBetween(minAge, maxAge);
+  }
+
+  // 스냅샷은 디코딩하며 훑고, delta 는 저장 모드의 (Member 를 만들지 않는) 스캔에 맡긴다
+  @Override
+  public void scanAges(int minAge, int maxAge, MemberTopK top) {
+    MemberSnapshotFile base = this.base;
+    if (base != null) {
+      for (Member member : base) {
+        if (minAge <= member.getAge() && member.getAge() <= maxAge) {
+          top.offer(member.getAge(), member.getId());
+        }
+      }
+    }
+    delta.scanAges(minAge, maxAge, top);
+  }
+
+  @Override
+  public void scanUsernames(Map<String, MemberTopK> byUsername) {
+    MemberSnapshotFile base = this.base;
+    if (base != null) {
+      for (Member member : base) {
+        MemberTopK top = byUsername.get(member.getUsername());
+        if (top != null) {
+          top.offer(0, member.getId());
+        }
+      }
+    }
+    delta.scanUsernames(byUsername);
+  }
+
+  @Override
+  public void clear() {
+    base = null;
+    delta.clear();
+  }
+
+  /**
+   * 스냅샷 + delta 를 이어 붙인 읽기 전용 목록 (둘 다 시점이 고정된 목록이라 복사하지 않는다)
+   */
+  static final class Concat extends AbstractList<Member> {
+    private final List<Member> first;
+    private final List<Member> second;
+
+    Concat(List<Member> first, List<Member> second) {
+      this.first = first;
+      this.second = second;
+    }
+
+    @Override
+    public Member get(int index) {
+      return index < first.size() ? first.get(index) : second.get(index - first.size());
+    }
+
+    @Override
+    public int size() {
+      return first.size() + second.size();
+    }
+
+    @Override
+    public Iterator<Member> iterator() {
+      Iterator<Member> head = first.iterator();
+      Iterator<Member> tail = second.iterator();
+      return new Iterator<>() {
+        @Override
+        public boolean hasNext() {
+          return head.hasNext() || tail.hasNext();
+        }
+
+        @Override
+        public Member next() {
+          return head.hasNext() ? head.next() : tail.next();
+        }
+      };
+    }
+  }
+}
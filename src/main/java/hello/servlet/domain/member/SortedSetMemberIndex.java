@@ -0,0 +1,127 @@
+package hello.servlet.domain.member;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * 힙에 정렬 집합을 들고 있는 보조 인덱스 (hash / sharded 저장 모드)
+ * - username 해시 인덱스: username -> id 정렬 집합, 정확히 일치하는 조회
+ * - age 정렬 인덱스: (age, id) 를 long 하나로 묶은 정렬 집합, 범위 조회
+ *
+ * 조회 비용은 결과 수에 비례하지만, 회원마다 skip list 노드와 Long 을 두 벌씩 힙에 둔다.
+ * age 키에 id 를 40비트만 담으므로 그보다 큰 id 는 add 에서 거절한다.
+ */
+class SortedSetMemberIndex implements MemberIndex {
+
+  // (age, id) 묶음: 상위 24비트에 age, 하위 40비트에 id. long 비교 순서 = age 순서 -> id 순서
+  private static final int ID_BITS = 40;
+  private static final long ID_MASK = (1L << ID_BITS) - 1;
+  private static final int MIN_AGE = -(1 << 23);
+  private static final int MAX_AGE = (1 << 23) - 1;
+
+  private final Map<String, NavigableSet<Long>> byUsername = new ConcurrentHashMap<>();
+  private final NavigableSet<Long> byAge = new ConcurrentSkipListSet<>();
+
+  @Override
+  public void add(Member member) {
+    long id = checkId(member.getId());
+    if (member.getUsername() != null) {
+      // remove 가 빈 집합을 맵에서 빼므로, 찾기와 넣기를 한 번의 compute 안에서 한다
+      byUsername.compute(member.getUsername(), (username, ids) -> {
+        NavigableSet<Long> set = ids != null ? ids : new ConcurrentSkipListSet<>();
+        set.add(id);
+        return set;
+      });
+    }
+    byAge.add(ageKey(member.getAge(), id));
+  }
+
+  @Override
+  public void addAll(List<Member> members) {
+    // 중간에 거절되어 인덱스에 반쯤 들어가지 않도록 먼저 전부 확인한다
+    for (Member member : members) {
+      checkId(member.getId());
+    }
+    for (Member member : members) {
+      add(member);
+    }
+  }
+
+  @Override
+  public void remove(Member member) {
+    long id = member.getId();
+    if (member.getUsername() != null) {
+      // 마지막 id 가 빠진 username 은 지운다 (고유한 이름으로 가입하고 내보내지는 회원이 쌓이지 않도록)
+      byUsername.computeIfPresent(member.getUsername(), (username, ids) -> {
+        ids.remove(id);
+        return ids.isEmpty() ? null : ids;
+      });
+    }
+    byAge.remove(ageKey(member.getAge(), id));
+  }
+
+  @Override
+  public void clear() {
+    byUsername.clear();
+    byAge.clear();
+  }
+
+  @Override
+  public List<Long> idsByUsername(String username, long afterId, int limit) {
+    List<Long> result = new ArrayList<>();
+    NavigableSet<Long> ids = username == null ? null : byUsername.get(username);
+    if (ids == null) {
+      return result;
+    }
+    for (Long id : ids.tailSet(afterId, false)) {
+      if (result.size() == limit) {
+        break;
+      }
+      result.add(id);
+    }
+    return result;
+  }
+
+  @Override
+  public List<Long> idsByAgeBetween(int minAge, int maxAge, int afterAge, long afterId, int limit) {
+    List<Long> result = new ArrayList<>();
+    if (minAge > maxAge) {
+      return result;
+    }
+    long from = ageKey(minAge, 0L);
+    long to = ageKey(maxAge, ID_MASK);
+    boolean fromInclusive = true;
+    long after = ageKey(afterAge, Math.max(0L, Math.min(afterId, ID_MASK)));
+    if (after >= from) {
+      from = after;
+      fromInclusive = false;
+    }
+    if (from > to) {
+      return result;
+    }
+    for (Long key : byAge.subSet(from, fromInclusive, to, true)) {
+      if (result.size() == limit) {
+        break;
+      }
+      result.add(key & ID_MASK);
+    }
+    return result;
+  }
+
+  private static long checkId(long id) {
+    if (id < 0 || id > ID_MASK) {
+      throw new IllegalStateException("age 인덱스에 담을 수 없는 id 입니다 (" + ID_BITS + "비트 초과): " + id);
+    }
+    return id;
+  }
+
+  private static long ageKey(int age, long id) {
+    // 범위를 벗어난 나이는 양 끝에 붙인다 (조회 결과는 MemoryMemberRepository 가 실제 나이로 한 번 더 거른다)
+    int clamped = Math.max(MIN_AGE, Math.min(MAX_AGE, age));
+    return ((long) clamped << ID_BITS) | (id & ID_MASK);
+  }
+}
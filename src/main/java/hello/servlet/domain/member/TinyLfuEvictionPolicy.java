@@ -0,0 +1,155 @@
+package hello.servlet.domain.member;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * W-TinyLFU: 새 회원은 작은 window LRU(용량의 1%)에 먼저 들어가고, window 에서 밀려날 때
+ * 본 저장 구역(SLRU)의 다음 희생자보다 최근 조회 빈도가 높아야만 본 구역에 들어간다. (아니면 그대로 내보냄)
+ * 한 번 훑고 지나가는 조회(전체 목록 순회, 일회성 가입)가 자주 쓰이는 회원을 밀어내지 못한다.
+ *
+ * - 빈도: CountMin sketch (4행, 4비트 카운터). 증가 횟수가 용량의 10배가 되면 전부 반으로 줄여서 오래된 빈도를 잊는다.
+ * - 본 구역: probation(20%) + protected(80%). probation 에서 다시 조회되면 protected 로 올라간다.
+ * 각 구역은 LinkedHashMap 이라 모든 연산이 O(1)
+ */
+class TinyLfuEvictionPolicy implements EvictionPolicy {
+
+  private static final int ROWS = 4;
+  private static final int MAX_COUNT = 15;
+  private static final long[] SEEDS = {
+      0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0xD6E8FEB86659FD93L};
+
+  private final int windowCapacity;
+  private final int mainCapacity;
+  private final int protectedCapacity;
+
+  private final LinkedHashMap<Long, Boolean> window = new LinkedHashMap<>(16, 0.75f, true);
+  private final LinkedHashMap<Long, Boolean> probation = new LinkedHashMap<>();
+  private final LinkedHashMap<Long, Boolean> protectedSegment = new LinkedHashMap<>(16, 0.75f, true);
+
+  private final byte[][] sketch;
+  private final int sketchMask;
+  private final int resetThreshold;
+  private int increments;
+
+  TinyLfuEvictionPolicy(int capacity) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("member.capacity 는 1 이상이어야 합니다: " + capacity);
+    }
+    windowCapacity = Math.max(1, capacity / 100);
+    mainCapacity = capacity - windowCapacity;
+    protectedCapacity = (int) (mainCapacity * 0.8);
+    int width = Integer.highestOneBit(Math.max(16, capacity - 1)) << 1;
+    sketch = new byte[ROWS][width];
+    sketchMask = width - 1;
+    resetThreshold = (int) Math.min(Integer.MAX_VALUE, 10L * capacity);
+  }
+
+  @Override
+  public void onInsert(long id) {
+    increment(id);
+    window.put(id, Boolean.TRUE);
+  }
+
+  @Override
+  public void onAccess(long id) {
+    if (window.get(id) != null || protectedSegment.get(id) != null) {
+      increment(id); // get 만으로 각 구역의 맨 뒤로 옮겨진다
+      return;
+    }
+    if (probation.remove(id) != null) {
+      increment(id);
+      protectedSegment.put(id, Boolean.TRUE);
+      if (protectedSegment.size() > protectedCapacity) {
+        probation.put(removeEldest(protectedSegment), Boolean.TRUE);
+      }
+    }
+  }
+
+  @Override
+  public long evict() {
+    // 본 구역이 아직 덜 찼으면 window 에서 넘친 회원은 비교 없이 probation 으로
+    while (window.size() > windowCapacity && probation.size() + protectedSegment.size() < mainCapacity) {
+      probation.put(removeEldest(window), Boolean.TRUE);
+    }
+    if (window.size() > windowCapacity) {
+      long candidate = removeEldest(window);
+      LinkedHashMap<Long, Boolean> main = !probation.isEmpty() ? probation : protectedSegment;
+      if (main.isEmpty()) {
+        // 용량이 1 이라 본 구역 자리가 없을 때
+        return candidate;
+      }
+      long victim = main.keySet().iterator().next();
+      if (frequency(candidate) > frequency(victim)) {
+        main.remove(victim);
+        probation.put(candidate, Boolean.TRUE);
+        return victim;
+      }
+      return candidate;
+    }
+    if (!probation.isEmpty()) {
+      return removeEldest(probation);
+    }
+    if (!protectedSegment.isEmpty()) {
+      return removeEldest(protectedSegment);
+    }
+    return removeEldest(window);
+  }
+
+  private static long removeEldest(LinkedHashMap<Long, Boolean> segment) {
+    Iterator<Long> eldest = segment.keySet().iterator();
+    long id = eldest.next();
+    eldest.remove();
+    return id;
+  }
+
+  private void increment(long id) {
+    long hash = LongMemberMap.hash(id);
+    boolean added = false;
+    for (int row = 0; row < ROWS; row++) {
+      int slot = slot(hash, row);
+      if (sketch[row][slot] < MAX_COUNT) {
+        sketch[row][slot]++;
+        added = true;
+      }
+    }
+    if (added && ++increments >= resetThreshold) {
+      halve();
+    }
+  }
+
+  private int frequency(long id) {
+    long hash = LongMemberMap.hash(id);
+    int min = MAX_COUNT;
+    for (int row = 0; row < ROWS; row++) {
+      min = Math.min(min, sketch[row][slot(hash, row)]);
+    }
+    return min;
+  }
+
+  private int slot(long hash, int row) {
+    long mixed = (hash ^ SEEDS[row]) * SEEDS[(row + 1) & (ROWS - 1)];
+    return (int) (mixed >>> 32) & sketchMask;
+  }
+
+  private void halve() {
+    for (byte[] row : sketch) {
+      for (int i = 0; i < row.length; i++) {
+        row[i] >>= 1;
+      }
+    }
+    increments /= 2;
+  }
+
+  @Override
+  public void clear() {
+    window.clear();
+    probation.clear();
+    protectedSegment.clear();
+    for (byte[] row : sketch) {
+      Arrays.fill(row, (byte) 0);
+    }
+    increments = 0;
+  }
+}
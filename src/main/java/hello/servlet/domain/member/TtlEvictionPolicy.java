@@ -0,0 +1,78 @@
+package hello.servlet.domain.member;
+
+import java.util.Arrays;
+
+/**
+ * 저장된 지 ttl 이 지난 회원을 만료시키고, 용량을 넘으면 가장 먼저 저장된 회원부터 내보낸다. (조회는 순서에 영향 없음)
+ * 저장 순서대로 (id, 저장 시각)을 원형 배열에 쌓기만 하면 되므로 객체 할당 없이 O(1)
+ */
+class TtlEvictionPolicy implements EvictionPolicy {
+
+  private final long ttlNanos;
+  private long[] ids = new long[1024];
+  private long[] insertedAt = new long[1024];
+  private int head;
+  private int size;
+
+  TtlEvictionPolicy(long ttlMillis) {
+    if (ttlMillis <= 0) {
+      throw new IllegalArgumentException("member.ttl 은 1 이상이어야 합니다: " + ttlMillis);
+    }
+    this.ttlNanos = ttlMillis * 1_000_000L;
+  }
+
+  @Override
+  public void onInsert(long id) {
+    if (size == ids.length) {
+      grow();
+    }
+    int tail = (head + size) & (ids.length - 1);
+    ids[tail] = id;
+    insertedAt[tail] = System.nanoTime();
+    size++;
+  }
+
+  private void grow() {
+    long[] newIds = new long[ids.length * 2];
+    long[] newInsertedAt = new long[ids.length * 2];
+    for (int i = 0; i < size; i++) {
+      newIds[i] = ids[(head + i) & (ids.length - 1)];
+      newInsertedAt[i] = insertedAt[(head + i) & (ids.length - 1)];
+    }
+    ids = newIds;
+    insertedAt = newInsertedAt;
+    head = 0;
+  }
+
+  @Override
+  public void onAccess(long id) {
+  }
+
+  @Override
+  public long evict() {
+    long id = ids[head];
+    head = (head + 1) & (ids.length - 1);
+    size--;
+    return id;
+  }
+
+  @Override
+  public long expire(long nowNanos) {
+    if (size == 0 || nowNanos - insertedAt[head] < ttlNanos) {
+      return 0L;
+    }
+    return evict();
+  }
+
+  @Override
+  public long nextExpiry() {
+    return size == 0 ? Long.MAX_VALUE : insertedAt[head] + ttlNanos;
+  }
+
+  @Override
+  public void clear() {
+    Arrays.fill(ids, 0L);
+    head = 0;
+    size = 0;
+  }
+}
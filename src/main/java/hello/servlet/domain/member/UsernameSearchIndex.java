@@ -0,0 +1,346 @@
+package hello.servlet.domain.member;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * username 부분 검색용 인덱스 (대소문자 구분 없음)
+ * 회원이 아니라 "서로 다른 username" 단위로 색인한다. 같은 이름의 회원들은 MemberIndex 의 username 인덱스로 펼친다.
+ *
+ * - prefix: 소문자 username 정렬 맵, 접두사 검색은 subMap 한 번
+ * - trigram: 3글자 조각 -> username 코드 목록. 코드는 새 username 이 들어올 때마다 1씩 커지므로
+ *   목록이 항상 오름차순이고, 차이값(delta)을 varint 로 압축해서 저장한다.
+ *
+ * username 마다 그 이름을 가진 회원 수를 세어 두고, remove 로 0 이 되면 색인에서 뺀다. (회원을 내보내는 저장소용)
+ * trigram 목록은 덧붙이기만 하므로 빠진 코드는 비워 두었다가, 빈 코드가 살아 있는 것보다 많아지면 코드를 새로 매겨 다시 만든다.
+ *
+ * 이미 본 username 은 해시 조회와 CAS 한 번으로 끝나고, 새 username 이거나 마지막 회원이 빠질 때만 lock 을 잡는다.
+ */
+class UsernameSearchIndex {
+
+  // 빈 코드가 이 수 이상이고 살아 있는 username 보다 많으면 코드를 다시 매긴다
+  private static final int MIN_COMPACTION = 1024;
+
+  static final class Entry {
+    final int code;
+    final String lower;
+    // 대소문자만 다른 원래 username 들 (보통 1개라 배열을 복사해서 늘린다)
+    volatile String[] usernames;
+
+    Entry(int code, String lower, String[] usernames) {
+      this.code = code;
+      this.lower = lower;
+      this.usernames = usernames;
+    }
+  }
+
+  // trigram 목록과 코드 -> Entry 표. 코드를 다시 매길 때 둘을 한 번에 바꾸도록 묶어 둔다
+  private static final class Postings {
+    final Map<Long, PostingList> trigrams = new ConcurrentHashMap<>();
+    volatile Entry[] byCode = new Entry[1024];
+    int nextCode; // lock 안에서만
+  }
+
+  private final Object lock = new Object();
+  private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+  private final ConcurrentSkipListMap<String, Entry> prefix = new ConcurrentSkipListMap<>();
+  // 원래 username -> 그 이름의 회원 수. 0 이 되는 것과 맵에서 빠지는 것은 lock 안에서 같이 일어난다
+  private final Map<String, AtomicInteger> counts = new ConcurrentHashMap<>();
+  private volatile Postings postings = new Postings();
+  private int emptyCodes; // lock 안에서만
+
+  void add(String username) {
+    if (username == null || username.isEmpty()) {
+      return;
+    }
+    AtomicInteger count = counts.get(username);
+    if (count != null && incrementIfPositive(count)) {
+      return;
+    }
+    synchronized (lock) {
+      count = counts.get(username);
+      if (count != null) {
+        count.incrementAndGet();
+        return;
+      }
+      counts.put(username, new AtomicInteger(1));
+      String lower = username.toLowerCase(Locale.ROOT);
+      Entry entry = entries.get(lower);
+      if (entry == null) {
+        entry = register(postings, lower, new String[]{username});
+        prefix.put(lower, entry);
+        entries.put(lower, entry);
+      } else {
+        String[] usernames = Arrays.copyOf(entry.usernames, entry.usernames.length + 1);
+        usernames[usernames.length - 1] = username;
+        entry.usernames = usernames;
+      }
+    }
+  }
+
+  /**
+   * 그 username 을 가진 회원 하나가 빠졌다. 마지막 회원이면 색인에서도 뺀다.
+   */
+  void remove(String username) {
+    if (username == null || username.isEmpty()) {
+      return;
+    }
+    AtomicInteger count = counts.get(username);
+    if (count == null || decrementIfAboveOne(count)) {
+      return;
+    }
+    synchronized (lock) {
+      count = counts.get(username);
+      if (count == null || count.decrementAndGet() > 0) {
+        return;
+      }
+      counts.remove(username);
+      String lower = username.toLowerCase(Locale.ROOT);
+      Entry entry = entries.get(lower);
+      if (entry == null) {
+        return;
+      }
+      String[] usernames = entry.usernames;
+      if (usernames.length > 1) {
+        String[] left = new String[usernames.length - 1];
+        int n = 0;
+        for (String u : usernames) {
+          if (!u.equals(username) && n < left.length) {
+            left[n++] = u;
+          }
+        }
+        entry.usernames = left;
+        return;
+      }
+      entries.remove(lower);
+      prefix.remove(lower);
+      Postings postings = this.postings;
+      postings.byCode[entry.code] = null;
+      if (++emptyCodes >= MIN_COMPACTION && emptyCodes > entries.size()) {
+        compact();
+      }
+    }
+  }
+
+  // 살아 있는 username 만으로 코드를 0 부터 다시 매긴다. 다 만든 뒤에 한 번에 바꾸므로 검색은 멈추지 않는다
+  private void compact() {
+    Postings fresh = new Postings();
+    for (Entry entry : prefix.values()) {
+      Entry renumbered = register(fresh, entry.lower, entry.usernames);
+      prefix.put(entry.lower, renumbered);
+      entries.put(entry.lower, renumbered);
+    }
+    postings = fresh;
+    emptyCodes = 0;
+  }
+
+  private static Entry register(Postings postings, String lower, String[] usernames) {
+    Entry entry = new Entry(postings.nextCode++, lower, usernames);
+    Entry[] byCode = postings.byCode;
+    if (entry.code == byCode.length) {
+      byCode = Arrays.copyOf(byCode, byCode.length * 2);
+    }
+    byCode[entry.code] = entry;
+    postings.byCode = byCode;
+
+    for (int i = 0; i + 3 <= lower.length(); i++) {
+      long trigram = trigram(lower, i);
+      // 한 username 안에서 같은 조각이 반복되면 한 번만 넣는다 (코드가 같으면 append 가 무시함)
+      postings.trigrams.computeIfAbsent(trigram, k -> new PostingList()).append(entry.code);
+    }
+    return entry;
+  }
+
+  private static boolean incrementIfPositive(AtomicInteger count) {
+    for (int n = count.get(); n > 0; n = count.get()) {
+      if (count.compareAndSet(n, n + 1)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean decrementIfAboveOne(AtomicInteger count) {
+    for (int n = count.get(); n > 1; n = count.get()) {
+      if (count.compareAndSet(n, n - 1)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  void clear() {
+    synchronized (lock) {
+      entries.clear();
+      prefix.clear();
+      counts.clear();
+      postings = new Postings();
+      emptyCodes = 0;
+    }
+  }
+
+  /**
+   * 서로 다른 username 수 (대소문자만 다른 이름은 하나로 셈)
+   */
+  int size() {
+    return entries.size();
+  }
+
+  /**
+   * 검색어와 맞는 원래 username 들을 관련도 순으로 최대 limit 개
+   * 정확히 일치 > 접두사 일치 > 중간에 포함, 같은 등급이면 짧은 이름 > 사전 순
+   */
+  List<String> search(String query, int limit) {
+    List<String> result = new ArrayList<>();
+    if (query == null || query.isEmpty() || limit <= 0) {
+      return result;
+    }
+    String q = query.toLowerCase(Locale.ROOT);
+
+    List<Entry> prefixMatches = new ArrayList<>();
+    for (Entry entry : prefix.subMap(q, true, q + Character.MAX_VALUE, false).values()) {
+      prefixMatches.add(entry);
+      if (prefixMatches.size() == limit * 4) {
+        break;
+      }
+    }
+    prefixMatches.sort(Comparator.comparingInt((Entry e) -> e.lower.length()).thenComparing(e -> e.lower));
+    addUsernames(prefixMatches, result, limit);
+
+    if (result.size() < limit && q.length() >= 3) {
+      Postings postings = this.postings;
+      Entry[] byCode = postings.byCode;
+      List<Entry> containing = new ArrayList<>();
+      for (int code : candidates(postings, q)) {
+        Entry entry = code < byCode.length ? byCode[code] : null;
+        // trigram 이 모두 들어 있어도 순서가 다를 수 있으므로 실제로 포함하는지 확인, 접두사 일치는 이미 넣음
+        if (entry != null && !entry.lower.startsWith(q) && entry.lower.contains(q)) {
+          containing.add(entry);
+        }
+      }
+      containing.sort(Comparator.comparingInt((Entry e) -> e.lower.length()).thenComparing(e -> e.lower));
+      addUsernames(containing, result, limit);
+    }
+    return result;
+  }
+
+  private static void addUsernames(List<Entry> entries, List<String> result, int limit) {
+    for (Entry entry : entries) {
+      for (String username : entry.usernames) {
+        if (result.size() == limit) {
+          return;
+        }
+        result.add(username);
+      }
+    }
+  }
+
+  /**
+   * 검색어의 모든 trigram 을 가진 username 코드 (가장 짧은 목록부터 교집합)
+   */
+  private static int[] candidates(Postings postings, String q) {
+    List<PostingList> lists = new ArrayList<>();
+    for (int i = 0; i + 3 <= q.length(); i++) {
+      PostingList list = postings.trigrams.get(trigram(q, i));
+      if (list == null) {
+        return new int[0];
+      }
+      lists.add(list);
+    }
+    lists.sort(Comparator.comparingInt(PostingList::count));
+
+    int[] current = lists.get(0).decode();
+    for (int i = 1; i < lists.size() && current.length > 0; i++) {
+      current = intersect(current, lists.get(i).decode());
+    }
+    return current;
+  }
+
+  private static int[] intersect(int[] a, int[] b) {
+    int[] out = new int[Math.min(a.length, b.length)];
+    int i = 0;
+    int j = 0;
+    int n = 0;
+    while (i < a.length && j < b.length) {
+      if (a[i] == b[j]) {
+        out[n++] = a[i];
+        i++;
+        j++;
+      } else if (a[i] < b[j]) {
+        i++;
+      } else {
+        j++;
+      }
+    }
+    return Arrays.copyOf(out, n);
+  }
+
+  private static long trigram(String s, int from) {
+    return ((long) s.charAt(from) << 32) | ((long) s.charAt(from + 1) << 16) | s.charAt(from + 2);
+  }
+
+  /**
+   * 오름차순 int 목록을 delta + varint 로 압축해서 이어 붙이는 목록
+   * 대부분의 delta 가 작아서 코드 하나에 1~2바이트. 쓰기는 UsernameSearchIndex 의 lock 안에서만 일어남 (지우기는 없음, 빈 코드는 compact 로 정리)
+   */
+  static final class PostingList {
+    private volatile byte[] bytes = new byte[8];
+    private volatile int length;
+    private volatile int count;
+    private int last = -1;
+
+    void append(int code) {
+      if (code == last) {
+        return;
+      }
+      int delta = code - last;
+      last = code;
+      byte[] bytes = this.bytes;
+      int length = this.length;
+      if (length + 5 > bytes.length) {
+        bytes = Arrays.copyOf(bytes, bytes.length * 2);
+      }
+      while ((delta & ~0x7F) != 0) {
+        bytes[length++] = (byte) ((delta & 0x7F) | 0x80);
+        delta >>>= 7;
+      }
+      bytes[length++] = (byte) delta;
+      this.bytes = bytes;
+      this.count = count + 1;
+      this.length = length; // 마지막에 기록: 여기까지 쓴 바이트가 읽는 쪽에 공개됨
+    }
+
+    int count() {
+      return count;
+    }
+
+    int[] decode() {
+      int length = this.length;
+      byte[] bytes = this.bytes;
+      int[] codes = new int[count];
+      int n = 0;
+      int value = -1;
+      int i = 0;
+      while (i < length && n < codes.length) {
+        int delta = 0;
+        int shift = 0;
+        byte b;
+        do {
+          b = bytes[i++];
+          delta |= (b & 0x7F) << shift;
+          shift += 7;
+        } while (b < 0);
+        value += delta;
+        codes[n++] = value;
+      }
+      return n == codes.length ? codes : Arrays.copyOf(codes, n);
+    }
+  }
+}
@@ -0,0 +1,175 @@
+package hello.servlet.web;
+
+import hello.servlet.domain.member.Member;
+import hello.servlet.domain.member.MemberRepository;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.Getter;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 회원 목록 요청 파라미터
+ * - ?after=마지막으로 본 id&limit=페이지 크기 : keyset 페이지네이션
+ * - ?username=kim : username 인덱스로 정확히 일치하는 회원만
+ * - ?minAge=20&maxAge=29 : age 인덱스로 나이 범위 조회 (한쪽만 줘도 됨)
+ *   나이 순으로 정렬되므로 다음 페이지는 (afterAge, after) 두 값으로 이어 본다. (?afterAge=25&after=마지막 id)
+ * - username 과 나이 범위를 같이 주면 그 username 의 회원을 id 순으로 훑으며 나이로 거른다. (커서는 after 하나)
+ * 목록 서블릿/컨트롤러가 같은 규칙으로 조회하도록 한 곳에 모아 둠
+ * 숫자로 읽을 수 없는 값은 기본값으로 대신한다. (after=0, limit=DEFAULT_LIMIT, 나이 조건 없음)
+ */
+@Getter
+public class MemberListParams {
+
+  public static final int DEFAULT_LIMIT = 100;
+  public static final int MAX_LIMIT = 1000;
+
+  private final long after;
+  private final int limit;
+  private final String username;
+  private final Integer minAge;
+  private final Integer maxAge;
+  // 나이 범위 조회의 커서 (마지막으로 본 회원의 나이). 없으면 첫 페이지
+  private final Integer afterAge;
+
+  private MemberListParams(long after, int limit, String username, Integer minAge, Integer maxAge, Integer afterAge) {
+    this.after = after;
+    this.limit = limit;
+    this.username = username;
+    this.minAge = minAge;
+    this.maxAge = maxAge;
+    this.afterAge = afterAge;
+  }
+
+  public static MemberListParams from(HttpServletRequest request) {
+    return of(request.getParameter("after"), request.getParameter("limit"), request.getParameter("username"),
+        request.getParameter("minAge"), request.getParameter("maxAge"), request.getParameter("afterAge"));
+  }
+
+  /**
+   * 서블릿에 묶이지 않은 V3 컨트롤러용 (ParamMap 이면 이 여섯 키만 디코딩된다)
+   */
+  public static MemberListParams from(Map<String, String> paramMap) {
+    return of(paramMap.get("after"), paramMap.get("limit"), paramMap.get("username"),
+        paramMap.get("minAge"), paramMap.get("maxAge"), paramMap.get("afterAge"));
+  }
+
+  // 숫자가 아니거나 범위를 벗어난 값은 그 파라미터를 안 준 것으로 본다 (잘못된 쿼리스트링 하나로 500 이 나지 않도록)
+  private static MemberListParams of(String after, String limit, String username, String minAge, String maxAge,
+      String afterAge) {
+    Long afterId = parseLong(after);
+    Integer size = parseInt(limit);
+
+    // 한 페이지는 항상 1 ~ MAX_LIMIT 건으로 제한
+    return new MemberListParams(afterId == null ? 0L : Math.max(afterId, 0L),
+        size == null ? DEFAULT_LIMIT : Math.max(1, Math.min(size, MAX_LIMIT)),
+        isBlank(username) ? null : username,
+        parseInt(minAge),
+        parseInt(maxAge),
+        parseInt(afterAge));
+  }
+
+  private static Long parseLong(String value) {
+    if (isBlank(value)) {
+      return null;
+    }
+    try {
+      return Long.valueOf(value.trim());
+    } catch (NumberFormatException e) {
+      return null;
+    }
+  }
+
+  private static Integer parseInt(String value) {
+    if (isBlank(value)) {
+      return null;
+    }
+    try {
+      return Integer.valueOf(value.trim());
+    } catch (NumberFormatException e) {
+      return null;
+    }
+  }
+
+  public boolean hasAgeFilter() {
+    return minAge != null || maxAge != null;
+  }
+
+  /**
+   * 파라미터에 맞는 조회 방법을 골라서 한 페이지 분량만 가져온다.
+   */
+  public List<Member> find(MemberRepository memberRepository) {
+    if (username != null) {
+      if (hasAgeFilter()) {
+        return findByUsernameInAgeRange(memberRepository);
+      }
+      return memberRepository.findByUsername(username, after, limit);
+    }
+    if (hasAgeFilter()) {
+      // afterAge 없이 온 after 는 나이 순 커서가 아니므로 첫 페이지부터
+      return memberRepository.findByAgeBetween(minAgeOrLowest(), maxAgeOrHighest(),
+          afterAge == null ? Integer.MIN_VALUE : afterAge, afterAge == null ? 0L : after, limit);
+    }
+    return memberRepository.findPage(after, limit);
+  }
+
+  // username 인덱스를 id 순으로 limit 씩 넘기며 나이가 맞는 회원만 모은다 (그 username 의 회원 수에 비례)
+  private List<Member> findByUsernameInAgeRange(MemberRepository memberRepository) {
+    List<Member> result = new ArrayList<>();
+    long cursor = after;
+    while (true) {
+      List<Member> page = memberRepository.findByUsername(username, cursor, limit);
+      for (Member member : page) {
+        if (minAgeOrLowest() <= member.getAge() && member.getAge() <= maxAgeOrHighest()) {
+          result.add(member);
+          if (result.size() == limit) {
+            return result;
+          }
+        }
+      }
+      if (page.size() < limit) {
+        return result;
+      }
+      cursor = page.get(page.size() - 1).getId();
+    }
+  }
+
+  private int minAgeOrLowest() {
+    return minAge == null ? Integer.MIN_VALUE : minAge;
+  }
+
+  private int maxAgeOrHighest() {
+    return maxAge == null ? Integer.MAX_VALUE : maxAge;
+  }
+
+  /**
+   * 페이지가 꽉 찼으면 다음 페이지 쿼리스트링, 아니면 null
+   * 나이 범위 조회는 (나이, id) 순이므로 마지막 회원의 나이도 afterAge 로 넘긴다.
+   */
+  public String nextQuery(List<Member> members) {
+    if (members.size() < limit) {
+      return null;
+    }
+    Member last = members.get(members.size() - 1);
+    String query = "after=" + last.getId() + "&limit=" + limit;
+    if (username != null) {
+      query += "&username=" + URLEncoder.encode(username, StandardCharsets.UTF_8);
+    } else if (hasAgeFilter()) {
+      query += "&afterAge=" + last.getAge();
+    }
+    if (minAge != null) {
+      query += "&minAge=" + minAge;
+    }
+    if (maxAge != null) {
+      query += "&maxAge=" + maxAge;
+    }
+    return query;
+  }
+
+  private static boolean isBlank(String value) {
+    return value == null || value.isBlank();
+  }
+}
@@ -0,0 +1,87 @@
+package hello.servlet.web.frontcontroller;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 비동기 컨트롤러를 돌리는 실행기 (톰캣 워커 스레드와 따로)
+ * - frontcontroller.async.executor=auto (기본): JDK 21 이상에서 돌면 가상 스레드, 아니면 platform
+ * - virtual: 요청마다 가상 스레드 하나. 느린 저장소 호출에서 기다려도 OS 스레드를 잡고 있지 않는다
+ * - platform: frontcontroller.async.threads 개(기본 256)의 고정 풀, 대기열은 그 16배까지. 넘치면 거절(503)
+ *
+ * 빌드는 Java 17 이라 가상 스레드 API 를 직접 부를 수 없으므로, 실행할 때 한 번만 찾아 본다.
+ */
+public final class ControllerExecutors {
+
+  private ControllerExecutors() {
+  }
+
+  public static ExecutorService executor() {
+    return Default.EXECUTOR;
+  }
+
+  public static ExecutorService create(String type, int threads) {
+    MethodHandle virtual = virtualThreadFactory();
+    switch (type) {
+      case "auto":
+        return virtual != null ? virtual(virtual) : platform(threads);
+      case "virtual":
+        if (virtual == null) {
+          throw new IllegalArgumentException("가상 스레드는 JDK 21 이상에서만 쓸 수 있습니다: " + Runtime.version());
+        }
+        return virtual(virtual);
+      case "platform":
+        return platform(threads);
+      default:
+        throw new IllegalArgumentException("알 수 없는 frontcontroller.async.executor 값: " + type);
+    }
+  }
+
+  private static ExecutorService virtual(MethodHandle factory) {
+    try {
+      System.out.println("비동기 컨트롤러 실행기: 가상 스레드");
+      return (ExecutorService) factory.invoke();
+    } catch (Throwable e) {
+      throw new IllegalStateException("가상 스레드 실행기를 만들 수 없습니다", e);
+    }
+  }
+
+  private static ExecutorService platform(int threads) {
+    if (threads < 1) {
+      throw new IllegalArgumentException("frontcontroller.async.threads 는 1 이상이어야 합니다: " + threads);
+    }
+    System.out.println("비동기 컨트롤러 실행기: 플랫폼 스레드 " + threads + "개");
+    AtomicInteger sequence = new AtomicInteger();
+    ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+        new ArrayBlockingQueue<>(threads * 16), runnable -> {
+          Thread thread = new Thread(runnable, "controller-" + sequence.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        });
+    executor.allowCoreThreadTimeOut(true);
+    return executor;
+  }
+
+  // Executors.newVirtualThreadPerTaskExecutor (JDK 21+), 없으면 null
+  private static MethodHandle virtualThreadFactory() {
+    try {
+      return MethodHandles.publicLookup().findStatic(Executors.class, "newVirtualThreadPerTaskExecutor",
+          MethodType.methodType(ExecutorService.class));
+    } catch (NoSuchMethodException | IllegalAccessException e) {
+      return null;
+    }
+  }
+
+  // executor() 를 처음 부를 때 만든다 (create 만 쓰는 쪽은 기본 실행기를 띄우지 않음)
+  private static final class Default {
+    static final ExecutorService EXECUTOR = create(System.getProperty("frontcontroller.async.executor", "auto"),
+        Integer.getInteger("frontcontroller.async.threads", 256));
+  }
+}
@@ -0,0 +1,36 @@
+package hello.servlet.web.frontcontroller;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * V3 컨트롤러의 결과: 논리 뷰 이름("members") + 뷰에 넘길 model
+ * 뷰 이름을 실제 경로로 바꾸는 건 ViewResolver 가 한다.
+ * model 은 처음 add 할 때 만든다. (new-form 처럼 model 이 없는 화면은 Map 을 만들지 않는다)
+ */
+public class ModelView {
+
+  private final String viewName;
+  private Map<String, Object> model;
+
+  public ModelView(String viewName) {
+    this.viewName = viewName;
+  }
+
+  public String getViewName() {
+    return viewName;
+  }
+
+  public ModelView add(String name, Object value) {
+    if (model == null) {
+      model = new HashMap<>(4);
+    }
+    model.put(name, value);
+    return this;
+  }
+
+  public Map<String, Object> getModel() {
+    return model == null ? Collections.emptyMap() : model;
+  }
+}
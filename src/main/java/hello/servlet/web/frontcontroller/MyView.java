@@ -0,0 +1,105 @@
+package hello.servlet.web.frontcontroller;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.RequestDispatcher;
+import jakarta.servlet.ServletContext;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * JSP 로 forward 하는 뷰
+ * V2 는 컨트롤러가 request attribute 에 직접 담고, V3 는 model 을 넘기면 여기서 request attribute 로 옮긴다.
+ * 비동기 요청은 다른 스레드에서 forward 할 수 없으므로 AsyncContext.dispatch 로 넘긴다.
+ *
+ * 뷰는 경로마다 하나만 있다 (MyView.of 로 얻고, 컨트롤러는 상수로 들고 있는다). 요청마다 MyView 를 만들지 않는다.
+ * RequestDispatcher 도 경로마다 한 번만 찾아 두고 재사용한다. (톰캣의 dispatcher 는 상태가 없어서 여러 요청이 같이 써도 됨)
+ * 프론트 컨트롤러 init 에서 prepareAll 로 미리 찾고, 그 뒤에 생긴 뷰는 처음 render 할 때 찾는다.
+ */
+public final class MyView {
+
+  private static final ConcurrentMap<String, MyView> views = new ConcurrentHashMap<>();
+
+  private final String viewPath;
+  // 찾아 둔 dispatcher 와 그것을 준 컨텍스트 (같은 JVM 에서 톰캣이 다시 떠도 예전 컨텍스트 것을 쓰지 않도록 같이 둔다)
+  private volatile Binding binding;
+
+  private MyView(String viewPath) {
+    this.viewPath = viewPath;
+  }
+
+  public static MyView of(String viewPath) {
+    MyView view = views.get(viewPath);
+    if (view == null) {
+      view = views.computeIfAbsent(viewPath, MyView::new);
+    }
+    return view;
+  }
+
+  /**
+   * 지금까지 만들어진 뷰 전부의 RequestDispatcher 를 미리 찾아 둔다.
+   */
+  public static void prepareAll(ServletContext servletContext) {
+    for (MyView view : views.values()) {
+      view.dispatcher(servletContext);
+    }
+  }
+
+  public String getViewPath() {
+    return viewPath;
+  }
+
+  public void render(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
+    RequestDispatcher dispatcher = dispatcher(request.getServletContext());
+    if (dispatcher == null) {
+      throw new ServletException("뷰를 찾을 수 없습니다: " + viewPath);
+    }
+    dispatcher.forward(request, response);
+  }
+
+  public void render(Map<String, ?> model, HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
+    for (Map.Entry<String, ?> entry : model.entrySet()) {
+      request.setAttribute(entry.getKey(), entry.getValue());
+    }
+    render(request, response);
+  }
+
+  public void render(Map<String, ?> model, AsyncContext asyncContext) {
+    for (Map.Entry<String, ?> entry : model.entrySet()) {
+      asyncContext.getRequest().setAttribute(entry.getKey(), entry.getValue());
+    }
+    asyncContext.dispatch(viewPath);
+  }
+
+  private RequestDispatcher dispatcher(ServletContext servletContext) {
+    Binding current = binding;
+    if (current != null && current.servletContext == servletContext) {
+      return current.dispatcher;
+    }
+    RequestDispatcher dispatcher = servletContext.getRequestDispatcher(viewPath);
+    if (dispatcher != null) {
+      binding = new Binding(servletContext, dispatcher);
+    }
+    return dispatcher;
+  }
+
+  @Override
+  public String toString() {
+    return "MyView[" + viewPath + "]";
+  }
+
+  private static final class Binding {
+    final ServletContext servletContext;
+    final RequestDispatcher dispatcher;
+
+    Binding(ServletContext servletContext, RequestDispatcher dispatcher) {
+      this.servletContext = servletContext;
+      this.dispatcher = dispatcher;
+    }
+  }
+}
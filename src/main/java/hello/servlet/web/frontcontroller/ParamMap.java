@@ -0,0 +1,170 @@
+package hello.servlet.web.frontcontroller;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * V3 컨트롤러에 넘기는 요청 파라미터 (읽기 전용 Map)
+ * 모든 파라미터를 미리 꺼내 HashMap 에 담지 않고, 컨트롤러가 get 한 키만 그때 찾아서 디코딩한다.
+ *
+ * - 본문이 없는 요청(GET 등): 쿼리스트링 원문에서 key 를 찾아 그 값만 URL 디코딩 (UTF-8).
+ *   컨테이너의 전체 파라미터 파싱은 일어나지 않는다.
+ * - 폼 본문이 있는 POST: 본문은 컨테이너만 읽을 수 있으므로 request.getParameter 에 맡긴다.
+ *
+ * 같은 키가 여러 번 오면 첫 번째 값. entrySet() / size() 처럼 전체가 필요할 때만 전부 만든다.
+ *
+ * 요청이 끝난 뒤(비동기 실행기 스레드 등)에 읽을 때는 detached(request) 로 만든다.
+ * 폼 본문 파라미터를 컨테이너 스레드에서 미리 꺼내 두므로 request 를 붙잡지 않는다. (쿼리스트링은 원래 문자열만 들고 있음)
+ */
+public final class ParamMap extends AbstractMap<String, String> {
+
+  private final HttpServletRequest request;
+  private final boolean formBody;
+  private final String query;
+  private Map<String, String> all;
+
+  public ParamMap(HttpServletRequest request) {
+    this.request = request;
+    this.formBody = hasFormBody(request);
+    this.query = formBody ? null : request.getQueryString();
+  }
+
+  private ParamMap(boolean formBody, String query, Map<String, String> all) {
+    this.request = null;
+    this.formBody = formBody;
+    this.query = query;
+    this.all = all;
+  }
+
+  /**
+   * request 없이 읽을 수 있는 ParamMap. 폼 본문이면 지금(컨테이너 스레드에서) 전부 꺼내 둔다.
+   * 비동기 타임아웃 뒤 컨테이너가 request 를 재사용해도 다른 요청의 값을 읽지 않는다.
+   */
+  public static ParamMap detached(HttpServletRequest request) {
+    if (hasFormBody(request)) {
+      return new ParamMap(true, null, Collections.unmodifiableMap(fromRequest(request)));
+    }
+    return new ParamMap(false, request.getQueryString(), null);
+  }
+
+  @Override
+  public String get(Object key) {
+    if (!(key instanceof String)) {
+      return null;
+    }
+    if (formBody) {
+      return request == null ? all.get(key) : request.getParameter((String) key);
+    }
+    return query == null ? null : find(query, (String) key);
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return get(key) != null;
+  }
+
+  @Override
+  public Set<Entry<String, String>> entrySet() {
+    if (all == null) {
+      all = Collections.unmodifiableMap(formBody ? fromRequest(request) : parse(query));
+    }
+    return all.entrySet();
+  }
+
+  private static boolean hasFormBody(HttpServletRequest request) {
+    String contentType = request.getContentType();
+    return "POST".equals(request.getMethod()) && contentType != null
+        && contentType.regionMatches(true, 0, "application/x-www-form-urlencoded", 0, 33);
+  }
+
+  // query 에서 name 의 첫 번째 값. 키 자리에 인코딩된 글자가 없으면 원문 그대로 비교한다
+  private static String find(String query, String name) {
+    int start = 0;
+    while (start < query.length()) {
+      int end = query.indexOf('&', start);
+      if (end < 0) {
+        end = query.length();
+      }
+      int equals = query.indexOf('=', start);
+      int keyEnd = equals < 0 || equals > end ? end : equals;
+      if (keyMatches(query, start, keyEnd, name)) {
+        String value = keyEnd == end ? "" : decode(query, keyEnd + 1, end);
+        if (value != null) {
+          return value;
+        }
+      }
+      start = end + 1;
+    }
+    return null;
+  }
+
+  private static boolean keyMatches(String query, int start, int end, String name) {
+    if (!needsDecoding(query, start, end)) {
+      return end - start == name.length() && query.startsWith(name, start);
+    }
+    return name.equals(decode(query, start, end));
+  }
+
+  // 잘못된 % 인코딩이면 null (컨테이너처럼 그 파라미터는 없는 것으로 본다)
+  private static String decode(String query, int start, int end) {
+    String raw = query.substring(start, end);
+    if (!needsDecoding(query, start, end)) {
+      return raw;
+    }
+    try {
+      return URLDecoder.decode(raw, StandardCharsets.UTF_8);
+    } catch (IllegalArgumentException e) {
+      return null;
+    }
+  }
+
+  private static boolean needsDecoding(String query, int start, int end) {
+    for (int i = start; i < end; i++) {
+      char c = query.charAt(i);
+      if (c == '%' || c == '+') {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static Map<String, String> parse(String query) {
+    Map<String, String> params = new LinkedHashMap<>();
+    if (query == null) {
+      return params;
+    }
+    int start = 0;
+    while (start < query.length()) {
+      int end = query.indexOf('&', start);
+      if (end < 0) {
+        end = query.length();
+      }
+      int equals = query.indexOf('=', start);
+      int keyEnd = equals < 0 || equals > end ? end : equals;
+      String key = decode(query, start, keyEnd);
+      String value = keyEnd == end ? "" : decode(query, keyEnd + 1, end);
+      if (key != null && !key.isEmpty() && value != null) {
+        params.putIfAbsent(key, value);
+      }
+      start = end + 1;
+    }
+    return params;
+  }
+
+  private static Map<String, String> fromRequest(HttpServletRequest request) {
+    Map<String, String> params = new LinkedHashMap<>();
+    for (Map.Entry<String, String[]> entry : request.getParameterMap().entrySet()) {
+      if (entry.getValue().length > 0) {
+        params.put(entry.getKey(), entry.getValue()[0]);
+      }
+    }
+    return params;
+  }
+}
@@ -0,0 +1,280 @@
+package hello.servlet.web.frontcontroller;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 프론트 컨트롤러가 요청 URI 로 컨트롤러를 찾는 라우터 (radix trie)
+ * 경로는 글자(segment) 단위로 나무에 넣고, build() 할 때 갈래가 없는 구간을 한 노드로 합쳐서(압축) 고정한다.
+ *
+ * - 리터럴: /front-controller/v1/members/save
+ * - 변수: /front-controller/v1/members/{id} 처럼 세그먼트 하나 전체. 같은 자리에 리터럴이 있으면 리터럴이 먼저
+ * - 끝에 붙은 / 하나는 없는 것으로 보고 한 번 더 찾는다. (/members/ -> /members)
+ *
+ * 찾을 때는 URI 의 글자를 노드 라벨과 바로 비교하므로 URI 전체를 해시하거나 잘라낸 문자열을 만들지 않는다.
+ * 변수는 URI 안의 (시작, 끝) 위치만 기록해 두고, Match.variable 을 부를 때 비로소 문자열로 만든다.
+ * 변수가 없는 경로는 미리 만들어 둔 Match 를 그대로 돌려주므로 찾는 동안 객체를 하나도 만들지 않는다.
+ */
+public final class Router<T> {
+
+  // 찾은 Match 를 컨트롤러에 넘길 때 쓰는 request attribute 이름
+  public static final String MATCH_ATTRIBUTE = Router.class.getName() + ".match";
+
+  private final Node<T> root;
+  private final int maxVariables;
+
+  private Router(Node<T> root, int maxVariables) {
+    this.root = root;
+    this.maxVariables = maxVariables;
+  }
+
+  public static <T> Builder<T> builder() {
+    return new Builder<>();
+  }
+
+  /**
+   * path 에 맞는 경로를 찾는다. 없으면 null
+   */
+  public Match<T> match(String path) {
+    int[] offsets = maxVariables == 0 ? null : new int[maxVariables * 2];
+    Match<T> match = match(path, path.length(), offsets);
+    if (match == null && path.length() > 1 && path.charAt(path.length() - 1) == '/') {
+      match = match(path, path.length() - 1, offsets);
+    }
+    return match;
+  }
+
+  private Match<T> match(String path, int end, int[] offsets) {
+    Node<T> found = find(root, path, 0, end, offsets, 0);
+    if (found == null) {
+      return null;
+    }
+    if (found.names.length == 0) {
+      return found.staticMatch;
+    }
+    return new Match<>(found.handler, found.names, path, Arrays.copyOf(offsets, found.names.length * 2));
+  }
+
+  /**
+   * node 의 라벨까지는 이미 맞춘 상태에서 path[pos, end) 를 이어서 맞춘다. 리터럴 자식을 먼저 보고 실패하면 변수 자식
+   */
+  private static <T> Node<T> find(Node<T> node, String path, int pos, int end, int[] offsets, int variable) {
+    if (pos == end) {
+      return node.handler == null ? null : node;
+    }
+    Node<T> child = node.child(path.charAt(pos));
+    if (child != null && child.labelMatches(path, pos, end)) {
+      Node<T> found = find(child, path, pos + child.label.length(), end, offsets, variable);
+      if (found != null) {
+        return found;
+      }
+    }
+    if (node.variable != null) {
+      int segmentEnd = pos;
+      while (segmentEnd < end && path.charAt(segmentEnd) != '/') {
+        segmentEnd++;
+      }
+      if (segmentEnd > pos) {
+        offsets[variable * 2] = pos;
+        offsets[variable * 2 + 1] = segmentEnd;
+        return find(node.variable, path, segmentEnd, end, offsets, variable + 1);
+      }
+    }
+    return null;
+  }
+
+  /**
+   * 찾은 경로와 변수 값
+   */
+  public static final class Match<T> {
+    private final T handler;
+    private final String[] names;
+    private final String path;
+    private final int[] offsets;
+
+    Match(T handler, String[] names, String path, int[] offsets) {
+      this.handler = handler;
+      this.names = names;
+      this.path = path;
+      this.offsets = offsets;
+    }
+
+    public static Match<?> from(HttpServletRequest request) {
+      return (Match<?>) request.getAttribute(MATCH_ATTRIBUTE);
+    }
+
+    public T getHandler() {
+      return handler;
+    }
+
+    /**
+     * {name} 자리에 온 값. 이 경로에 그런 변수가 없으면 null
+     */
+    public String variable(String name) {
+      int index = indexOf(name);
+      return index < 0 ? null : path.substring(offsets[index * 2], offsets[index * 2 + 1]);
+    }
+
+    /**
+     * {name} 자리의 값을 문자열을 만들지 않고 바로 long 으로 읽는다. 변수가 없거나 숫자가 아니면 defaultValue
+     */
+    public long longVariable(String name, long defaultValue) {
+      int index = indexOf(name);
+      if (index < 0) {
+        return defaultValue;
+      }
+      int start = offsets[index * 2];
+      int end = offsets[index * 2 + 1];
+      // 19자리부터는 long 범위를 넘을 수 있으므로 받지 않는다
+      if (end - start > 18) {
+        return defaultValue;
+      }
+      long value = 0;
+      for (int i = start; i < end; i++) {
+        char c = path.charAt(i);
+        if (c < '0' || c > '9') {
+          return defaultValue;
+        }
+        value = value * 10 + (c - '0');
+      }
+      return value;
+    }
+
+    private int indexOf(String name) {
+      for (int i = 0; i < names.length; i++) {
+        if (names[i].equals(name)) {
+          return i;
+        }
+      }
+      return -1;
+    }
+  }
+
+  /**
+   * 경로를 모아서 한 번에 압축된 라우터로 만든다. (만든 뒤에는 바뀌지 않으므로 여러 스레드가 그대로 같이 써도 된다)
+   */
+  public static final class Builder<T> {
+    private final Draft<T> root = new Draft<>();
+    private int maxVariables;
+
+    private Builder() {
+    }
+
+    public Builder<T> add(String pattern, T handler) {
+      if (pattern == null || !pattern.startsWith("/") || handler == null) {
+        throw new IllegalArgumentException("경로는 / 로 시작해야 하고 handler 가 있어야 합니다: " + pattern);
+      }
+      List<String> names = new ArrayList<>();
+      Draft<T> node = root;
+      int i = 0;
+      while (i < pattern.length()) {
+        char c = pattern.charAt(i);
+        if (c == '{') {
+          int close = pattern.indexOf('}', i);
+          if (pattern.charAt(i - 1) != '/' || close < 0 || close == i + 1
+              || close + 1 < pattern.length() && pattern.charAt(close + 1) != '/') {
+            throw new IllegalArgumentException("변수는 {이름} 으로 세그먼트 하나 전체여야 합니다: " + pattern);
+          }
+          String name = pattern.substring(i + 1, close);
+          if (names.contains(name)) {
+            throw new IllegalArgumentException("변수 이름이 겹칩니다: " + pattern);
+          }
+          names.add(name);
+          if (node.variable == null) {
+            node.variable = new Draft<>();
+          }
+          node = node.variable;
+          i = close + 1;
+        } else {
+          node = node.children.computeIfAbsent(c, k -> new Draft<>());
+          i++;
+        }
+      }
+      if (node.handler != null) {
+        throw new IllegalArgumentException("같은 경로가 이미 있습니다: " + pattern);
+      }
+      node.handler = handler;
+      node.names = names.toArray(new String[0]);
+      maxVariables = Math.max(maxVariables, names.size());
+      return this;
+    }
+
+    public Router<T> build() {
+      return new Router<>(compile(root, ""), maxVariables);
+    }
+
+    // 자식이 하나뿐이고 handler / 변수 자식이 없는 글자들은 라벨 하나로 합친다
+    private static <T> Node<T> compile(Draft<T> draft, String label) {
+      StringBuilder merged = new StringBuilder().append(label);
+      while (draft.handler == null && draft.variable == null && draft.children.size() == 1 && merged.length() > 0) {
+        Map.Entry<Character, Draft<T>> only = draft.children.firstEntry();
+        merged.append(only.getKey().charValue());
+        draft = only.getValue();
+      }
+      char[] firsts = new char[draft.children.size()];
+      @SuppressWarnings("unchecked")
+      Node<T>[] children = (Node<T>[]) new Node[draft.children.size()];
+      int i = 0;
+      for (Map.Entry<Character, Draft<T>> entry : draft.children.entrySet()) {
+        firsts[i] = entry.getKey();
+        children[i] = compile(entry.getValue(), String.valueOf(entry.getKey().charValue()));
+        i++;
+      }
+      Node<T> variable = draft.variable == null ? null : compile(draft.variable, "");
+      return new Node<>(merged.toString(), firsts, children, variable, draft.handler,
+          draft.names == null ? new String[0] : draft.names);
+    }
+  }
+
+  // build 전의 글자 단위 나무
+  private static final class Draft<T> {
+    final TreeMap<Character, Draft<T>> children = new TreeMap<>();
+    Draft<T> variable;
+    T handler;
+    String[] names;
+  }
+
+  private static final class Node<T> {
+    final String label;
+    // 자식들의 라벨 첫 글자 (오름차순), children 과 같은 순서
+    final char[] firsts;
+    final Node<T>[] children;
+    final Node<T> variable;
+    final T handler;
+    final String[] names;
+    final Match<T> staticMatch;
+
+    Node(String label, char[] firsts, Node<T>[] children, Node<T> variable, T handler, String[] names) {
+      this.label = label;
+      this.firsts = firsts;
+      this.children = children;
+      this.variable = variable;
+      this.handler = handler;
+      this.names = names;
+      this.staticMatch = handler == null || names.length > 0 ? null : new Match<>(handler, names, null, null);
+    }
+
+    Node<T> child(char c) {
+      // 자식이 적으면 선형 탐색이 이진 탐색보다 빠르다
+      if (firsts.length <= 8) {
+        for (int i = 0; i < firsts.length; i++) {
+          if (firsts[i] == c) {
+            return children[i];
+          }
+        }
+        return null;
+      }
+      int index = Arrays.binarySearch(firsts, c);
+      return index < 0 ? null : children[index];
+    }
+
+    boolean labelMatches(String path, int pos, int end) {
+      return end - pos >= label.length() && path.startsWith(label, pos);
+    }
+  }
+}
@@ -0,0 +1,29 @@
+package hello.servlet.web.frontcontroller;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 논리 뷰 이름 -> MyView (prefix + 이름 + suffix)
+ * 뷰 이름은 컨트롤러 코드에 박힌 상수 몇 개뿐이라, 처음 한 번 만든 MyView 를 계속 돌려준다.
+ */
+public final class ViewResolver {
+
+  private final String prefix;
+  private final String suffix;
+  private final ConcurrentMap<String, MyView> views = new ConcurrentHashMap<>();
+
+  public ViewResolver(String prefix, String suffix) {
+    this.prefix = prefix;
+    this.suffix = suffix;
+  }
+
+  public MyView resolve(String viewName) {
+    // 이미 있으면 get 한 번으로 끝 (computeIfAbsent 의 람다를 매번 만들지 않음)
+    MyView view = views.get(viewName);
+    if (view == null) {
+      view = views.computeIfAbsent(viewName, name -> MyView.of(prefix + name + suffix));
+    }
+    return view;
+  }
+}
@@ -1,8 +1,6 @@
 package hello.servlet.web.frontcontroller.v1;
 
-import hello.servlet.web.frontcontroller.v1.controller.MemberFormControllerV1;
-import hello.servlet.web.frontcontroller.v1.controller.MemberListControllerV1;
-import hello.servlet.web.frontcontroller.v1.controller.MemberSaveControllerV1;
+import hello.servlet.web.frontcontroller.Router;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.annotation.WebServlet;
 import jakarta.servlet.http.HttpServlet;
@@ -10,19 +8,18 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.Map;
 
 // v1/* 어떠한 url이 들어와도 일단 이 서블릿이 무조건 호출이 된다.
 @WebServlet(name = "frontControllerServletV1", urlPatterns = "/front-controller/v1/*")
 public class FrontControllerServletV1 extends HttpServlet {
 
-  private Map<String, ControllerV1> controllerMap = new HashMap<>();
+  private final Router<ControllerV1> router;
 
   public FrontControllerServletV1() {
-    controllerMap.put("/front-controller/v1/members/new-form", new MemberFormControllerV1());
-    controllerMap.put("/front-controller/v1/members/save", new MemberSaveControllerV1());
-    controllerMap.put("/front-controller/v1/members", new MemberListControllerV1());
+    // 컨트롤러 목록은 컴파일 때 @Route 로 만들어진 ControllerV1Routes 에 있다
+    Router.Builder<ControllerV1> builder = Router.builder();
+    ControllerV1Routes.register(builder::add);
+    router = builder.build();
   }
 
   @Override
@@ -31,14 +28,15 @@ public class FrontControllerServletV1 extends HttpServlet {
 
      String requestURI = request.getRequestURI();
 
-     ControllerV1 controller = controllerMap.get(requestURI);
+     Router.Match<ControllerV1> match = router.match(requestURI);
 
-     if(controller == null) {
+     if(match == null) {
        response.setStatus(HttpServletResponse.SC_NOT_FOUND);
        return;
      }
 
-     controller.process(request, response);
+     request.setAttribute(Router.MATCH_ATTRIBUTE, match); // 경로 변수({id} 등)는 컨트롤러가 여기서 꺼낸다
+     match.getHandler().process(request, response);
   }
 
 
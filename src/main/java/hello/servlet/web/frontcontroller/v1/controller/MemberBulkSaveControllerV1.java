@@ -0,0 +1,88 @@
+package hello.servlet.web.frontcontroller.v1.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hello.servlet.domain.member.Member;
+import hello.servlet.domain.member.MemberRepository;
+import hello.servlet.route.Route;
+import hello.servlet.web.frontcontroller.v1.ControllerV1;
+import jakarta.servlet.RequestDispatcher;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 회원 여러 명을 한 번에 저장 (MemberRepository.saveAll)
+ *
+ * JSON 전송
+ * content-type: application/json
+ * message body: [{"username": "kim", "age": 20}, {"username": "lee", "age": 30}]
+ * -> 저장된 회원 목록(id 포함)을 JSON 으로 응답
+ *
+ * 폼 전송: username=kim&age=20&username=lee&age=30 (같은 순서끼리 한 명)
+ * -> 저장된 회원 목록을 members.jsp 로 보여준다.
+ *
+ * 읽을 수 없는 JSON, null 본문이나 null 원소, 개수가 안 맞거나 숫자가 아닌 age 는 하나도 저장하지 않고 400
+ */
+@Route("/front-controller/v1/members/bulk-save")
+public class MemberBulkSaveControllerV1 implements ControllerV1 {
+
+  private MemberRepository memberRepository = MemberRepository.getInstance();
+  private ObjectMapper objectMapper = new ObjectMapper();
+
+  @Override
+  public void process(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
+    String contentType = request.getContentType();
+
+    if (contentType != null && contentType.startsWith("application/json")) {
+      List<Member> members;
+      try {
+        members = objectMapper.readValue(request.getInputStream(), new TypeReference<List<Member>>() {});
+      } catch (JsonProcessingException e) {
+        response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+        return;
+      }
+      if (members == null || members.contains(null)) {
+        response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+        return;
+      }
+      List<Member> saved = memberRepository.saveAll(members);
+
+      response.setContentType("application/json");
+      response.setCharacterEncoding("utf-8");
+      response.getWriter().write(objectMapper.writeValueAsString(saved));
+      return;
+    }
+
+    String[] usernames = request.getParameterValues("username");
+    String[] ages = request.getParameterValues("age");
+    if (usernames == null || ages == null || usernames.length != ages.length) {
+      response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+      return;
+    }
+
+    List<Member> members = new ArrayList<>(usernames.length);
+    for (int i = 0; i < usernames.length; i++) {
+      int age;
+      try {
+        age = Integer.parseInt(ages[i].trim());
+      } catch (NumberFormatException e) {
+        response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+        return;
+      }
+      members.add(new Member(usernames[i], age));
+    }
+    List<Member> saved = memberRepository.saveAll(members);
+
+    request.setAttribute("members", saved);
+
+    String viewPath = "/WEB-INF/views/members.jsp";
+    RequestDispatcher dispatcher = request.getRequestDispatcher(viewPath);
+    dispatcher.forward(request, response);
+  }
+}
@@ -0,0 +1,39 @@
+package hello.servlet.web.frontcontroller.v1.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hello.servlet.domain.member.Member;
+import hello.servlet.domain.member.MemberRepository;
+import hello.servlet.route.Route;
+import hello.servlet.web.frontcontroller.Router;
+import hello.servlet.web.frontcontroller.v1.ControllerV1;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+
+/**
+ * 회원 한 명 JSON
+ * id 가 숫자가 아니거나 없는 회원이면 404
+ */
+@Route("/front-controller/v1/members/{id}")
+public class MemberFindControllerV1 implements ControllerV1 {
+
+  private MemberRepository memberRepository = MemberRepository.getInstance();
+  private ObjectMapper objectMapper = new ObjectMapper();
+
+  @Override
+  public void process(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
+    long id = Router.Match.from(request).longVariable("id", -1);
+    Member member = id < 0 ? null : memberRepository.findById(id);
+
+    if (member == null) {
+      response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+      return;
+    }
+
+    response.setContentType("application/json");
+    response.setCharacterEncoding("utf-8");
+    response.getWriter().write(objectMapper.writeValueAsString(member));
+  }
+}
@@ -1,5 +1,6 @@
 package hello.servlet.web.frontcontroller.v1.controller;
 
+import hello.servlet.route.Route;
 import hello.servlet.web.frontcontroller.v1.ControllerV1;
 import jakarta.servlet.RequestDispatcher;
 import jakarta.servlet.ServletException;
@@ -8,6 +9,7 @@ import jakarta.servlet.http.HttpServletResponse;
 
 import java.io.IOException;
 
+@Route("/front-controller/v1/members/new-form")
 public class MemberFormControllerV1 implements ControllerV1 {
   @Override
   public void process(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
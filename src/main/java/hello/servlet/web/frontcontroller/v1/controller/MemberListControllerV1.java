@@ -2,6 +2,8 @@ package hello.servlet.web.frontcontroller.v1.controller;
 
 import hello.servlet.domain.member.Member;
 import hello.servlet.domain.member.MemberRepository;
+import hello.servlet.route.Route;
+import hello.servlet.web.MemberListParams;
 import hello.servlet.web.frontcontroller.v1.ControllerV1;
 import jakarta.servlet.RequestDispatcher;
 import jakarta.servlet.ServletException;
@@ -11,15 +13,18 @@ import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.util.List;
 
+@Route("/front-controller/v1/members")
 public class MemberListControllerV1 implements ControllerV1 {
 
   private MemberRepository memberRepository = MemberRepository.getInstance();
 
   @Override
   public void process(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
-    List<Member> members = memberRepository.findAll();
+    MemberListParams params = MemberListParams.from(request);
+    List<Member> members = params.find(memberRepository);
 
     request.setAttribute("members", members);
+    request.setAttribute("nextQuery", params.nextQuery(members));
 
     String viewPath = "/WEB-INF/views/members.jsp";
     RequestDispatcher dispatcher = request.getRequestDispatcher(viewPath);
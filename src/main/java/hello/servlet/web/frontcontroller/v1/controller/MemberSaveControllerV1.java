@@ -2,6 +2,7 @@ package hello.servlet.web.frontcontroller.v1.controller;
 
 import hello.servlet.domain.member.Member;
 import hello.servlet.domain.member.MemberRepository;
+import hello.servlet.route.Route;
 import hello.servlet.web.frontcontroller.v1.ControllerV1;
 import jakarta.servlet.RequestDispatcher;
 import jakarta.servlet.ServletException;
@@ -10,6 +11,7 @@ import jakarta.servlet.http.HttpServletResponse;
 
 import java.io.IOException;
 
+@Route("/front-controller/v1/members/save")
 public class MemberSaveControllerV1 implements ControllerV1 {
 
   private MemberRepository memberRepository = MemberRepository.getInstance();
@@ -0,0 +1,35 @@
+package hello.servlet.web.frontcontroller.v1.controller;
+
+import hello.servlet.domain.member.Member;
+import hello.servlet.domain.member.MemberRepository;
+import hello.servlet.route.Route;
+import hello.servlet.web.MemberListParams;
+import hello.servlet.web.frontcontroller.v1.ControllerV1;
+import jakarta.servlet.RequestDispatcher;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.util.List;
+
+@Route("/front-controller/v1/members/search")
+public class MemberSearchControllerV1 implements ControllerV1 {
+
+  private MemberRepository memberRepository = MemberRepository.getInstance();
+
+  // /front-controller/v1/members/search?q=kim
+  @Override
+  public void process(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
+    String q = request.getParameter("q");
+    int limit = MemberListParams.from(request).getLimit();
+
+    List<Member> members = memberRepository.searchByUsername(q, limit);
+
+    request.setAttribute("members", members);
+
+    String viewPath = "/WEB-INF/views/members.jsp";
+    RequestDispatcher dispatcher = request.getRequestDispatcher(viewPath);
+    dispatcher.forward(request, response);
+  }
+}
@@ -0,0 +1,46 @@
+package hello.servlet.web.frontcontroller.v1.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import hello.servlet.domain.member.CachingMemberRepository;
+import hello.servlet.domain.member.MemberRepository;
+import hello.servlet.domain.member.MemberStats;
+import hello.servlet.route.Route;
+import hello.servlet.web.frontcontroller.v1.ControllerV1;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+
+/**
+ * 회원 통계 JSON (대시보드용, findAll 없이 O(1))
+ * {"count":3,"ageSum":60,"minAge":10,"maxAge":30,"ageHistogram":{"0-9":0,"10-19":1,...},"distinctUsernames":2,"averageAge":20.0}
+ * 캐시(member.cache.size)를 켰으면 "cache":{"id":{"hits":..,"misses":..},"list":{"hits":..,"misses":..},"evictions":..} 도 붙인다.
+ */
+@Route("/front-controller/v1/members/stats")
+public class MemberStatsControllerV1 implements ControllerV1 {
+
+  private MemberRepository memberRepository = MemberRepository.getInstance();
+  private ObjectMapper objectMapper = new ObjectMapper();
+
+  @Override
+  public void process(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
+    MemberStats stats = memberRepository.getStats();
+    ObjectNode body = objectMapper.valueToTree(stats);
+    if (memberRepository instanceof CachingMemberRepository cache) {
+      ObjectNode node = body.putObject("cache");
+      node.putObject("id")
+          .put("hits", cache.getIdHitCount())
+          .put("misses", cache.getIdMissCount());
+      node.putObject("list")
+          .put("hits", cache.getListHitCount())
+          .put("misses", cache.getListMissCount());
+      node.put("evictions", cache.getEvictionCount());
+    }
+
+    response.setContentType("application/json");
+    response.setCharacterEncoding("utf-8");
+    response.getWriter().write(objectMapper.writeValueAsString(body));
+  }
+}
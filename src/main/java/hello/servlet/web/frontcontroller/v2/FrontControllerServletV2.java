@@ -1,9 +1,7 @@
 package hello.servlet.web.frontcontroller.v2;
 
 import hello.servlet.web.frontcontroller.MyView;
-import hello.servlet.web.frontcontroller.v2.controller.MemberFormControllerV2;
-import hello.servlet.web.frontcontroller.v2.controller.MemberListControllerV2;
-import hello.servlet.web.frontcontroller.v2.controller.MemberSaveControllerV2;
+import hello.servlet.web.frontcontroller.Router;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.annotation.WebServlet;
 import jakarta.servlet.http.HttpServlet;
@@ -11,18 +9,23 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.Map;
 
 @WebServlet(name = "frontControllerServletV2" , urlPatterns = "/front-controller/v2/*")
 public class FrontControllerServletV2 extends HttpServlet {
 
-  private Map<String, ControllerV2> controllerMap = new HashMap<>();
+  private final Router<ControllerV2> router;
 
   public FrontControllerServletV2() {
-    controllerMap.put("/front-controller/v2/members/new-form", new MemberFormControllerV2());
-    controllerMap.put("/front-controller/v2/members/save", new MemberSaveControllerV2());
-    controllerMap.put("/front-controller/v2/members", new MemberListControllerV2());
+    // 컨트롤러 목록은 컴파일 때 @Route 로 만들어진 ControllerV2Routes 에 있다
+    Router.Builder<ControllerV2> builder = Router.builder();
+    ControllerV2Routes.register(builder::add);
+    router = builder.build();
+  }
+
+  // 컨트롤러들이 상수로 들고 있는 뷰는 위에서 이미 만들어졌으니, 첫 요청 전에 dispatcher 까지 찾아 둔다
+  @Override
+  public void init() throws ServletException {
+    MyView.prepareAll(getServletContext());
   }
 
   @Override
@@ -31,14 +34,15 @@ public class FrontControllerServletV2 extends HttpServlet {
 
     String requestURI = request.getRequestURI();
 
-    ControllerV2 controller = controllerMap.get(requestURI);
+    Router.Match<ControllerV2> match = router.match(requestURI);
 
-    if(controller == null) {
+    if(match == null) {
       response.setStatus(HttpServletResponse.SC_NOT_FOUND);
       return;
     }
 
-    MyView view = controller.process(request, response);
+    request.setAttribute(Router.MATCH_ATTRIBUTE, match);
+    MyView view = match.getHandler().process(request, response);
     view.render(request, response);
 
 
@@ -1,5 +1,6 @@
 package hello.servlet.web.frontcontroller.v2.controller;
 
+import hello.servlet.route.Route;
 import hello.servlet.web.frontcontroller.MyView;
 import hello.servlet.web.frontcontroller.v2.ControllerV2;
 
@@ -9,11 +10,14 @@ import jakarta.servlet.http.HttpServletResponse;
 
 import java.io.IOException;
 
+@Route("/front-controller/v2/members/new-form")
 public class MemberFormControllerV2 implements ControllerV2 {
 
+  private static final MyView VIEW = MyView.of("/WEB-INF/views/new-form.jsp");
+
   @Override
   public MyView process(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
-    return new MyView("/WEB-INF/views/new-form.jsp");
+    return VIEW;
   }
 }
 
@@ -2,6 +2,8 @@ package hello.servlet.web.frontcontroller.v2.controller;
 
 import hello.servlet.domain.member.Member;
 import hello.servlet.domain.member.MemberRepository;
+import hello.servlet.route.Route;
+import hello.servlet.web.MemberListParams;
 import hello.servlet.web.frontcontroller.MyView;
 import hello.servlet.web.frontcontroller.v2.ControllerV2;
 import jakarta.servlet.ServletException;
@@ -11,17 +13,22 @@ import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.util.List;
 
+@Route("/front-controller/v2/members")
 public class MemberListControllerV2 implements ControllerV2 {
 
+  private static final MyView VIEW = MyView.of("/WEB-INF/views/members.jsp");
+
   private MemberRepository memberRepository = MemberRepository.getInstance();
 
   @Override
   public MyView process(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
-    List<Member> members = memberRepository.findAll();
+    MemberListParams params = MemberListParams.from(request);
+    List<Member> members = params.find(memberRepository);
 
     request.setAttribute("members",members);
+    request.setAttribute("nextQuery", params.nextQuery(members));
 
-    return new MyView("/WEB-INF/views/members.jsp");
+    return VIEW;
   }
 
 }
@@ -2,6 +2,7 @@ package hello.servlet.web.frontcontroller.v2.controller;
 
 import hello.servlet.domain.member.Member;
 import hello.servlet.domain.member.MemberRepository;
+import hello.servlet.route.Route;
 import hello.servlet.web.frontcontroller.MyView;
 import hello.servlet.web.frontcontroller.v2.ControllerV2;
 import jakarta.servlet.ServletException;
@@ -10,8 +11,11 @@ import jakarta.servlet.http.HttpServletResponse;
 
 import java.io.IOException;
 
+@Route("/front-controller/v2/members/save")
 public class MemberSaveControllerV2 implements ControllerV2 {
 
+  private static final MyView VIEW = MyView.of("/WEB-INF/views/save-result.jsp");
+
   private MemberRepository memberRepository = MemberRepository.getInstance();
 
   // "/front-controller/v2/members/save" 바로 검색하면 안되는 이유 파라미터로 받는게 없어서 500뜸
@@ -25,7 +29,7 @@ public class MemberSaveControllerV2 implements ControllerV2 {
     //Model에 데이터를 보관
     request.setAttribute("member",member);
 
-    return new MyView("/WEB-INF/views/save-result.jsp");
+    return VIEW;
   }
 }
 
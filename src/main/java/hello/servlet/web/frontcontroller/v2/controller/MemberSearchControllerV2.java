@@ -0,0 +1,35 @@
+package hello.servlet.web.frontcontroller.v2.controller;
+
+import hello.servlet.domain.member.Member;
+import hello.servlet.domain.member.MemberRepository;
+import hello.servlet.route.Route;
+import hello.servlet.web.MemberListParams;
+import hello.servlet.web.frontcontroller.MyView;
+import hello.servlet.web.frontcontroller.v2.ControllerV2;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.util.List;
+
+@Route("/front-controller/v2/members/search")
+public class MemberSearchControllerV2 implements ControllerV2 {
+
+  private static final MyView VIEW = MyView.of("/WEB-INF/views/members.jsp");
+
+  private MemberRepository memberRepository = MemberRepository.getInstance();
+
+  // /front-controller/v2/members/search?q=kim
+  @Override
+  public MyView process(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
+    String q = request.getParameter("q");
+    int limit = MemberListParams.from(request).getLimit();
+
+    List<Member> members = memberRepository.searchByUsername(q, limit);
+
+    request.setAttribute("members", members);
+
+    return VIEW;
+  }
+}
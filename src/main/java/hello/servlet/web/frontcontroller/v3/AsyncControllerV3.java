@@ -0,0 +1,16 @@
+package hello.servlet.web.frontcontroller.v3;
+
+import hello.servlet.web.frontcontroller.ModelView;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 비동기 V3 컨트롤러: 뷰가 준비되면 완료되는 CompletableFuture 를 돌려준다
+ * process 는 톰캣 워커 스레드가 아니라 ControllerExecutors 실행기에서 불리므로, 안에서 저장소를 기다려도 커넥터 스레드를 잡지 않는다.
+ */
+public interface AsyncControllerV3 {
+
+  CompletableFuture<ModelView> process(Map<String, String> paramMap);
+
+}
@@ -0,0 +1,14 @@
+package hello.servlet.web.frontcontroller.v3;
+
+import hello.servlet.web.frontcontroller.ModelView;
+
+import java.util.Map;
+
+/**
+ * 서블릿에 묶이지 않은 컨트롤러: 요청 파라미터만 받고 논리 뷰 이름 + model 을 돌려준다
+ */
+public interface ControllerV3 {
+
+  ModelView process(Map<String, String> paramMap);
+
+}
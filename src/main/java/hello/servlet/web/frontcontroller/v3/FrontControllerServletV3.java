@@ -0,0 +1,197 @@
+package hello.servlet.web.frontcontroller.v3;
+
+import hello.servlet.web.frontcontroller.ControllerExecutors;
+import hello.servlet.web.frontcontroller.ModelView;
+import hello.servlet.web.frontcontroller.MyView;
+import hello.servlet.web.frontcontroller.ParamMap;
+import hello.servlet.web.frontcontroller.Router;
+import hello.servlet.web.frontcontroller.ViewResolver;
+import hello.servlet.web.template.CompiledTemplate;
+import hello.servlet.web.template.Templates;
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+
+/**
+ * ControllerV3 는 톰캣 워커 스레드에서 바로 처리하고,
+ * AsyncControllerV3 는 request.startAsync() 로 워커 스레드를 바로 돌려준 뒤 ControllerExecutors 실행기에서 처리한다.
+ * 비동기 요청은 frontcontroller.async.timeout(ms, 기본 30초) 안에 끝나지 않으면 503, 컨트롤러가 실패하면 500.
+ *
+ * frontcontroller.v3.view=template 이면 JSP 로 forward 하는 대신 컴파일된 템플릿(Templates)으로 응답에 바로 쓴다.
+ * (템플릿이 없는 뷰 이름은 그대로 JSP. 기본은 jsp)
+ */
+@WebServlet(name = "frontControllerServletV3", urlPatterns = "/front-controller/v3/*", asyncSupported = true)
+public class FrontControllerServletV3 extends HttpServlet {
+
+  private final Router<ControllerV3> router;
+  private final Router<AsyncControllerV3> asyncRouter;
+  private final Executor executor;
+  private final long asyncTimeoutMillis = Long.getLong("frontcontroller.async.timeout", 30_000L);
+  private final ViewResolver viewResolver = new ViewResolver("/WEB-INF/views/", ".jsp");
+  private final boolean templateViews = templateViews(System.getProperty("frontcontroller.v3.view", "jsp"));
+
+  public FrontControllerServletV3() {
+    Router.Builder<ControllerV3> builder = Router.builder();
+    ControllerV3Routes.register(builder::add);
+    Router.Builder<AsyncControllerV3> asyncBuilder = Router.builder();
+    AsyncControllerV3Routes.register(asyncBuilder::add);
+    router = builder.build();
+    asyncRouter = asyncBuilder.build();
+    executor = ControllerExecutors.executor();
+  }
+
+  /**
+   * 경로 표와 실행기를 직접 넘기는 생성자 (부하 테스트처럼 서블릿을 손으로 등록할 때)
+   */
+  public FrontControllerServletV3(Router<ControllerV3> router, Router<AsyncControllerV3> asyncRouter, Executor executor) {
+    this.router = router;
+    this.asyncRouter = asyncRouter;
+    this.executor = executor;
+  }
+
+  @Override
+  protected void service(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
+    String requestURI = request.getRequestURI();
+
+    Router.Match<ControllerV3> match = router.match(requestURI);
+    if (match != null) {
+      // 파라미터는 컨트롤러가 읽는 키만 그때 디코딩된다
+      ModelView mv = match.getHandler().process(new ParamMap(request));
+
+      CompiledTemplate template = template(mv.getViewName());
+      if (template != null) {
+        Templates.render(template, mv.getModel(), response);
+        return;
+      }
+      MyView view = viewResolver.resolve(mv.getViewName());
+      view.render(mv.getModel(), request, response);
+      return;
+    }
+
+    Router.Match<AsyncControllerV3> asyncMatch = asyncRouter.match(requestURI);
+    if (asyncMatch == null) {
+      response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+      return;
+    }
+    processAsync(asyncMatch.getHandler(), request, response);
+  }
+
+  private CompiledTemplate template(String viewName) {
+    return templateViews ? Templates.get(viewName) : null;
+  }
+
+  private static boolean templateViews(String view) {
+    if (!view.equals("jsp") && !view.equals("template")) {
+      throw new IllegalArgumentException("알 수 없는 frontcontroller.v3.view 값: " + view);
+    }
+    return view.equals("template");
+  }
+
+  private void processAsync(AsyncControllerV3 controller, HttpServletRequest request, HttpServletResponse response) {
+    AsyncContext asyncContext = request.startAsync(request, response);
+    asyncContext.setTimeout(asyncTimeoutMillis);
+    AsyncCompletion completion = new AsyncCompletion(asyncContext, response);
+    asyncContext.addListener(completion);
+
+    // 컨트롤러는 실행기 스레드에서 돌고, 그 사이 타임아웃으로 request 가 재사용될 수 있으므로 파라미터를 여기서 떼어 둔다
+    ParamMap paramMap = ParamMap.detached(request);
+    try {
+      CompletableFuture.supplyAsync(() -> controller.process(paramMap), executor)
+          .thenCompose(future -> future)
+          .whenComplete(completion);
+    } catch (RejectedExecutionException e) {
+      completion.fail(HttpServletResponse.SC_SERVICE_UNAVAILABLE, e);
+    }
+  }
+
+  /**
+   * 비동기 요청 하나의 끝맺음. 컨트롤러 완료 / 실패 / 타임아웃 중 먼저 온 하나만 처리한다.
+   */
+  private final class AsyncCompletion implements AsyncListener, BiConsumer<ModelView, Throwable> {
+    private final AsyncContext asyncContext;
+    private final HttpServletResponse response;
+    private final AtomicBoolean done = new AtomicBoolean();
+
+    AsyncCompletion(AsyncContext asyncContext, HttpServletResponse response) {
+      this.asyncContext = asyncContext;
+      this.response = response;
+    }
+
+    @Override
+    public void accept(ModelView mv, Throwable error) {
+      if (error != null) {
+        fail(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, error);
+        return;
+      }
+      if (!done.compareAndSet(false, true)) {
+        return;
+      }
+      CompiledTemplate template = template(mv.getViewName());
+      if (template == null) {
+        viewResolver.resolve(mv.getViewName()).render(mv.getModel(), asyncContext);
+        return;
+      }
+      // 템플릿은 dispatch 없이 이 스레드에서 바로 응답에 쓰고 끝낸다
+      try {
+        Templates.render(template, mv.getModel(), response);
+      } catch (IOException | RuntimeException e) {
+        System.out.println("비동기 템플릿 렌더 실패: " + e);
+        if (!response.isCommitted()) {
+          sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+        }
+      } finally {
+        asyncContext.complete();
+      }
+    }
+
+    void fail(int status, Throwable error) {
+      if (!done.compareAndSet(false, true)) {
+        return;
+      }
+      System.out.println("비동기 컨트롤러 실패 (" + status + "): " + error);
+      sendError(status);
+      asyncContext.complete();
+    }
+
+    private void sendError(int status) {
+      try {
+        response.sendError(status);
+      } catch (IOException | IllegalStateException e) {
+        // 이미 응답이 나갔거나 연결이 끊김
+      }
+    }
+
+    @Override
+    public void onTimeout(AsyncEvent event) {
+      if (done.compareAndSet(false, true)) {
+        response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        asyncContext.complete();
+      }
+    }
+
+    @Override
+    public void onComplete(AsyncEvent event) {
+    }
+
+    @Override
+    public void onError(AsyncEvent event) {
+      done.set(true);
+    }
+
+    @Override
+    public void onStartAsync(AsyncEvent event) {
+    }
+  }
+}
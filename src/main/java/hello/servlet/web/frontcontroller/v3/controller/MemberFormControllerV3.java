@@ -0,0 +1,16 @@
+package hello.servlet.web.frontcontroller.v3.controller;
+
+import hello.servlet.route.Route;
+import hello.servlet.web.frontcontroller.ModelView;
+import hello.servlet.web.frontcontroller.v3.ControllerV3;
+
+import java.util.Map;
+
+@Route("/front-controller/v3/members/new-form")
+public class MemberFormControllerV3 implements ControllerV3 {
+
+  @Override
+  public ModelView process(Map<String, String> paramMap) {
+    return new ModelView("new-form");
+  }
+}
@@ -0,0 +1,28 @@
+package hello.servlet.web.frontcontroller.v3.controller;
+
+import hello.servlet.domain.member.Member;
+import hello.servlet.domain.member.MemberRepository;
+import hello.servlet.route.Route;
+import hello.servlet.web.MemberListParams;
+import hello.servlet.web.frontcontroller.ModelView;
+import hello.servlet.web.frontcontroller.v3.AsyncControllerV3;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+@Route("/front-controller/v3/async/members")
+public class MemberListAsyncControllerV3 implements AsyncControllerV3 {
+
+  private MemberRepository memberRepository = MemberRepository.getInstance();
+
+  @Override
+  public CompletableFuture<ModelView> process(Map<String, String> paramMap) {
+    MemberListParams params = MemberListParams.from(paramMap);
+    List<Member> members = params.find(memberRepository);
+
+    return CompletableFuture.completedFuture(new ModelView("members")
+        .add("members", members)
+        .add("nextQuery", params.nextQuery(members)));
+  }
+}
@@ -0,0 +1,27 @@
+package hello.servlet.web.frontcontroller.v3.controller;
+
+import hello.servlet.domain.member.Member;
+import hello.servlet.domain.member.MemberRepository;
+import hello.servlet.route.Route;
+import hello.servlet.web.MemberListParams;
+import hello.servlet.web.frontcontroller.ModelView;
+import hello.servlet.web.frontcontroller.v3.ControllerV3;
+
+import java.util.List;
+import java.util.Map;
+
+@Route("/front-controller/v3/members")
+public class MemberListControllerV3 implements ControllerV3 {
+
+  private MemberRepository memberRepository = MemberRepository.getInstance();
+
+  @Override
+  public ModelView process(Map<String, String> paramMap) {
+    MemberListParams params = MemberListParams.from(paramMap);
+    List<Member> members = params.find(memberRepository);
+
+    return new ModelView("members")
+        .add("members", members)
+        .add("nextQuery", params.nextQuery(members));
+  }
+}
@@ -0,0 +1,26 @@
+package hello.servlet.web.frontcontroller.v3.controller;
+
+import hello.servlet.domain.member.Member;
+import hello.servlet.domain.member.MemberRepository;
+import hello.servlet.route.Route;
+import hello.servlet.web.frontcontroller.ModelView;
+import hello.servlet.web.frontcontroller.v3.ControllerV3;
+
+import java.util.Map;
+
+@Route("/front-controller/v3/members/save")
+public class MemberSaveControllerV3 implements ControllerV3 {
+
+  private MemberRepository memberRepository = MemberRepository.getInstance();
+
+  @Override
+  public ModelView process(Map<String, String> paramMap) {
+    String username = paramMap.get("username");
+    int age = Integer.parseInt(paramMap.get("age"));
+
+    Member member = new Member(username, age);
+    memberRepository.save(member);
+
+    return new ModelView("save-result").add("member", member);
+  }
+}
@@ -0,0 +1,29 @@
+package hello.servlet.web.frontcontroller.v3.controller;
+
+import hello.servlet.domain.member.Member;
+import hello.servlet.domain.member.MemberRepository;
+import hello.servlet.route.Route;
+import hello.servlet.web.MemberListParams;
+import hello.servlet.web.frontcontroller.ModelView;
+import hello.servlet.web.frontcontroller.v3.AsyncControllerV3;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+@Route("/front-controller/v3/async/members/search")
+public class MemberSearchAsyncControllerV3 implements AsyncControllerV3 {
+
+  private MemberRepository memberRepository = MemberRepository.getInstance();
+
+  // /front-controller/v3/async/members/search?q=kim
+  @Override
+  public CompletableFuture<ModelView> process(Map<String, String> paramMap) {
+    String q = paramMap.get("q");
+    int limit = MemberListParams.from(paramMap).getLimit();
+
+    List<Member> members = memberRepository.searchByUsername(q, limit);
+
+    return CompletableFuture.completedFuture(new ModelView("members").add("members", members));
+  }
+}
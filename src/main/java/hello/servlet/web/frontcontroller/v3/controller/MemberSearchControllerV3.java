@@ -0,0 +1,28 @@
+package hello.servlet.web.frontcontroller.v3.controller;
+
+import hello.servlet.domain.member.Member;
+import hello.servlet.domain.member.MemberRepository;
+import hello.servlet.route.Route;
+import hello.servlet.web.MemberListParams;
+import hello.servlet.web.frontcontroller.ModelView;
+import hello.servlet.web.frontcontroller.v3.ControllerV3;
+
+import java.util.List;
+import java.util.Map;
+
+@Route("/front-controller/v3/members/search")
+public class MemberSearchControllerV3 implements ControllerV3 {
+
+  private MemberRepository memberRepository = MemberRepository.getInstance();
+
+  // /front-controller/v3/members/search?q=kim
+  @Override
+  public ModelView process(Map<String, String> paramMap) {
+    String q = paramMap.get("q");
+    int limit = MemberListParams.from(paramMap).getLimit();
+
+    List<Member> members = memberRepository.searchByUsername(q, limit);
+
+    return new ModelView("members").add("members", members);
+  }
+}
@@ -1,8 +1,9 @@
-
 package hello.servlet.web.servlet;
 
 import hello.servlet.domain.member.Member;
 import hello.servlet.domain.member.MemberRepository;
+import hello.servlet.web.MemberListParams;
+import hello.servlet.web.template.HtmlWriter;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.annotation.WebServlet;
 import jakarta.servlet.http.HttpServlet;
@@ -10,52 +11,75 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 
 import java.io.IOException;
-import java.io.PrintWriter;
 import java.util.List;
 
+import static hello.servlet.web.template.HtmlWriter.bytes;
 
+/**
+ * HTML 을 서블릿 코드로 직접 쓰는 회원 목록
+ * 고정된 마크업은 UTF-8 byte[] 로 미리 인코딩해 두고, 행마다 바뀌는 값만 HtmlWriter 로 바로 바이트에 쓴다.
+ * (행마다 문자열을 이어 붙이거나 PrintWriter 로 다시 인코딩하지 않음) username 과 다음 링크는 HTML 이스케이프한다.
+ */
 @WebServlet(name = "memberListServlet", urlPatterns = "/servlet/members")
 public class MemberListServlet extends HttpServlet {
 
+  private static final byte[] HEAD = bytes("<html>\n"
+      + "<head>\n"
+      + " <meta charset=\"UTF-8\">\n"
+      + " <title>Title</title>\n"
+      + "</head>\n"
+      + "<body>\n"
+      + "<a href=\"/index.html\">메인</a>\n"
+      + "<table>\n"
+      + " <thead>\n"
+      + " <th>id</th>\n"
+      + " <th>username</th>\n"
+      + " <th>age</th>\n"
+      + " </thead>\n"
+      + " <tbody>\n");
+  private static final byte[] ROW_ID = bytes(" <tr> <td>");
+  private static final byte[] NEXT_CELL = bytes("</td> <td>");
+  private static final byte[] ROW_END = bytes("</td> </tr>");
+  private static final byte[] TABLE_END = bytes(" </tbody>\n"
+      + "</table>\n");
+  private static final byte[] NEXT_START = bytes("<a href=\"?");
+  private static final byte[] NEXT_END = bytes("\">다음</a>\n");
+  private static final byte[] TAIL = bytes("</body>\n"
+      + "</html>\n");
+
   MemberRepository memberRepository = MemberRepository.getInstance();
 
   @Override
   protected void service(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
-    List<Member> members = memberRepository.findAll(); // 모든 멤버를 갖고옴.
-
-    response.setContentType("text/html");
-    response.setCharacterEncoding("utf-8");
+    MemberListParams params = MemberListParams.from(request);
+    List<Member> members = params.find(memberRepository); // 한 페이지 분량만 갖고옴.
+    String nextQuery = params.nextQuery(members);
+
+    response.setContentType("text/html;charset=UTF-8");
+
+    try (HtmlWriter w = HtmlWriter.open(response.getOutputStream())) {
+      w.write(HEAD);
+
+      for (Member member : members) {
+        w.write(ROW_ID);
+        w.writeNumber(member.getId()); // 동적으로 데이터가 할당된다.
+        w.write(NEXT_CELL);
+        w.writeEscaped(member.getUsername());
+        w.write(NEXT_CELL);
+        w.writeNumber(member.getAge());
+        w.write(ROW_END);
+      }
 
-    PrintWriter w = response.getWriter();
-
-    w.write("<html>\n");
-    w.write("<head>\n");
-    w.write(" <meta charset=\"UTF-8\">\n");
-    w.write(" <title>Title</title>\n");
-    w.write("</head>\n");
-    w.write("<body>\n");
-    w.write("<a href=\"/index.html\">메인</a>\n");
-    w.write("<table>\n");
-    w.write(" <thead>\n");
-    w.write(" <th>id</th>\n");
-    w.write(" <th>username</th>\n");
-    w.write(" <th>age</th>\n");
-    w.write(" </thead>\n");
-    w.write(" <tbody>\n");
-
-    for (Member member : members) {
-      w.write(" <tr>");
-      w.write(" <td>" + member.getId() + "</td>"); // 동적으로 데이터가 할당된다.
-      w.write(" <td>" + member.getUsername() + "</td>");
-      w.write(" <td>" + member.getAge() + "</td>");
-      w.write(" </tr>");
+      w.write(TABLE_END);
+      if (nextQuery != null) {
+        w.write(NEXT_START);
+        w.writeEscaped(nextQuery);
+        w.write(NEXT_END);
+      }
+      w.write(TAIL);
+      w.flush();
     }
 
-    w.write(" </tbody>\n");
-    w.write("</table>\n");
-    w.write("</body>\n");
-    w.write("</html>\n");
-
   }
 }
 
@@ -2,7 +2,9 @@ package hello.servlet.web.servletmvc;
 
 import hello.servlet.domain.member.Member;
 import hello.servlet.domain.member.MemberRepository;
-import jakarta.servlet.RequestDispatcher;
+import hello.servlet.web.MemberListParams;
+import hello.servlet.web.template.CompiledTemplate;
+import hello.servlet.web.template.MembersViewTemplate;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.annotation.WebServlet;
 import jakarta.servlet.http.HttpServlet;
@@ -12,6 +14,10 @@ import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.util.List;
 
+/**
+ * 회원 목록은 members.jsp 로 forward 하지 않고, 같은 내용을 컴파일한 템플릿(members.html)으로 바로 쓴다.
+ * 정적인 마크업은 미리 인코딩된 byte[] 이고, 행마다 값만 풀에서 빌린 HtmlWriter 버퍼에 쓴다.
+ */
 @WebServlet(name = "mvcMemberListServlet", urlPatterns ="/servlet-mvc/members")
 public class MvcMemberListServlet extends HttpServlet {
 
@@ -20,13 +26,11 @@ public class MvcMemberListServlet extends HttpServlet {
   @Override
   protected void service(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
 
-    List<Member> members = memberRepository.findAll();
-
-    request.setAttribute("members",members);
+    MemberListParams params = MemberListParams.from(request);
+    List<Member> members = params.find(memberRepository);
 
-    String viewPath = "/WEB-INF/views/members.jsp";
-    RequestDispatcher dispatcher = request.getRequestDispatcher(viewPath);
-    dispatcher.forward(request, response);
+    response.setContentType(CompiledTemplate.CONTENT_TYPE);
+    MembersViewTemplate.INSTANCE.render(response.getOutputStream(), members, params.nextQuery(members));
   }
 }
 
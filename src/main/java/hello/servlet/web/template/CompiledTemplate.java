@@ -0,0 +1,21 @@
+package hello.servlet.web.template;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+
+/**
+ * TemplateProcessor 가 @Template 인터페이스마다 만든 구현체 (예: MembersViewTemplate)
+ * 모델 Map 의 값을 인터페이스의 render 인자 이름으로 꺼내 넘긴다.
+ */
+public interface CompiledTemplate {
+
+  String CONTENT_TYPE = "text/html;charset=UTF-8";
+
+  /**
+   * 뷰 이름 (템플릿 파일 이름에서 확장자를 뺀 것)
+   */
+  String getName();
+
+  void render(Map<String, ?> model, OutputStream out) throws IOException;
+}
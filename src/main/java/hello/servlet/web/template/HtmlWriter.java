@@ -0,0 +1,194 @@
+package hello.servlet.web.template;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * HTML 을 바이트 버퍼에 모았다가 OutputStream 에 큰 덩어리로 쓴다. (PrintWriter 의 char -> byte 인코딩을 거치지 않음)
+ * - write(byte[]): 미리 UTF-8 로 인코딩해 둔 정적인 부분
+ * - writeNumber: 숫자를 문자열로 만들지 않고 바로 ASCII 바이트로
+ * - writeEscaped: & < > " ' 를 이스케이프하면서 바로 UTF-8 로 (중간 문자열 없음)
+ * null 은 아무것도 쓰지 않는다. (JSP EL 과 같음)
+ *
+ * 요청 하나를 렌더하는 스레드에서만 쓴다. flush() 는 버퍼를 out 에 넘길 뿐 out.flush() 는 부르지 않는다.
+ *
+ * 버퍼(8KB)는 풀에서 빌려 쓴다. open 으로 얻고 try-with-resources 로 닫으면 버퍼가 풀에 돌아간다.
+ * close() 는 남은 내용을 쓰지 않으므로 다 쓴 뒤 flush() 를 먼저 부른다.
+ * 페이지 전체를 모으지는 않는다. 버퍼가 찰 때마다 out 으로 내보내므로, 렌더 도중 예외가 나면 그때까지 내보낸 앞부분은
+ * 이미 나가 있다. (8KB 를 넘는 페이지는 응답이 commit 되어 에러 페이지로 바꿀 수 없을 수 있음)
+ * 스레드마다 두는 ThreadLocal 대신 공용 풀이라 가상 스레드로 요청을 받아도 버퍼가 스레드 수만큼 늘지 않는다.
+ * 풀이 비었으면 새로 만들고, 꽉 찼으면 돌려받은 버퍼는 버린다.
+ * - html.writer.pool-size: 풀에 둘 버퍼 수 (기본 CPU 수 * 4)
+ */
+public final class HtmlWriter implements AutoCloseable {
+
+  private static final int BUFFER_SIZE = 8192;
+  private static final BlockingQueue<byte[]> pool = new ArrayBlockingQueue<>(poolSize());
+  private static final byte[] AMP = bytes("&amp;");
+  private static final byte[] LT = bytes("&lt;");
+  private static final byte[] GT = bytes("&gt;");
+  private static final byte[] QUOT = bytes("&quot;");
+  private static final byte[] APOS = bytes("&#39;");
+  private static final byte[] MIN_LONG = bytes(Long.toString(Long.MIN_VALUE));
+
+  private final OutputStream out;
+  private byte[] buffer;
+  private int count;
+
+  private HtmlWriter(OutputStream out, byte[] buffer) {
+    this.out = out;
+    this.buffer = buffer;
+  }
+
+  public static HtmlWriter open(OutputStream out) {
+    byte[] buffer = pool.poll();
+    return new HtmlWriter(out, buffer != null ? buffer : new byte[BUFFER_SIZE]);
+  }
+
+  private static int poolSize() {
+    int size = Integer.getInteger("html.writer.pool-size", Runtime.getRuntime().availableProcessors() * 4);
+    if (size < 1) {
+      throw new IllegalArgumentException("html.writer.pool-size 는 1 이상이어야 합니다: " + size);
+    }
+    return size;
+  }
+
+  public static byte[] bytes(String text) {
+    return text.getBytes(StandardCharsets.UTF_8);
+  }
+
+  public void write(byte[] bytes) throws IOException {
+    if (bytes.length > buffer.length - count) {
+      flush();
+      if (bytes.length > buffer.length) {
+        out.write(bytes);
+        return;
+      }
+    }
+    System.arraycopy(bytes, 0, buffer, count, bytes.length);
+    count += bytes.length;
+  }
+
+  public void writeNumber(long value) throws IOException {
+    if (value == Long.MIN_VALUE) {
+      write(MIN_LONG);
+      return;
+    }
+    ensure(20);
+    if (value < 0) {
+      buffer[count++] = '-';
+      value = -value;
+    }
+    int end = count + digits(value);
+    int position = end;
+    do {
+      buffer[--position] = (byte) ('0' + value % 10);
+      value /= 10;
+    } while (value != 0);
+    count = end;
+  }
+
+  /**
+   * Long, Integer 같은 정수 박싱 타입 (null 이면 아무것도 안 씀)
+   */
+  public void writeNumber(Number value) throws IOException {
+    if (value != null) {
+      writeNumber(value.longValue());
+    }
+  }
+
+  public void writeEscaped(CharSequence value) throws IOException {
+    if (value == null) {
+      return;
+    }
+    for (int i = 0, length = value.length(); i < length; i++) {
+      char c = value.charAt(i);
+      ensure(6); // 가장 긴 것: &quot; (UTF-8 은 최대 4바이트)
+      if (c < 0x80) {
+        switch (c) {
+          case '&':
+            put(AMP);
+            break;
+          case '<':
+            put(LT);
+            break;
+          case '>':
+            put(GT);
+            break;
+          case '"':
+            put(QUOT);
+            break;
+          case '\'':
+            put(APOS);
+            break;
+          default:
+            buffer[count++] = (byte) c;
+        }
+      } else if (c < 0x800) {
+        buffer[count++] = (byte) (0xc0 | c >> 6);
+        buffer[count++] = (byte) (0x80 | c & 0x3f);
+      } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+        int codePoint = Character.toCodePoint(c, value.charAt(++i));
+        buffer[count++] = (byte) (0xf0 | codePoint >> 18);
+        buffer[count++] = (byte) (0x80 | codePoint >> 12 & 0x3f);
+        buffer[count++] = (byte) (0x80 | codePoint >> 6 & 0x3f);
+        buffer[count++] = (byte) (0x80 | codePoint & 0x3f);
+      } else if (Character.isSurrogate(c)) {
+        buffer[count++] = '?'; // 짝이 없는 surrogate (String.getBytes 와 같게)
+      } else {
+        buffer[count++] = (byte) (0xe0 | c >> 12);
+        buffer[count++] = (byte) (0x80 | c >> 6 & 0x3f);
+        buffer[count++] = (byte) (0x80 | c & 0x3f);
+      }
+    }
+  }
+
+  public void writeEscaped(Object value) throws IOException {
+    if (value != null) {
+      writeEscaped(value.toString());
+    }
+  }
+
+  public void flush() throws IOException {
+    if (count > 0) {
+      out.write(buffer, 0, count);
+      count = 0;
+    }
+  }
+
+  /**
+   * 버퍼를 풀에 돌려준다. 쓰지 않은 내용은 버린다. (두 번 불러도 됨, 닫은 뒤에는 쓸 수 없음)
+   */
+  @Override
+  public void close() {
+    byte[] released = buffer;
+    if (released != null) {
+      buffer = null;
+      count = 0;
+      pool.offer(released);
+    }
+  }
+
+  private void ensure(int bytes) throws IOException {
+    if (buffer.length - count < bytes) {
+      flush();
+    }
+  }
+
+  private void put(byte[] bytes) {
+    System.arraycopy(bytes, 0, buffer, count, bytes.length);
+    count += bytes.length;
+  }
+
+  private static int digits(long value) {
+    int digits = 1;
+    while (value >= 10) {
+      value /= 10;
+      digits++;
+    }
+    return digits;
+  }
+}
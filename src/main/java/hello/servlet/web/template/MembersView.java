@@ -0,0 +1,17 @@
+package hello.servlet.web.template;
+
+import hello.servlet.domain.member.Member;
+import hello.servlet.template.Template;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * 회원 목록 (members.jsp 와 같은 화면)
+ */
+@Template("members.html")
+public interface MembersView {
+
+  void render(OutputStream out, List<Member> members, String nextQuery) throws IOException;
+}
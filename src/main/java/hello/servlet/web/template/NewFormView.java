@@ -0,0 +1,15 @@
+package hello.servlet.web.template;
+
+import hello.servlet.template.Template;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * 회원 가입 폼 (new-form.jsp 와 같은 화면)
+ */
+@Template("new-form.html")
+public interface NewFormView {
+
+  void render(OutputStream out) throws IOException;
+}
@@ -0,0 +1,16 @@
+package hello.servlet.web.template;
+
+import hello.servlet.domain.member.Member;
+import hello.servlet.template.Template;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * 회원 저장 결과 (save-result.jsp 와 같은 화면)
+ */
+@Template("save-result.html")
+public interface SaveResultView {
+
+  void render(OutputStream out, Member member) throws IOException;
+}
@@ -0,0 +1,40 @@
+package hello.servlet.web.template;
+
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 컴파일된 템플릿 목록 (뷰 이름 -> CompiledTemplate)
+ * 템플릿은 src/main/templates 에 있고, 빌드할 때 TemplateProcessor 가 자바 코드로 바꾼다.
+ */
+public final class Templates {
+
+  private static final Map<String, CompiledTemplate> templates = index(MembersViewTemplate.INSTANCE,
+      NewFormViewTemplate.INSTANCE, SaveResultViewTemplate.INSTANCE);
+
+  private Templates() {
+  }
+
+  /**
+   * 그 이름의 템플릿, 없으면 null
+   */
+  public static CompiledTemplate get(String viewName) {
+    return templates.get(viewName);
+  }
+
+  public static void render(CompiledTemplate template, Map<String, ?> model, HttpServletResponse response) throws IOException {
+    response.setContentType(CompiledTemplate.CONTENT_TYPE);
+    template.render(model, response.getOutputStream());
+  }
+
+  private static Map<String, CompiledTemplate> index(CompiledTemplate... compiled) {
+    Map<String, CompiledTemplate> index = new HashMap<>();
+    for (CompiledTemplate template : compiled) {
+      index.put(template.getName(), template);
+    }
+    return Map.copyOf(index);
+  }
+}
@@ -23,5 +23,8 @@
  </c:forEach>
  </tbody>
 </table>
+<c:if test="${not empty nextQuery}">
+<a href="?${nextQuery}">다음</a>
+</c:if>
 </body>
 </html>
\ No newline at end of file
@@ -0,0 +1,183 @@
+package hello.servlet;
+
+import hello.servlet.domain.member.Member;
+import hello.servlet.domain.member.MemberRepository;
+import hello.servlet.web.frontcontroller.ControllerExecutors;
+import jakarta.servlet.Filter;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.apache.catalina.Context;
+import org.apache.catalina.connector.Connector;
+import org.apache.catalina.startup.Tomcat;
+import org.apache.tomcat.util.descriptor.web.FilterDef;
+import org.apache.tomcat.util.descriptor.web.FilterMap;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 톰캣 요청 스레드: 플랫폼 스레드 풀(기본 200개) vs 가상 스레드 (main 으로 실행, virtual 은 JDK 21 이상)
+ * 내장 톰캣에 WebServletTable 의 서블릿을 전부 올리고, 모든 요청 앞에 DELAY_MILLIS 만큼 기다리는 필터(외부 호출 흉내)를 둔다.
+ * 클라이언트 CLIENTS 개가 한꺼번에 목록 화면 5종(servlet, servlet-mvc, front-controller v1~v3)을 돌아가며 요청하는 것을 WAVES 번.
+ * JSP 대신 *.jsp 에 "ok" 만 쓰는 서블릿을 붙인다. virtual 에서는 PinnedThreadMonitor 로 잡힌 pinning 수도 함께 본다.
+ *
+ * 인자: 방식 목록 (platform, virtual), 기본은 이 JVM 에서 되는 것 전부
+ */
+public class VirtualThreadModeBenchmark {
+
+  private static final int PLATFORM_THREADS = 200;
+  private static final int CLIENTS = 2000;
+  private static final int WAVES = 3;
+  private static final long DELAY_MILLIS = 100;
+  private static final String[] PATHS = {
+      "/servlet/members?limit=10",
+      "/servlet-mvc/members?limit=10",
+      "/front-controller/v1/members?limit=10",
+      "/front-controller/v2/members?limit=10",
+      "/front-controller/v3/members?limit=10",
+  };
+
+  private static final AtomicInteger inFlight = new AtomicInteger();
+  private static final AtomicInteger maxInFlight = new AtomicInteger();
+
+  public static void main(String[] args) throws Exception {
+    MemberRepository repository = MemberRepository.getInstance();
+    for (int i = 0; i < 100; i++) {
+      repository.save(new Member("kim" + i, i));
+    }
+    List<String> modes = new ArrayList<>(Arrays.asList(args));
+    if (modes.isEmpty()) {
+      modes.add("platform");
+      if (Runtime.version().feature() >= 21) {
+        modes.add("virtual");
+      }
+    }
+
+    PrintStream out = System.out;
+    out.printf("java %s, clients=%d x %d waves, delay=%d ms%n", Runtime.version(), CLIENTS, WAVES, DELAY_MILLIS);
+    out.printf("%-9s %10s %10s %10s %12s %8s %8s%n", "mode", "req/s", "p50 ms", "p99 ms", "max waiting", "errors", "pinned");
+    for (String mode : modes) {
+      // 서블릿들이 요청마다 찍는 로그는 버린다
+      System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+      try {
+        out.println(run(mode));
+      } finally {
+        System.setOut(out);
+      }
+    }
+  }
+
+  private static String run(String mode) throws Exception {
+    ExecutorService executor = mode.equals("virtual") ? ControllerExecutors.create("virtual", 0) : null;
+    PinnedThreadMonitor monitor = executor == null ? null : PinnedThreadMonitor.start(Duration.ofMillis(20));
+
+    Path baseDir = Files.createTempDirectory("tomcat");
+    Tomcat tomcat = new Tomcat();
+    tomcat.setBaseDir(baseDir.toString());
+    Connector connector = new Connector();
+    connector.setPort(0);
+    connector.setProperty("maxThreads", String.valueOf(PLATFORM_THREADS));
+    connector.setProperty("maxConnections", String.valueOf(CLIENTS * 2));
+    connector.setProperty("acceptCount", String.valueOf(CLIENTS));
+    if (executor != null) {
+      connector.getProtocolHandler().setExecutor(executor);
+    }
+    tomcat.setConnector(connector);
+
+    Context context = tomcat.addContext("", baseDir.toString());
+    context.addServletContainerInitializer((classes, servletContext) -> WebServletTable.register(servletContext), null);
+    Tomcat.addServlet(context, "view", new HttpServlet() {
+      @Override
+      protected void service(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.getWriter().write("ok");
+      }
+    });
+    context.addServletMappingDecoded("*.jsp", "view");
+    addLatencyFilter(context);
+    tomcat.start();
+
+    try {
+      HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+      String base = "http://localhost:" + connector.getLocalPort();
+      inFlight.set(0);
+      maxInFlight.set(0);
+      long[] latencies = new long[CLIENTS * WAVES];
+      AtomicInteger errors = new AtomicInteger();
+      long start = System.nanoTime();
+      for (int wave = 0; wave < WAVES; wave++) {
+        List<CompletableFuture<?>> futures = new ArrayList<>();
+        for (int i = 0; i < CLIENTS; i++) {
+          int index = wave * CLIENTS + i;
+          long sent = System.nanoTime();
+          HttpRequest request = HttpRequest.newBuilder(URI.create(base + PATHS[i % PATHS.length])).build();
+          futures.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+              .whenComplete((response, error) -> {
+                latencies[index] = System.nanoTime() - sent;
+                if (error != null || response.statusCode() != 200) {
+                  errors.incrementAndGet();
+                }
+              }));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).exceptionally(e -> null).join();
+      }
+      long elapsed = System.nanoTime() - start;
+
+      Arrays.sort(latencies);
+      String pinned = "-";
+      if (monitor != null) {
+        Thread.sleep(2_000); // JFR 이벤트가 넘어올 때까지
+        pinned = String.valueOf(monitor.getPinnedCount());
+      }
+      return String.format("%-9s %,10.0f %,10d %,10d %12d %8d %8s", mode, latencies.length * 1e9 / elapsed,
+          latencies[latencies.length / 2] / 1_000_000, latencies[latencies.length * 99 / 100] / 1_000_000,
+          maxInFlight.get(), errors.get(), pinned);
+    } finally {
+      tomcat.stop();
+      tomcat.destroy();
+      if (monitor != null) {
+        monitor.close();
+      }
+      if (executor != null) {
+        executor.shutdown();
+      }
+    }
+  }
+
+  // 모든 요청 앞에서 외부 호출을 기다리는 것처럼 잠깐 멈춘다
+  private static void addLatencyFilter(Context context) {
+    Filter filter = (request, response, chain) -> {
+      maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+      try {
+        Thread.sleep(DELAY_MILLIS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } finally {
+        inFlight.decrementAndGet();
+      }
+      chain.doFilter(request, response);
+    };
+    FilterDef def = new FilterDef();
+    def.setFilterName("latency");
+    def.setFilter(filter);
+    context.addFilterDef(def);
+    FilterMap map = new FilterMap();
+    map.setFilterName("latency");
+    map.addURLPattern("/*");
+    context.addFilterMap(map);
+  }
+}
@@ -0,0 +1,74 @@
+package hello.servlet;
+
+import jakarta.servlet.ServletContext;
+import jakarta.servlet.ServletRegistration;
+import jakarta.servlet.annotation.WebServlet;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.type.filter.AnnotationTypeFilter;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 서블릿을 찾는 시간: @ServletComponentScan (클래스패스 스캔) vs 컴파일 때 만든 WebServletTable (main 으로 실행)
+ * 시작 시간에 들어가는 건 JVM 에서 처음 한 번 하는 비용이므로, 인자로 방식(scan / table)을 골라 새 JVM 마다 하나씩 잰다.
+ * cold 는 첫 호출, warm 은 그 뒤 ROUNDS 번 평균.
+ *
+ * scan 은 @ServletComponentScan 이 쓰는 것과 같은 스캐너로 후보 클래스만 찾는다. (서블릿 생성은 빠져 있어서 scan 쪽에 유리)
+ * table 은 서블릿 생성과 addServlet / addMapping 까지 한다. (ServletContext 는 호출만 세는 가짜)
+ */
+public class WebServletTableBenchmark {
+
+  private static final int ROUNDS = 200;
+
+  public static void main(String[] args) {
+    String mode = args.length > 0 ? args[0] : "table";
+    Runnable run;
+    AtomicInteger found = new AtomicInteger();
+    switch (mode) {
+      case "scan":
+        run = () -> {
+          ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false);
+          scanner.addIncludeFilter(new AnnotationTypeFilter(WebServlet.class));
+          found.set(scanner.findCandidateComponents("hello.servlet").size());
+        };
+        break;
+      case "table":
+        ServletContext context = recordingContext(found);
+        run = () -> {
+          found.set(0);
+          WebServletTable.register(context);
+        };
+        break;
+      default:
+        throw new IllegalArgumentException("scan 또는 table: " + mode);
+    }
+
+    long start = System.nanoTime();
+    run.run();
+    double cold = (System.nanoTime() - start) / 1_000_000.0;
+
+    start = System.nanoTime();
+    for (int i = 0; i < ROUNDS; i++) {
+      run.run();
+    }
+    double warm = (System.nanoTime() - start) / 1_000_000.0 / ROUNDS;
+
+    System.out.printf("%-6s servlets=%d cold=%.2f ms warm=%.3f ms%n", mode, found.get(), cold, warm);
+  }
+
+  private static ServletContext recordingContext(AtomicInteger added) {
+    ServletRegistration.Dynamic registration = (ServletRegistration.Dynamic) Proxy.newProxyInstance(
+        WebServletTableBenchmark.class.getClassLoader(), new Class<?>[]{ServletRegistration.Dynamic.class},
+        (proxy, method, args) -> null);
+    return (ServletContext) Proxy.newProxyInstance(
+        WebServletTableBenchmark.class.getClassLoader(), new Class<?>[]{ServletContext.class},
+        (proxy, method, args) -> {
+          if (method.getName().equals("addServlet")) {
+            added.incrementAndGet();
+            return registration;
+          }
+          return null;
+        });
+  }
+}
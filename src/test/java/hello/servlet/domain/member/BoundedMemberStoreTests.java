@@ -0,0 +1,176 @@
+package hello.servlet.domain.member;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static hello.servlet.domain.member.MemberStoreTests.member;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BoundedMemberStoreTests {
+
+  private final List<Long> evicted = new ArrayList<>();
+
+  @Test
+  void evictsOverflowThroughThePolicy() {
+    BoundedMemberStore store = bounded(new ConcurrentLongMemberMap(), 3, new LruEvictionPolicy());
+    for (long id = 1; id <= 3; id++) {
+      store.put(member(id, "m" + id, 20));
+    }
+    store.get(1);
+    store.put(member(4, "m4", 20));
+    store.putAll(List.of(member(5, "m5", 20), member(6, "m6", 20)));
+
+    // put 이 읽기 버퍼를 먼저 비우므로 1 의 조회가 반영되어 2 -> 3 -> 1 순
+    assertThat(evicted).containsExactly(2L, 3L, 1L);
+    assertThat(store.size()).isEqualTo(3);
+    assertThat(store.get(1)).isNull();
+    assertThat(store.get(6)).isNotNull();
+  }
+
+  @Test
+  void replacingAnExistingIdDoesNotCountTwice() {
+    BoundedMemberStore store = bounded(new ConcurrentLongMemberMap(), 2, new LruEvictionPolicy());
+    store.put(member(1, "kim", 20));
+    store.put(member(1, "kim2", 21));
+    store.putAll(List.of(member(1, "kim3", 22), member(2, "lee", 30)));
+
+    assertThat(evicted).isEmpty();
+    assertThat(store.get(1).getUsername()).isEqualTo("kim3");
+
+    store.put(member(3, "park", 40));
+    assertThat(evicted).hasSize(1);
+    assertThat(store.size()).isEqualTo(2);
+  }
+
+  @Test
+  void onEvictRunsAfterTheMemberLeavesTheStore() {
+    // MemoryMemberRepository 처럼 인덱스를 먼저 채우고 put. onEvict 에서 인덱스를 지우면 둘이 항상 같은 회원을 든다
+    ConcurrentLongMemberMap delegate = new ConcurrentLongMemberMap();
+    SortedSetMemberIndex index = new SortedSetMemberIndex();
+    List<String> events = new ArrayList<>();
+    BoundedMemberStore store = new BoundedMemberStore(delegate, 1, new LruEvictionPolicy(), member -> {
+      events.add("evict " + member.getId() + (delegate.get(member.getId()) == null ? " (removed)" : " (still stored)"));
+      index.remove(member);
+    });
+
+    for (long id = 1; id <= 3; id++) {
+      Member member = member(id, "kim", 20);
+      index.add(member);
+      events.add("put " + id);
+      store.put(member);
+    }
+
+    assertThat(events).containsExactly("put 1", "put 2", "evict 1 (removed)", "put 3", "evict 2 (removed)");
+    assertThat(index.idsByUsername("kim", 0L, 10)).containsExactly(3L);
+    assertThat(index.idsByAgeBetween(0, 100, 10)).containsExactly(3L);
+  }
+
+  @Test
+  void capacityOneWithAnExpiredTtlKeepsOnlyTheNewestMember() throws InterruptedException {
+    BoundedMemberStore store = bounded(new ConcurrentLongMemberMap(), 1, new TtlEvictionPolicy(50));
+    store.put(member(1, "kim", 20));
+    Thread.sleep(60);
+
+    // 만료 시각이 지났으니 get 이 먼저 정리한다
+    assertThat(store.get(1)).isNull();
+    assertThat(evicted).containsExactly(1L);
+
+    store.put(member(2, "lee", 30));
+    Thread.sleep(60);
+    // 만료된 2 는 넘친 만큼 내보낼 때 먼저 나가고, 3 은 새로 들어왔으니 남는다 (put 이 3 을 내보내지 않는다)
+    store.put(member(3, "park", 40));
+
+    assertThat(evicted).containsExactly(1L, 2L);
+    assertThat(store.size()).isEqualTo(1);
+    assertThat(store.findPage(0L, 10)).extracting(Member::getId).containsExactly(3L);
+  }
+
+  @Test
+  void clearResetsThePolicyAndPendingReads() {
+    BoundedMemberStore store = bounded(new ConcurrentLongMemberMap(), 2, new LfuEvictionPolicy());
+    store.put(member(1, "kim", 20));
+    store.put(member(2, "lee", 30));
+    store.get(1);
+    store.get(1);
+
+    store.clear();
+    store.put(member(3, "park", 40));
+    store.put(member(4, "choi", 50));
+    store.get(4);
+    store.put(member(5, "jung", 60));
+
+    // 예전 id 가 정책에 남아 있으면 그 id 를 내보내려다 아무것도 못 지우고 넘친다
+    assertThat(evicted).containsExactly(3L);
+    assertThat(store.size()).isEqualTo(2);
+  }
+
+  @Test
+  void rejectsCapacityBelowOne() {
+    assertThatThrownBy(() -> bounded(new ConcurrentLongMemberMap(), 0, new LruEvictionPolicy()))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void readBufferDropsAccessesWhenFullAndDrainsInOrder() {
+    BoundedMemberStore.ReadBuffer buffer = new BoundedMemberStore.ReadBuffer();
+    for (long id = 1; id <= 32; id++) {
+      assertThat(buffer.offer(id)).isTrue();
+    }
+    assertThat(buffer.offer(33)).isFalse();
+
+    List<Long> accessed = new ArrayList<>();
+    buffer.drainTo(recording(accessed));
+    assertThat(accessed).hasSize(32).startsWith(1L, 2L).endsWith(32L);
+
+    assertThat(buffer.offer(34)).isTrue();
+    buffer.offer(35);
+    buffer.clear();
+    buffer.offer(36);
+    accessed.clear();
+    buffer.drainTo(recording(accessed));
+    assertThat(accessed).containsExactly(36L);
+  }
+
+  @Test
+  void manyReadsStillDrainIntoThePolicy() {
+    BoundedMemberStore store = bounded(new ConcurrentLongMemberMap(), 2, new LfuEvictionPolicy());
+    store.put(member(1, "kim", 20));
+    store.put(member(2, "lee", 30));
+    // 버퍼 크기(32)를 넘게 조회하면 get 안에서 비워진다. 일부는 버려져도 1 이 더 자주 조회된 것은 남는다
+    for (int i = 0; i < 100; i++) {
+      store.get(1);
+    }
+    store.put(member(3, "park", 40));
+
+    assertThat(evicted).containsExactly(2L);
+  }
+
+  private BoundedMemberStore bounded(MemberStore delegate, int capacity, EvictionPolicy policy) {
+    return new BoundedMemberStore(delegate, capacity, policy, member -> evicted.add(member.getId()));
+  }
+
+  private static EvictionPolicy recording(List<Long> accessed) {
+    return new EvictionPolicy() {
+      @Override
+      public void onInsert(long id) {
+      }
+
+      @Override
+      public void onAccess(long id) {
+        accessed.add(id);
+      }
+
+      @Override
+      public long evict() {
+        throw new AssertionError();
+      }
+
+      @Override
+      public void clear() {
+      }
+    };
+  }
+}
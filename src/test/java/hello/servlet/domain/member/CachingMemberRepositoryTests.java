@@ -0,0 +1,219 @@
+package hello.servlet.domain.member;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CachingMemberRepositoryTests {
+
+  private final Backing backing = new Backing();
+
+  @Test
+  void missesThenHitsOnFindById() {
+    CachingMemberRepository cache = new CachingMemberRepository(backing, 10, "lru", 0);
+    Member saved = cache.save(new Member("kim", 20));
+
+    assertThat(cache.findById(saved.getId())).isSameAs(saved);
+    assertThat(cache.findById(saved.getId())).isSameAs(saved);
+
+    assertThat(backing.findByIdCalls.get()).isEqualTo(1);
+    assertThat(cache.getIdMissCount()).isEqualTo(1);
+    assertThat(cache.getIdHitCount()).isEqualTo(1);
+    assertThat(cache.getListHitCount()).isZero();
+    assertThat(cache.getListMissCount()).isZero();
+  }
+
+  @Test
+  void doesNotCacheMissingIds() {
+    CachingMemberRepository cache = new CachingMemberRepository(backing, 10, "lru", 0);
+
+    assertThat(cache.findById(42L)).isNull();
+    Member saved = cache.save(new Member("kim", 20));
+    assertThat(cache.findById(saved.getId())).isSameAs(saved);
+  }
+
+  @Test
+  void saveInvalidatesTheCachedList() {
+    CachingMemberRepository cache = new CachingMemberRepository(backing, 10, "lru", 0);
+    cache.save(new Member("kim", 20));
+
+    assertThat(cache.findAll()).extracting(Member::getUsername).containsExactly("kim");
+    assertThat(cache.findAll()).extracting(Member::getUsername).containsExactly("kim");
+    cache.save(new Member("lee", 30));
+    assertThat(cache.findAll()).extracting(Member::getUsername).containsExactly("kim", "lee");
+    cache.saveAll(List.of(new Member("park", 40)));
+    assertThat(cache.findAll()).extracting(Member::getUsername).containsExactly("kim", "lee", "park");
+
+    assertThat(backing.findAllCalls.get()).isEqualTo(3);
+    assertThat(cache.getListHitCount()).isEqualTo(1);
+    assertThat(cache.getListMissCount()).isEqualTo(3);
+    assertThat(cache.getIdHitCount()).isZero();
+  }
+
+  @Test
+  void passesListsLargerThanTheCapacityThroughUncached() {
+    CachingMemberRepository cache = new CachingMemberRepository(backing, 2, "lru", 0);
+    for (int i = 0; i < 3; i++) {
+      cache.save(new Member("m" + i, 20 + i));
+    }
+
+    List<Member> first = cache.findAll();
+    List<Member> second = cache.findAll();
+
+    assertThat(first).hasSize(3);
+    assertThat(second).hasSize(3);
+    assertThat(backing.findAllCalls.get()).isEqualTo(2);
+    assertThat(cache.getListMissCount()).isEqualTo(2);
+    assertThat(cache.getListHitCount()).isZero();
+    assertThatThrownBy(() -> first.add(new Member("x", 1))).isInstanceOf(UnsupportedOperationException.class);
+  }
+
+  @Test
+  void clearStoreRacingAFillLeavesNoStaleEntry() throws Exception {
+    CachingMemberRepository cache = new CachingMemberRepository(backing, 10, "lru", 0);
+    Member saved = cache.save(new Member("kim", 20));
+    CountDownLatch read = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    backing.pauseFindById(read, release);
+
+    // 뒤 저장소에서 읽은 직후(아직 캐시에 넣기 전)에 멈춘 사이 clearStore
+    CompletableFuture<Member> fill = CompletableFuture.supplyAsync(() -> cache.findById(saved.getId()));
+    assertThat(read.await(5, TimeUnit.SECONDS)).isTrue();
+    cache.clearStore();
+    release.countDown();
+    assertThat(fill.get(5, TimeUnit.SECONDS)).isSameAs(saved);
+
+    assertThat(cache.findById(saved.getId())).isNull();
+    assertThat(cache.getIdHitCount()).isZero();
+  }
+
+  @Test
+  void clearStoreDropsCachedIdsAndList() {
+    CachingMemberRepository cache = new CachingMemberRepository(backing, 10, "lru", 0);
+    Member saved = cache.save(new Member("kim", 20));
+    cache.findById(saved.getId());
+    cache.findAll();
+
+    cache.clearStore();
+
+    assertThat(cache.findById(saved.getId())).isNull();
+    assertThat(cache.findAll()).isEmpty();
+  }
+
+  @Test
+  void countsEvictionsFromTheIdCache() {
+    CachingMemberRepository cache = new CachingMemberRepository(backing, 2, "lru", 0);
+    for (int i = 0; i < 3; i++) {
+      cache.findById(cache.save(new Member("m" + i, 20)).getId());
+    }
+
+    assertThat(cache.getEvictionCount()).isEqualTo(1);
+  }
+
+  /**
+   * 호출 횟수를 세는 뒤 저장소. findById 는 한 번 멈춰 세울 수 있다.
+   */
+  private static final class Backing implements MemberRepository {
+    private final ConcurrentSkipListMap<Long, Member> members = new ConcurrentSkipListMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    final AtomicInteger findByIdCalls = new AtomicInteger();
+    final AtomicInteger findAllCalls = new AtomicInteger();
+    private volatile CountDownLatch read;
+    private volatile CountDownLatch release;
+
+    void pauseFindById(CountDownLatch read, CountDownLatch release) {
+      this.read = read;
+      this.release = release;
+    }
+
+    @Override
+    public Member save(Member member) {
+      member.setId(sequence.incrementAndGet());
+      members.put(member.getId(), member);
+      return member;
+    }
+
+    @Override
+    public List<Member> saveAll(Collection<Member> batch) {
+      List<Member> saved = new ArrayList<>();
+      for (Member member : batch) {
+        saved.add(save(member));
+      }
+      return saved;
+    }
+
+    @Override
+    public Member findById(long id) {
+      findByIdCalls.incrementAndGet();
+      Member member = members.get(id);
+      CountDownLatch read = this.read;
+      if (read != null) {
+        this.read = null;
+        read.countDown();
+        try {
+          release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+      return member;
+    }
+
+    @Override
+    public List<Member> findAll() {
+      findAllCalls.incrementAndGet();
+      return new ArrayList<>(members.values());
+    }
+
+    @Override
+    public List<Member> findPage(long afterId, int limit) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public List<Member> findByUsername(String username, long afterId, int limit) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public List<Member> searchByUsername(String query, int limit) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public List<Member> findByAgeBetween(int minAge, int maxAge, int afterAge, long afterId, int limit) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public MemberStats getStats() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public int count() {
+      return members.size();
+    }
+
+    @Override
+    public long countByAgeBetween(int minAge, int maxAge) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void clearStore() {
+      members.clear();
+    }
+  }
+}
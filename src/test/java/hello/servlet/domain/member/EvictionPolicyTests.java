@@ -0,0 +1,217 @@
+package hello.servlet.domain.member;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 정책마다 내보내는 순서. BoundedMemberStore 없이 정책만 직접 부른다.
+ */
+class EvictionPolicyTests {
+
+  @Test
+  void lruEvictsLeastRecentlyAccessedFirst() {
+    EvictionPolicy policy = new LruEvictionPolicy();
+    insert(policy, 1, 2, 3);
+    policy.onAccess(1);
+    policy.onAccess(99); // 모르는 id 는 무시
+
+    assertThat(evict(policy, 3)).containsExactly(2L, 3L, 1L);
+  }
+
+  @Test
+  void lfuEvictsLeastFrequentThenEarliestAtThatFrequency() {
+    EvictionPolicy policy = new LfuEvictionPolicy();
+    insert(policy, 1, 2, 3, 4);
+    policy.onAccess(1);
+    policy.onAccess(1);
+    policy.onAccess(3);
+    policy.onAccess(4); // 4 가 3 보다 늦게 횟수 2 에 도달
+    policy.onAccess(99);
+
+    assertThat(evict(policy, 4)).containsExactly(2L, 3L, 4L, 1L);
+  }
+
+  @Test
+  void lfuStartsNewMembersAtTheLowestFrequency() {
+    EvictionPolicy policy = new LfuEvictionPolicy();
+    insert(policy, 1);
+    policy.onAccess(1);
+    insert(policy, 2);
+
+    assertThat(evict(policy, 2)).containsExactly(2L, 1L);
+  }
+
+  @Test
+  void tinyLfuRejectsNewcomerNotMoreFrequentThanTheVictim() {
+    EvictionPolicy policy = new TinyLfuEvictionPolicy(100); // window 1, 본 구역 99
+    for (long id = 1; id <= 101; id++) {
+      policy.onInsert(id);
+    }
+
+    // window 에서 넘친 1 ~ 99 는 비교 없이 본 구역으로, 그다음 window 후보 100 은 희생자 1 과 빈도가 같아서 탈락
+    assertThat(policy.evict()).isEqualTo(100L);
+  }
+
+  @Test
+  void tinyLfuAdmitsFrequentNewcomerOverTheProbationVictim() {
+    EvictionPolicy policy = new TinyLfuEvictionPolicy(100);
+    for (long id = 1; id <= 100; id++) {
+      policy.onInsert(id);
+    }
+    for (int i = 0; i < 5; i++) {
+      policy.onAccess(100);
+    }
+    policy.onInsert(101);
+
+    // 후보 100 이 probation 의 가장 오래된 1 보다 자주 조회되었으므로 1 을 내보내고 100 을 받는다
+    assertThat(policy.evict()).isEqualTo(1L);
+    // 다음 후보 101 은 빈도가 낮아서 탈락
+    policy.onInsert(102);
+    assertThat(policy.evict()).isEqualTo(101L);
+  }
+
+  @Test
+  void tinyLfuKeepsHotMembersThroughAScan() {
+    int capacity = 100;
+    EvictionPolicy policy = new TinyLfuEvictionPolicy(capacity);
+    List<Long> evicted = new ArrayList<>();
+    int entries = 0;
+    for (long id = 1; id <= capacity; id++) {
+      policy.onInsert(id);
+      entries++;
+    }
+    for (int round = 0; round < 3; round++) {
+      for (long id = 1; id <= 10; id++) {
+        policy.onAccess(id);
+      }
+    }
+    // 한 번씩만 들어오고 다시 조회되지 않는 회원 1000 명
+    for (long id = 1_000; id < 2_000; id++) {
+      policy.onInsert(id);
+      if (++entries > capacity) {
+        evicted.add(policy.evict());
+        entries--;
+      }
+    }
+
+    assertThat(evicted).hasSize(1_000).doesNotContain(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L);
+  }
+
+  @Test
+  void tinyLfuPromotesProbationHitsAndDemotesProtectedOverflow() {
+    EvictionPolicy policy = new TinyLfuEvictionPolicy(10); // window 1, 본 구역 9 (protected 7)
+    for (long id = 1; id <= 10; id++) {
+      policy.onInsert(id);
+    }
+    policy.onInsert(11);
+    policy.evict(); // 1 ~ 9 가 probation 으로, 후보 10 은 탈락
+    for (long id = 1; id <= 8; id++) {
+      policy.onAccess(id); // protected 는 7 까지라 1 은 다시 probation 으로 밀려난다
+    }
+
+    // window 가 안 넘쳤으면 probation(9, 1 순서) -> protected(가장 오래 조회 안 된 것부터) 순으로 내보낸다
+    assertThat(evict(policy, 2)).containsExactly(9L, 1L);
+  }
+
+  @Test
+  void tinyLfuWithCapacityOneEvictsTheCandidate() {
+    EvictionPolicy policy = new TinyLfuEvictionPolicy(1);
+    policy.onInsert(1);
+    policy.onInsert(2);
+
+    assertThat(policy.evict()).isEqualTo(1L);
+    policy.onInsert(3);
+    assertThat(policy.evict()).isEqualTo(2L);
+  }
+
+  @Test
+  void ttlEvictsInInsertionOrderIgnoringAccess() {
+    EvictionPolicy policy = new TtlEvictionPolicy(60_000);
+    insert(policy, 1, 2, 3);
+    policy.onAccess(1);
+
+    assertThat(evict(policy, 3)).containsExactly(1L, 2L, 3L);
+  }
+
+  @Test
+  void ttlExpiresOnlyAfterTheTtl() {
+    EvictionPolicy policy = new TtlEvictionPolicy(1_000);
+    long before = System.nanoTime();
+    insert(policy, 1, 2);
+    long after = System.nanoTime();
+
+    assertThat(policy.nextExpiry()).isBetween(before + 1_000_000_000L, after + 1_000_000_000L);
+    assertThat(policy.expire(after)).isZero();
+    long later = after + 1_000_000_000L;
+    assertThat(policy.expire(later)).isEqualTo(1L);
+    assertThat(policy.expire(later)).isEqualTo(2L);
+    assertThat(policy.expire(later)).isZero();
+    assertThat(policy.nextExpiry()).isEqualTo(Long.MAX_VALUE);
+  }
+
+  @Test
+  void ttlRingBufferGrowsAcrossTheWrapPoint() {
+    EvictionPolicy policy = new TtlEvictionPolicy(60_000);
+    List<Long> expected = new ArrayList<>();
+    long next = 1;
+    // 앞을 일부 꺼내서 head 를 옮긴 뒤 처음 크기(1024)를 넘겨 채운다 -> 감긴 상태에서 늘어난다
+    for (; next <= 1_000; next++) {
+      policy.onInsert(next);
+    }
+    for (long id = 1; id <= 600; id++) {
+      assertThat(policy.evict()).isEqualTo(id);
+    }
+    for (; next <= 3_000; next++) {
+      policy.onInsert(next);
+    }
+    for (long id = 601; id <= 3_000; id++) {
+      expected.add(id);
+    }
+
+    assertThat(evict(policy, expected.size())).containsExactlyElementsOf(expected);
+    assertThat(policy.nextExpiry()).isEqualTo(Long.MAX_VALUE);
+  }
+
+  @Test
+  void clearForgetsEverything() {
+    for (EvictionPolicy policy : List.of(new LruEvictionPolicy(), new LfuEvictionPolicy(),
+        new TinyLfuEvictionPolicy(4), new TtlEvictionPolicy(60_000))) {
+      insert(policy, 1, 2, 3);
+      policy.onAccess(3);
+      policy.clear();
+      insert(policy, 7, 8);
+
+      assertThat(evict(policy, 2)).as(policy.getClass().getSimpleName()).containsExactlyInAnyOrder(7L, 8L);
+      assertThat(policy.nextExpiry()).isEqualTo(Long.MAX_VALUE);
+    }
+  }
+
+  @Test
+  void createsPoliciesByName() {
+    assertThat(EvictionPolicy.create("LRU", 10, 0)).isInstanceOf(LruEvictionPolicy.class);
+    assertThat(EvictionPolicy.create("lfu", 10, 0)).isInstanceOf(LfuEvictionPolicy.class);
+    assertThat(EvictionPolicy.create("tinylfu", 10, 0)).isInstanceOf(TinyLfuEvictionPolicy.class);
+    assertThat(EvictionPolicy.create("ttl", 10, 5)).isInstanceOf(TtlEvictionPolicy.class);
+    assertThatThrownBy(() -> EvictionPolicy.create("fifo", 10, 0)).isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> EvictionPolicy.create("ttl", 10, 0)).isInstanceOf(IllegalArgumentException.class);
+  }
+
+  private static void insert(EvictionPolicy policy, long... ids) {
+    for (long id : ids) {
+      policy.onInsert(id);
+    }
+  }
+
+  private static List<Long> evict(EvictionPolicy policy, int count) {
+    List<Long> evicted = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      evicted.add(policy.evict());
+    }
+    return evicted;
+  }
+}
@@ -0,0 +1,106 @@
+package hello.servlet.domain.member;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JdbcConnectionPoolTests {
+
+  private static final AtomicInteger DATABASES = new AtomicInteger();
+
+  private final String name = "pool" + DATABASES.incrementAndGet();
+  private final String url = "jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1";
+  private JdbcConnectionPool pool;
+
+  @AfterEach
+  void close() throws SQLException {
+    if (pool != null) {
+      pool.close();
+    }
+    try (Connection connection = DriverManager.getConnection(url, "sa", "");
+         Statement statement = connection.createStatement()) {
+      statement.execute("SHUTDOWN");
+    }
+  }
+
+  @Test
+  void reusesConnectionAndCachedStatements() throws SQLException {
+    pool = new JdbcConnectionPool(url, "sa", "", 1);
+    Connection first;
+    PreparedStatement statement;
+    try (JdbcConnectionPool.PooledConnection c = pool.borrow()) {
+      first = c.connection();
+      statement = c.prepare("SELECT 1");
+    }
+
+    try (JdbcConnectionPool.PooledConnection c = pool.borrow()) {
+      assertThat(c.connection()).isSameAs(first);
+      assertThat(c.prepare("SELECT 1")).isSameAs(statement);
+    }
+  }
+
+  @Test
+  void replacesBrokenConnectionOnRelease() throws SQLException {
+    pool = new JdbcConnectionPool(url, "sa", "", 1);
+    Connection first;
+    PreparedStatement statement;
+    try (JdbcConnectionPool.PooledConnection c = pool.borrow()) {
+      first = c.connection();
+      statement = c.prepare("SELECT 1");
+      c.broken();
+    }
+
+    assertThat(first.isClosed()).isTrue();
+    try (JdbcConnectionPool.PooledConnection c = pool.borrow()) {
+      assertThat(c.connection()).isNotSameAs(first);
+      assertThat(c.prepare("SELECT 1")).isNotSameAs(statement);
+      assertThat(selectOne(c)).isEqualTo(1);
+    }
+  }
+
+  @Test
+  void retriesAnEmptySlotOnTheNextBorrow() throws SQLException {
+    // IFEXISTS 로 열면 DB 가 내려가 있는 동안에는 새 커넥션을 못 연다
+    String ifExists = "jdbc:h2:mem:" + name + ";IFEXISTS=TRUE";
+    Connection keepAlive = DriverManager.getConnection(url, "sa", "");
+    pool = new JdbcConnectionPool(ifExists, "sa", "", 1);
+    try (Statement statement = keepAlive.createStatement()) {
+      statement.execute("SHUTDOWN");
+    }
+
+    try (JdbcConnectionPool.PooledConnection c = pool.borrow()) {
+      assertThatThrownBy(() -> selectOne(c)).isInstanceOf(SQLException.class);
+      c.broken(); // 재연결 실패 -> 빈 자리로 돌아간다
+    }
+    assertThatThrownBy(() -> pool.borrow()).isInstanceOf(SQLException.class);
+
+    // DB 가 다시 올라오면 빈 자리가 다시 연결된다 (풀 크기가 줄지 않음)
+    try (Connection restarted = DriverManager.getConnection(url, "sa", "")) {
+      try (JdbcConnectionPool.PooledConnection c = pool.borrow()) {
+        assertThat(selectOne(c)).isEqualTo(1);
+      }
+    }
+  }
+
+  @Test
+  void rejectsSizeBelowOne() {
+    assertThatThrownBy(() -> new JdbcConnectionPool(url, "sa", "", 0)).isInstanceOf(IllegalArgumentException.class);
+  }
+
+  private static int selectOne(JdbcConnectionPool.PooledConnection c) throws SQLException {
+    try (ResultSet rs = c.prepare("SELECT 1").executeQuery()) {
+      rs.next();
+      return rs.getInt(1);
+    }
+  }
+}
@@ -0,0 +1,60 @@
+package hello.servlet.domain.member;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * JdbcMemberRepository 처리량 (main 으로 실행, H2 가 클래스패스에 있어야 함. 인자로 DB 디렉터리, 기본은 임시 디렉터리)
+ * - save: 스레드 수별 save/s 와 batch insert 한 번에 묶인 평균 회원 수 (스레드가 늘수록 묶음이 커진다)
+ * - findAll: 쌓인 회원 전체를 스트리밍 뷰로 한 번 순회하는 시간
+ */
+public class JdbcMemberRepositoryBenchmark {
+
+  private static final int[] THREADS = {1, 4, 16, 64};
+  private static final long DURATION_MILLIS = 2_000;
+
+  public static void main(String[] args) throws Exception {
+    Path dir = args.length > 0 ? Path.of(args[0]) : Files.createTempDirectory("member-db");
+    JdbcMemberRepository repository = JdbcMemberRepository.open("jdbc:h2:" + dir.toAbsolutePath().resolve("bench"),
+        "sa", "", 8, new MemberIdAllocator(1, 0L));
+    repository.clearStore();
+
+    System.out.printf("%8s %12s %12s%n", "threads", "saves/s", "avg batch");
+    for (int threads : THREADS) {
+      long batchesBefore = repository.batchCount();
+      long saved = run(repository, threads);
+      long batches = repository.batchCount() - batchesBefore;
+      System.out.printf("%8d %,12.0f %12.1f%n", threads, saved * 1000.0 / DURATION_MILLIS, (double) saved / batches);
+    }
+
+    long start = System.nanoTime();
+    long count = 0;
+    for (Member member : repository.findAll()) {
+      count += member.getAge() >= 0 ? 1 : 0;
+    }
+    System.out.printf("findAll  %,d members streamed in %d ms (count() = %,d)%n",
+        count, (System.nanoTime() - start) / 1_000_000, repository.count());
+  }
+
+  private static long run(JdbcMemberRepository repository, int threads) throws InterruptedException {
+    AtomicLong saved = new AtomicLong();
+    CountDownLatch done = new CountDownLatch(threads);
+    long deadline = System.currentTimeMillis() + DURATION_MILLIS;
+    for (int t = 0; t < threads; t++) {
+      Thread thread = new Thread(() -> {
+        long count = 0;
+        while (System.currentTimeMillis() < deadline) {
+          repository.save(new Member("user" + (count % 1000), (int) (count % 100)));
+          count++;
+        }
+        saved.addAndGet(count);
+        done.countDown();
+      });
+      thread.start();
+    }
+    done.await();
+    return saved.get();
+  }
+}
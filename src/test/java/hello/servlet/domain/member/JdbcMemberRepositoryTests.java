@@ -0,0 +1,238 @@
+package hello.servlet.domain.member;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * H2 인메모리 DB 로 JdbcMemberRepository 를 확인한다. 테스트마다 새 DB 를 쓴다.
+ * 정렬 순서는 같은 회원을 넣은 MemoryMemberRepository 와 비교한다.
+ */
+class JdbcMemberRepositoryTests {
+
+  private static final AtomicInteger DATABASES = new AtomicInteger();
+
+  private final MemoryMemberRepository memory = MemoryMemberRepository.getInstance();
+  private String url;
+  private JdbcMemberRepository repository;
+
+  @BeforeEach
+  void open() throws SQLException {
+    url = "jdbc:h2:mem:members" + DATABASES.incrementAndGet() + ";DB_CLOSE_DELAY=-1";
+    repository = JdbcMemberRepository.open(url, "sa", "", 4, new MemberIdAllocator(1, 0));
+  }
+
+  @AfterEach
+  void close() throws SQLException {
+    memory.clearStore();
+    try (Connection connection = DriverManager.getConnection(url, "sa", "");
+         Statement statement = connection.createStatement()) {
+      statement.execute("SHUTDOWN");
+    }
+  }
+
+  @Test
+  void concurrentSavesGetUniqueIdsAndAllRowsAreWritten() throws Exception {
+    int threads = 8;
+    int perThread = 200;
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    CountDownLatch start = new CountDownLatch(1);
+    ConcurrentLinkedQueue<Long> ids = new ConcurrentLinkedQueue<>();
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int t = 0; t < threads; t++) {
+        int thread = t;
+        futures.add(executor.submit(() -> {
+          start.await();
+          for (int i = 0; i < perThread; i++) {
+            ids.add(repository.save(new Member("t" + thread + "-" + i, i % 100)).getId());
+          }
+          return null;
+        }));
+      }
+      start.countDown();
+      for (Future<?> future : futures) {
+        future.get(30, TimeUnit.SECONDS);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    assertThat(new HashSet<>(ids)).hasSize(threads * perThread);
+    assertThat(repository.count()).isEqualTo(threads * perThread);
+    assertThat(repository.batchCount()).isBetween(1L, (long) threads * perThread);
+    for (long id : ids) {
+      assertThat(repository.findById(id)).isNotNull();
+    }
+  }
+
+  @Test
+  void pagesInTheSameOrderAsTheMemoryRepository() {
+    saveBoth(List.of("kim", "lee", "kim", "park", "lee", "kim", "choi", "kimchi"), new int[]{30, 20, 30, 25, 20, 41, 30, 19});
+
+    assertThat(names(repository.findPage(0L, 100))).isEqualTo(names(memory.findPage(0L, 100)));
+    assertThat(names(walkPages(repository))).isEqualTo(names(walkPages(memory)));
+    assertThat(names(repository.findByUsername("kim", 0L, 100))).isEqualTo(names(memory.findByUsername("kim", 0L, 100)));
+  }
+
+  @Test
+  void pagesAgeRangesInTheSameOrderAsTheMemoryRepository() {
+    saveBoth(List.of("a", "b", "c", "d", "e", "f", "g", "h"), new int[]{25, 21, 25, 30, 21, 25, 40, 22});
+
+    assertThat(names(repository.findByAgeBetween(21, 30, 100))).isEqualTo(names(memory.findByAgeBetween(21, 30, 100)))
+        .containsExactly("b:21", "e:21", "h:22", "a:25", "c:25", "f:25", "d:30");
+
+    // (age, id) 커서로 2건씩 끝까지 넘긴다
+    assertThat(names(walkAges(repository, 21, 30))).isEqualTo(names(walkAges(memory, 21, 30)));
+    assertThat(repository.countByAgeBetween(21, 25)).isEqualTo(memory.countByAgeBetween(21, 25));
+  }
+
+  @Test
+  void searchesInTheSameOrderAsTheMemoryRepository() {
+    saveBoth(List.of("kimchi", "Kim", "akim", "kimbap", "park", "kim"), new int[]{1, 2, 3, 4, 5, 6});
+
+    for (String query : List.of("kim", "KI", "im", "p")) {
+      assertThat(names(repository.searchByUsername(query, 10))).as(query)
+          .isEqualTo(names(memory.searchByUsername(query, 10)));
+    }
+    assertThat(names(repository.searchByUsername("kim", 10))).startsWith("Kim:2", "kim:6");
+  }
+
+  @Test
+  void escapesLikeWildcardsInSearch() {
+    saveBoth(List.of("a%b", "axb", "a_b", "100%", "1000", "a\\b"), new int[]{1, 2, 3, 4, 5, 6});
+
+    assertThat(names(repository.searchByUsername("a%", 10))).containsExactly("a%b:1");
+    assertThat(names(repository.searchByUsername("a_", 10))).containsExactly("a_b:3");
+    assertThat(names(repository.searchByUsername("00%", 10))).containsExactly("100%:4");
+    assertThat(names(repository.searchByUsername("a\\", 10))).containsExactly("a\\b:6");
+    for (String query : List.of("a%", "a_", "00%", "0%", "a\\")) {
+      assertThat(names(repository.searchByUsername(query, 10))).as(query)
+          .isEqualTo(names(memory.searchByUsername(query, 10)));
+    }
+  }
+
+  @Test
+  void streamingViewIteratesAcrossSeveralPages() {
+    List<Member> members = new ArrayList<>();
+    for (int i = 0; i < 2_500; i++) {
+      members.add(new Member("m" + i, i % 80));
+    }
+    repository.saveAll(members);
+
+    List<Member> all = repository.findAll();
+    repository.save(new Member("late", 1)); // 뷰를 만든 뒤의 id 는 보이지 않는다
+
+    List<Long> ids = new ArrayList<>();
+    for (Member member : all) {
+      ids.add(member.getId());
+    }
+    assertThat(ids).hasSize(2_500).isSorted().doesNotHaveDuplicates();
+    assertThat(all).hasSize(2_500);
+    assertThat(all.get(1_500).getUsername()).isEqualTo("m1500");
+    assertThatThrownBy(() -> all.get(2_500)).isInstanceOf(IndexOutOfBoundsException.class);
+    assertThat(repository.count()).isEqualTo(2_501);
+  }
+
+  @Test
+  void streamingViewOfAnEmptyTableIsEmpty() {
+    assertThat(repository.findAll()).isEmpty();
+    assertThat(repository.findAll().iterator().hasNext()).isFalse();
+  }
+
+  @Test
+  void recoversAfterTheDatabaseDropsConnections() throws SQLException {
+    repository.save(new Member("kim", 20));
+    // 풀의 커넥션을 DB 쪽에서 모두 끊는다
+    try (Connection connection = DriverManager.getConnection(url, "sa", "");
+         Statement statement = connection.createStatement()) {
+      statement.execute("SELECT ABORT_SESSION(SESSION_ID) FROM INFORMATION_SCHEMA.SESSIONS WHERE SESSION_ID <> SESSION_ID()");
+    }
+
+    // 끊긴 커넥션을 빌린 요청은 실패하고, 그 커넥션은 broken 으로 돌아가서 새로 열린다
+    int failures = 0;
+    for (int i = 0; i < 8; i++) {
+      try {
+        repository.count();
+      } catch (IllegalStateException e) {
+        failures++;
+      }
+    }
+    assertThat(failures).isBetween(1, 4);
+    assertThat(repository.count()).isEqualTo(1);
+    assertThat(repository.save(new Member("lee", 30)).getId()).isEqualTo(2L);
+    assertThat(repository.findPage(0L, 10)).extracting(Member::getUsername).containsExactly("kim", "lee");
+  }
+
+  @Test
+  void reopensAnExistingTableAndContinuesIds() throws SQLException {
+    repository.saveAll(List.of(new Member("kim", 20), new Member("lee", 30)));
+
+    JdbcMemberRepository reopened = JdbcMemberRepository.open(url, "sa", "", 1, new MemberIdAllocator(1, 0));
+
+    assertThat(reopened.count()).isEqualTo(2);
+    assertThat(reopened.save(new Member("park", 40)).getId()).isEqualTo(3L);
+  }
+
+  private void saveBoth(List<String> usernames, int[] ages) {
+    memory.clearStore();
+    for (int i = 0; i < usernames.size(); i++) {
+      repository.save(new Member(usernames.get(i), ages[i]));
+      memory.save(new Member(usernames.get(i), ages[i]));
+    }
+  }
+
+  private static List<Member> walkPages(MemberRepository repository) {
+    List<Member> all = new ArrayList<>();
+    long afterId = 0;
+    for (List<Member> page = repository.findPage(afterId, 3); !page.isEmpty(); page = repository.findPage(afterId, 3)) {
+      all.addAll(page);
+      afterId = page.get(page.size() - 1).getId();
+    }
+    return all;
+  }
+
+  private static List<Member> walkAges(MemberRepository repository, int minAge, int maxAge) {
+    List<Member> all = new ArrayList<>();
+    int afterAge = Integer.MIN_VALUE;
+    long afterId = 0;
+    List<Member> page;
+    while (!(page = repository.findByAgeBetween(minAge, maxAge, afterAge, afterId, 2)).isEmpty()) {
+      all.addAll(page);
+      Member last = page.get(page.size() - 1);
+      afterAge = last.getAge();
+      afterId = last.getId();
+    }
+    return all;
+  }
+
+  // 두 저장소의 id 는 서로 다르므로 이름:나이로 비교한다 (같은 이름 / 나이 안에서는 저장 순서 = id 순서)
+  private static List<String> names(List<Member> members) {
+    List<String> names = new ArrayList<>();
+    Set<Long> seen = new HashSet<>();
+    for (Member member : members) {
+      assertThat(seen.add(member.getId())).as("중복 id %d", member.getId()).isTrue();
+      names.add(member.getUsername() + ":" + member.getAge());
+    }
+    return names;
+  }
+}
@@ -0,0 +1,125 @@
+package hello.servlet.domain.member;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 용량 제한 정책별 적중률 / 처리량 (main 으로 실행, 인자: 회원 id 종류 수(기본 100만) 용량(기본 1만) zipf 지수(기본 0.99))
+ * 조회 흐름은 Zipf 분포(소수의 회원이 대부분의 조회를 차지)로 미리 만들어 두고, findById 가 없으면 save 하는 캐시처럼 쓴다.
+ * - hit ratio: 한 스레드로 흐름 전체를 돌린 적중률 (앞쪽 10% 는 채우는 구간이라 빼고 계산)
+ * - ops/s: 스레드마다 흐름의 다른 위치부터 돌린 처리량. none 은 상한 없는 ConcurrentLongMemberMap
+ */
+public class MemberEvictionBenchmark {
+
+  private static final String[] POLICIES = {"lru", "lfu", "tinylfu", "ttl"};
+  private static final int[] THREADS = {1, 4, 16};
+  private static final int TRACE_LENGTH = 4_000_000;
+  private static final long TTL_MILLIS = 1_000;
+  private static final long DURATION_MILLIS = 2_000;
+
+  public static void main(String[] args) throws Exception {
+    int keys = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+    int capacity = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+    double exponent = args.length > 2 ? Double.parseDouble(args[2]) : 0.99;
+    long[] trace = zipfTrace(keys, exponent, TRACE_LENGTH, 42L);
+    System.out.printf("keys %,d, capacity %,d, zipf %.2f, trace %,d%n", keys, capacity, exponent, trace.length);
+
+    System.out.printf("%8s %10s", "policy", "hit ratio");
+    for (int threads : THREADS) {
+      System.out.printf(" %14s", threads + " thr ops/s");
+    }
+    System.out.println();
+
+    System.out.printf("%8s %10s", "none", "-");
+    for (int threads : THREADS) {
+      System.out.printf(" %,14.0f", throughput(new ConcurrentLongMemberMap(), trace, threads));
+    }
+    System.out.println();
+
+    for (String policy : POLICIES) {
+      double hitRatio = hitRatio(bounded(policy, capacity), trace);
+      System.out.printf("%8s %9.2f%%", policy, hitRatio * 100);
+      for (int threads : THREADS) {
+        System.out.printf(" %,14.0f", throughput(bounded(policy, capacity), trace, threads));
+      }
+      System.out.println();
+    }
+  }
+
+  private static BoundedMemberStore bounded(String policy, int capacity) {
+    return new BoundedMemberStore(new ConcurrentLongMemberMap(), capacity,
+        EvictionPolicy.create(policy, capacity, TTL_MILLIS), member -> { });
+  }
+
+  private static double hitRatio(MemberStore store, long[] trace) {
+    int warmup = trace.length / 10;
+    long hits = 0;
+    for (int i = 0; i < trace.length; i++) {
+      if (access(store, trace[i]) && i >= warmup) {
+        hits++;
+      }
+    }
+    return (double) hits / (trace.length - warmup);
+  }
+
+  private static double throughput(MemberStore store, long[] trace, int threads) throws InterruptedException {
+    AtomicLong operations = new AtomicLong();
+    CountDownLatch done = new CountDownLatch(threads);
+    long deadline = System.currentTimeMillis() + DURATION_MILLIS;
+    for (int t = 0; t < threads; t++) {
+      int offset = (int) ((long) trace.length * t / threads);
+      Thread thread = new Thread(() -> {
+        long count = 0;
+        int i = offset;
+        while ((count & 1023) != 0 || System.currentTimeMillis() < deadline) {
+          access(store, trace[i]);
+          count++;
+          if (++i == trace.length) {
+            i = 0;
+          }
+        }
+        operations.addAndGet(count);
+        done.countDown();
+      });
+      thread.start();
+    }
+    done.await();
+    return operations.get() * 1000.0 / DURATION_MILLIS;
+  }
+
+  // 있으면 true, 없으면 save 하고 false
+  private static boolean access(MemberStore store, long id) {
+    if (store.get(id) != null) {
+      return true;
+    }
+    Member member = new Member("guest" + id, 20);
+    member.setId(id);
+    store.put(member);
+    return false;
+  }
+
+  /**
+   * 순위 k(1부터)의 확률이 1/k^exponent 에 비례하는 분포. 누적 분포를 이진 탐색해서 뽑는다.
+   * 순위를 그대로 id 로 쓰면 인기 회원이 작은 id 에 몰리므로 곱셈 역원이 있는 수로 섞어서 흩는다.
+   */
+  static long[] zipfTrace(int keys, double exponent, int length, long seed) {
+    double[] cumulative = new double[keys];
+    double sum = 0;
+    for (int k = 0; k < keys; k++) {
+      sum += 1.0 / Math.pow(k + 1, exponent);
+      cumulative[k] = sum;
+    }
+    SplittableRandom random = new SplittableRandom(seed);
+    long[] trace = new long[length];
+    for (int i = 0; i < length; i++) {
+      int rank = Arrays.binarySearch(cumulative, random.nextDouble() * sum);
+      if (rank < 0) {
+        rank = -rank - 1;
+      }
+      trace[i] = (rank * 0x9E3779B1L) % keys + 1;
+    }
+    return trace;
+  }
+}
@@ -0,0 +1,99 @@
+package hello.servlet.domain.member;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * id 발급 처리량: 공유 AtomicLong vs 스레드별 블록(HiLo) (main 으로 실행)
+ * 스레드 수별로 DURATION_MILLIS 동안 id 만 계속 발급한다. 마지막에 스레드 16개가 받은 id 가 모두 서로 다른지 확인한다.
+ */
+public class MemberIdAllocatorBenchmark {
+
+  private static final int[] THREADS = {1, 2, 4, 8, 16, 32, 64};
+  private static final long DURATION_MILLIS = 1_000;
+
+  public static void main(String[] args) throws Exception {
+    String[] names = {"shared", "hilo-64", "hilo-1024", "hilo-64-1ms"};
+
+    System.out.printf("%8s", "threads");
+    for (String name : names) {
+      System.out.printf(" %14s", name);
+    }
+    System.out.println("   (ids/s)");
+    for (int threads : THREADS) {
+      System.out.printf("%8d", threads);
+      for (String name : names) {
+        System.out.printf(" %,14.0f", run(allocator(name), threads));
+      }
+      System.out.println();
+    }
+
+    for (String name : names) {
+      System.out.printf("%s unique: %s%n", name, unique(allocator(name), 16, 100_000));
+    }
+  }
+
+  private static LongSupplier allocator(String name) {
+    switch (name) {
+      case "shared":
+        AtomicLong sequence = new AtomicLong();
+        return sequence::incrementAndGet;
+      case "hilo-64":
+        return new MemberIdAllocator(64, 0L)::next;
+      case "hilo-1024":
+        return new MemberIdAllocator(1024, 0L)::next;
+      case "hilo-64-1ms":
+        return new MemberIdAllocator(64, 1L)::next;
+      default:
+        throw new IllegalArgumentException(name);
+    }
+  }
+
+  private static double run(LongSupplier ids, int threads) throws InterruptedException {
+    AtomicLong total = new AtomicLong();
+    CountDownLatch done = new CountDownLatch(threads);
+    long deadline = System.currentTimeMillis() + DURATION_MILLIS;
+    for (int t = 0; t < threads; t++) {
+      Thread thread = new Thread(() -> {
+        long count = 0;
+        long sink = 0;
+        // 시계는 1024 번에 한 번만 본다
+        while ((count & 1023) != 0 || System.currentTimeMillis() < deadline) {
+          sink += ids.getAsLong();
+          count++;
+        }
+        total.addAndGet(count + (sink == 42 ? 1 : 0));
+        done.countDown();
+      });
+      thread.start();
+    }
+    done.await();
+    return total.get() * 1000.0 / DURATION_MILLIS;
+  }
+
+  private static boolean unique(LongSupplier ids, int threads, int perThread) throws InterruptedException {
+    long[] all = new long[threads * perThread];
+    Thread[] workers = new Thread[threads];
+    for (int t = 0; t < threads; t++) {
+      int offset = t * perThread;
+      workers[t] = new Thread(() -> {
+        for (int i = 0; i < perThread; i++) {
+          all[offset + i] = ids.getAsLong();
+        }
+      });
+      workers[t].start();
+    }
+    for (Thread worker : workers) {
+      worker.join();
+    }
+    Arrays.sort(all);
+    for (int i = 1; i < all.length; i++) {
+      if (all[i] == all[i - 1]) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
@@ -0,0 +1,69 @@
+package hello.servlet.domain.member;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MemberIdAllocatorTests {
+
+  @Test
+  void sharedCounterHasNoGaps() {
+    MemberIdAllocator ids = new MemberIdAllocator(1, 0);
+
+    assertThat(List.of(ids.next(), ids.next(), ids.reserve(3), ids.next())).containsExactly(1L, 2L, 3L, 6L);
+  }
+
+  @Test
+  void blocksHandOutUniqueIdsAcrossThreads() throws InterruptedException {
+    MemberIdAllocator ids = new MemberIdAllocator(64, 0);
+    Set<Long> seen = ConcurrentHashMap.newKeySet();
+    List<Thread> threads = new ArrayList<>();
+    for (int t = 0; t < 8; t++) {
+      threads.add(new Thread(() -> {
+        for (int i = 0; i < 10_000; i++) {
+          seen.add(ids.next());
+        }
+      }));
+    }
+    threads.forEach(Thread::start);
+    for (Thread thread : threads) {
+      thread.join();
+    }
+
+    assertThat(seen).hasSize(80_000);
+  }
+
+  @Test
+  void shortLivedThreadsDoNotEachClaimABlock() throws InterruptedException {
+    int blockSize = 64;
+    int requests = 2_000;
+    MemberIdAllocator ids = new MemberIdAllocator(blockSize, 0);
+    Set<Long> seen = new HashSet<>();
+    // 가상 스레드 모드처럼 요청마다 새 스레드에서 id 하나씩
+    for (int i = 0; i < requests; i++) {
+      long[] id = new long[1];
+      Thread thread = new Thread(() -> id[0] = ids.next());
+      thread.start();
+      thread.join();
+      seen.add(id[0]);
+    }
+
+    long maxStripes = Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 4) * 2L;
+    assertThat(seen).hasSize(requests);
+    assertThat(ids.reserve(1) - 1).isLessThanOrEqualTo(requests + maxStripes * blockSize);
+  }
+
+  @Test
+  void advanceToSkipsRecoveredIds() {
+    MemberIdAllocator ids = new MemberIdAllocator(1, 0);
+    ids.advanceTo(100);
+
+    assertThat(ids.next()).isEqualTo(101L);
+  }
+}
@@ -0,0 +1,78 @@
+package hello.servlet.domain.member;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 보조 인덱스 조회 vs findAll() + 호출하는 쪽에서 필터링 비교 (main 으로 실행, -Xmx2g 정도)
+ * 회원 수를 늘려도 인덱스 조회 시간은 거의 그대로(결과 크기에 비례)이고, 스캔은 회원 수에 비례해서 늘어난다.
+ */
+public class MemberIndexBenchmark {
+
+  private static final int[] SIZES = {100_000, 1_000_000, 3_000_000};
+  private static final int QUERIES = 200;
+  private static final int LIMIT = 100;
+
+  public static void main(String[] args) {
+    MemberRepository repository = MemberRepository.getInstance();
+
+    System.out.printf("%10s %18s %18s %18s %18s%n", "members",
+        "username idx(us)", "username scan(us)", "age idx(us)", "age scan(us)");
+
+    for (int size : SIZES) {
+      repository.clearStore();
+      int usernames = size / 10; // username 하나당 회원 10명
+      for (int i = 0; i < size; i++) {
+        repository.save(new Member("user" + (i % usernames), i % 100));
+      }
+
+      long sink = 0;
+      long start = System.nanoTime();
+      for (int q = 0; q < QUERIES; q++) {
+        sink += repository.findByUsername("user" + (q * 7919 % usernames)).size();
+      }
+      long usernameIndex = (System.nanoTime() - start) / QUERIES / 1000;
+
+      start = System.nanoTime();
+      for (int q = 0; q < QUERIES / 20; q++) {
+        String username = "user" + (q * 7919 % usernames);
+        List<Member> result = new ArrayList<>();
+        for (Member member : repository.findAll()) {
+          if (username.equals(member.getUsername())) {
+            result.add(member);
+          }
+        }
+        sink += result.size();
+      }
+      long usernameScan = (System.nanoTime() - start) / (QUERIES / 20) / 1000;
+
+      start = System.nanoTime();
+      for (int q = 0; q < QUERIES; q++) {
+        int min = q % 90;
+        sink += repository.findByAgeBetween(min, min + 9, LIMIT).size();
+      }
+      long ageIndex = (System.nanoTime() - start) / QUERIES / 1000;
+
+      start = System.nanoTime();
+      for (int q = 0; q < QUERIES / 20; q++) {
+        int min = q % 90;
+        List<Member> result = new ArrayList<>();
+        for (Member member : repository.findAll()) {
+          if (min <= member.getAge() && member.getAge() <= min + 9) {
+            result.add(member);
+          }
+        }
+        // 인덱스와 같은 결과(나이 순, 같은 나이는 id 순 상위 LIMIT 명)를 만들려면 정렬까지 필요
+        result.sort(Comparator.comparingInt(Member::getAge).thenComparing(Member::getId));
+        sink += Math.min(LIMIT, result.size());
+      }
+      long ageScan = (System.nanoTime() - start) / (QUERIES / 20) / 1000;
+
+      System.out.printf("%10d %18d %18d %18d %18d%n", size, usernameIndex, usernameScan, ageIndex, ageScan);
+      if (sink < 0) {
+        System.out.println(sink);
+      }
+    }
+  }
+}
@@ -0,0 +1,149 @@
+package hello.servlet.domain.member;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static hello.servlet.domain.member.MemberStoreTests.member;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 저장 모드마다 고르는 보조 인덱스가 같은 결과를 내는지
+ */
+class MemberIndexTests {
+
+  @ParameterizedTest
+  @ValueSource(strings = {"hash", "columnar", "offheap"})
+  void findsUsernamesInIdOrderAfterTheCursor(String type) {
+    MemberStore store = MemoryMemberRepository.createStore(type);
+    MemberIndex index = MemberIndex.create(type, () -> store);
+    for (long id = 1; id <= 10; id++) {
+      Member member = member(id, id % 2 == 0 ? "kim" : "lee", (int) id);
+      index.add(member);
+      store.put(member);
+    }
+
+    assertThat(index.idsByUsername("kim", 0L, 3)).containsExactly(2L, 4L, 6L);
+    assertThat(index.idsByUsername("kim", 6L, 10)).containsExactly(8L, 10L);
+    assertThat(index.idsByUsername("park", 0L, 10)).isEmpty();
+    assertThat(index.idsByUsername(null, 0L, 10)).isEmpty();
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {"hash", "columnar", "offheap"})
+  void findsAgesInAgeThenIdOrder(String type) {
+    MemberStore store = MemoryMemberRepository.createStore(type);
+    MemberIndex index = MemberIndex.create(type, () -> store);
+    List<Member> members = List.of(member(1, "a", 30), member(2, "b", 20), member(3, "c", 30),
+        member(4, "d", 10), member(5, "e", 20));
+    index.addAll(members);
+    store.putAll(members);
+
+    assertThat(index.idsByAgeBetween(20, 30, 10)).containsExactly(2L, 5L, 1L, 3L);
+    assertThat(index.idsByAgeBetween(20, 30, 3)).containsExactly(2L, 5L, 1L);
+    assertThat(index.idsByAgeBetween(30, 20, 10)).isEmpty();
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {"hash", "columnar", "offheap"})
+  void expandsSeveralUsernamesInOnePass(String type) {
+    MemberStore store = MemoryMemberRepository.createStore(type);
+    MemberIndex index = MemberIndex.create(type, () -> store);
+    String[] names = {"kim", "김", "lee", null, ""};
+    for (long id = 1; id <= 50; id++) {
+      Member member = member(id, names[(int) (id % names.length)], (int) id);
+      index.add(member);
+      store.put(member);
+    }
+
+    Map<String, List<Long>> ids = index.idsByUsernames(List.of("김", "kim", "park", ""), 3);
+
+    assertThat(ids.keySet()).containsExactly("김", "kim", "park", "");
+    assertThat(ids.get("김")).containsExactly(1L, 6L, 11L);
+    assertThat(ids.get("kim")).containsExactly(5L, 10L, 15L);
+    assertThat(ids.get("park")).isEmpty();
+    assertThat(ids.get("")).containsExactly(4L, 9L, 14L);
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {"hash", "columnar", "offheap"})
+  void keepsOnlyTheSmallestAgeKeysWithinTheLimit(String type) {
+    MemberStore store = MemoryMemberRepository.createStore(type);
+    MemberIndex index = MemberIndex.create(type, () -> store);
+    Random random = new Random(7);
+    List<Member> members = new ArrayList<>();
+    for (long id = 1; id <= 5_000; id++) {
+      members.add(member(id, "m", random.nextInt(100)));
+    }
+    index.addAll(members);
+    store.putAll(members);
+
+    List<Long> expected = members.stream()
+        .filter(member -> 20 <= member.getAge() && member.getAge() <= 40)
+        .sorted(Comparator.comparingInt(Member::getAge).thenComparingLong(Member::getId))
+        .map(Member::getId)
+        .toList();
+
+    assertThat(index.idsByAgeBetween(20, 40, 100)).containsExactlyElementsOf(expected.subList(0, 100));
+    assertThat(index.idsByAgeBetween(20, 40, Integer.MAX_VALUE)).containsExactlyElementsOf(expected);
+    assertThat(index.idsByAgeBetween(20, 40, 0)).isEmpty();
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {"hash", "columnar", "offheap"})
+  void pagesAgesWithAnAgeAndIdCursor(String type) {
+    MemberStore store = MemoryMemberRepository.createStore(type);
+    MemberIndex index = MemberIndex.create(type, () -> store);
+    Random random = new Random(11);
+    List<Member> members = new ArrayList<>();
+    for (long id = 1; id <= 2_000; id++) {
+      members.add(member(id, "m", random.nextInt(60)));
+    }
+    index.addAll(members);
+    store.putAll(members);
+
+    List<Long> expected = members.stream()
+        .filter(member -> 20 <= member.getAge() && member.getAge() <= 40)
+        .sorted(Comparator.comparingInt(Member::getAge).thenComparingLong(Member::getId))
+        .map(Member::getId)
+        .toList();
+
+    // 마지막 회원의 (age, id) 를 다음 커서로 넘기며 끝까지 (페이지 경계가 같은 나이 한가운데에 걸림)
+    List<Long> paged = new ArrayList<>();
+    int afterAge = Integer.MIN_VALUE;
+    long afterId = 0L;
+    for (List<Long> page = index.idsByAgeBetween(20, 40, afterAge, afterId, 37); !page.isEmpty();
+        page = index.idsByAgeBetween(20, 40, afterAge, afterId, 37)) {
+      paged.addAll(page);
+      long last = page.get(page.size() - 1);
+      afterAge = store.get(last).getAge();
+      afterId = last;
+    }
+    assertThat(paged).containsExactlyElementsOf(expected);
+
+    // 범위 밖의 커서: 범위 앞이면 처음부터, 뒤면 빈 목록
+    assertThat(index.idsByAgeBetween(20, 40, 5, 999L, 10)).containsExactlyElementsOf(expected.subList(0, 10));
+    assertThat(index.idsByAgeBetween(20, 40, 40, Long.MAX_VALUE, 10)).isEmpty();
+    assertThat(index.idsByAgeBetween(20, 40, 50, 0L, 10)).isEmpty();
+  }
+
+  @Test
+  void sortedSetIndexRejectsIdsWiderThanTheAgeKey() {
+    MemberIndex index = new SortedSetMemberIndex();
+    long tooWide = 1L << 40;
+
+    assertThatThrownBy(() -> index.add(member(tooWide, "kim", 20)))
+        .isInstanceOf(IllegalStateException.class);
+    assertThatThrownBy(() -> index.addAll(List.of(member(tooWide - 1, "kim", 20), member(tooWide, "lee", 30))))
+        .isInstanceOf(IllegalStateException.class);
+    assertThat(index.idsByUsername("kim", 0L, 10)).isEmpty();
+    assertThat(index.idsByAgeBetween(0, 100, 10)).isEmpty();
+  }
+}
@@ -0,0 +1,138 @@
+package hello.servlet.domain.member;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * MemberRepository 경합 벤치마크 (JUnit 테스트가 아니라 main 으로 직접 실행)
+ * 1~64개의 스레드를 writer(save) / reader(findById, 가끔 findAll) 절반씩 나눠서 돌리고
+ * synchronized + HashMap 기준 구현과 처리량(ops/ms)을 비교한다.
+ */
+public class MemberRepositoryContentionBenchmark {
+
+  private static final int[] THREADS = {1, 2, 4, 8, 16, 32, 64};
+  private static final int OPS_PER_ROUND = 2_000_000;
+  private static final int PRELOAD = 10_000;
+  private static final int FIND_ALL_EVERY = 50_000;
+
+  interface Target {
+    Member save(Member member);
+
+    Member findById(Long id);
+
+    List<Member> findAll();
+
+    void clearStore();
+  }
+
+  // 비교 기준: 기존 HashMap 저장소에 메서드마다 synchronized 를 건 구현
+  static class SynchronizedMemberRepository implements Target {
+
+    private final Map<Long, Member> store = new HashMap<>();
+    private long sequence = 0L;
+
+    public synchronized Member save(Member member) {
+      member.setId(++sequence);
+      store.put(member.getId(), member);
+      return member;
+    }
+
+    public synchronized Member findById(Long id) {
+      return store.get(id);
+    }
+
+    public synchronized List<Member> findAll() {
+      return new ArrayList<>(store.values());
+    }
+
+    public synchronized void clearStore() {
+      store.clear();
+    }
+  }
+
+  static class ConcurrentTarget implements Target {
+
+    private final MemberRepository repository = MemberRepository.getInstance();
+
+    public Member save(Member member) {
+      return repository.save(member);
+    }
+
+    public Member findById(Long id) {
+      return repository.findById(id);
+    }
+
+    public List<Member> findAll() {
+      return repository.findAll();
+    }
+
+    public void clearStore() {
+      repository.clearStore();
+    }
+  }
+
+  public static void main(String[] args) throws InterruptedException {
+    Target synchronizedTarget = new SynchronizedMemberRepository();
+    Target concurrentTarget = new ConcurrentTarget();
+
+    // JIT 워밍업
+    run(synchronizedTarget, 8);
+    run(concurrentTarget, 8);
+
+    System.out.printf("%8s %20s %20s %8s%n", "threads", "synchronized(ops/ms)", "concurrent(ops/ms)", "ratio");
+    for (int threads : THREADS) {
+      double baseline = run(synchronizedTarget, threads);
+      double concurrent = run(concurrentTarget, threads);
+      System.out.printf("%8d %20.1f %20.1f %7.2fx%n", threads, baseline, concurrent, concurrent / baseline);
+    }
+  }
+
+  private static double run(Target target, int threads) throws InterruptedException {
+    target.clearStore();
+    // clearStore 는 sequence 를 되돌리지 않으므로 미리 넣은 id 구간을 기억해 두고 reader 가 그 안에서 조회
+    long firstId = target.save(new Member("member0", 0)).getId();
+    for (int i = 1; i < PRELOAD; i++) {
+      target.save(new Member("member" + i, i % 100));
+    }
+
+    int opsPerThread = OPS_PER_ROUND / threads;
+    CountDownLatch start = new CountDownLatch(1);
+    CountDownLatch done = new CountDownLatch(threads);
+
+    for (int t = 0; t < threads; t++) {
+      boolean writer = t % 2 == 0;
+      Thread thread = new Thread(() -> {
+        try {
+          start.await();
+          ThreadLocalRandom random = ThreadLocalRandom.current();
+          for (int i = 0; i < opsPerThread; i++) {
+            // 스레드가 1개면 한 스레드가 save / 조회를 번갈아 수행
+            if (threads == 1 ? i % 2 == 0 : writer) {
+              target.save(new Member("user", i % 100));
+            } else if (i % FIND_ALL_EVERY == 0) {
+              target.findAll();
+            } else {
+              target.findById(random.nextLong(firstId, firstId + PRELOAD));
+            }
+          }
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        } finally {
+          done.countDown();
+        }
+      });
+      thread.start();
+    }
+
+    long startNanos = System.nanoTime();
+    start.countDown();
+    done.await();
+    long elapsedNanos = System.nanoTime() - startNanos;
+
+    return (double) opsPerThread * threads / (elapsedNanos / 1_000_000.0);
+  }
+}
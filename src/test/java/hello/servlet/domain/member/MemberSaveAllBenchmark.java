@@ -0,0 +1,63 @@
+package hello.servlet.domain.member;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * saveAll vs save 반복 처리량 비교 (main 으로 실행, -Dmember.store=hash|columnar|offheap)
+ * 같은 회원 수를 배치 크기별로 나눠서 넣고, 회원/ms 로 비교한다.
+ */
+public class MemberSaveAllBenchmark {
+
+  private static final int MEMBERS = 1_000_000;
+  private static final int[] BATCH_SIZES = {10, 100, 1_000, 10_000};
+  private static final int ROUNDS = 3;
+
+  public static void main(String[] args) {
+    MemberRepository repository = MemberRepository.getInstance();
+    System.out.println("store = " + System.getProperty("member.store", "hash"));
+
+    // JIT 워밍업
+    loopSave(repository, 1_000);
+    batchSave(repository, 1_000);
+
+    System.out.printf("%8s %18s %18s %8s%n", "batch", "save loop(m/ms)", "saveAll(m/ms)", "ratio");
+    for (int batchSize : BATCH_SIZES) {
+      double loop = 0;
+      double batch = 0;
+      for (int round = 0; round < ROUNDS; round++) {
+        loop = Math.max(loop, loopSave(repository, batchSize));
+        batch = Math.max(batch, batchSave(repository, batchSize));
+      }
+      System.out.printf("%8d %18.1f %18.1f %7.2fx%n", batchSize, loop, batch, batch / loop);
+    }
+  }
+
+  private static double loopSave(MemberRepository repository, int batchSize) {
+    repository.clearStore();
+    long start = System.nanoTime();
+    for (int i = 0; i < MEMBERS; i += batchSize) {
+      for (Member member : newBatch(i, batchSize)) {
+        repository.save(member);
+      }
+    }
+    return MEMBERS / ((System.nanoTime() - start) / 1_000_000.0);
+  }
+
+  private static double batchSave(MemberRepository repository, int batchSize) {
+    repository.clearStore();
+    long start = System.nanoTime();
+    for (int i = 0; i < MEMBERS; i += batchSize) {
+      repository.saveAll(newBatch(i, batchSize));
+    }
+    return MEMBERS / ((System.nanoTime() - start) / 1_000_000.0);
+  }
+
+  private static List<Member> newBatch(int from, int batchSize) {
+    List<Member> members = new ArrayList<>(batchSize);
+    for (int i = from; i < from + batchSize; i++) {
+      members.add(new Member("member" + (i % 10_000), i % 100));
+    }
+    return members;
+  }
+}
@@ -0,0 +1,71 @@
+package hello.servlet.domain.member;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 스냅샷 복구 시간 비교 (main 으로 실행, 인자: 회원 수(기본 1000만) [스냅샷 파일 경로], -Xmx3g 정도)
+ * - mmap: 파일을 매핑하고 임의의 id 1000개를 조회할 때까지 (= 첫 요청을 받을 수 있을 때까지)
+ * - rebuild: 파일의 회원을 전부 디코딩해서 해시 저장소에 다시 넣을 때까지 (로그 replay / save 재전송과 같은 방식)
+ */
+public class MemberSnapshotFileBenchmark {
+
+  private static final int LOOKUPS = 1000;
+
+  public static void main(String[] args) throws Exception {
+    int members = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+    Path path = args.length > 1 ? Path.of(args[1]) : Files.createTempFile("members", ".snapshot");
+
+    long start = System.nanoTime();
+    MemberSnapshotFile.write(path, () -> generate(members));
+    long writeMillis = (System.nanoTime() - start) / 1_000_000;
+    System.out.printf("write    %,d members, %,d bytes (%.1f bytes/member), %d ms%n",
+        members, Files.size(path), (double) Files.size(path) / members, writeMillis);
+
+    start = System.nanoTime();
+    MemberSnapshotFile snapshot = MemberSnapshotFile.open(path);
+    long found = 0;
+    for (int i = 0; i < LOOKUPS; i++) {
+      if (snapshot.find(ThreadLocalRandom.current().nextLong(1, members + 1)) != null) {
+        found++;
+      }
+    }
+    long mmapMillis = (System.nanoTime() - start) / 1_000_000;
+    System.out.printf("mmap     open + %d lookups (%d found): %d ms%n", LOOKUPS, found, mmapMillis);
+
+    start = System.nanoTime();
+    ConcurrentLongMemberMap rebuilt = new ConcurrentLongMemberMap();
+    for (Member member : snapshot) {
+      Member copy = new Member(member.getUsername(), member.getAge());
+      copy.setId(member.getId());
+      rebuilt.put(copy);
+    }
+    long rebuildMillis = (System.nanoTime() - start) / 1_000_000;
+    System.out.printf("rebuild  %,d members into hash store: %d ms%n", rebuilt.size(), rebuildMillis);
+
+    if (args.length < 2) {
+      Files.delete(path);
+    }
+  }
+
+  private static Iterator<Member> generate(int members) {
+    return new Iterator<>() {
+      private long id;
+
+      @Override
+      public boolean hasNext() {
+        return id < members;
+      }
+
+      @Override
+      public Member next() {
+        id++;
+        Member member = new Member("member" + (id % 100_000), (int) (id % 100));
+        member.setId(id);
+        return member;
+      }
+    };
+  }
+}
@@ -0,0 +1,194 @@
+package hello.servlet.domain.member;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static hello.servlet.domain.member.MemberStoreTests.member;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MemberSnapshotFileTests {
+
+  private static final int BLOCK = MemberSnapshotFile.BLOCK_SIZE;
+
+  @TempDir
+  Path dir;
+
+  @Test
+  void roundTripsNullNamesNegativeAgesAndMultiByteNames() throws IOException {
+    Path path = dir.resolve("member.snapshot");
+    List<Member> members = List.of(
+        member(1, "kim", 20),
+        member(2, null, -1),
+        member(5, "", Integer.MIN_VALUE),
+        member(9, "이름😀", Integer.MAX_VALUE),
+        member(Long.MAX_VALUE / 2, "ü", 0));
+    MemberSnapshotFile.write(path, members, 1234L);
+
+    MemberSnapshotFile snapshot = MemberSnapshotFile.open(path);
+
+    assertThat(snapshot).hasSize(5);
+    assertThat(snapshot.maxId()).isEqualTo(Long.MAX_VALUE / 2);
+    assertThat(snapshot.walPosition()).isEqualTo(1234L);
+    assertThat(snapshot).extracting(Member::getId).containsExactly(1L, 2L, 5L, 9L, Long.MAX_VALUE / 2);
+    assertThat(snapshot).extracting(Member::getUsername).containsExactly("kim", null, "", "이름😀", "ü");
+    assertThat(snapshot).extracting(Member::getAge)
+        .containsExactly(20, -1, Integer.MIN_VALUE, Integer.MAX_VALUE, 0);
+    assertThat(snapshot.get(3).getUsername()).isEqualTo("이름😀");
+    assertThat(snapshot.countByAgeBetween(-1, 20)).isEqualTo(3);
+  }
+
+  @Test
+  void findsFirstAndLastIdOfEachBlockAndMissesGaps() throws IOException {
+    // id 는 3 간격 (1, 4, 7, ...) 이라 블록 안에도 없는 id 가 있다
+    MemberSnapshotFile snapshot = writeSpaced(BLOCK * 3 + 5);
+
+    for (int block = 0; block <= 3; block++) {
+      int first = block * BLOCK;
+      int last = Math.min(first + BLOCK, snapshot.size()) - 1;
+      assertThat(snapshot.find(idAt(first))).extracting(Member::getUsername).isEqualTo("m" + first);
+      assertThat(snapshot.find(idAt(last))).extracting(Member::getUsername).isEqualTo("m" + last);
+      assertThat(snapshot.find(idAt(first) + 1)).isNull();
+      assertThat(snapshot.find(idAt(last) + 2)).isNull();
+    }
+    assertThat(snapshot.find(0)).isNull();
+    assertThat(snapshot.find(-5)).isNull();
+    assertThat(snapshot.find(snapshot.maxId() + 1)).isNull();
+  }
+
+  @Test
+  void pagesAcrossBlockEdges() throws IOException {
+    MemberSnapshotFile snapshot = writeSpaced(BLOCK * 2 + 10);
+
+    // 첫 블록의 마지막 회원 바로 앞에서 시작해서 다음 블록으로 넘어간다
+    List<Member> page = snapshot.page(idAt(BLOCK - 2), 4);
+    assertThat(page).extracting(Member::getId)
+        .containsExactly(idAt(BLOCK - 1), idAt(BLOCK), idAt(BLOCK + 1), idAt(BLOCK + 2));
+
+    // 블록 사이의 빈 id 에서 시작
+    assertThat(snapshot.page(idAt(BLOCK - 1) + 1, 1)).extracting(Member::getId).containsExactly(idAt(BLOCK));
+
+    List<Long> all = new ArrayList<>();
+    long afterId = 0;
+    for (List<Member> next = snapshot.page(afterId, 7); !next.isEmpty(); next = snapshot.page(afterId, 7)) {
+      for (Member member : next) {
+        all.add(member.getId());
+      }
+      afterId = next.get(next.size() - 1).getId();
+    }
+    assertThat(all).hasSize(snapshot.size());
+    assertThat(all).isSorted();
+    assertThat(snapshot.page(snapshot.maxId(), 10)).isEmpty();
+  }
+
+  @Test
+  void writesAndOpensEmptySnapshot() throws IOException {
+    Path path = dir.resolve("member.snapshot");
+    MemberSnapshotFile.write(path, List.of());
+
+    MemberSnapshotFile snapshot = MemberSnapshotFile.open(path);
+
+    assertThat(snapshot).isEmpty();
+    assertThat(snapshot.iterator().hasNext()).isFalse();
+    assertThat(snapshot.find(1)).isNull();
+    assertThat(snapshot.page(0, 10)).isEmpty();
+    assertThat(snapshot.countByAgeBetween(Integer.MIN_VALUE, Integer.MAX_VALUE)).isZero();
+    assertThat(snapshot.walPosition()).isZero();
+  }
+
+  @Test
+  void rejectsIdsOutOfOrder() {
+    Path path = dir.resolve("member.snapshot");
+
+    assertThatThrownBy(() -> MemberSnapshotFile.write(path, List.of(member(2, "a", 1), member(2, "b", 1))))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThat(path).doesNotExist();
+  }
+
+  @Test
+  void rejectsTruncatedFile() throws IOException {
+    Path path = dir.resolve("member.snapshot");
+    MemberSnapshotFile.write(path, spaced(BLOCK + 1));
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+      channel.truncate(Files.size(path) - 5);
+    }
+
+    assertThatThrownBy(() -> MemberSnapshotFile.open(path)).isInstanceOf(IOException.class);
+  }
+
+  @Test
+  void rejectsTooShortFile() throws IOException {
+    Path path = dir.resolve("member.snapshot");
+    Files.write(path, new byte[10]);
+
+    assertThatThrownBy(() -> MemberSnapshotFile.open(path)).isInstanceOf(IOException.class);
+  }
+
+  @Test
+  void rejectsWrongMagic() throws IOException {
+    Path path = dir.resolve("member.snapshot");
+    MemberSnapshotFile.write(path, spaced(3));
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+      channel.write(ByteBuffer.wrap(new byte[]{'X'}), 0);
+    }
+
+    assertThatThrownBy(() -> MemberSnapshotFile.open(path)).isInstanceOf(IOException.class);
+  }
+
+  @Test
+  void snapshotBackedStoreMergesBaseAndDeltaPages() throws IOException {
+    MemberSnapshotFile base = writeSpaced(BLOCK + 3); // 1, 4, 7, ...
+    MemberStore delta = new ConcurrentLongMemberMap();
+    SnapshotBackedMemberStore store = new SnapshotBackedMemberStore(base, delta);
+    store.put(member(5, "d5", 1));
+    store.put(member(6, "d6", 1));
+    store.put(member(base.maxId() + 10, "tail", 1));
+
+    assertThat(store.findPage(0, 5)).extracting(Member::getId).containsExactly(1L, 4L, 5L, 6L, 7L);
+    assertThat(store.findPage(4, 3)).extracting(Member::getId).containsExactly(5L, 6L, 7L);
+    assertThat(store.findPage(base.maxId(), 5)).extracting(Member::getId).containsExactly(base.maxId() + 10);
+    assertThat(store.get(5)).extracting(Member::getUsername).isEqualTo("d5");
+    assertThat(store.get(4)).extracting(Member::getUsername).isEqualTo("m1");
+
+    List<Long> all = new ArrayList<>();
+    long afterId = 0;
+    for (List<Member> page = store.findPage(afterId, 10); !page.isEmpty(); page = store.findPage(afterId, 10)) {
+      for (Member member : page) {
+        all.add(member.getId());
+      }
+      afterId = page.get(page.size() - 1).getId();
+    }
+    assertThat(all).hasSize(base.size() + 3).isSorted().doesNotHaveDuplicates();
+
+    store.clear();
+    assertThat(store.findPage(0, 10)).isEmpty();
+    assertThat(store.get(1)).isNull();
+  }
+
+  private MemberSnapshotFile writeSpaced(int count) throws IOException {
+    Path path = dir.resolve("spaced-" + count + ".snapshot");
+    MemberSnapshotFile.write(path, spaced(count));
+    return MemberSnapshotFile.open(path);
+  }
+
+  private static List<Member> spaced(int count) {
+    List<Member> members = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      members.add(member(idAt(i), "m" + i, i % 50));
+    }
+    return members;
+  }
+
+  private static long idAt(int index) {
+    return index * 3L + 1;
+  }
+}
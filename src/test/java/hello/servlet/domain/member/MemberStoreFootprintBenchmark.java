@@ -0,0 +1,77 @@
+package hello.servlet.domain.member;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * HashMap<Long, Member> 와 LongMemberMap 의 힙 사용량 비교 리포트 (main 으로 실행, 10M 은 -Xmx4g 이상)
+ * Member 객체는 먼저 만들어 두고 그 다음에 측정하므로 출력되는 값은 "맵 구조 자체"의 크기다.
+ * (HashMap: Node + Long 박싱 + 버킷 배열 / LongMemberMap: long[] + Member[])
+ */
+public class MemberStoreFootprintBenchmark {
+
+  private static final int[] SIZES = {1_000_000, 10_000_000};
+
+  public static void main(String[] args) {
+    System.out.printf("%12s %18s %18s %16s %16s%n",
+        "entries", "HashMap(MB)", "LongMemberMap(MB)", "HashMap(B/entry)", "LongMap(B/entry)");
+
+    for (int size : SIZES) {
+      Member[] members = createMembers(size);
+
+      long hashMapBytes = measureHashMap(members);
+      long longMapBytes = measureLongMemberMap(members);
+
+      System.out.printf("%12d %18.1f %18.1f %16.1f %16.1f%n", size,
+          hashMapBytes / 1024.0 / 1024.0, longMapBytes / 1024.0 / 1024.0,
+          (double) hashMapBytes / size, (double) longMapBytes / size);
+    }
+  }
+
+  private static Member[] createMembers(int size) {
+    Member[] members = new Member[size];
+    String username = "member";
+    for (int i = 0; i < size; i++) {
+      Member member = new Member(username, i % 100);
+      member.setId((long) i + 1);
+      members[i] = member;
+    }
+    return members;
+  }
+
+  private static long measureHashMap(Member[] members) {
+    long before = usedHeap();
+    Map<Long, Member> map = new HashMap<>();
+    for (Member member : members) {
+      map.put(member.getId(), member);
+    }
+    long after = usedHeap();
+    keepAlive(map.size());
+    return after - before;
+  }
+
+  private static long measureLongMemberMap(Member[] members) {
+    long before = usedHeap();
+    LongMemberMap map = new LongMemberMap();
+    for (Member member : members) {
+      map.put(member.getId(), member);
+    }
+    long after = usedHeap();
+    keepAlive(map.size());
+    return after - before;
+  }
+
+  private static long usedHeap() {
+    Runtime runtime = Runtime.getRuntime();
+    for (int i = 0; i < 3; i++) {
+      System.gc();
+    }
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+
+  private static void keepAlive(int size) {
+    if (size < 0) {
+      System.out.println(size);
+    }
+  }
+}
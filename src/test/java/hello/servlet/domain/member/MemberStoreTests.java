@@ -0,0 +1,152 @@
+package hello.servlet.domain.member;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.params.provider.Arguments.arguments;
+
+/**
+ * 저장 모드(member.store)마다 같은 규칙을 지키는지
+ */
+class MemberStoreTests {
+
+  static Stream<Arguments> stores() {
+    return Stream.of(
+        store("hash", ConcurrentLongMemberMap::new),
+        store("columnar", ColumnarMemberStore::new),
+        store("offheap", OffHeapMemberStore::new),
+        store("sharded-1", () -> new ShardedMemberStore(1)),
+        store("sharded-4", () -> new ShardedMemberStore(4)));
+  }
+
+  private static Arguments store(String name, Supplier<MemberStore> factory) {
+    return arguments(name, factory);
+  }
+
+  @ParameterizedTest(name = "{0}")
+  @MethodSource("stores")
+  void findPageReturnsIdsAfterTheCursor(String name, Supplier<MemberStore> factory) {
+    MemberStore store = filled(factory, 10);
+
+    assertThat(store.findPage(5L, 3)).extracting(Member::getId).containsExactly(6L, 7L, 8L);
+    assertThat(store.findPage(0L, 2)).extracting(Member::getId).containsExactly(1L, 2L);
+    assertThat(store.findPage(-7L, 1)).extracting(Member::getId).containsExactly(1L);
+  }
+
+  @ParameterizedTest(name = "{0}")
+  @MethodSource("stores")
+  void findPageAfterTheLastIdIsEmpty(String name, Supplier<MemberStore> factory) {
+    MemberStore store = filled(factory, 10);
+
+    assertThat(store.findPage(10L, 5)).isEmpty();
+    assertThat(store.findPage(Long.MAX_VALUE, 5)).isEmpty();
+    assertThat(store.findPage(Long.MAX_VALUE - 1, 5)).isEmpty();
+  }
+
+  @ParameterizedTest(name = "{0}")
+  @MethodSource("stores")
+  void putWithAnExistingIdReplacesTheMember(String name, Supplier<MemberStore> factory) {
+    MemberStore store = filled(factory, 3);
+    List<Member> before = store.values();
+
+    store.put(member(2L, "lee", 30));
+
+    assertThat(store.size()).isEqualTo(3);
+    assertThat(store.get(2L).getUsername()).isEqualTo("lee");
+    assertThat(store.get(2L).getAge()).isEqualTo(30);
+    assertThat(store.values()).extracting(Member::getUsername).containsExactlyInAnyOrder("kim1", "lee", "kim3");
+    assertThat(store.findPage(0L, 10)).extracting(Member::getUsername).containsExactly("kim1", "lee", "kim3");
+    assertThat(store.countByAgeBetween(2, 2)).isZero();
+    // 이미 넘겨준 목록은 그대로
+    assertThat(before).extracting(Member::getUsername).containsExactlyInAnyOrder("kim1", "kim2", "kim3");
+  }
+
+  @ParameterizedTest(name = "{0}")
+  @MethodSource("stores")
+  void putAllWithAnExistingIdReplacesTheMember(String name, Supplier<MemberStore> factory) {
+    MemberStore store = filled(factory, 3);
+
+    store.putAll(List.of(member(3L, "lee", 30), member(4L, "park", 40)));
+
+    assertThat(store.size()).isEqualTo(4);
+    assertThat(store.findPage(0L, 10)).extracting(Member::getUsername).containsExactly("kim1", "kim2", "lee", "park");
+  }
+
+  @ParameterizedTest(name = "{0}")
+  @MethodSource("stores")
+  void clearRacingWithPutsLeavesListAndLookupsInStep(String name, Supplier<MemberStore> factory) throws Exception {
+    MemberStore store = factory.get();
+    AtomicLong ids = new AtomicLong();
+    AtomicBoolean stop = new AtomicBoolean();
+    Thread[] writers = new Thread[2];
+    for (int t = 0; t < writers.length; t++) {
+      boolean bulk = t == 1;
+      writers[t] = new Thread(() -> {
+        while (!stop.get()) {
+          if (bulk) {
+            long first = ids.getAndAdd(8) + 1;
+            List<Member> batch = new ArrayList<>();
+            for (long id = first; id < first + 8; id++) {
+              batch.add(member(id, "bulk", 1));
+            }
+            store.putAll(batch);
+          } else {
+            long id = ids.incrementAndGet();
+            store.put(member(id, "one", 1));
+          }
+        }
+      });
+      writers[t].start();
+    }
+    for (int i = 0; i < 200; i++) {
+      store.clear();
+      Thread.yield();
+    }
+    stop.set(true);
+    for (Thread writer : writers) {
+      writer.join();
+    }
+
+    List<Member> listed = store.values();
+    assertThat(listed).hasSize(store.size());
+    for (Member member : listed) {
+      assertThat(store.get(member.getId())).isNotNull();
+    }
+  }
+
+  @Test
+  void shardCountMustBeAPowerOfTwo() {
+    assertThat(MemoryMemberRepository.createShardedStore(4).shardCount()).isEqualTo(4);
+    assertThat(MemoryMemberRepository.createShardedStore(1).shardCount()).isEqualTo(1);
+    assertThat(MemoryMemberRepository.createShardedStore(null).shardCount()).isPositive();
+    for (int shards : new int[]{3, 6, 0, -4}) {
+      assertThatThrownBy(() -> MemoryMemberRepository.createShardedStore(shards))
+          .isInstanceOf(IllegalArgumentException.class);
+    }
+  }
+
+  private static MemberStore filled(Supplier<MemberStore> factory, int count) {
+    MemberStore store = factory.get();
+    for (long id = 1; id <= count; id++) {
+      store.put(member(id, "kim" + id, (int) id));
+    }
+    return store;
+  }
+
+  static Member member(long id, String username, int age) {
+    Member member = new Member(username, age);
+    member.setId(id);
+    return member;
+  }
+}
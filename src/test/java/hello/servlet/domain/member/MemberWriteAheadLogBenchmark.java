@@ -0,0 +1,68 @@
+package hello.servlet.domain.member;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * WAL 동기화 정책별 save 처리량 (main 으로 실행, 인자로 로그 디렉터리를 줄 수 있음. 기본은 임시 디렉터리)
+ * ALWAYS 는 스레드가 늘수록 한 번의 force 에 더 많은 레코드가 묶여서(group commit) 처리량이 따라 오른다.
+ * 마지막에 로그를 다시 열어서 replay 된 레코드 수가 기록한 수와 같은지 확인한다.
+ */
+public class MemberWriteAheadLogBenchmark {
+
+  private static final int[] THREADS = {1, 4, 16, 64};
+  private static final long DURATION_MILLIS = 2_000;
+
+  public static void main(String[] args) throws Exception {
+    Path dir = args.length > 0 ? Path.of(args[0]) : Files.createTempDirectory("member-wal");
+
+    System.out.printf("%10s %8s %14s %10s%n", "policy", "threads", "saves/s", "replayed");
+    for (MemberWriteAheadLog.SyncPolicy policy : MemberWriteAheadLog.SyncPolicy.values()) {
+      for (int threads : THREADS) {
+        Path path = dir.resolve("bench-" + policy + "-" + threads + ".wal");
+        Files.deleteIfExists(path);
+
+        long saved;
+        try (MemberWriteAheadLog wal = MemberWriteAheadLog.open(path, policy, 10L, member -> { })) {
+          saved = run(wal, threads);
+        }
+
+        AtomicLong replayed = new AtomicLong();
+        try (MemberWriteAheadLog wal = MemberWriteAheadLog.open(path, policy, 10L, member -> replayed.incrementAndGet())) {
+          // replay 만 확인
+        }
+        System.out.printf("%10s %8d %14.0f %10s%n", policy, threads,
+            saved * 1000.0 / DURATION_MILLIS, replayed.get() == saved ? "ok" : "MISMATCH " + replayed.get());
+        Files.deleteIfExists(path);
+      }
+    }
+  }
+
+  private static long run(MemberWriteAheadLog wal, int threads) throws InterruptedException {
+    AtomicLong ids = new AtomicLong();
+    CountDownLatch done = new CountDownLatch(threads);
+    long deadline = System.currentTimeMillis() + DURATION_MILLIS;
+
+    for (int t = 0; t < threads; t++) {
+      Thread thread = new Thread(() -> {
+        try {
+          while (System.currentTimeMillis() < deadline) {
+            Member member = new Member("user" + (ids.get() % 1000), 20);
+            member.setId(ids.incrementAndGet());
+            wal.append(member);
+          }
+        } catch (IOException e) {
+          throw new RuntimeException(e);
+        } finally {
+          done.countDown();
+        }
+      });
+      thread.start();
+    }
+    done.await();
+    return ids.get();
+  }
+}
@@ -0,0 +1,297 @@
+package hello.servlet.domain.member;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MemberWriteAheadLogTests {
+
+  @TempDir
+  Path dir;
+
+  @Test
+  void replaysRecordsInOrder() throws IOException {
+    Path path = dir.resolve("member.wal");
+    try (MemberWriteAheadLog wal = open(path, new ArrayList<>())) {
+      wal.append(member(1, "kim", 20));
+      wal.appendAll(List.of(member(2, null, 30), member(3, "이름", 40)));
+    }
+
+    List<Member> replayed = new ArrayList<>();
+    open(path, replayed).close();
+
+    assertThat(replayed).extracting(Member::getId).containsExactly(1L, 2L, 3L);
+    assertThat(replayed).extracting(Member::getUsername).containsExactly("kim", null, "이름");
+    assertThat(replayed).extracting(Member::getAge).containsExactly(20, 30, 40);
+  }
+
+  @Test
+  void rejectsOversizedUsernameWithoutLosingLaterRecords() throws IOException {
+    Path path = dir.resolve("member.wal");
+    try (MemberWriteAheadLog wal = open(path, new ArrayList<>())) {
+      wal.append(member(1, "kim", 20));
+      assertThatThrownBy(() -> wal.append(member(2, "x".repeat(1_100_000), 30)))
+          .isInstanceOf(IllegalArgumentException.class);
+      wal.append(member(3, "lee", 40));
+    }
+
+    List<Member> replayed = new ArrayList<>();
+    open(path, replayed).close();
+
+    assertThat(replayed).extracting(Member::getId).containsExactly(1L, 3L);
+  }
+
+  @Test
+  void truncatesTornTail() throws IOException {
+    Path path = dir.resolve("member.wal");
+    try (MemberWriteAheadLog wal = open(path, new ArrayList<>())) {
+      wal.append(member(1, "kim", 20));
+      wal.append(member(2, "lee", 30));
+    }
+    long complete = Files.size(path);
+    try (MemberWriteAheadLog wal = open(path, new ArrayList<>())) {
+      wal.append(member(3, "park", 40));
+    }
+    // 마지막 레코드를 쓰다 만 것처럼 3바이트를 남기고 자른다
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+      channel.truncate(Files.size(path) - 3);
+    }
+
+    List<Member> replayed = new ArrayList<>();
+    try (MemberWriteAheadLog wal = open(path, replayed)) {
+      assertThat(Files.size(path)).isEqualTo(complete);
+      wal.append(member(4, "choi", 50));
+    }
+    assertThat(replayed).extracting(Member::getId).containsExactly(1L, 2L);
+
+    List<Member> reopened = new ArrayList<>();
+    open(path, reopened).close();
+    assertThat(reopened).extracting(Member::getId).containsExactly(1L, 2L, 4L);
+  }
+
+  @Test
+  void truncatesTornLastRecordWithBadChecksum() throws IOException {
+    Path path = dir.resolve("member.wal");
+    try (MemberWriteAheadLog wal = open(path, new ArrayList<>())) {
+      wal.append(member(1, "kim", 20));
+    }
+    long complete = Files.size(path);
+    try (MemberWriteAheadLog wal = open(path, new ArrayList<>())) {
+      wal.append(member(2, "lee", 30));
+    }
+    flipLastByte(path);
+
+    List<Member> replayed = new ArrayList<>();
+    open(path, replayed).close();
+
+    assertThat(replayed).extracting(Member::getId).containsExactly(1L);
+    assertThat(Files.size(path)).isEqualTo(complete);
+  }
+
+  @Test
+  void truncatesZeroFilledTail() throws IOException {
+    Path path = dir.resolve("member.wal");
+    try (MemberWriteAheadLog wal = open(path, new ArrayList<>())) {
+      wal.append(member(1, "kim", 20));
+    }
+    long complete = Files.size(path);
+    Files.write(path, new byte[4096], StandardOpenOption.APPEND);
+
+    List<Member> replayed = new ArrayList<>();
+    open(path, replayed).close();
+
+    assertThat(replayed).extracting(Member::getId).containsExactly(1L);
+    assertThat(Files.size(path)).isEqualTo(complete);
+  }
+
+  @Test
+  void failsInsteadOfTruncatingOnCorruptionBeforeTheTail() throws IOException {
+    Path path = dir.resolve("member.wal");
+    try (MemberWriteAheadLog wal = open(path, new ArrayList<>())) {
+      wal.append(member(1, "kim", 20));
+      wal.append(member(2, "lee", 30));
+    }
+    long size = Files.size(path);
+    // 첫 레코드의 username 한 바이트를 바꾼다 (뒤에 멀쩡한 레코드가 있음)
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+      channel.write(ByteBuffer.wrap(new byte[]{'x'}), MemberWriteAheadLog.FILE_HEADER_SIZE + 8 + 16);
+    }
+
+    assertThatThrownBy(() -> open(path, new ArrayList<>())).isInstanceOf(IOException.class);
+    assertThat(Files.size(path)).isEqualTo(size);
+  }
+
+  @Test
+  void failsInsteadOfTruncatingOnOversizedLength() throws IOException {
+    Path path = dir.resolve("member.wal");
+    try (MemberWriteAheadLog wal = open(path, new ArrayList<>())) {
+      wal.append(member(1, "kim", 20));
+    }
+    long size = Files.size(path);
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+      channel.write(ByteBuffer.allocate(4).putInt(0, MemberWriteAheadLog.MAX_PAYLOAD + 1),
+          MemberWriteAheadLog.FILE_HEADER_SIZE);
+    }
+
+    assertThatThrownBy(() -> open(path, new ArrayList<>())).isInstanceOf(IOException.class);
+    assertThat(Files.size(path)).isEqualTo(size);
+  }
+
+  @Test
+  void truncateDropsEverythingWrittenBefore() throws IOException {
+    Path path = dir.resolve("member.wal");
+    try (MemberWriteAheadLog wal = open(path, new ArrayList<>())) {
+      wal.append(member(1, "kim", 20));
+      wal.append(member(2, "lee", 30));
+      wal.truncate();
+      wal.append(member(3, "park", 40));
+    }
+
+    List<Member> replayed = new ArrayList<>();
+    open(path, replayed).close();
+
+    assertThat(replayed).extracting(Member::getId).containsExactly(3L);
+  }
+
+  @Test
+  void truncateKeepsPositionsMovingForward() throws IOException {
+    Path path = dir.resolve("member.wal");
+    try (MemberWriteAheadLog wal = open(path, new ArrayList<>())) {
+      wal.append(member(1, "kim", 20));
+      long before = wal.position();
+      wal.truncate();
+      assertThat(wal.position()).isEqualTo(before);
+      wal.append(member(2, "lee", 30));
+    }
+
+    List<Member> replayed = new ArrayList<>();
+    open(path, replayed).close();
+
+    assertThat(replayed).extracting(Member::getId).containsExactly(2L);
+  }
+
+  @Test
+  void checkpointDropsRecordsBeforeThePosition() throws IOException {
+    Path path = dir.resolve("member.wal");
+    long checkpoint;
+    try (MemberWriteAheadLog wal = open(path, new ArrayList<>())) {
+      wal.append(member(1, "kim", 20));
+      wal.append(member(2, "lee", 30));
+      checkpoint = wal.position();
+      wal.append(member(3, "park", 40));
+      long size = Files.size(path);
+
+      wal.checkpoint(checkpoint);
+
+      assertThat(Files.size(path)).isLessThan(size);
+      assertThat(wal.position()).isGreaterThan(checkpoint);
+      wal.append(member(4, "choi", 50));
+    }
+
+    List<Member> replayed = new ArrayList<>();
+    MemberWriteAheadLog.open(path, MemberWriteAheadLog.SyncPolicy.ALWAYS, 0, checkpoint, replayed::add).close();
+    assertThat(replayed).extracting(Member::getId).containsExactly(3L, 4L);
+
+    // 스냅샷 없이 열어도 떼어 낸 레코드는 돌아오지 않는다
+    List<Member> all = new ArrayList<>();
+    open(path, all).close();
+    assertThat(all).extracting(Member::getId).containsExactly(3L, 4L);
+  }
+
+  @Test
+  void replaysOnlyTheTailWhenTheCheckpointWasNotApplied() throws IOException {
+    // 스냅샷 이름을 바꾼 뒤, 로그를 떼어 내기 전에 죽은 경우
+    Path path = dir.resolve("member.wal");
+    long checkpoint;
+    try (MemberWriteAheadLog wal = open(path, new ArrayList<>())) {
+      wal.append(member(1, "kim", 20));
+      checkpoint = wal.position();
+      wal.append(member(2, "lee", 30));
+    }
+
+    List<Member> replayed = new ArrayList<>();
+    try (MemberWriteAheadLog wal = MemberWriteAheadLog.open(path, MemberWriteAheadLog.SyncPolicy.ALWAYS, 0,
+        checkpoint, replayed::add)) {
+      wal.append(member(3, "park", 40));
+    }
+
+    assertThat(replayed).extracting(Member::getId).containsExactly(2L);
+    List<Member> reopened = new ArrayList<>();
+    MemberWriteAheadLog.open(path, MemberWriteAheadLog.SyncPolicy.ALWAYS, 0, checkpoint, reopened::add).close();
+    assertThat(reopened).extracting(Member::getId).containsExactly(2L, 3L);
+  }
+
+  @Test
+  void continuesFromTheCheckpointWhenTheLogIsShorter() throws IOException {
+    // 스냅샷만 남고 로그 파일이 사라진 경우. 새 레코드가 다음 재시작 때 checkpoint 앞으로 잘못 건너뛰어지지 않아야 한다
+    Path path = dir.resolve("member.wal");
+    try (MemberWriteAheadLog wal = MemberWriteAheadLog.open(path, MemberWriteAheadLog.SyncPolicy.ALWAYS, 0, 1000L,
+        member -> {
+        })) {
+      assertThat(wal.position()).isEqualTo(1000L);
+      wal.append(member(1, "kim", 20));
+    }
+
+    List<Member> replayed = new ArrayList<>();
+    MemberWriteAheadLog.open(path, MemberWriteAheadLog.SyncPolicy.ALWAYS, 0, 1000L, replayed::add).close();
+
+    assertThat(replayed).extracting(Member::getId).containsExactly(1L);
+  }
+
+  @Test
+  void rejectsFileWithoutHeader() throws IOException {
+    Path path = dir.resolve("member.wal");
+    Files.write(path, new byte[64]);
+
+    assertThatThrownBy(() -> open(path, new ArrayList<>())).isInstanceOf(IOException.class);
+  }
+
+  @Test
+  void intervalAndOsPoliciesReplayToo() throws IOException {
+    for (MemberWriteAheadLog.SyncPolicy policy : new MemberWriteAheadLog.SyncPolicy[]{
+        MemberWriteAheadLog.SyncPolicy.INTERVAL, MemberWriteAheadLog.SyncPolicy.OS}) {
+      Path path = dir.resolve(policy + ".wal");
+      try (MemberWriteAheadLog wal = MemberWriteAheadLog.open(path, policy, 10, member -> {
+      })) {
+        wal.append(member(1, "kim", 20));
+        wal.appendAll(List.of(member(2, "lee", 30)));
+      }
+
+      List<Member> replayed = new ArrayList<>();
+      open(path, replayed).close();
+
+      assertThat(replayed).extracting(Member::getId).containsExactly(1L, 2L);
+    }
+  }
+
+  private static MemberWriteAheadLog open(Path path, List<Member> replayed) throws IOException {
+    return MemberWriteAheadLog.open(path, MemberWriteAheadLog.SyncPolicy.ALWAYS, 0, replayed::add);
+  }
+
+  private static Member member(long id, String username, int age) {
+    Member member = new Member(username, age);
+    member.setId(id);
+    return member;
+  }
+
+  private static void flipLastByte(Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      long position = channel.size() - 1;
+      ByteBuffer one = ByteBuffer.allocate(1);
+      channel.read(one, position);
+      one.put(0, (byte) (one.get(0) ^ 0xff));
+      channel.write(one.rewind(), position);
+    }
+  }
+}
@@ -0,0 +1,85 @@
+package hello.servlet.domain.member;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+/**
+ * 힙 저장소(hash) vs 힙 밖 저장소(offheap) GC 멈춤 시간 / 힙 점유량 비교 (main 으로 실행)
+ * 저장 모드마다 JVM 을 새로 띄워야 GC 통계가 섞이지 않는다.
+ *
+ *   java -Xmx2g -cp ... hello.servlet.domain.member.OffHeapMemberStoreBenchmark hash
+ *   java -Xmx2g -cp ... hello.servlet.domain.member.OffHeapMemberStoreBenchmark offheap
+ *
+ * 부하: 회원을 계속 save 하면서 SAVES_PER_LIST 건마다 목록 전체를 한 번 훑는다. (목록 페이지 렌더링 흉내)
+ */
+public class OffHeapMemberStoreBenchmark {
+
+  private static final int TOTAL_MEMBERS = 5_000_000;
+  private static final int SAVES_PER_LIST = 500_000;
+
+  public static void main(String[] args) {
+    String type = args.length > 0 ? args[0] : "offheap";
+    MemberStore store = MemoryMemberRepository.createStore(type);
+
+    long gcCountBefore = gcCount();
+    long gcTimeBefore = gcTime();
+    long startNanos = System.nanoTime();
+
+    long checksum = 0;
+    for (int i = 1; i <= TOTAL_MEMBERS; i++) {
+      Member member = new Member("member" + (i % 10_000), i % 100);
+      member.setId((long) i);
+      store.put(member);
+
+      if (i % SAVES_PER_LIST == 0) {
+        List<Member> members = store.values();
+        for (Member m : members) {
+          checksum += m.getAge();
+        }
+      }
+    }
+
+    long elapsedMillis = (System.nanoTime() - startNanos) / 1_000_000;
+    long gcCount = gcCount() - gcCountBefore;
+    long gcTime = gcTime() - gcTimeBefore;
+
+    System.gc();
+    long heapUsed = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+
+    System.out.println("store            = " + type);
+    System.out.println("members          = " + store.size());
+    System.out.println("elapsed(ms)      = " + elapsedMillis);
+    System.out.println("gc count         = " + gcCount);
+    System.out.println("gc time(ms)      = " + gcTime);
+    System.out.println("heap after gc(MB)= " + heapUsed / 1024 / 1024);
+    System.out.println("direct(MB)       = " + directMemoryUsed() / 1024 / 1024);
+    System.out.println("checksum         = " + checksum);
+  }
+
+  private static long gcCount() {
+    long count = 0;
+    for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+      count += Math.max(0, gc.getCollectionCount());
+    }
+    return count;
+  }
+
+  private static long gcTime() {
+    long time = 0;
+    for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+      time += Math.max(0, gc.getCollectionTime());
+    }
+    return time;
+  }
+
+  private static long directMemoryUsed() {
+    for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+      if ("direct".equals(pool.getName())) {
+        return pool.getMemoryUsed();
+      }
+    }
+    return 0;
+  }
+}
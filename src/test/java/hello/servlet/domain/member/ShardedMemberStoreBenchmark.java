@@ -0,0 +1,76 @@
+package hello.servlet.domain.member;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 단일 hash 저장소 vs ShardedMemberStore 확장성 비교 (main 으로 실행, 인자: 샤드 수(기본 32))
+ * 스레드 1~32개가 save 80% / findById 19% / findPage(100) 1% 를 섞어서 돌리고, 가끔 countByAgeBetween(전체 스캔)을 부른다.
+ * 코어 수보다 스레드가 많으면 곡선이 평평해지므로 코어 수가 충분한 장비에서 돌려야 의미가 있다.
+ */
+public class ShardedMemberStoreBenchmark {
+
+  private static final int[] THREADS = {1, 2, 4, 8, 16, 32};
+  private static final int OPS_PER_ROUND = 2_000_000;
+  private static final int COUNT_EVERY = 200_000;
+
+  public static void main(String[] args) throws InterruptedException {
+    int shards = args.length > 0 ? Integer.parseInt(args[0]) : 32;
+    System.out.println("cores = " + Runtime.getRuntime().availableProcessors() + ", shards = " + shards);
+
+    // JIT 워밍업
+    run(new ConcurrentLongMemberMap(), 4);
+    run(new ShardedMemberStore(shards), 4);
+
+    System.out.printf("%8s %16s %18s %8s%n", "threads", "hash(ops/ms)", "sharded(ops/ms)", "ratio");
+    for (int threads : THREADS) {
+      double single = run(new ConcurrentLongMemberMap(), threads);
+      double sharded = run(new ShardedMemberStore(shards), threads);
+      System.out.printf("%8d %16.1f %18.1f %7.2fx%n", threads, single, sharded, sharded / single);
+    }
+  }
+
+  private static double run(MemberStore store, int threads) throws InterruptedException {
+    AtomicLong sequence = new AtomicLong();
+    int opsPerThread = OPS_PER_ROUND / threads;
+    CountDownLatch start = new CountDownLatch(1);
+    CountDownLatch done = new CountDownLatch(threads);
+
+    for (int t = 0; t < threads; t++) {
+      Thread thread = new Thread(() -> {
+        try {
+          start.await();
+          ThreadLocalRandom random = ThreadLocalRandom.current();
+          for (int i = 0; i < opsPerThread; i++) {
+            int op = random.nextInt(100);
+            long last = sequence.get();
+            if (op < 80 || last == 0) {
+              Member member = new Member("user", i % 100);
+              member.setId(sequence.incrementAndGet());
+              store.put(member);
+            } else if (op < 99) {
+              store.get(random.nextLong(1, last + 1));
+            } else {
+              store.findPage(random.nextLong(last), 100);
+            }
+            if (i % COUNT_EVERY == COUNT_EVERY - 1) {
+              store.countByAgeBetween(20, 29);
+            }
+          }
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        } finally {
+          done.countDown();
+        }
+      });
+      thread.start();
+    }
+
+    long startNanos = System.nanoTime();
+    start.countDown();
+    done.await();
+    long elapsedNanos = System.nanoTime() - startNanos;
+    return (double) opsPerThread * threads / (elapsedNanos / 1_000_000.0);
+  }
+}
@@ -0,0 +1,72 @@
+package hello.servlet.domain.member;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UsernameSearchIndexTests {
+
+  @Test
+  void keepsUsernameUntilLastMemberIsRemoved() {
+    UsernameSearchIndex index = new UsernameSearchIndex();
+    index.add("kim");
+    index.add("kim");
+
+    index.remove("kim");
+    assertThat(index.search("kim", 10)).containsExactly("kim");
+
+    index.remove("kim");
+    assertThat(index.search("kim", 10)).isEmpty();
+    assertThat(index.size()).isZero();
+  }
+
+  @Test
+  void removesOnlyTheCaseVariantThatWentAway() {
+    UsernameSearchIndex index = new UsernameSearchIndex();
+    index.add("Kim");
+    index.add("kim");
+
+    index.remove("Kim");
+
+    assertThat(index.search("KIM", 10)).containsExactly("kim");
+    assertThat(index.size()).isEqualTo(1);
+  }
+
+  @Test
+  void addsBackAfterRemoval() {
+    UsernameSearchIndex index = new UsernameSearchIndex();
+    index.add("guest-1");
+    index.remove("guest-1");
+    index.add("guest-1");
+
+    assertThat(index.search("est-1", 10)).containsExactly("guest-1");
+  }
+
+  @Test
+  void ignoresRemovalOfUnknownUsername() {
+    UsernameSearchIndex index = new UsernameSearchIndex();
+    index.add("kim");
+    index.remove("lee");
+    index.remove(null);
+
+    assertThat(index.search("kim", 10)).containsExactly("kim");
+  }
+
+  @Test
+  void compactsAfterManyUniqueUsernamesAreRemoved() {
+    UsernameSearchIndex index = new UsernameSearchIndex();
+    index.add("member-keep");
+    for (int i = 0; i < 10_000; i++) {
+      index.add("guest-" + i);
+      index.remove("guest-" + i);
+    }
+
+    assertThat(index.size()).isEqualTo(1);
+    assertThat(index.search("guest", 10)).isEmpty();
+    assertThat(index.search("ber-ke", 10)).containsExactly("member-keep");
+    assertThat(index.search("member", 10)).containsExactly("member-keep");
+
+    index.add("guest-new");
+    assertThat(index.search("est-ne", 10)).containsExactly("guest-new");
+  }
+}
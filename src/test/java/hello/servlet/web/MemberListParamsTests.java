@@ -0,0 +1,120 @@
+package hello.servlet.web;
+
+import hello.servlet.domain.member.Member;
+import hello.servlet.domain.member.MemoryMemberRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MemberListParamsTests {
+
+  private final MemoryMemberRepository repository = MemoryMemberRepository.getInstance();
+
+  @AfterEach
+  void clear() {
+    repository.clearStore();
+  }
+
+  @Test
+  void readsParameters() {
+    MemberListParams params = MemberListParams.from(Map.of("after", "10", "limit", "20", "minAge", "20", "maxAge", "29"));
+
+    assertThat(params.getAfter()).isEqualTo(10L);
+    assertThat(params.getLimit()).isEqualTo(20);
+    assertThat(params.getMinAge()).isEqualTo(20);
+    assertThat(params.getMaxAge()).isEqualTo(29);
+  }
+
+  @Test
+  void clampsLimit() {
+    assertThat(MemberListParams.from(Map.of("limit", "0")).getLimit()).isEqualTo(1);
+    assertThat(MemberListParams.from(Map.of("limit", "100000")).getLimit()).isEqualTo(MemberListParams.MAX_LIMIT);
+  }
+
+  @Test
+  void fallsBackToDefaultsOnMalformedNumbers() {
+    MemberListParams params = MemberListParams.from(Map.of("after", "abc", "limit", "1e3", "minAge", "x", "maxAge", "99999999999"));
+
+    assertThat(params.getAfter()).isZero();
+    assertThat(params.getLimit()).isEqualTo(MemberListParams.DEFAULT_LIMIT);
+    assertThat(params.hasAgeFilter()).isFalse();
+  }
+
+  @Test
+  void acceptsTheLargestAfter() {
+    assertThat(MemberListParams.from(Map.of("after", String.valueOf(Long.MAX_VALUE))).getAfter()).isEqualTo(Long.MAX_VALUE);
+    assertThat(MemberListParams.from(Map.of("after", "-5")).getAfter()).isZero();
+  }
+
+  @Test
+  void pagesAgeRangeWithAgeAndIdCursor() {
+    repository.clearStore();
+    List<Member> saved = new ArrayList<>();
+    int[] ages = {25, 21, 25, 30, 21, 25, 40, 22};
+    for (int age : ages) {
+      saved.add(repository.save(new Member("p" + age, age)));
+    }
+
+    List<Long> seen = new ArrayList<>();
+    Map<String, String> query = new HashMap<>(Map.of("minAge", "21", "maxAge", "30", "limit", "2"));
+    while (true) {
+      MemberListParams params = MemberListParams.from(query);
+      List<Member> page = params.find(repository);
+      page.forEach(member -> seen.add(member.getId()));
+      String next = params.nextQuery(page);
+      if (next == null) {
+        break;
+      }
+      assertThat(next).contains("afterAge=").contains("minAge=21").contains("maxAge=30");
+      query = parse(next);
+    }
+
+    // (age, id) 순: 21, 21, 22, 25, 25, 25, 30 (40 은 범위 밖)
+    assertThat(seen).containsExactly(saved.get(1).getId(), saved.get(4).getId(), saved.get(7).getId(),
+        saved.get(0).getId(), saved.get(2).getId(), saved.get(5).getId(), saved.get(3).getId());
+  }
+
+  @Test
+  void combinesUsernameWithAgeRange() {
+    repository.clearStore();
+    List<Member> saved = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      saved.add(repository.save(new Member(i % 2 == 0 ? "kim" : "lee", 20 + i)));
+    }
+
+    MemberListParams first = MemberListParams.from(Map.of("username", "kim", "minAge", "22", "maxAge", "27", "limit", "2"));
+    List<Member> page = first.find(repository);
+
+    // kim 은 20, 22, 24, 26, 28 살. 그중 22 ~ 27
+    assertThat(page).extracting(Member::getAge).containsExactly(22, 24);
+    String next = first.nextQuery(page);
+    assertThat(next).contains("username=kim").contains("minAge=22").contains("maxAge=27").doesNotContain("afterAge");
+
+    List<Member> second = MemberListParams.from(parse(next)).find(repository);
+    assertThat(second).extracting(Member::getId).containsExactly(saved.get(6).getId());
+  }
+
+  @Test
+  void ignoresAfterWithoutAfterAgeForAgeRange() {
+    repository.clearStore();
+    Member older = repository.save(new Member("q", 30));
+    Member younger = repository.save(new Member("q", 20));
+
+    MemberListParams params = MemberListParams.from(Map.of("minAge", "0", "after", String.valueOf(younger.getId())));
+
+    assertThat(params.find(repository)).extracting(Member::getId).containsExactly(younger.getId(), older.getId());
+  }
+
+  private static Map<String, String> parse(String query) {
+    Map<String, String> params = new HashMap<>();
+    Arrays.stream(query.split("&")).map(pair -> pair.split("=", 2)).forEach(pair -> params.put(pair[0], pair[1]));
+    return params;
+  }
+}
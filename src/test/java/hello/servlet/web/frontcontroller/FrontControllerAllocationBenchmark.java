@@ -0,0 +1,142 @@
+package hello.servlet.web.frontcontroller;
+
+import hello.servlet.domain.member.Member;
+import hello.servlet.domain.member.MemberRepository;
+import hello.servlet.web.frontcontroller.v2.ControllerV2;
+import hello.servlet.web.frontcontroller.v2.controller.MemberFormControllerV2;
+import hello.servlet.web.frontcontroller.v2.controller.MemberListControllerV2;
+import hello.servlet.web.frontcontroller.v2.controller.MemberSearchControllerV2;
+import hello.servlet.web.frontcontroller.v3.ControllerV3;
+import hello.servlet.web.frontcontroller.v3.controller.MemberFormControllerV3;
+import hello.servlet.web.frontcontroller.v3.controller.MemberListControllerV3;
+import hello.servlet.web.frontcontroller.v3.controller.MemberSearchControllerV3;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.lang.management.ManagementFactory;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Enumeration;
+import java.util.Map;
+
+/**
+ * 요청 하나가 컨트롤러 + 뷰 렌더(forward) 까지 가는 동안 할당하는 바이트: V2 vs V3 (main 으로 실행)
+ * 요청 객체를 만드는 비용은 따로 재서 뺀다. 조회 결과 List 처럼 양쪽이 똑같이 만드는 것은 그대로 들어 있다.
+ *
+ * MockHttpServletRequest 는 파라미터를 미리 Map 에 들고 있으므로, 톰캣처럼 처음 getParameter 할 때
+ * 쿼리스트링 전체를 디코딩하도록 바꾼 TomcatLikeRequest 로 잰다. (쿼리에는 컨트롤러가 안 읽는 추적용 파라미터도 섞음)
+ */
+public class FrontControllerAllocationBenchmark {
+
+  private static final int REQUESTS = 200_000;
+  private static final String TRACKING = "&utm_source=newsletter&utm_medium=email&utm_campaign=2024%20spring&ref=%EB%A9%94%EC%9D%B8";
+
+  public static void main(String[] args) throws Exception {
+    MemberRepository repository = MemberRepository.getInstance();
+    for (int i = 0; i < 1000; i++) {
+      repository.save(new Member("kim" + i, i % 100));
+    }
+    ViewResolver viewResolver = new ViewResolver("/WEB-INF/views/", ".jsp");
+
+    String[][] scenarios = {
+        {"new-form", ""},
+        {"list", "after=10&limit=10" + TRACKING},
+        {"search", "q=kim1&limit=10" + TRACKING},
+    };
+    ControllerV2[] v2 = {new MemberFormControllerV2(), new MemberListControllerV2(), new MemberSearchControllerV2()};
+    ControllerV3[] v3 = {new MemberFormControllerV3(), new MemberListControllerV3(), new MemberSearchControllerV3()};
+
+    System.out.printf("%-10s %14s %14s%n", "", "V2 bytes/req", "V3 bytes/req");
+    for (int s = 0; s < scenarios.length; s++) {
+      String query = scenarios[s][1];
+      ControllerV2 controllerV2 = v2[s];
+      ControllerV3 controllerV3 = v3[s];
+
+      Step baseline = response -> request(query);
+      Step stepV2 = response -> {
+        TomcatLikeRequest request = request(query);
+        controllerV2.process(request, response).render(request, response);
+        return request;
+      };
+      Step stepV3 = response -> {
+        TomcatLikeRequest request = request(query);
+        ModelView mv = controllerV3.process(new ParamMap(request));
+        viewResolver.resolve(mv.getViewName()).render(mv.getModel(), request, response);
+        return request;
+      };
+
+      double base = measure(baseline);
+      System.out.printf("%-10s %,14.0f %,14.0f%n", scenarios[s][0], measure(stepV2) - base, measure(stepV3) - base);
+    }
+  }
+
+  private static TomcatLikeRequest request(String query) {
+    TomcatLikeRequest request = new TomcatLikeRequest();
+    request.setMethod("GET");
+    request.setQueryString(query.isEmpty() ? null : query);
+    return request;
+  }
+
+  private static double measure(Step step) throws Exception {
+    com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    for (int i = 0; i < REQUESTS / 10; i++) {
+      step.run(response);
+    }
+    long before = threads.getCurrentThreadAllocatedBytes();
+    for (int i = 0; i < REQUESTS; i++) {
+      step.run(response);
+    }
+    return (double) (threads.getCurrentThreadAllocatedBytes() - before) / REQUESTS;
+  }
+
+  private interface Step {
+    Object run(MockHttpServletResponse response) throws Exception;
+  }
+
+  // 톰캣처럼 처음 파라미터를 읽을 때 쿼리스트링 전체를 디코딩한다
+  private static final class TomcatLikeRequest extends MockHttpServletRequest {
+    private boolean parsed;
+
+    private void parse() {
+      if (parsed) {
+        return;
+      }
+      parsed = true;
+      String query = getQueryString();
+      if (query == null) {
+        return;
+      }
+      for (String pair : query.split("&")) {
+        int equals = pair.indexOf('=');
+        String key = URLDecoder.decode(equals < 0 ? pair : pair.substring(0, equals), StandardCharsets.UTF_8);
+        String value = equals < 0 ? "" : URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8);
+        addParameter(key, value);
+      }
+    }
+
+    @Override
+    public String getParameter(String name) {
+      parse();
+      return super.getParameter(name);
+    }
+
+    @Override
+    public String[] getParameterValues(String name) {
+      parse();
+      return super.getParameterValues(name);
+    }
+
+    @Override
+    public Enumeration<String> getParameterNames() {
+      parse();
+      return super.getParameterNames();
+    }
+
+    @Override
+    public Map<String, String[]> getParameterMap() {
+      parse();
+      return super.getParameterMap();
+    }
+  }
+}
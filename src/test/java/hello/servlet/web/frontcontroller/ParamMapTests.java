@@ -0,0 +1,111 @@
+package hello.servlet.web.frontcontroller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+class ParamMapTests {
+
+  @Test
+  void decodesOnlyTheRequestedQueryValue() {
+    ParamMap params = query("username=%EA%B9%80+%EC%94%A8&age=20");
+
+    assertThat(params.get("username")).isEqualTo("김 씨");
+    assertThat(params.get("age")).isEqualTo("20");
+    assertThat(params.get("missing")).isNull();
+    assertThat(params.containsKey("age")).isTrue();
+  }
+
+  @Test
+  void matchesEncodedKeys() {
+    ParamMap params = query("user%20name=kim&a+b=c");
+
+    assertThat(params.get("user name")).isEqualTo("kim");
+    assertThat(params.get("a b")).isEqualTo("c");
+  }
+
+  @Test
+  void firstValueWinsAndEmptyValuesAreKept() {
+    ParamMap params = query("age=20&age=30&flag&empty=");
+
+    assertThat(params.get("age")).isEqualTo("20");
+    assertThat(params.get("flag")).isEmpty();
+    assertThat(params.get("empty")).isEmpty();
+  }
+
+  @Test
+  void skipsMalformedPercentEncoding() {
+    ParamMap params = query("bad=%zz&bad=ok&cut=%E");
+
+    assertThat(params.get("bad")).isEqualTo("ok");
+    assertThat(params.get("cut")).isNull();
+    assertThat(params).containsOnly(entry("bad", "ok"));
+  }
+
+  @Test
+  void entrySetDecodesEverythingInOrder() {
+    ParamMap params = query("b=2&a=%ED%95%9C&b=3&&=x");
+
+    assertThat(params).containsExactly(entry("b", "2"), entry("a", "한"));
+    assertThat(params.size()).isEqualTo(2);
+  }
+
+  @Test
+  void noQueryStringIsEmpty() {
+    ParamMap params = new ParamMap(new MockHttpServletRequest("GET", "/members"));
+
+    assertThat(params.get("username")).isNull();
+    assertThat(params).isEmpty();
+  }
+
+  @Test
+  void formPostReadsFromTheContainer() {
+    MockHttpServletRequest request = new MockHttpServletRequest("POST", "/members/save");
+    request.setContentType("application/x-www-form-urlencoded; charset=UTF-8");
+    request.setQueryString("username=fromQuery");
+    request.addParameter("username", "kim", "lee");
+    request.addParameter("age", "20");
+
+    ParamMap params = new ParamMap(request);
+
+    assertThat(params.get("username")).isEqualTo("kim");
+    assertThat(params).containsOnly(entry("username", "kim"), entry("age", "20"));
+  }
+
+  @Test
+  void detachedFormPostDoesNotReadTheRequestLater() {
+    MockHttpServletRequest request = new MockHttpServletRequest("POST", "/members/save");
+    request.setContentType("application/x-www-form-urlencoded");
+    request.addParameter("username", "kim", "lee");
+    request.addParameter("age", "20");
+
+    ParamMap params = ParamMap.detached(request);
+    // 컨테이너가 request 를 다음 요청에 재사용한 상황
+    request.removeAllParameters();
+    request.addParameter("username", "other");
+
+    assertThat(params.get("username")).isEqualTo("kim");
+    assertThat(params.get("missing")).isNull();
+    assertThat(params).containsOnly(entry("username", "kim"), entry("age", "20"));
+  }
+
+  @Test
+  void detachedQueryKeepsTheQueryString() {
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/members");
+    request.setQueryString("username=%EA%B9%80&age=20");
+
+    ParamMap params = ParamMap.detached(request);
+    request.setQueryString("username=other");
+
+    assertThat(params.get("username")).isEqualTo("김");
+    assertThat(params).containsExactly(entry("username", "김"), entry("age", "20"));
+  }
+
+  private static ParamMap query(String query) {
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/members");
+    request.setQueryString(query);
+    return new ParamMap(request);
+  }
+}
@@ -0,0 +1,103 @@
+package hello.servlet.web.frontcontroller;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Router 조회 비용 (main 으로 실행)
+ * 경로 수를 늘려 가며 리터럴 경로와 {id} 경로를 섞어 등록하고, 등록된 URI 를 돌아가며 찾는 데 걸리는 ns/lookup 을 잰다.
+ * 비교용으로 예전 방식(URI 전체로 HashMap 조회, 리터럴만 가능)을 같이 잰다. 경로 수가 늘어도 Router 쪽 값이 거의 그대로여야 한다.
+ */
+public class RouterBenchmark {
+
+  private static final int[] ROUTES = {10, 100, 500, 1000};
+  private static final int LOOKUPS = 5_000_000;
+  private static final String[] RESOURCES = {"members", "orders", "items", "reviews", "carts"};
+
+  public static void main(String[] args) {
+    System.out.printf("%8s %14s %14s %14s%n", "routes", "router ns", "router {id} ns", "hashmap ns");
+    for (int routes : ROUTES) {
+      List<String> literals = new ArrayList<>();
+      List<String> variables = new ArrayList<>();
+      Router.Builder<Integer> builder = Router.builder();
+      Map<String, Integer> map = new HashMap<>();
+      for (int i = 0; i < routes; i++) {
+        String base = "/front-controller/v" + (i % 10) + "/" + RESOURCES[i % RESOURCES.length] + i;
+        if (i % 2 == 0) {
+          builder.add(base + "/list", i);
+          map.put(base + "/list", i);
+          literals.add(base + "/list");
+        } else {
+          builder.add(base + "/{id}/detail", i);
+          variables.add(base + "/" + (i * 31) + "/detail");
+        }
+      }
+      Router<Integer> router = builder.build();
+
+      check(router, literals, variables);
+      // 워밍업
+      lookup(router, literals, LOOKUPS);
+      lookup(router, variables, LOOKUPS);
+      lookup(map, literals, LOOKUPS);
+
+      System.out.printf("%8d %14.1f %14.1f %14.1f%n", routes,
+          lookup(router, literals, LOOKUPS), lookup(router, variables, LOOKUPS), lookup(map, literals, LOOKUPS));
+    }
+  }
+
+  private static double lookup(Router<Integer> router, List<String> paths, int count) {
+    String[] array = paths.toArray(new String[0]);
+    long sum = 0;
+    long start = System.nanoTime();
+    for (int i = 0; i < count; i++) {
+      Router.Match<Integer> match = router.match(array[i % array.length]);
+      sum += match.getHandler();
+    }
+    long elapsed = System.nanoTime() - start;
+    if (sum == 42) {
+      System.out.println();
+    }
+    return (double) elapsed / count;
+  }
+
+  private static double lookup(Map<String, Integer> map, List<String> paths, int count) {
+    // getRequestURI() 는 요청마다 새 문자열이므로 hashCode 캐시가 없는 상태로 잰다
+    String[] array = new String[paths.size()];
+    long sum = 0;
+    long start = System.nanoTime();
+    for (int i = 0; i < count; i++) {
+      int index = i % array.length;
+      if (index == 0) {
+        for (int j = 0; j < array.length; j++) {
+          array[j] = new String(paths.get(j));
+        }
+      }
+      sum += map.get(array[index]);
+    }
+    long elapsed = System.nanoTime() - start;
+    if (sum == 42) {
+      System.out.println();
+    }
+    return (double) elapsed / count;
+  }
+
+  private static void check(Router<Integer> router, List<String> literals, List<String> variables) {
+    for (String path : literals) {
+      if (router.match(path) == null || router.match(path + "/") == null) {
+        throw new IllegalStateException("리터럴 경로를 못 찾음: " + path);
+      }
+    }
+    for (String path : variables) {
+      Router.Match<Integer> match = router.match(path);
+      String id = path.split("/")[4];
+      if (match == null || !id.equals(match.variable("id")) || match.longVariable("id", -1) != Long.parseLong(id)) {
+        throw new IllegalStateException("변수 경로를 잘못 찾음: " + path);
+      }
+    }
+    if (router.match("/front-controller/v0/none/list") != null) {
+      throw new IllegalStateException("없는 경로를 찾음");
+    }
+  }
+}
@@ -0,0 +1,87 @@
+package hello.servlet.web.frontcontroller;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RouterTests {
+
+  private final Router<String> router = Router.<String>builder()
+      .add("/members", "list")
+      .add("/members/{id}", "find")
+      .add("/members/saved", "saved")
+      .add("/members/new-form", "form")
+      .add("/members/{id}/orders/{orderId}", "order")
+      .build();
+
+  @Test
+  void literalWinsOverVariableInTheSameSegment() {
+    assertThat(router.match("/members/saved").getHandler()).isEqualTo("saved");
+    assertThat(router.match("/members/new-form").getHandler()).isEqualTo("form");
+
+    Router.Match<String> match = router.match("/members/savedx");
+    assertThat(match.getHandler()).isEqualTo("find");
+    assertThat(match.variable("id")).isEqualTo("savedx");
+    assertThat(router.match("/members/save").variable("id")).isEqualTo("save");
+  }
+
+  @Test
+  void trailingSlashFallsBackToThePathWithoutIt() {
+    assertThat(router.match("/members").getHandler()).isEqualTo("list");
+    assertThat(router.match("/members/").getHandler()).isEqualTo("list");
+    assertThat(router.match("/members/saved/").getHandler()).isEqualTo("saved");
+    assertThat(router.match("/members/7/").variable("id")).isEqualTo("7");
+    assertThat(router.match("/members//")).isNull();
+  }
+
+  @Test
+  void unknownPathsDoNotMatch() {
+    assertThat(router.match("/member")).isNull();
+    assertThat(router.match("/membersx")).isNull();
+    assertThat(router.match("/members/1/orders")).isNull();
+    assertThat(router.match("/")).isNull();
+  }
+
+  @Test
+  void readsSeveralVariables() {
+    Router.Match<String> match = router.match("/members/12/orders/345");
+
+    assertThat(match.getHandler()).isEqualTo("order");
+    assertThat(match.variable("id")).isEqualTo("12");
+    assertThat(match.longVariable("orderId", -1L)).isEqualTo(345L);
+    assertThat(match.variable("missing")).isNull();
+  }
+
+  @Test
+  void longVariableFallsBackOnNonDigitsAndOverflow() {
+    assertThat(router.match("/members/42").longVariable("id", -1L)).isEqualTo(42L);
+    assertThat(router.match("/members/0").longVariable("id", -1L)).isZero();
+    assertThat(router.match("/members/12a").longVariable("id", -1L)).isEqualTo(-1L);
+    assertThat(router.match("/members/-5").longVariable("id", -1L)).isEqualTo(-1L);
+    assertThat(router.match("/members/+5").longVariable("id", -1L)).isEqualTo(-1L);
+    assertThat(router.match("/members/999999999999999999").longVariable("id", -1L))
+        .isEqualTo(999_999_999_999_999_999L);
+    // 19자리부터는 long 을 넘을 수 있으므로 받지 않는다
+    assertThat(router.match("/members/9223372036854775808").longVariable("id", -1L)).isEqualTo(-1L);
+    assertThat(router.match("/members/99999999999999999999999").longVariable("id", -1L)).isEqualTo(-1L);
+    assertThat(router.match("/members/42").longVariable("missing", -1L)).isEqualTo(-1L);
+  }
+
+  @Test
+  void staticMatchesAreShared() {
+    assertThat(router.match("/members/saved")).isSameAs(router.match("/members/saved"));
+  }
+
+  @Test
+  void rejectsBadPatterns() {
+    assertThatThrownBy(() -> Router.<String>builder().add("members", "x"))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> Router.<String>builder().add("/members/x{id}", "x"))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> Router.<String>builder().add("/members/{id}/{id}", "x"))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> Router.<String>builder().add("/members", "a").add("/members", "b"))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+}
@@ -0,0 +1,65 @@
+package hello.servlet.web.frontcontroller.v1.controller;
+
+import hello.servlet.domain.member.MemberRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MemberBulkSaveControllerV1Tests {
+
+  private final MemberBulkSaveControllerV1 controller = new MemberBulkSaveControllerV1();
+
+  @Test
+  void rejectsNullJsonBody() throws Exception {
+    assertThat(postJson("null")).isEqualTo(400);
+  }
+
+  @Test
+  void rejectsNullJsonElement() throws Exception {
+    assertThat(postJson("[{\"username\":\"kim\",\"age\":20}, null]")).isEqualTo(400);
+  }
+
+  @Test
+  void rejectsMalformedJson() throws Exception {
+    assertThat(postJson("[{\"username\":")).isEqualTo(400);
+    assertThat(postJson("[{\"username\":\"kim\",\"age\":\"x\"}]")).isEqualTo(400);
+  }
+
+  @Test
+  void rejectsNonNumericFormAge() throws Exception {
+    MockHttpServletRequest request = new MockHttpServletRequest("POST", "/front-controller/v1/members/bulk-save");
+    request.addParameter("username", "kim", "lee");
+    request.addParameter("age", "20", "abc");
+
+    assertThat(process(request)).isEqualTo(400);
+  }
+
+  @Test
+  void rejectsMismatchedFormParameters() throws Exception {
+    MockHttpServletRequest request = new MockHttpServletRequest("POST", "/front-controller/v1/members/bulk-save");
+    request.addParameter("username", "kim", "lee");
+    request.addParameter("age", "20");
+
+    assertThat(process(request)).isEqualTo(400);
+  }
+
+  private int postJson(String body) throws Exception {
+    MockHttpServletRequest request = new MockHttpServletRequest("POST", "/front-controller/v1/members/bulk-save");
+    request.setContentType("application/json");
+    request.setContent(body.getBytes(StandardCharsets.UTF_8));
+    return process(request);
+  }
+
+  // 거절된 요청은 하나도 저장하지 않아야 한다
+  private int process(MockHttpServletRequest request) throws Exception {
+    int before = MemberRepository.getInstance().count();
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    controller.process(request, response);
+    assertThat(MemberRepository.getInstance().count()).isEqualTo(before);
+    return response.getStatus();
+  }
+}
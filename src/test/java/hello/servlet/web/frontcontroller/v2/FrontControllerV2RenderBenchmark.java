@@ -0,0 +1,128 @@
+package hello.servlet.web.frontcontroller.v2;
+
+import hello.servlet.domain.member.Member;
+import hello.servlet.domain.member.MemberRepository;
+import jakarta.servlet.Filter;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.apache.catalina.Context;
+import org.apache.catalina.connector.Connector;
+import org.apache.catalina.startup.Tomcat;
+import org.apache.tomcat.util.descriptor.web.FilterDef;
+import org.apache.tomcat.util.descriptor.web.FilterMap;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * FrontControllerServletV2 를 지나는 요청 하나의 서버 쪽 할당 바이트와 처리 시간 (main 으로 실행)
+ * 내장 톰캣에 FrontControllerServletV2 만 올리고, 그 앞의 필터가 워커 스레드에서 컨트롤러 + forward 까지 걸린 만큼을 잰다.
+ * 클라이언트는 한 스레드에서 차례로 보낸다. JSP 대신 *.jsp 에 "ok" 만 쓰는 서블릿을 붙인다.
+ */
+public class FrontControllerV2RenderBenchmark {
+
+  private static final int WARMUP = 5_000;
+  private static final int REQUESTS = 20_000;
+  private static final String[][] SCENARIOS = {
+      {"new-form", "/front-controller/v2/members/new-form"},
+      {"list", "/front-controller/v2/members?limit=10"},
+      {"search", "/front-controller/v2/members/search?q=kim1&limit=10"},
+  };
+
+  private static final com.sun.management.ThreadMXBean threads =
+      (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+  private static long[] bytes;
+  private static long[] nanos;
+  private static volatile int recorded;
+
+  public static void main(String[] args) throws Exception {
+    MemberRepository repository = MemberRepository.getInstance();
+    for (int i = 0; i < 1000; i++) {
+      repository.save(new Member("kim" + i, i % 100));
+    }
+
+    Path baseDir = Files.createTempDirectory("tomcat");
+    Tomcat tomcat = new Tomcat();
+    tomcat.setBaseDir(baseDir.toString());
+    Connector connector = new Connector();
+    connector.setPort(0);
+    tomcat.setConnector(connector);
+    Context context = tomcat.addContext("", baseDir.toString());
+    Tomcat.addServlet(context, "front", new FrontControllerServletV2());
+    context.addServletMappingDecoded("/front-controller/v2/*", "front");
+    Tomcat.addServlet(context, "view", new HttpServlet() {
+      @Override
+      protected void service(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.getWriter().write("ok");
+      }
+    });
+    context.addServletMappingDecoded("*.jsp", "view");
+    addMeasuringFilter(context);
+    tomcat.start();
+
+    // 서블릿이 요청마다 찍는 로그는 버린다
+    PrintStream out = System.out;
+    System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    try {
+      HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+      String base = "http://localhost:" + connector.getLocalPort();
+      out.printf("%-10s %14s %12s %12s %12s%n", "", "bytes/req", "mean us", "p50 us", "p99 us");
+      for (String[] scenario : SCENARIOS) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(base + scenario[1])).build();
+        run(client, request, WARMUP);
+        run(client, request, REQUESTS);
+        Arrays.sort(nanos);
+        out.printf("%-10s %,14.0f %,12.1f %,12.1f %,12.1f%n", scenario[0], Arrays.stream(bytes).average().orElse(0),
+            Arrays.stream(nanos).average().orElse(0) / 1_000, nanos[REQUESTS / 2] / 1_000.0, nanos[REQUESTS * 99 / 100] / 1_000.0);
+      }
+    } finally {
+      System.setOut(out);
+      tomcat.stop();
+      tomcat.destroy();
+    }
+  }
+
+  private static void run(HttpClient client, HttpRequest request, int count) throws Exception {
+    bytes = new long[count];
+    nanos = new long[count];
+    recorded = 0;
+    for (int i = 0; i < count; i++) {
+      HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+      if (response.statusCode() != 200) {
+        throw new IllegalStateException(request.uri() + " -> " + response.statusCode());
+      }
+    }
+  }
+
+  // 컨트롤러 + forward 까지를 같은 워커 스레드에서 잰다 (요청은 한 번에 하나씩 오므로 배열에 바로 쓴다)
+  private static void addMeasuringFilter(Context context) {
+    Filter filter = (request, response, chain) -> {
+      long allocated = threads.getCurrentThreadAllocatedBytes();
+      long start = System.nanoTime();
+      chain.doFilter(request, response);
+      long elapsed = System.nanoTime() - start;
+      if (recorded < bytes.length) {
+        nanos[recorded] = elapsed;
+        bytes[recorded++] = threads.getCurrentThreadAllocatedBytes() - allocated;
+      }
+    };
+    FilterDef def = new FilterDef();
+    def.setFilterName("measure");
+    def.setFilter(filter);
+    context.addFilterDef(def);
+    FilterMap map = new FilterMap();
+    map.setFilterName("measure");
+    map.addURLPattern("/front-controller/v2/*");
+    context.addFilterMap(map);
+  }
+}
@@ -0,0 +1,148 @@
+package hello.servlet.web.frontcontroller.v3;
+
+import hello.servlet.domain.member.Member;
+import hello.servlet.domain.member.MemberRepository;
+import hello.servlet.web.frontcontroller.ControllerExecutors;
+import hello.servlet.web.frontcontroller.ModelView;
+import hello.servlet.web.frontcontroller.Router;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.apache.catalina.Context;
+import org.apache.catalina.connector.Connector;
+import org.apache.catalina.startup.Tomcat;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 저장소가 느릴 때 (호출마다 DELAY_MILLIS) 동시에 처리되는 요청 수: 동기 ControllerV3 vs AsyncControllerV3 (main 으로 실행)
+ * 내장 톰캣을 워커 스레드 TOMCAT_THREADS 개로 띄우고, 클라이언트 CLIENTS 개가 한꺼번에 요청을 보낸다.
+ * 동기 경로는 워커 스레드 수만큼만 동시에 저장소를 기다리고, 비동기 경로는 워커 스레드를 바로 돌려주므로 그보다 훨씬 많이 기다릴 수 있다.
+ * JSP 대신 *.jsp 에 "ok" 만 쓰는 서블릿을 붙인다.
+ *
+ * 인자: 방식 목록 (sync, platform, virtual), 기본은 이 JVM 에서 되는 것 전부
+ */
+public class FrontControllerAsyncLoadBenchmark {
+
+  private static final int TOMCAT_THREADS = 20;
+  private static final int CLIENTS = 1000;
+  private static final long DELAY_MILLIS = 200;
+
+  private static final AtomicInteger inFlight = new AtomicInteger();
+  private static final AtomicInteger maxInFlight = new AtomicInteger();
+
+  public static void main(String[] args) throws Exception {
+    MemberRepository repository = MemberRepository.getInstance();
+    for (int i = 0; i < 100; i++) {
+      repository.save(new Member("kim" + i, i));
+    }
+    List<String> modes = new ArrayList<>(Arrays.asList(args));
+    if (modes.isEmpty()) {
+      modes.addAll(List.of("sync", "platform"));
+      if (Runtime.version().feature() >= 21) {
+        modes.add("virtual");
+      }
+    }
+
+    System.out.printf("tomcat threads=%d, clients=%d, repository delay=%d ms%n", TOMCAT_THREADS, CLIENTS, DELAY_MILLIS);
+    System.out.printf("%-9s %10s %12s %10s %10s %10s %8s%n", "mode", "total ms", "max waiting", "req/s", "p50 ms", "p99 ms", "errors");
+    for (String mode : modes) {
+      run(mode);
+    }
+  }
+
+  private static void run(String mode) throws Exception {
+    ExecutorService executor = mode.equals("sync") ? null : ControllerExecutors.create(mode, 256);
+    Router<ControllerV3> router = Router.<ControllerV3>builder()
+        .add("/front-controller/v3/members", paramMap -> new ModelView("members").add("members", slowFindPage()))
+        .build();
+    Router<AsyncControllerV3> asyncRouter = Router.<AsyncControllerV3>builder()
+        .add("/front-controller/v3/async/members",
+            paramMap -> CompletableFuture.completedFuture(new ModelView("members").add("members", slowFindPage())))
+        .build();
+
+    Path baseDir = Files.createTempDirectory("tomcat");
+    Tomcat tomcat = new Tomcat();
+    tomcat.setBaseDir(baseDir.toString());
+    Connector connector = new Connector();
+    connector.setPort(0);
+    connector.setProperty("maxThreads", String.valueOf(TOMCAT_THREADS));
+    connector.setProperty("maxConnections", String.valueOf(CLIENTS * 2));
+    connector.setProperty("acceptCount", String.valueOf(CLIENTS));
+    tomcat.setConnector(connector);
+    Context context = tomcat.addContext("", baseDir.toString());
+    Tomcat.addServlet(context, "front", new FrontControllerServletV3(router, asyncRouter, executor)).setAsyncSupported(true);
+    context.addServletMappingDecoded("/front-controller/v3/*", "front");
+    Tomcat.addServlet(context, "view", new HttpServlet() {
+      @Override
+      protected void service(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.getWriter().write("ok");
+      }
+    });
+    context.addServletMappingDecoded("*.jsp", "view");
+    tomcat.start();
+
+    try {
+      String path = mode.equals("sync") ? "/front-controller/v3/members" : "/front-controller/v3/async/members";
+      URI uri = URI.create("http://localhost:" + connector.getLocalPort() + path + "?limit=10");
+      HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+      inFlight.set(0);
+      maxInFlight.set(0);
+      long[] latencies = new long[CLIENTS];
+      AtomicInteger errors = new AtomicInteger();
+      List<CompletableFuture<?>> futures = new ArrayList<>();
+      long start = System.nanoTime();
+      for (int i = 0; i < CLIENTS; i++) {
+        int index = i;
+        long sent = System.nanoTime();
+        futures.add(client.sendAsync(HttpRequest.newBuilder(uri).build(), HttpResponse.BodyHandlers.ofString())
+            .whenComplete((response, error) -> {
+              latencies[index] = System.nanoTime() - sent;
+              if (error != null || response.statusCode() != 200 || !response.body().equals("ok")) {
+                errors.incrementAndGet();
+              }
+            }));
+      }
+      CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).exceptionally(e -> null).join();
+      long elapsed = System.nanoTime() - start;
+
+      Arrays.sort(latencies);
+      System.out.printf("%-9s %,10d %12d %,10.0f %,10d %,10d %8d%n", mode, elapsed / 1_000_000, maxInFlight.get(),
+          CLIENTS * 1e9 / elapsed, latencies[CLIENTS / 2] / 1_000_000, latencies[CLIENTS * 99 / 100] / 1_000_000,
+          errors.get());
+    } finally {
+      tomcat.stop();
+      tomcat.destroy();
+      if (executor != null) {
+        executor.shutdown();
+      }
+    }
+  }
+
+  // 일부러 느린 저장소 호출
+  private static List<Member> slowFindPage() {
+    maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+    try {
+      Thread.sleep(DELAY_MILLIS);
+      return MemberRepository.getInstance().findPage(0, 10);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e);
+    } finally {
+      inFlight.decrementAndGet();
+    }
+  }
+}
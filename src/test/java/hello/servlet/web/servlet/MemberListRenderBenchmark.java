@@ -0,0 +1,131 @@
+package hello.servlet.web.servlet;
+
+import hello.servlet.domain.member.Member;
+import hello.servlet.domain.member.MemberRepository;
+import hello.servlet.web.servletmvc.MvcMemberListServlet;
+import jakarta.servlet.Filter;
+import org.apache.catalina.Context;
+import org.apache.catalina.Wrapper;
+import org.apache.catalina.connector.Connector;
+import org.apache.catalina.startup.Tomcat;
+import org.apache.jasper.servlet.JasperInitializer;
+import org.apache.tomcat.util.descriptor.web.FilterDef;
+import org.apache.tomcat.util.descriptor.web.FilterMap;
+
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * 회원 목록 서블릿 두 개(/servlet/members, /servlet-mvc/members)의 요청당 / 행당 서버 쪽 할당 바이트 (main 으로 실행)
+ * 내장 톰캣에 두 서블릿을 올리고, 필터가 워커 스레드에서 조회 + 렌더까지 걸린 만큼을 잰다.
+ * 행당 할당은 SMALL 행 페이지와 LARGE 행 페이지의 차이를 행 수 차이로 나눈 값이다. (조회 결과 List 가 늘어나는 몫도 들어감)
+ *
+ * 프로젝트 디렉터리에서 실행한다. 예전처럼 JSP 로 forward 하는 코드와 비교할 수 있게 Jasper 도 붙여 둔다.
+ */
+public class MemberListRenderBenchmark {
+
+  private static final int MEMBERS = 2_000;
+  private static final int SMALL = 10;
+  private static final int LARGE = 1_000;
+  private static final int WARMUP = 2_000;
+  private static final int REQUESTS = 5_000;
+  private static final String[] PATHS = {"/servlet/members", "/servlet-mvc/members"};
+
+  private static final com.sun.management.ThreadMXBean threads =
+      (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+  private static long[] bytes;
+  private static long[] nanos;
+  private static volatile int recorded;
+
+  public static void main(String[] args) throws Exception {
+    MemberRepository repository = MemberRepository.getInstance();
+    for (int i = 0; i < MEMBERS; i++) {
+      repository.save(new Member("kim" + i, i % 100));
+    }
+
+    Path baseDir = Files.createTempDirectory("tomcat");
+    Tomcat tomcat = new Tomcat();
+    tomcat.setBaseDir(baseDir.toString());
+    Connector connector = new Connector();
+    connector.setPort(0);
+    tomcat.setConnector(connector);
+    Context context = tomcat.addContext("", Path.of("src/main/webapp").toAbsolutePath().toString());
+    context.addServletContainerInitializer(new JasperInitializer(), null);
+    Wrapper jsp = Tomcat.addServlet(context, "jsp", "org.apache.jasper.servlet.JspServlet");
+    jsp.addInitParameter("development", "false");
+    context.addServletMappingDecoded("*.jsp", "jsp");
+    Tomcat.addServlet(context, "servlet", new MemberListServlet());
+    context.addServletMappingDecoded(PATHS[0], "servlet");
+    Tomcat.addServlet(context, "servletMvc", new MvcMemberListServlet());
+    context.addServletMappingDecoded(PATHS[1], "servletMvc");
+    addMeasuringFilter(context);
+    tomcat.start();
+
+    try {
+      HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+      String base = "http://localhost:" + connector.getLocalPort();
+      System.out.printf("%-22s %16s %16s %12s %14s%n", "", "bytes/req(" + SMALL + ")", "bytes/req(" + LARGE + ")",
+          "bytes/row", "p50 us(" + LARGE + ")");
+      for (String path : PATHS) {
+        double small = measure(client, URI.create(base + path + "?limit=" + SMALL));
+        double large = measure(client, URI.create(base + path + "?limit=" + LARGE));
+        Arrays.sort(nanos);
+        System.out.printf("%-22s %,16.0f %,16.0f %,12.1f %,14.1f%n", path, small, large,
+            (large - small) / (LARGE - SMALL), nanos[REQUESTS / 2] / 1_000.0);
+      }
+    } finally {
+      tomcat.stop();
+      tomcat.destroy();
+    }
+  }
+
+  // 평균 할당 바이트 (nanos 에는 마지막으로 잰 요청들의 시간이 남는다)
+  private static double measure(HttpClient client, URI uri) throws Exception {
+    HttpRequest request = HttpRequest.newBuilder(uri).build();
+    run(client, request, WARMUP);
+    run(client, request, REQUESTS);
+    return Arrays.stream(bytes).average().orElse(0);
+  }
+
+  private static void run(HttpClient client, HttpRequest request, int count) throws Exception {
+    bytes = new long[count];
+    nanos = new long[count];
+    recorded = 0;
+    for (int i = 0; i < count; i++) {
+      HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+      if (response.statusCode() != 200) {
+        throw new IllegalStateException(request.uri() + " -> " + response.statusCode());
+      }
+    }
+  }
+
+  // 조회 + 렌더(forward 포함)를 같은 워커 스레드에서 잰다 (요청은 한 번에 하나씩 오므로 배열에 바로 쓴다)
+  private static void addMeasuringFilter(Context context) {
+    Filter filter = (request, response, chain) -> {
+      long allocated = threads.getCurrentThreadAllocatedBytes();
+      long start = System.nanoTime();
+      chain.doFilter(request, response);
+      long elapsed = System.nanoTime() - start;
+      if (bytes != null && recorded < bytes.length) {
+        nanos[recorded] = elapsed;
+        bytes[recorded++] = threads.getCurrentThreadAllocatedBytes() - allocated;
+      }
+    };
+    FilterDef def = new FilterDef();
+    def.setFilterName("measure");
+    def.setFilter(filter);
+    context.addFilterDef(def);
+    FilterMap map = new FilterMap();
+    map.setFilterName("measure");
+    for (String path : PATHS) {
+      map.addURLPattern(path);
+    }
+    context.addFilterMap(map);
+  }
+}
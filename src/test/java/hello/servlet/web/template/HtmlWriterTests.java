@@ -0,0 +1,103 @@
+package hello.servlet.web.template;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HtmlWriterTests {
+
+  private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+  @Test
+  void escapesHtmlSpecialCharacters() throws IOException {
+    render(writer -> writer.writeEscaped("<a href=\"x\">Tom & 'Jerry'</a>"));
+
+    assertThat(text()).isEqualTo("&lt;a href=&quot;x&quot;&gt;Tom &amp; &#39;Jerry&#39;&lt;/a&gt;");
+  }
+
+  @Test
+  void encodesNonAsciiAsUtf8() throws IOException {
+    String value = "김ö€😀";
+    render(writer -> writer.writeEscaped(value));
+
+    assertThat(out.toByteArray()).isEqualTo(value.getBytes(StandardCharsets.UTF_8));
+  }
+
+  @Test
+  void replacesLoneSurrogatesLikeGetBytes() throws IOException {
+    String value = "a\uD83Db\uDE00";
+    render(writer -> writer.writeEscaped(value));
+
+    assertThat(out.toByteArray()).isEqualTo(value.getBytes(StandardCharsets.UTF_8));
+  }
+
+  @Test
+  void nullWritesNothing() throws IOException {
+    render(writer -> {
+      writer.writeEscaped((CharSequence) null);
+      writer.writeEscaped((Object) null);
+      writer.writeNumber((Number) null);
+    });
+
+    assertThat(out.size()).isZero();
+  }
+
+  @Test
+  void writesNumbers() throws IOException {
+    render(writer -> {
+      for (long value : new long[]{0, 7, -7, 1234567890123L, Long.MAX_VALUE, Long.MIN_VALUE}) {
+        writer.writeNumber(value);
+        writer.write(HtmlWriter.bytes(","));
+      }
+    });
+
+    assertThat(text()).isEqualTo("0,7,-7,1234567890123," + Long.MAX_VALUE + "," + Long.MIN_VALUE + ",");
+  }
+
+  @Test
+  void keepsOrderAcrossBufferBoundaries() throws IOException {
+    StringBuilder expected = new StringBuilder();
+    render(writer -> {
+      for (int i = 0; i < 3000; i++) {
+        writer.writeEscaped("<" + i + ">");
+        writer.writeNumber(i);
+        expected.append("&lt;").append(i).append("&gt;").append(i);
+      }
+      byte[] large = HtmlWriter.bytes("x".repeat(10_000));
+      writer.write(large);
+      expected.append("x".repeat(10_000));
+    });
+
+    assertThat(text()).isEqualTo(expected.toString());
+  }
+
+  @Test
+  void closeWithoutFlushDropsOnlyTheUnflushedTail() throws IOException {
+    try (HtmlWriter writer = HtmlWriter.open(out)) {
+      writer.writeEscaped("first");
+      writer.flush();
+      writer.writeEscaped("second");
+    }
+
+    assertThat(text()).isEqualTo("first");
+  }
+
+  private void render(Body body) throws IOException {
+    try (HtmlWriter writer = HtmlWriter.open(out)) {
+      body.write(writer);
+      writer.flush();
+    }
+  }
+
+  private String text() {
+    return out.toString(StandardCharsets.UTF_8);
+  }
+
+  private interface Body {
+    void write(HtmlWriter writer) throws IOException;
+  }
+}
@@ -0,0 +1,159 @@
+package hello.servlet.web.template;
+
+import hello.servlet.domain.member.Member;
+import jakarta.servlet.Filter;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.apache.catalina.Context;
+import org.apache.catalina.Wrapper;
+import org.apache.catalina.connector.Connector;
+import org.apache.catalina.startup.Tomcat;
+import org.apache.jasper.servlet.JasperInitializer;
+import org.apache.tomcat.util.descriptor.web.FilterDef;
+import org.apache.tomcat.util.descriptor.web.FilterMap;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 회원 ROWS 명 목록 화면 렌더: members.jsp (JSTL + EL) vs 컴파일된 MembersViewTemplate (main 으로 실행)
+ * 내장 톰캣에 Jasper 를 붙여 src/main/webapp 의 JSP 를 그대로 쓰고, 필터가 워커 스레드에서 렌더에 든 할당 바이트와 시간을 잰다.
+ * 두 응답이 공백(과 템플릿만 하는 HTML 이스케이프)을 빼고 같은지도 확인한다.
+ *
+ * 프로젝트 디렉터리에서 실행한다. 클래스패스에 tomcat-embed-jasper, JSTL 구현이 있어야 한다.
+ */
+public class TemplateRenderBenchmark {
+
+  private static final int ROWS = 10_000;
+  private static final int WARMUP = 200;
+  private static final int REQUESTS = 500;
+
+  private static final com.sun.management.ThreadMXBean threads =
+      (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+  private static long[] bytes;
+  private static long[] nanos;
+  private static volatile int recorded;
+
+  public static void main(String[] args) throws Exception {
+    List<Member> members = new ArrayList<>();
+    for (int i = 0; i < ROWS; i++) {
+      Member member = new Member("kim" + i, i % 100);
+      member.setId((long) i + 1);
+      members.add(member);
+    }
+    String nextQuery = "after=" + ROWS + "&limit=" + ROWS;
+
+    Path baseDir = Files.createTempDirectory("tomcat");
+    Tomcat tomcat = new Tomcat();
+    tomcat.setBaseDir(baseDir.toString());
+    Connector connector = new Connector();
+    connector.setPort(0);
+    tomcat.setConnector(connector);
+    Context context = tomcat.addContext("", Path.of("src/main/webapp").toAbsolutePath().toString());
+    context.addServletContainerInitializer(new JasperInitializer(), null);
+    Wrapper jsp = Tomcat.addServlet(context, "jsp", "org.apache.jasper.servlet.JspServlet");
+    jsp.addInitParameter("development", "false");
+    context.addServletMappingDecoded("*.jsp", "jsp");
+
+    Tomcat.addServlet(context, "jspView", new HttpServlet() {
+      @Override
+      protected void service(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
+        request.setAttribute("members", members);
+        request.setAttribute("nextQuery", nextQuery);
+        request.getRequestDispatcher("/WEB-INF/views/members.jsp").forward(request, response);
+      }
+    });
+    context.addServletMappingDecoded("/jsp", "jspView");
+    Tomcat.addServlet(context, "templateView", new HttpServlet() {
+      @Override
+      protected void service(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setContentType(CompiledTemplate.CONTENT_TYPE);
+        MembersViewTemplate.INSTANCE.render(response.getOutputStream(), members, nextQuery);
+      }
+    });
+    context.addServletMappingDecoded("/template", "templateView");
+    addMeasuringFilter(context);
+    tomcat.start();
+
+    try {
+      HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+      String base = "http://localhost:" + connector.getLocalPort();
+      String jspBody = body(client, base + "/jsp");
+      String templateBody = body(client, base + "/template");
+      // JSP 의 ${nextQuery} 는 이스케이프하지 않고, 템플릿은 & 를 &amp; 로 쓴다
+      System.out.printf("rows=%d, same output (whitespace and &amp; aside): %b%n", ROWS,
+          jspBody.replaceAll("\\s+", "").equals(templateBody.replace("&amp;", "&").replaceAll("\\s+", "")));
+
+      System.out.printf("%-9s %10s %14s %10s %10s %10s%n", "", "KB/resp", "bytes/render", "mean ms", "p50 ms", "p99 ms");
+      for (String view : new String[]{"jsp", "template"}) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(base + "/" + view)).build();
+        run(client, request, WARMUP);
+        run(client, request, REQUESTS);
+        Arrays.sort(nanos);
+        int size = (view.equals("jsp") ? jspBody : templateBody).getBytes(StandardCharsets.UTF_8).length;
+        System.out.printf("%-9s %,10d %,14.0f %10.2f %10.2f %10.2f%n", view, size / 1024,
+            Arrays.stream(bytes).average().orElse(0), Arrays.stream(nanos).average().orElse(0) / 1e6,
+            nanos[REQUESTS / 2] / 1e6, nanos[REQUESTS * 99 / 100] / 1e6);
+      }
+    } finally {
+      tomcat.stop();
+      tomcat.destroy();
+    }
+  }
+
+  private static String body(HttpClient client, String uri) throws Exception {
+    HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(uri)).build(),
+        HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+    if (response.statusCode() != 200) {
+      throw new IllegalStateException(uri + " -> " + response.statusCode());
+    }
+    return response.body();
+  }
+
+  private static void run(HttpClient client, HttpRequest request, int count) throws Exception {
+    bytes = new long[count];
+    nanos = new long[count];
+    recorded = 0;
+    for (int i = 0; i < count; i++) {
+      HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+      if (response.statusCode() != 200) {
+        throw new IllegalStateException(request.uri() + " -> " + response.statusCode());
+      }
+    }
+  }
+
+  // 렌더(forward 포함)를 같은 워커 스레드에서 잰다 (요청은 한 번에 하나씩 오므로 배열에 바로 쓴다)
+  private static void addMeasuringFilter(Context context) {
+    Filter filter = (request, response, chain) -> {
+      long allocated = threads.getCurrentThreadAllocatedBytes();
+      long start = System.nanoTime();
+      chain.doFilter(request, response);
+      long elapsed = System.nanoTime() - start;
+      if (bytes != null && recorded < bytes.length) {
+        nanos[recorded] = elapsed;
+        bytes[recorded++] = threads.getCurrentThreadAllocatedBytes() - allocated;
+      }
+    };
+    FilterDef def = new FilterDef();
+    def.setFilterName("measure");
+    def.setFilter(filter);
+    context.addFilterDef(def);
+    FilterMap map = new FilterMap();
+    map.setFilterName("measure");
+    map.addURLPattern("/jsp");
+    map.addURLPattern("/template");
+    context.addFilterMap(map);
+  }
+}
@@ -0,0 +1,29 @@
+package hello.servlet.template;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * HTML 템플릿 파일로 구현할 뷰 인터페이스
+ * 컴파일할 때 TemplateProcessor 가 템플릿을 자바 코드로 바꿔 "인터페이스 이름 + Template" 클래스를 같은 패키지에 만든다.
+ * (예: MembersView + members.html -> MembersViewTemplate)
+ *
+ * 인터페이스에는 void render(OutputStream out, 모델 인자...) throws IOException 하나만 둔다.
+ * 모델 인자 이름이 템플릿 안의 변수 이름이 된다. 파일은 -Atemplate.dir 옵션의 디렉터리에서 찾는다.
+ *
+ * 템플릿 문법은 JSP 의 일부와 같다.
+ * - ${member.username}: HTML 이스케이프해서 출력. 프로퍼티는 getter 로 읽는다 (가는 길에 null 이 있으면 빈 문자열)
+ * - <c:forEach var="item" items="${members}"> ... </c:forEach>
+ * - <c:if test="${not empty nextQuery}"> ... </c:if> (test 는 boolean 값, empty x, not empty x)
+ */
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.TYPE)
+public @interface Template {
+
+  /**
+   * 템플릿 파일 이름 (확장자를 뺀 이름이 뷰 이름)
+   */
+  String value();
+}
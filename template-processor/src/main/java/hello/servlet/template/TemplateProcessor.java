@@ -0,0 +1,657 @@
+package hello.servlet.template;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedOptions;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.ExecutableType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.WildcardType;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * @Template 인터페이스마다 템플릿 파일을 자바 코드로 바꾼 "인터페이스 이름 + Template" 클래스를 만든다.
+ * 정적인 부분은 UTF-8 byte[] 상수로 미리 인코딩해 두고, ${...} 는 getter 호출로 바꾼다.
+ * 실행할 때는 EL 해석도, 리플렉션도 없이 풀에서 빌린 HtmlWriter 버퍼로 OutputStream 에 바이트를 바로 쓴다.
+ *
+ * 만든 클래스는 인터페이스의 render 와 함께 CompiledTemplate(모델 Map 으로 렌더)도 구현한다.
+ * 모르는 변수나 프로퍼티, 짝이 안 맞는 태그는 컴파일 에러로 알린다. (템플릿 파일 이름:줄 번호)
+ */
+@SupportedAnnotationTypes(TemplateProcessor.TEMPLATE)
+@SupportedOptions(TemplateProcessor.TEMPLATE_DIR_OPTION)
+public class TemplateProcessor extends AbstractProcessor {
+
+  static final String TEMPLATE = "hello.servlet.template.Template";
+  static final String TEMPLATE_DIR_OPTION = "template.dir";
+
+  // 만든 코드가 쓰는 런타임 클래스 (main 소스에 있다)
+  private static final String WRITER = "hello.servlet.web.template.HtmlWriter";
+  private static final String COMPILED_TEMPLATE = "hello.servlet.web.template.CompiledTemplate";
+  private static final String WRITER_VARIABLE = "$w";
+  // 문자열 상수 하나가 클래스 파일 상수 풀 한도(64KB)를 넘지 않도록 자른다
+  private static final int MAX_TEXT_LENGTH = 8192;
+
+  private Elements elements;
+  private Types types;
+
+  @Override
+  public SourceVersion getSupportedSourceVersion() {
+    return SourceVersion.latestSupported();
+  }
+
+  @Override
+  public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+    elements = processingEnv.getElementUtils();
+    types = processingEnv.getTypeUtils();
+    for (Element element : roundEnv.getElementsAnnotatedWith(Template.class)) {
+      if (element.getKind() != ElementKind.INTERFACE) {
+        error(element, "@Template 은 인터페이스에만 붙일 수 있습니다");
+        continue;
+      }
+      TypeElement type = (TypeElement) element;
+      ExecutableElement method = renderMethod(type);
+      String fileName = type.getAnnotation(Template.class).value();
+      String source = method == null ? null : read(type, fileName);
+      if (source == null) {
+        continue;
+      }
+      try {
+        List<Node> nodes = new Parser(source).parse(null);
+        write(type, method, fileName, nodes);
+      } catch (TemplateException e) {
+        error(type, fileName + ":" + e.line + ": " + e.getMessage());
+      }
+    }
+    return false;
+  }
+
+  // void render(OutputStream out, 모델 인자...) throws IOException 하나
+  private ExecutableElement renderMethod(TypeElement type) {
+    List<ExecutableElement> methods = new ArrayList<>();
+    for (ExecutableElement method : ElementFilter.methodsIn(type.getEnclosedElements())) {
+      if (method.getModifiers().contains(Modifier.ABSTRACT)) {
+        methods.add(method);
+      }
+    }
+    if (methods.size() != 1 || !type.getTypeParameters().isEmpty()) {
+      error(type, "@Template 인터페이스에는 타입 인자 없이 추상 메서드(render) 하나만 있어야 합니다");
+      return null;
+    }
+    ExecutableElement method = methods.get(0);
+    List<? extends VariableElement> parameters = method.getParameters();
+    TypeMirror outputStream = elements.getTypeElement("java.io.OutputStream").asType();
+    if (method.getReturnType().getKind() != TypeKind.VOID || !method.getTypeParameters().isEmpty()
+        || parameters.isEmpty() || !types.isSameType(parameters.get(0).asType(), outputStream)) {
+      error(method, "render 는 void render(OutputStream out, 모델 인자...) 모양이어야 합니다");
+      return null;
+    }
+    TypeMirror ioException = elements.getTypeElement("java.io.IOException").asType();
+    if (method.getThrownTypes().stream().noneMatch(thrown -> types.isAssignable(ioException, thrown))) {
+      error(method, "render 는 IOException 을 던질 수 있어야 합니다");
+      return null;
+    }
+    for (VariableElement parameter : parameters.subList(1, parameters.size())) {
+      if (parameter.asType().getKind().isPrimitive() || parameter.getSimpleName().toString().startsWith("$")) {
+        error(parameter, "모델 인자는 참조 타입이고 이름이 $ 로 시작하지 않아야 합니다 (모델 Map 에서 꺼내 넘김)");
+        return null;
+      }
+    }
+    return method;
+  }
+
+  private String read(TypeElement type, String fileName) {
+    String directory = processingEnv.getOptions().get(TEMPLATE_DIR_OPTION);
+    if (directory == null) {
+      error(type, "-A" + TEMPLATE_DIR_OPTION + " 옵션(템플릿 디렉터리)이 없습니다");
+      return null;
+    }
+    Path path = Path.of(directory, fileName);
+    try {
+      return Files.readString(path, StandardCharsets.UTF_8);
+    } catch (IOException e) {
+      error(type, "템플릿 파일을 읽을 수 없습니다: " + path + " (" + e + ")");
+      return null;
+    }
+  }
+
+  private void write(TypeElement type, ExecutableElement method, String fileName, List<Node> nodes) {
+    String packageName = elements.getPackageOf(type).getQualifiedName().toString();
+    String className = type.getSimpleName() + "Template";
+    String viewName = fileName.lastIndexOf('.') < 0 ? fileName : fileName.substring(0, fileName.lastIndexOf('.'));
+
+    List<? extends VariableElement> parameters = method.getParameters();
+    String out = parameters.get(0).getSimpleName().toString();
+    Map<String, TypeMirror> scope = new LinkedHashMap<>();
+    StringBuilder signature = new StringBuilder("java.io.OutputStream " + out);
+    StringBuilder arguments = new StringBuilder("out");
+    for (VariableElement parameter : parameters.subList(1, parameters.size())) {
+      String name = parameter.getSimpleName().toString();
+      scope.put(name, parameter.asType());
+      signature.append(", ").append(parameter.asType()).append(' ').append(name);
+      arguments.append(", (").append(parameter.asType()).append(") model.get(").append(literal(name)).append(')');
+    }
+
+    // 먼저 본문을 다 만들어 본다 (템플릿 에러가 있으면 파일을 만들지 않음)
+    Generator generator = new Generator(out);
+    generator.nodes(nodes, scope, 3);
+
+    String qualifiedName = packageName.isEmpty() ? className : packageName + "." + className;
+    try (PrintWriter writer = new PrintWriter(processingEnv.getFiler().createSourceFile(qualifiedName, type).openWriter())) {
+      if (!packageName.isEmpty()) {
+        writer.println("package " + packageName + ";");
+        writer.println();
+      }
+      writer.println("/**");
+      writer.println(" * " + fileName + " 을 컴파일한 " + type.getSimpleName() + " (TemplateProcessor 가 만든 파일, 직접 고치지 말 것)");
+      writer.println(" */");
+      writer.println("@javax.annotation.processing.Generated(\"" + TemplateProcessor.class.getName() + "\")");
+      writer.println("public final class " + className + " implements " + type.getQualifiedName() + ", " + COMPILED_TEMPLATE + " {");
+      writer.println();
+      writer.println("  public static final " + className + " INSTANCE = new " + className + "();");
+      writer.println();
+      for (int i = 0; i < generator.texts.size(); i++) {
+        writer.println("  private static final byte[] TEXT_" + i + " = " + literal(generator.texts.get(i))
+            + ".getBytes(java.nio.charset.StandardCharsets.UTF_8);");
+      }
+      writer.println();
+      writer.println("  private " + className + "() {");
+      writer.println("  }");
+      writer.println();
+      writer.println("  @Override");
+      writer.println("  public String getName() {");
+      writer.println("    return " + literal(viewName) + ";");
+      writer.println("  }");
+      writer.println();
+      writer.println("  @Override");
+      writer.println("  public void " + method.getSimpleName() + "(" + signature + ") throws java.io.IOException {");
+      writer.println("    try (" + WRITER + " " + WRITER_VARIABLE + " = " + WRITER + ".open(" + out + ")) {");
+      writer.print(generator.code);
+      writer.println("      " + WRITER_VARIABLE + ".flush();");
+      writer.println("    }");
+      writer.println("  }");
+      writer.println();
+      writer.println("  @Override");
+      writer.println("  @SuppressWarnings(\"unchecked\")");
+      writer.println("  public void render(java.util.Map<String, ?> model, java.io.OutputStream out) throws java.io.IOException {");
+      writer.println("    " + method.getSimpleName() + "(" + arguments + ");");
+      writer.println("  }");
+      writer.println("}");
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private void error(Element element, String message) {
+    processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+  }
+
+  private static String literal(String value) {
+    StringBuilder literal = new StringBuilder("\"");
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      switch (c) {
+        case '"':
+          literal.append("\\\"");
+          break;
+        case '\\':
+          literal.append("\\\\");
+          break;
+        case '\n':
+          literal.append("\\n");
+          break;
+        case '\r':
+          literal.append("\\r");
+          break;
+        case '\t':
+          literal.append("\\t");
+          break;
+        default:
+          // 생성된 소스의 인코딩에 기대지 않도록 ASCII 밖은 \\u 로
+          if (c < 0x20 || c > 0x7e) {
+            literal.append(String.format("\\u%04x", (int) c));
+          } else {
+            literal.append(c);
+          }
+      }
+    }
+    return literal.append('"').toString();
+  }
+
+  /**
+   * 템플릿 노드 -> render 메서드 본문
+   */
+  private final class Generator {
+    final StringBuilder code = new StringBuilder();
+    final List<String> texts = new ArrayList<>();
+    private final String out;
+
+    Generator(String out) {
+      this.out = out;
+    }
+
+    void nodes(List<Node> nodes, Map<String, TypeMirror> scope, int depth) {
+      for (Node node : nodes) {
+        if (node instanceof Text) {
+          String text = ((Text) node).text;
+          for (int start = 0; start < text.length(); ) {
+            int end = Math.min(text.length(), start + MAX_TEXT_LENGTH);
+            if (end < text.length() && Character.isHighSurrogate(text.charAt(end - 1))) {
+              end--;
+            }
+            line(depth, WRITER_VARIABLE + ".write(TEXT_" + texts.size() + ");");
+            texts.add(text.substring(start, end));
+            start = end;
+          }
+        } else if (node instanceof Value) {
+          Resolved value = resolve(((Value) node).expression, scope, node.line);
+          if (value.guard.isEmpty()) {
+            line(depth, write(value));
+          } else {
+            line(depth, "if (" + value.guard + ") {");
+            line(depth + 1, write(value));
+            line(depth, "}");
+          }
+        } else if (node instanceof ForEach) {
+          forEach((ForEach) node, scope, depth);
+        } else {
+          ifTest((If) node, scope, depth);
+        }
+      }
+    }
+
+    private void forEach(ForEach node, Map<String, TypeMirror> scope, int depth) {
+      Resolved items = resolve(node.items, scope, node.line);
+      TypeMirror elementType = elementType(items.type);
+      if (elementType == null) {
+        throw new TemplateException("items 는 배열이나 Iterable 이어야 합니다: " + items.type, node.line);
+      }
+      if (!SourceVersion.isIdentifier(node.var) || SourceVersion.isKeyword(node.var) || node.var.startsWith("$")
+          || scope.containsKey(node.var) || node.var.equals(out)) {
+        throw new TemplateException("var 이름을 쓸 수 없습니다 (이미 있거나 자바 이름이 아님): " + node.var, node.line);
+      }
+      Map<String, TypeMirror> inner = new LinkedHashMap<>(scope);
+      inner.put(node.var, elementType);
+      line(depth, "if (" + and(items.guard, items.code + " != null") + ") {");
+      line(depth + 1, "for (" + elementType + " " + node.var + " : " + items.code + ") {");
+      nodes(node.children, inner, depth + 2);
+      line(depth + 1, "}");
+      line(depth, "}");
+    }
+
+    private void ifTest(If node, Map<String, TypeMirror> scope, int depth) {
+      Matcher empty = EMPTY.matcher(node.test);
+      String condition;
+      if (empty.matches()) {
+        Resolved value = resolve(empty.group(2), scope, node.line);
+        String isEmpty = value.guard.isEmpty() ? emptyCheck(value, node.line)
+            : "(!(" + value.guard + ") || " + emptyCheck(value, node.line) + ")";
+        condition = (empty.group(1) != null ? "!" : "") + isEmpty;
+      } else {
+        Resolved value = resolve(node.test, scope, node.line);
+        if (value.type.getKind() == TypeKind.BOOLEAN) {
+          condition = and(value.guard, value.code);
+        } else if (isType(value.type, "java.lang.Boolean")) {
+          condition = and(value.guard, "Boolean.TRUE.equals(" + value.code + ")");
+        } else {
+          throw new TemplateException("test 는 boolean 값이거나 empty / not empty 식이어야 합니다: " + node.test, node.line);
+        }
+      }
+      line(depth, "if (" + condition + ") {");
+      nodes(node.children, scope, depth + 1);
+      line(depth, "}");
+    }
+
+    private String write(Resolved value) {
+      switch (value.type.getKind()) {
+        case LONG:
+        case INT:
+        case SHORT:
+        case BYTE:
+          return WRITER_VARIABLE + ".writeNumber(" + value.code + ");";
+        case BOOLEAN:
+        case CHAR:
+        case FLOAT:
+        case DOUBLE:
+          return WRITER_VARIABLE + ".writeEscaped(String.valueOf(" + value.code + "));";
+        default:
+          if (isType(value.type, "java.lang.Long") || isType(value.type, "java.lang.Integer")
+              || isType(value.type, "java.lang.Short") || isType(value.type, "java.lang.Byte")) {
+            return WRITER_VARIABLE + ".writeNumber(" + value.code + ");";
+          }
+          return WRITER_VARIABLE + ".writeEscaped(" + value.code + ");";
+      }
+    }
+
+    private String emptyCheck(Resolved value, int line) {
+      String code = value.code;
+      if (value.type.getKind().isPrimitive()) {
+        throw new TemplateException("empty 는 참조 타입에만 쓸 수 있습니다: " + value.type, line);
+      }
+      if (value.type.getKind() == TypeKind.ARRAY) {
+        return "(" + code + " == null || " + code + ".length == 0)";
+      }
+      if (isSubtype(value.type, "java.lang.CharSequence")) {
+        return "(" + code + " == null || " + code + ".length() == 0)";
+      }
+      if (isSubtype(value.type, "java.util.Collection") || isSubtype(value.type, "java.util.Map")) {
+        return "(" + code + " == null || " + code + ".isEmpty())";
+      }
+      return "(" + code + " == null)";
+    }
+
+    private String and(String guard, String condition) {
+      return guard.isEmpty() ? condition : guard + " && " + condition;
+    }
+
+    private void line(int depth, String line) {
+      code.append("  ".repeat(depth)).append(line).append('\n');
+    }
+  }
+
+  private static final Pattern EMPTY = Pattern.compile("(not\\s+)?empty\\s+(.+)");
+
+  // a.b.c -> a.getB().getC(), guard 는 "a != null && a.getB() != null" (EL 처럼 중간에 null 이 있으면 빈 값)
+  private Resolved resolve(String expression, Map<String, TypeMirror> scope, int line) {
+    String[] names = expression.trim().split("\\.", -1);
+    for (String name : names) {
+      if (!SourceVersion.isIdentifier(name) || SourceVersion.isKeyword(name)) {
+        throw new TemplateException("지원하지 않는 식입니다: ${" + expression + "}", line);
+      }
+    }
+    TypeMirror type = scope.get(names[0]);
+    if (type == null) {
+      throw new TemplateException("모르는 변수입니다: " + names[0] + " (쓸 수 있는 변수: " + scope.keySet() + ")", line);
+    }
+    StringBuilder code = new StringBuilder(names[0]);
+    StringBuilder guard = new StringBuilder();
+    for (int i = 1; i < names.length; i++) {
+      if (!type.getKind().isPrimitive()) {
+        guard.append(guard.length() == 0 ? "" : " && ").append(code).append(" != null");
+      }
+      Resolved property = property(type, names[i], line);
+      code.append('.').append(property.code).append("()");
+      type = property.type;
+    }
+    return new Resolved(code.toString(), type, guard.toString());
+  }
+
+  // getter 이름과 반환 타입
+  private Resolved property(TypeMirror type, String name, int line) {
+    if (type.getKind() != TypeKind.DECLARED) {
+      throw new TemplateException(type + " 에서는 프로퍼티를 읽을 수 없습니다: " + name, line);
+    }
+    DeclaredType declared = (DeclaredType) type;
+    TypeElement element = (TypeElement) declared.asElement();
+    String capitalized = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    for (ExecutableElement method : ElementFilter.methodsIn(elements.getAllMembers(element))) {
+      Set<Modifier> modifiers = method.getModifiers();
+      if (!modifiers.contains(Modifier.PUBLIC) || modifiers.contains(Modifier.STATIC) || !method.getParameters().isEmpty()) {
+        continue;
+      }
+      String methodName = method.getSimpleName().toString();
+      TypeMirror returnType = ((ExecutableType) types.asMemberOf(declared, method)).getReturnType();
+      if (methodName.equals("get" + capitalized) && returnType.getKind() != TypeKind.VOID
+          || methodName.equals("is" + capitalized) && returnType.getKind() == TypeKind.BOOLEAN
+          || element.getKind() == ElementKind.RECORD && methodName.equals(name)) {
+        return new Resolved(methodName, returnType, "");
+      }
+    }
+    // lombok @Getter 처럼 getter 가 아직 안 보일 수 있다. 필드가 있으면 규칙대로 getter 이름을 붙인다
+    // (getter 가 정말 없으면 만든 코드를 컴파일할 때 에러가 난다)
+    for (VariableElement field : ElementFilter.fieldsIn(elements.getAllMembers(element))) {
+      if (field.getSimpleName().contentEquals(name) && !field.getModifiers().contains(Modifier.STATIC)) {
+        TypeMirror fieldType = types.asMemberOf(declared, field);
+        return new Resolved((fieldType.getKind() == TypeKind.BOOLEAN ? "is" : "get") + capitalized, fieldType, "");
+      }
+    }
+    throw new TemplateException(type + " 에 " + name + " 프로퍼티가 없습니다", line);
+  }
+
+  // for-each 변수의 타입 (배열이나 Iterable 이 아니면 null)
+  private TypeMirror elementType(TypeMirror type) {
+    if (type.getKind() == TypeKind.ARRAY) {
+      return ((ArrayType) type).getComponentType();
+    }
+    TypeElement iterable = elements.getTypeElement("java.lang.Iterable");
+    if (type.getKind() != TypeKind.DECLARED || !types.isAssignable(types.erasure(type), types.erasure(iterable.asType()))) {
+      return null;
+    }
+    ExecutableElement iterator = ElementFilter.methodsIn(iterable.getEnclosedElements()).stream()
+        .filter(method -> method.getSimpleName().contentEquals("iterator")).findFirst().orElseThrow();
+    TypeMirror returnType = ((ExecutableType) types.asMemberOf((DeclaredType) type, iterator)).getReturnType();
+    List<? extends TypeMirror> arguments = ((DeclaredType) returnType).getTypeArguments();
+    if (arguments.isEmpty()) {
+      return elements.getTypeElement("java.lang.Object").asType();
+    }
+    TypeMirror element = arguments.get(0);
+    if (element.getKind() == TypeKind.WILDCARD) {
+      TypeMirror bound = ((WildcardType) element).getExtendsBound();
+      return bound != null ? bound : elements.getTypeElement("java.lang.Object").asType();
+    }
+    return element;
+  }
+
+  private boolean isType(TypeMirror type, String className) {
+    return types.isSameType(type, elements.getTypeElement(className).asType());
+  }
+
+  private boolean isSubtype(TypeMirror type, String className) {
+    return types.isAssignable(types.erasure(type), types.erasure(elements.getTypeElement(className).asType()));
+  }
+
+  /**
+   * 템플릿 파서. 지원하는 것 외의 글자는 전부 그대로 출력할 텍스트다.
+   */
+  private static final class Parser {
+    private static final Pattern ATTRIBUTE = Pattern.compile("(\\w+)\\s*=\\s*\"([^\"]*)\"");
+
+    private final String source;
+    private int position;
+
+    Parser(String source) {
+      this.source = source;
+    }
+
+    // closing 태그(없으면 파일 끝)까지 읽는다
+    List<Node> parse(String closing) {
+      List<Node> nodes = new ArrayList<>();
+      StringBuilder text = new StringBuilder();
+      while (position < source.length()) {
+        if (source.startsWith("${", position)) {
+          int line = line();
+          int end = source.indexOf('}', position);
+          if (end < 0) {
+            throw new TemplateException("${ 를 닫는 } 가 없습니다", line);
+          }
+          flush(text, nodes);
+          nodes.add(new Value(source.substring(position + 2, end).trim(), line));
+          position = end + 1;
+        } else if (isTag("<c:forEach")) {
+          int line = line();
+          flush(text, nodes);
+          Map<String, String> attributes = attributes("<c:forEach", line, "var", "items");
+          List<Node> children = parse("</c:forEach>");
+          nodes.add(new ForEach(attributes.get("var"), expression(attributes.get("items"), line), children, line));
+        } else if (isTag("<c:if")) {
+          int line = line();
+          flush(text, nodes);
+          Map<String, String> attributes = attributes("<c:if", line, "test");
+          List<Node> children = parse("</c:if>");
+          nodes.add(new If(expression(attributes.get("test"), line), children, line));
+        } else if (closing != null && source.startsWith(closing, position)) {
+          position += closing.length();
+          flush(text, nodes);
+          return nodes;
+        } else if (source.startsWith("<c:", position) || source.startsWith("</c:", position)) {
+          int end = source.indexOf('>', position);
+          throw new TemplateException("지원하지 않거나 짝이 맞지 않는 태그입니다: "
+              + source.substring(position, end < 0 ? source.length() : end + 1), line());
+        } else {
+          text.append(source.charAt(position++));
+        }
+      }
+      if (closing != null) {
+        throw new TemplateException(closing + " 가 없습니다", line());
+      }
+      flush(text, nodes);
+      return nodes;
+    }
+
+    private boolean isTag(String name) {
+      int end = position + name.length();
+      return source.startsWith(name, position) && end < source.length()
+          && (Character.isWhitespace(source.charAt(end)) || source.charAt(end) == '>');
+    }
+
+    private Map<String, String> attributes(String tag, int line, String... required) {
+      int end = source.indexOf('>', position);
+      if (end < 0) {
+        throw new TemplateException(tag + " 를 닫는 > 가 없습니다", line);
+      }
+      String body = source.substring(position + tag.length(), end);
+      position = end + 1;
+      Map<String, String> attributes = new HashMap<>();
+      Matcher matcher = ATTRIBUTE.matcher(body);
+      int last = 0;
+      while (matcher.find()) {
+        if (!body.substring(last, matcher.start()).isBlank()) {
+          break;
+        }
+        attributes.put(matcher.group(1), matcher.group(2));
+        last = matcher.end();
+      }
+      if (!body.substring(last).isBlank() || attributes.size() != required.length) {
+        throw new TemplateException(tag + "> 에는 " + String.join(", ", required) + " 속성만 있어야 합니다", line);
+      }
+      for (String name : required) {
+        if (!attributes.containsKey(name)) {
+          throw new TemplateException(tag + "> 에 " + name + " 속성이 없습니다", line);
+        }
+      }
+      return attributes;
+    }
+
+    private static String expression(String value, int line) {
+      String trimmed = value.trim();
+      if (!trimmed.startsWith("${") || !trimmed.endsWith("}")) {
+        throw new TemplateException("${...} 여야 합니다: " + value, line);
+      }
+      return trimmed.substring(2, trimmed.length() - 1).trim();
+    }
+
+    private static void flush(StringBuilder text, List<Node> nodes) {
+      if (text.length() > 0) {
+        nodes.add(new Text(text.toString()));
+        text.setLength(0);
+      }
+    }
+
+    private int line() {
+      int line = 1;
+      for (int i = 0; i < position; i++) {
+        if (source.charAt(i) == '\n') {
+          line++;
+        }
+      }
+      return line;
+    }
+  }
+
+  private abstract static class Node {
+    final int line;
+
+    Node(int line) {
+      this.line = line;
+    }
+  }
+
+  private static final class Text extends Node {
+    final String text;
+
+    Text(String text) {
+      super(0);
+      this.text = text;
+    }
+  }
+
+  private static final class Value extends Node {
+    final String expression;
+
+    Value(String expression, int line) {
+      super(line);
+      this.expression = expression;
+    }
+  }
+
+  private static final class ForEach extends Node {
+    final String var;
+    final String items;
+    final List<Node> children;
+
+    ForEach(String var, String items, List<Node> children, int line) {
+      super(line);
+      this.var = var;
+      this.items = items;
+      this.children = children;
+    }
+  }
+
+  private static final class If extends Node {
+    final String test;
+    final List<Node> children;
+
+    If(String test, List<Node> children, int line) {
+      super(line);
+      this.test = test;
+      this.children = children;
+    }
+  }
+
+  private static final class Resolved {
+    final String code;
+    final TypeMirror type;
+    final String guard;
+
+    Resolved(String code, TypeMirror type, String guard) {
+      this.code = code;
+      this.type = type;
+      this.guard = guard;
+    }
+  }
+
+  private static final class TemplateException extends RuntimeException {
+    final int line;
+
+    TemplateException(String message, int line) {
+      super(message);
+      this.line = line;
+    }
+  }
+}